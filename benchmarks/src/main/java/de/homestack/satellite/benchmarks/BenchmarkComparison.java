@@ -0,0 +1,70 @@
+package de.homestack.satellite.benchmarks;
+
+import com.fasterxml.jackson.databind.*;
+import org.jetbrains.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Compares two JSON result files of {@link BenchmarkRunner} and prints the change of the score
+ * and of the allocated bytes per operation of every benchmark
+ *
+ * @author agent, 18.10.2026
+ */
+public class BenchmarkComparison
+{
+  private static final String _ALLOCATION_METRIC = "\u00b7gc.alloc.rate.norm"; // reported by the gc profiler
+
+  public static void main(String[] pArgs) throws IOException
+  {
+    if (pArgs.length != 2)
+    {
+      System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json>");
+      System.exit(1);
+    }
+
+    Map<String, JsonNode> baseline = _read(pArgs[0]);
+    Map<String, JsonNode> candidate = _read(pArgs[1]);
+
+    System.out.printf(Locale.ENGLISH, "%-70s %14s %14s %9s %12s %12s%n", "Benchmark", "Baseline", "Candidate", "Change", "B/op before", "B/op after");
+    for (Map.Entry<String, JsonNode> entry : candidate.entrySet())
+    {
+      JsonNode before = baseline.get(entry.getKey());
+      JsonNode after = entry.getValue();
+      double scoreBefore = before == null ? Double.NaN : before.path("primaryMetric").path("score").asDouble(Double.NaN);
+      double scoreAfter = after.path("primaryMetric").path("score").asDouble(Double.NaN);
+      System.out.printf(Locale.ENGLISH, "%-70s %14.3f %14.3f %8.1f%% %12.0f %12.0f  %s%n", entry.getKey(), scoreBefore, scoreAfter,
+                        (scoreAfter - scoreBefore) / scoreBefore * 100, _allocation(before), _allocation(after),
+                        after.path("primaryMetric").path("scoreUnit").asText());
+    }
+  }
+
+  /**
+   * Reads a result file and maps its results by the name of the benchmark, including its parameters
+   */
+  @NotNull
+  private static Map<String, JsonNode> _read(@NotNull String pFile) throws IOException
+  {
+    Map<String, JsonNode> results = new TreeMap<>();
+    for (JsonNode result : new ObjectMapper().readTree(Paths.get(pFile).toFile()))
+    {
+      StringBuilder name = new StringBuilder(result.path("benchmark").asText().replace("de.homestack.satellite.", ""));
+      result.path("params").fields().forEachRemaining(pParam -> name.append(':').append(pParam.getKey()).append('=').append(pParam.getValue().asText()));
+      results.put(name.toString(), result);
+    }
+    return results;
+  }
+
+  /**
+   * @return the allocated bytes per operation, NaN if unknown
+   */
+  private static double _allocation(@Nullable JsonNode pResult)
+  {
+    if (pResult == null)
+      return Double.NaN;
+    return pResult.path("secondaryMetrics").path(_ALLOCATION_METRIC).path("score").asDouble(Double.NaN);
+  }
+
+}
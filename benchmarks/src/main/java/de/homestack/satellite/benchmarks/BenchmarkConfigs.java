@@ -0,0 +1,101 @@
+package de.homestack.satellite.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Generates satellite configurations and executors for the benchmarks, without any network access
+ *
+ * @author agent, 18.10.2026
+ */
+final class BenchmarkConfigs
+{
+  static final String[] TYPES = {"ping", "reverse-dns", "tcp", "http"};
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+
+  private BenchmarkConfigs()
+  {
+  }
+
+  /**
+   * Creates a configuration with the given number of metrics, four metrics (one of each type) per device.
+   * The configuration is built the same way the cloud sends it, so that it does not depend on the constructors of the model.
+   *
+   * @param pMetricCount Number of metrics
+   * @param pVersion     Version of the configuration, every 100th metric gets a different setting in every version
+   * @return the configuration
+   */
+  @NotNull
+  static SatelliteConfigurationDataModel create(int pMetricCount, int pVersion)
+  {
+    List<Map<String, Object>> devices = new ArrayList<>();
+    List<Map<String, Object>> metrics = new ArrayList<>();
+    for (int i = 0; i < pMetricCount; i++)
+    {
+      int device = i / TYPES.length;
+      if (i % TYPES.length == 0)
+        devices.add(Map.of("id", "device-" + device,
+                           "address", "10." + ((device >> 16) & 0xFF) + "." + ((device >> 8) & 0xFF) + "." + (device & 0xFF)));
+
+      metrics.add(Map.of("id", "metric-" + i,
+                         "deviceID", "device-" + device,
+                         "type", TYPES[i % TYPES.length],
+                         "settings", Map.of("interval", i % 100 == 0 ? String.valueOf(15 + pVersion) : "15")));
+    }
+
+    return _MAPPER.convertValue(Map.of("devices", devices, "metrics", metrics), SatelliteConfigurationDataModel.class);
+  }
+
+  /**
+   * @return fake executors for all types of the generated configurations, mapped by their type
+   */
+  @NotNull
+  static Map<String, IMetricExecutor> executors()
+  {
+    Map<String, IMetricExecutor> executors = new HashMap<>();
+    for (String type : TYPES)
+      executors.put(type, new _FakeExecutor(type));
+    return executors;
+  }
+
+  /**
+   * Executor that returns a constant record immediately
+   */
+  private static class _FakeExecutor implements IMetricExecutor
+  {
+    private final String type;
+
+    public _FakeExecutor(@NotNull String pType)
+    {
+      type = pType;
+    }
+
+    @NotNull
+    @Override
+    public String getType()
+    {
+      return type;
+    }
+
+    @Override
+    public boolean canExecute()
+    {
+      return true;
+    }
+
+    @NotNull
+    @Override
+    public IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences)
+    {
+      return new SimpleMetricRecord(EMetricRecordState.SUCCESS)
+          .withResult("responseTime", "1.234");
+    }
+  }
+
+}
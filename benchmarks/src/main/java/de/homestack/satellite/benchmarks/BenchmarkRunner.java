@@ -0,0 +1,42 @@
+package de.homestack.satellite.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line, but always profiles allocations (-prof gc)
+ * and writes the results as JSON to results/, so that two runs can be compared with {@link BenchmarkComparison}:
+ * <pre>
+ *   java -jar target/benchmarks.jar [JMH options] [benchmark regex]
+ *   java -cp target/benchmarks.jar de.homestack.satellite.benchmarks.BenchmarkComparison results/a.json results/b.json
+ * </pre>
+ *
+ * @author agent, 18.10.2026
+ */
+public class BenchmarkRunner
+{
+
+  public static void main(String[] pArgs) throws Exception
+  {
+    CommandLineOptions commandLine = new CommandLineOptions(pArgs);
+    Path resultFile = Paths.get("results", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+    Files.createDirectories(resultFile.getParent());
+
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .parent(commandLine)
+        .addProfiler(GCProfiler.class);
+    if (!commandLine.getResult().hasValue())
+      options.result(resultFile.toString());
+    if (!commandLine.getResultFormat().hasValue())
+      options.resultFormat(ResultFormatType.JSON);
+
+    new Runner(options.build()).run();
+  }
+
+}
@@ -0,0 +1,85 @@
+package de.homestack.satellite.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.websocket.codec.*;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.conceptive.homestack.model.coders.CloudEventCoder;
+import io.conceptive.homestack.model.data.metric.*;
+import io.conceptive.homestack.model.satellite.events.MetricRecordsEventData;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of a whole record event, from the record batch to the text that is written to the websocket.
+ * Compares the old path (new ObjectMapper per send) with the negotiated codecs.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EventEncodingBenchmark
+{
+  @Param({"500"})
+  public int batchSize;
+
+  private MetricRecordsEventData data;
+  private CloudEventCoder coder;
+
+  @Setup
+  public void setup()
+  {
+    Set<MetricRecordDataModel> records = new HashSet<>();
+    for (int i = 0; i < batchSize; i++)
+      records.add(MetricRecordDataModel.builder()
+                      .id(UUID.randomUUID().toString())
+                      .metricID("metric-" + i)
+                      .recordDate(new Date())
+                      .state(EMetricRecordState.SUCCESS)
+                      .result(Map.of("responseTime", "1.234"))
+                      .build());
+    data = MetricRecordsEventData.builder()
+        .records(records)
+        .build();
+    coder = new CloudEventCoder();
+  }
+
+  @Benchmark
+  public String newMapperPerSend() throws Exception
+  {
+    return coder.encode(_event(null, new ObjectMapper().writeValueAsBytes(data)));
+  }
+
+  @Benchmark
+  public String json() throws Exception
+  {
+    return coder.encode(_event(RecordCodecs.JSON, RecordCodec.payload(RecordCodecs.JSON.encode(data))));
+  }
+
+  @Benchmark
+  public String smileDeflate() throws Exception
+  {
+    return coder.encode(_event(RecordCodecs.SMILE_DEFLATE, RecordCodec.payload(RecordCodecs.SMILE_DEFLATE.encode(data))));
+  }
+
+  private static CloudEvent _event(RecordCodec pCodec, byte[] pPayload)
+  {
+    CloudEventBuilder builder = CloudEventBuilder.v1()
+        .withId(UUID.randomUUID().toString())
+        .withType(MetricRecordsEventData.TYPE)
+        .withSource(URI.create("/satellite/records"));
+    if (pCodec != null && pCodec.getContentType() != null)
+      builder.withData(pCodec.getContentType(), pPayload);
+    else
+      builder.withData(pPayload);
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,93 @@
+package de.homestack.satellite.benchmarks;
+
+import de.homestack.satellite.config.ConfigDiff;
+import de.homestack.satellite.metrics.api.IMetricExecutor;
+import de.homestack.satellite.metrics.execution.*;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Mapping of a satellite configuration to the execution plan: the initial compile and the incremental patch.
+ * The differences are built the same way the configuration index reports them - every element of the configuration
+ * as added for the initial compile, and only the changed metrics for a patch.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExecutionPlanBenchmark
+{
+  @Param({"10000"})
+  public int metricCount;
+
+  private Map<String, IMetricExecutor> executors;
+  private ConfigDiff initialDiff;
+  private ConfigDiff[] changeDiffs;
+  private ExecutionPlan plan;
+  private AddressResolver resolver;
+  private int version = 0;
+
+  @Setup
+  public void setup()
+  {
+    executors = BenchmarkConfigs.executors();
+    resolver = new AddressResolver(); // devices have literal addresses, so nothing gets looked up
+    SatelliteConfigurationDataModel config = BenchmarkConfigs.create(metricCount, 0);
+    initialDiff = new ConfigDiff(_byID(config.devices, pDevice -> pDevice.id), Map.of(), Set.of(),
+                                 _byID(config.metrics, pMetric -> pMetric.id), Map.of(), Set.of());
+    changeDiffs = new ConfigDiff[]{_changed(config), _changed(BenchmarkConfigs.create(metricCount, 1))};
+    plan = new ExecutionPlan();
+    plan.patch(initialDiff, executors, resolver);
+  }
+
+  /**
+   * Compiles the whole configuration into an empty plan
+   */
+  @Benchmark
+  public ExecutionPlan.Patch compile()
+  {
+    return new ExecutionPlan().patch(initialDiff, executors, resolver);
+  }
+
+  /**
+   * Patches a compiled plan with a difference of 1% of the metrics, alternating between two versions of them
+   */
+  @Benchmark
+  public ExecutionPlan.Patch patch()
+  {
+    return plan.patch(changeDiffs[++version & 1], executors, resolver);
+  }
+
+  /**
+   * @return a difference, that contains every metric of the given configuration, that differs between the versions, as changed
+   */
+  @NotNull
+  private static ConfigDiff _changed(@NotNull SatelliteConfigurationDataModel pConfig)
+  {
+    Map<String, MetricDataModel> metrics = _byID(pConfig.metrics, pMetric -> pMetric.id);
+    Map<String, MetricDataModel> changed = new HashMap<>();
+    for (int i = 0; i < metrics.size(); i += 100)
+      changed.put("metric-" + i, metrics.get("metric-" + i));
+    return new ConfigDiff(Map.of(), Map.of(), Set.of(), Map.of(), changed, Set.of());
+  }
+
+  @NotNull
+  private static <T> Map<String, T> _byID(@NotNull Collection<T> pElements, @NotNull Function<T, String> pIDFn)
+  {
+    Map<String, T> result = new HashMap<>();
+    for (T element : pElements)
+      result.put(pIDFn.apply(element), element);
+    return result;
+  }
+
+}
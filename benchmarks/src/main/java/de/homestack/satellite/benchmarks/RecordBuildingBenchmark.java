@@ -0,0 +1,111 @@
+package de.homestack.satellite.benchmarks;
+
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.metric.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the transferable record of a single execution, as the collector does, and its single parts.
+ * The parts compare the lean record path (time-ordered ids, compact results, direct formatting) with the
+ * allocations it replaced - see gc.alloc.rate.norm.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RecordBuildingBenchmark
+{
+  private IMetricRecord record;
+
+  @Setup
+  public void setup()
+  {
+    record = new SimpleMetricRecord(EMetricRecordState.SUCCESS)
+        .withResult("responseTime", "1.234");
+  }
+
+  @Benchmark
+  public MetricRecordDataModel buildRecord()
+  {
+    return MetricRecordDataModel.builder()
+        .id(RecordIDs.next())
+        .metricID("metric-1")
+        .recordDate(new Date())
+        .state(EMetricRecordState.valueOf(record.getState().name()))
+        .result(record.getResult())
+        .build();
+  }
+
+  @Benchmark
+  public IMetricRecord buildExecutorResult()
+  {
+    return new SimpleMetricRecord(EMetricRecordState.SUCCESS)
+        .withResult("responseTime", "1.234");
+  }
+
+  @Benchmark
+  public Map<String, String> buildExecutorResultHashMap()
+  {
+    Map<String, String> result = new HashMap<>();
+    result.put("responseTime", "1.234");
+    return result;
+  }
+
+  @Benchmark
+  public IMetricRecord buildEmptyExecutorResult()
+  {
+    return new SimpleMetricRecord(EMetricRecordState.UNKNOWN);
+  }
+
+  @Benchmark
+  public String randomUUID()
+  {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public String recordID()
+  {
+    return RecordIDs.next();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String randomUUIDContended()
+  {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String recordIDContended()
+  {
+    return RecordIDs.next();
+  }
+
+  @Benchmark
+  public String formatStringFormat()
+  {
+    return String.format(Locale.ROOT, "%.3f", 1.2345d);
+  }
+
+  @Benchmark
+  public String formatRecordResult()
+  {
+    return RecordResult.format(1.2345d);
+  }
+
+  @Benchmark
+  public Date date()
+  {
+    return new Date();
+  }
+
+}
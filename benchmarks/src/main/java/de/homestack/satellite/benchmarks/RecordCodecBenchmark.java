@@ -0,0 +1,132 @@
+package de.homestack.satellite.benchmarks;
+
+import de.homestack.satellite.websocket.codec.*;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.conceptive.homestack.model.coders.CloudEventCoder;
+import io.conceptive.homestack.model.data.metric.*;
+import io.conceptive.homestack.model.satellite.events.MetricRecordsEventData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding, decoding and size of a single record batch with each available codec.
+ * The size is the one of the whole websocket frame: the batch is sent as data of a cloud event in its json format,
+ * so codecs with a content type other than json are embedded as base64, which adds a third to their payload.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RecordCodecBenchmark
+{
+  @Param({"json", "json+deflate", "smile", "smile+deflate", "cbor", "cbor+deflate"})
+  public String codecName;
+
+  @Param({"500"})
+  public int batchSize;
+
+  private RecordCodec codec;
+  private CloudEventCoder coder;
+  private MetricRecordsEventData data;
+  private byte[] encoded;
+  private byte[] encodedAsJson;
+
+  @Setup
+  public void setup() throws IOException
+  {
+    codec = Objects.requireNonNull(RecordCodecs.forName(codecName), codecName);
+    coder = new CloudEventCoder();
+
+    Random random = new Random(42);
+    Set<MetricRecordDataModel> records = new HashSet<>();
+    for (int i = 0; i < batchSize; i++)
+      records.add(MetricRecordDataModel.builder()
+                      .id(UUID.randomUUID().toString())
+                      .metricID("metric-" + i)
+                      .recordDate(new Date())
+                      .state(EMetricRecordState.SUCCESS)
+                      .result(Map.of("responseTime", String.valueOf(random.nextFloat() * 100)))
+                      .build());
+    data = MetricRecordsEventData.builder()
+        .records(records)
+        .build();
+    encoded = codec.encode(data);
+    encodedAsJson = RecordCodecs.JSON.encode(data);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException
+  {
+    return codec.encode(data);
+  }
+
+  /**
+   * Encodes the batch and the event around it, as it is written to the websocket
+   */
+  @Benchmark
+  public String encodeFrame(Size pSize) throws Exception
+  {
+    byte[] payload = RecordCodec.payload(codec.encode(data));
+    CloudEventBuilder builder = CloudEventBuilder.v1()
+        .withId(UUID.randomUUID().toString())
+        .withType(MetricRecordsEventData.TYPE)
+        .withSource(URI.create("/satellite/records"))
+        .withExtension("stream", "0")
+        .withExtension("sequence", 0L);
+    if (codec.getContentType() != null)
+      builder.withData(codec.getContentType(), payload);
+    else
+      builder.withData(payload);
+    String frame = coder.encode(builder.build());
+
+    int frameSize = frame.getBytes(StandardCharsets.UTF_8).length;
+    pSize.bytesPerBatch = frameSize;
+    pSize.bytesPerRecord = (double) frameSize / batchSize;
+    pSize.payloadBytesPerBatch = payload.length;
+    return frame;
+  }
+
+  @Benchmark
+  public Object decode() throws IOException
+  {
+    return codec.decodeTree(encoded);
+  }
+
+  @Benchmark
+  public Object roundTrip() throws IOException
+  {
+    return codec.decodeTree(codec.encode(data));
+  }
+
+  /**
+   * Spooled batches are stored as json, if the cloud negotiated another codec in between
+   */
+  @Benchmark
+  public byte[] transcodeFromJson() throws IOException
+  {
+    return codec.transcode(encodedAsJson);
+  }
+
+  /**
+   * Transmitted bytes of the encoded batch, reported next to the timings.
+   * The frame contains the payload of the codec, base64 encoded if it is not json.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Size
+  {
+    public long bytesPerBatch;
+    public double bytesPerRecord;
+    public long payloadBytesPerBatch;
+  }
+
+}
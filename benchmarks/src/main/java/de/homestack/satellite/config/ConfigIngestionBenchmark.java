@@ -0,0 +1,105 @@
+package de.homestack.satellite.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.websocket.api.ConfigChangeEventData;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion of a configuration update, as received from the cloud: streaming a whole configuration into the index,
+ * compared with an incremental change of a single metric.
+ * Lives in the package of the provider, because the index is not part of its public api.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConfigIngestionBenchmark
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+  private static final String[] _TYPES = {"ping", "reverse-dns", "tcp", "http"};
+
+  @Param({"10000"})
+  public int metricCount;
+
+  private byte[][] events;
+  private ConfigChangeEventData[] changes;
+  private ConfigIndex index;
+  private int version = 0;
+
+  @Setup
+  public void setup() throws IOException
+  {
+    events = new byte[][]{_createEvent(metricCount, 0), _createEvent(metricCount, 1)};
+    changes = new ConfigChangeEventData[2];
+    for (int i = 0; i < changes.length; i++)
+    {
+      changes[i] = new ConfigChangeEventData();
+      changes[i].upsertedMetrics.add(_MAPPER.convertValue(_createMetric(0, i), MetricDataModel.class));
+    }
+    index = new ConfigIndex();
+    index.replace(events[0], pDeviceID -> true);
+  }
+
+  /**
+   * Streams a configuration into the index, where 1% of the metrics changed
+   */
+  @Benchmark
+  public ConfigDiff streamChanged() throws IOException
+  {
+    return index.replace(events[++version & 1], pDeviceID -> true);
+  }
+
+  /**
+   * Streams the same configuration into the index again
+   */
+  @Benchmark
+  public ConfigDiff streamUnchanged() throws IOException
+  {
+    return index.replace(events[version & 1], pDeviceID -> true);
+  }
+
+  /**
+   * Applies the incremental change of a single metric
+   */
+  @Benchmark
+  public ConfigDiff incremental()
+  {
+    return index.apply(changes[++version & 1], pDeviceID -> true);
+  }
+
+  /**
+   * Creates a RenewConfigurationEventData with four metrics per device, as the cloud sends it
+   */
+  private static byte[] _createEvent(int pMetricCount, int pVersion) throws IOException
+  {
+    List<Map<String, Object>> devices = new ArrayList<>();
+    List<Map<String, Object>> metrics = new ArrayList<>();
+    for (int i = 0; i < pMetricCount; i++)
+    {
+      int device = i / _TYPES.length;
+      if (i % _TYPES.length == 0)
+        devices.add(Map.of("id", "device-" + device,
+                           "address", "10." + ((device >> 16) & 0xFF) + "." + ((device >> 8) & 0xFF) + "." + (device & 0xFF)));
+      metrics.add(_createMetric(i, i % 100 == 0 ? pVersion : 0));
+    }
+    return _MAPPER.writeValueAsBytes(Map.of("config", Map.of("devices", devices, "metrics", metrics)));
+  }
+
+  private static Map<String, Object> _createMetric(int pIndex, int pVersion)
+  {
+    return Map.of("id", "metric-" + pIndex,
+                  "deviceID", "device-" + pIndex / _TYPES.length,
+                  "type", _TYPES[pIndex % _TYPES.length],
+                  "settings", Map.of("interval", String.valueOf(15 + pVersion)));
+  }
+
+}
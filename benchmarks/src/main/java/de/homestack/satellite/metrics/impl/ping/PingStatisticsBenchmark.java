@@ -0,0 +1,64 @@
+package de.homestack.satellite.metrics.impl.ping;
+
+import de.homestack.satellite.metrics.aggregation.QuantileSketch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation of the results of a ping burst and of a window of response times.
+ * Lives in the package of the executor, because the accumulator is not part of its public api.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PingStatisticsBenchmark
+{
+  @Param({"1", "3", "10"})
+  public int count;
+
+  private float[] responseTimes;
+  private QuantileSketch sketch;
+
+  @Setup
+  public void setup()
+  {
+    Random random = new Random(42);
+    responseTimes = new float[count];
+    for (int i = 0; i < count; i++)
+      responseTimes[i] = i == count - 1 && count > 1 ? -1 : 1 + random.nextFloat() * 20; // the last probe of a burst gets lost
+    sketch = new QuantileSketch();
+  }
+
+  /**
+   * Records a whole burst and formats its statistics, as the executor does per execution
+   */
+  @Benchmark
+  public Map<String, String> burst()
+  {
+    PingStatistics statistics = new PingStatistics(count);
+    for (int i = 0; i < count; i++)
+      statistics.record(i, responseTimes[i]);
+    Map<String, String> result = new HashMap<>(16);
+    statistics.writeTo(result);
+    return result;
+  }
+
+  /**
+   * Adds the response times of a burst to a windowed quantile sketch
+   */
+  @Benchmark
+  public double sketch()
+  {
+    for (float responseTime : responseTimes)
+      sketch.add(responseTime);
+    return sketch.getCount();
+  }
+
+}
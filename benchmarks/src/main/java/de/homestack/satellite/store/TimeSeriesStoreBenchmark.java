@@ -0,0 +1,112 @@
+package de.homestack.satellite.store;
+
+import de.homestack.satellite.metrics.api.SimpleMetricRecord;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries of the local time series store, filled with an hour of ping records of every device:
+ * the latency of all devices as it was recorded, downsampled to one minute and serialized as the HTTP endpoint does it.
+ * Lives in the package of the store, because the series are not part of its public api.
+ *
+ * @author agent, 18.10.2026
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TimeSeriesStoreBenchmark
+{
+  private static final long _INTERVAL = TimeUnit.SECONDS.toMillis(10);
+  private static final String[] _RESULTS = {"sent", "received", "packetLoss", "min", "max", "stddev", "jitter", "p50", "p90", "p99"};
+
+  @Param({"5000"})
+  public int deviceCount;
+
+  private TimeSeriesStore store;
+  private TimeSeriesResource resource;
+  private long to;
+  private long from;
+
+  @Setup
+  public void setup()
+  {
+    store = new TimeSeriesStore();
+    store.capacity = 360;
+    store.maxSize = Long.MAX_VALUE;
+    store.maxColumns = 16;
+    resource = new TimeSeriesResource();
+    resource.store = store;
+
+    to = System.currentTimeMillis();
+    from = to - TimeUnit.HOURS.toMillis(1);
+    for (long timestamp = from; timestamp < to; timestamp += _INTERVAL)
+      for (int i = 0; i < deviceCount; i++)
+        store.add("metric-" + i, timestamp, _createRecord(i, timestamp));
+  }
+
+  /**
+   * Reads the latency of all devices within the last hour, as it was recorded
+   */
+  @Benchmark
+  public int queryRaw()
+  {
+    return _query(0);
+  }
+
+  /**
+   * Reads the latency of all devices within the last hour, downsampled to one minute
+   */
+  @Benchmark
+  public int queryDownsampled()
+  {
+    return _query(TimeUnit.MINUTES.toMillis(1));
+  }
+
+  /**
+   * Serializes the latency of all devices within the last hour, downsampled to one minute, as the HTTP endpoint does it
+   */
+  @Benchmark
+  public void queryJson() throws IOException
+  {
+    resource.query(List.of(), List.of("responseTime"), from, to, TimeUnit.MINUTES.toMillis(1), "avg")
+        .write(OutputStream.nullOutputStream());
+  }
+
+  /**
+   * Appends a single record to an existing series
+   */
+  @Benchmark
+  public void add()
+  {
+    store.add("metric-0", to, _createRecord(0, to));
+  }
+
+  private int _query(long pStep)
+  {
+    int points = 0;
+    for (String metricID : store.getMetricIDs())
+    {
+      TimeSeries.Slice slice = store.read(metricID, from, to, pStep, EAggregation.AVG, List.of("responseTime"));
+      if (slice != null)
+        points += slice.getSize();
+    }
+    return points;
+  }
+
+  private static SimpleMetricRecord _createRecord(int pDevice, long pTimestamp)
+  {
+    SimpleMetricRecord record = new SimpleMetricRecord(EMetricRecordState.SUCCESS)
+        .withResult("responseTime", 1 + (pDevice + pTimestamp / _INTERVAL) % 50 / 10d);
+    for (String result : _RESULTS)
+      record.withResult(result, 1);
+    return record;
+  }
+
+}
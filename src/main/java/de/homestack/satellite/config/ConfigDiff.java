@@ -0,0 +1,107 @@
+package de.homestack.satellite.config;
+
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Difference between two satellite configurations, on the level of single devices and metrics
+ *
+ * @author agent, 18.10.2026
+ */
+public class ConfigDiff
+{
+  private final Map<String, DeviceDataModel> addedDevices;
+  private final Map<String, DeviceDataModel> changedDevices;
+  private final Set<String> removedDevices;
+  private final Map<String, MetricDataModel> addedMetrics;
+  private final Map<String, MetricDataModel> changedMetrics;
+  private final Set<String> removedMetrics;
+
+  public ConfigDiff(@NotNull Map<String, DeviceDataModel> pAddedDevices, @NotNull Map<String, DeviceDataModel> pChangedDevices,
+                    @NotNull Set<String> pRemovedDevices, @NotNull Map<String, MetricDataModel> pAddedMetrics,
+                    @NotNull Map<String, MetricDataModel> pChangedMetrics, @NotNull Set<String> pRemovedMetrics)
+  {
+    addedDevices = Collections.unmodifiableMap(pAddedDevices);
+    changedDevices = Collections.unmodifiableMap(pChangedDevices);
+    removedDevices = Collections.unmodifiableSet(pRemovedDevices);
+    addedMetrics = Collections.unmodifiableMap(pAddedMetrics);
+    changedMetrics = Collections.unmodifiableMap(pChangedMetrics);
+    removedMetrics = Collections.unmodifiableSet(pRemovedMetrics);
+  }
+
+  /**
+   * @return true, if nothing changed
+   */
+  public boolean isEmpty()
+  {
+    return addedDevices.isEmpty() && changedDevices.isEmpty() && removedDevices.isEmpty() &&
+        addedMetrics.isEmpty() && changedMetrics.isEmpty() && removedMetrics.isEmpty();
+  }
+
+  /**
+   * @return devices that were added, mapped by their id
+   */
+  @NotNull
+  public Map<String, DeviceDataModel> getAddedDevices()
+  {
+    return addedDevices;
+  }
+
+  /**
+   * @return devices that exist in both configurations but changed, mapped by their id
+   */
+  @NotNull
+  public Map<String, DeviceDataModel> getChangedDevices()
+  {
+    return changedDevices;
+  }
+
+  /**
+   * @return ids of the devices that were removed
+   */
+  @NotNull
+  public Set<String> getRemovedDevices()
+  {
+    return removedDevices;
+  }
+
+  /**
+   * @return metrics that were added, mapped by their id
+   */
+  @NotNull
+  public Map<String, MetricDataModel> getAddedMetrics()
+  {
+    return addedMetrics;
+  }
+
+  /**
+   * @return metrics that exist in both configurations but changed, mapped by their id
+   */
+  @NotNull
+  public Map<String, MetricDataModel> getChangedMetrics()
+  {
+    return changedMetrics;
+  }
+
+  /**
+   * @return ids of the metrics that were removed
+   */
+  @NotNull
+  public Set<String> getRemovedMetrics()
+  {
+    return removedMetrics;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ConfigDiff{" +
+        "devices=+" + addedDevices.size() + "/~" + changedDevices.size() + "/-" + removedDevices.size() +
+        ", metrics=+" + addedMetrics.size() + "/~" + changedMetrics.size() + "/-" + removedMetrics.size() +
+        '}';
+  }
+
+}
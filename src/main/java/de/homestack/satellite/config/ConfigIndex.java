@@ -0,0 +1,492 @@
+package de.homestack.satellite.config;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.*;
+import com.google.common.hash.*;
+import de.homestack.satellite.websocket.api.ConfigChangeEventData;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
+import org.jetbrains.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Indexed form of the active configuration: all devices and metrics mapped by their id, together with a fingerprint
+ * of the JSON they were read from. A full configuration gets streamed element by element with a reused parser, and
+ * an element is only deserialized if its fingerprint is unknown - so an unchanged element costs a hash and a lookup,
+ * and neither the old nor the new configuration has to be materialized or compared as a whole.
+ * Incremental changes of single devices and metrics are applied directly.
+ * All changes are reported as {@link ConfigDiff}, restricted to the devices of the given shard.
+ * This class is not thread safe, callers have to synchronize.
+ *
+ * @author agent, 18.10.2026
+ */
+class ConfigIndex
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+  private static final JsonFactory _FACTORY = _MAPPER.getFactory();
+  private static final HashFunction _HASH = Hashing.murmur3_128();
+
+  private final _Elements<DeviceDataModel> devices = new _Elements<>(_MAPPER.readerFor(DeviceDataModel.class), pDevice -> pDevice.id);
+  private final _Elements<MetricDataModel> metrics = new _Elements<>(_MAPPER.readerFor(MetricDataModel.class), pMetric -> pMetric.id);
+  private long generation = 0;
+  private long modCount = 0;
+
+  /**
+   * Replaces the whole configuration with the given one
+   *
+   * @param pConfig Configuration
+   * @param pOwns   Filter for the device ids of this shard
+   * @return the difference within the shard
+   */
+  @NotNull
+  ConfigDiff replace(@NotNull SatelliteConfigurationDataModel pConfig, @NotNull Predicate<String> pOwns)
+  {
+    long current = ++generation;
+    List<_Pending<DeviceDataModel>> pendingDevices = devices.stage(pConfig.devices, current);
+    List<_Pending<MetricDataModel>> pendingMetrics = metrics.stage(pConfig.metrics, current);
+    return _replace(pendingDevices, pendingMetrics, current, pOwns);
+  }
+
+  /**
+   * Replaces the whole configuration with the one contained in the given RenewConfigurationEventData.
+   * The index stays untouched, if the data can not be read.
+   *
+   * @param pEventData JSON of the RenewConfigurationEventData
+   * @param pOwns      Filter for the device ids of this shard
+   * @return the difference within the shard
+   * @throws IOException if the data could not be read
+   */
+  @NotNull
+  ConfigDiff replace(@NotNull byte[] pEventData, @NotNull Predicate<String> pOwns) throws IOException
+  {
+    long current = ++generation;
+    List<_Pending<DeviceDataModel>> pendingDevices = new ArrayList<>();
+    List<_Pending<MetricDataModel>> pendingMetrics = new ArrayList<>();
+    boolean found = false;
+
+    try (JsonParser parser = _FACTORY.createParser(pEventData))
+    {
+      if (parser.nextToken() != JsonToken.START_OBJECT)
+        throw new JsonParseException(parser, "Configuration event has to be an object");
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME)
+      {
+        String field = parser.getCurrentName();
+        if (parser.nextToken() != JsonToken.START_OBJECT || !"config".equals(field))
+        {
+          parser.skipChildren();
+          continue;
+        }
+
+        found = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          if ("devices".equals(name))
+            devices.stream(parser, pEventData, current, pendingDevices);
+          else if ("metrics".equals(name))
+            metrics.stream(parser, pEventData, current, pendingMetrics);
+          else
+            parser.skipChildren();
+        }
+      }
+    }
+
+    if (!found)
+      throw new IOException("Configuration event does not contain a configuration");
+    return _replace(pendingDevices, pendingMetrics, current, pOwns);
+  }
+
+  /**
+   * Applies an incremental change. Removals are applied before the upserts.
+   *
+   * @param pChange Change to apply
+   * @param pOwns   Filter for the device ids of this shard
+   * @return the difference within the shard
+   */
+  @NotNull
+  ConfigDiff apply(@NotNull ConfigChangeEventData pChange, @NotNull Predicate<String> pOwns)
+  {
+    _DiffBuilder diff = new _DiffBuilder(pOwns);
+    if (pChange.removedDevices != null)
+      for (String id : pChange.removedDevices)
+        diff.device(devices.remove(id), null);
+    if (pChange.removedMetrics != null)
+      for (String id : pChange.removedMetrics)
+        diff.metric(metrics.remove(id), null);
+    if (pChange.upsertedDevices != null)
+      for (DeviceDataModel device : pChange.upsertedDevices)
+        if (device != null && device.id != null)
+          diff.device(devices.get(device.id), devices.upsert(device, 0, generation));
+    if (pChange.upsertedMetrics != null)
+      for (MetricDataModel metric : pChange.upsertedMetrics)
+        if (metric != null && metric.id != null)
+          diff.metric(metrics.get(metric.id), metrics.upsert(metric, 0, generation));
+    return diff.build();
+  }
+
+  /**
+   * Calculates the elements, that move into or out of this shard, if the devices get assigned to another shard
+   *
+   * @param pOldOwns Filter for the device ids of the shard before
+   * @param pNewOwns Filter for the device ids of the shard afterwards
+   * @return the difference between the shards
+   */
+  @NotNull
+  ConfigDiff rebalance(@NotNull Predicate<String> pOldOwns, @NotNull Predicate<String> pNewOwns)
+  {
+    _DiffBuilder before = new _DiffBuilder(pOldOwns);
+    _DiffBuilder after = new _DiffBuilder(pNewOwns);
+    Map<String, DeviceDataModel> addedDevices = new HashMap<>();
+    Set<String> removedDevices = new HashSet<>();
+    for (DeviceDataModel device : devices.values())
+      _move(device.id, device, before.inShard(device), after.inShard(device), addedDevices, removedDevices);
+
+    Map<String, MetricDataModel> addedMetrics = new HashMap<>();
+    Set<String> removedMetrics = new HashSet<>();
+    for (MetricDataModel metric : metrics.values())
+      _move(metric.id, metric, before.inShard(metric), after.inShard(metric), addedMetrics, removedMetrics);
+
+    return new ConfigDiff(addedDevices, Map.of(), removedDevices, addedMetrics, Map.of(), removedMetrics);
+  }
+
+  /**
+   * Creates a difference, that contains every element of the shard as added
+   *
+   * @param pOwns Filter for the device ids of this shard
+   * @return the difference
+   */
+  @NotNull
+  ConfigDiff toDiff(@NotNull Predicate<String> pOwns)
+  {
+    _DiffBuilder diff = new _DiffBuilder(pOwns);
+    for (DeviceDataModel device : devices.values())
+      diff.device(null, device);
+    for (MetricDataModel metric : metrics.values())
+      diff.metric(null, metric);
+    return diff.build();
+  }
+
+  /**
+   * @return a copy of all devices of the configuration, regardless of their shard
+   */
+  @NotNull
+  Collection<DeviceDataModel> getDevices()
+  {
+    return devices.values();
+  }
+
+  /**
+   * @return a copy of all metrics of the configuration, regardless of their shard
+   */
+  @NotNull
+  Collection<MetricDataModel> getMetrics()
+  {
+    return metrics.values();
+  }
+
+  /**
+   * @return the number of devices of the configuration, regardless of their shard
+   */
+  int getDeviceCount()
+  {
+    return devices.byID.size();
+  }
+
+  /**
+   * @return the number of metrics of the configuration, regardless of their shard
+   */
+  int getMetricCount()
+  {
+    return metrics.byID.size();
+  }
+
+  /**
+   * @return a counter, that changes every time an element was added, changed or removed - regardless of its shard
+   */
+  long getModCount()
+  {
+    return modCount;
+  }
+
+  /**
+   * Commits the staged elements of a full configuration and removes everything, that was not part of it
+   */
+  @NotNull
+  private ConfigDiff _replace(@NotNull List<_Pending<DeviceDataModel>> pDevices, @NotNull List<_Pending<MetricDataModel>> pMetrics,
+                              long pGeneration, @NotNull Predicate<String> pOwns)
+  {
+    _DiffBuilder diff = new _DiffBuilder(pOwns);
+    for (_Pending<DeviceDataModel> pending : pDevices)
+      diff.device(devices.get(devices.id(pending.element)), devices.upsert(pending.element, pending.fingerprint, pGeneration));
+    for (_Pending<MetricDataModel> pending : pMetrics)
+      diff.metric(metrics.get(metrics.id(pending.element)), metrics.upsert(pending.element, pending.fingerprint, pGeneration));
+    devices.removeStale(pGeneration, pDevice -> diff.device(pDevice, null));
+    metrics.removeStale(pGeneration, pMetric -> diff.metric(pMetric, null));
+    return diff.build();
+  }
+
+  /**
+   * Records an element, that moves into or out of the shard
+   */
+  private static <T> void _move(@NotNull String pID, @NotNull T pElement, boolean pBefore, boolean pAfter,
+                                @NotNull Map<String, T> pAdded, @NotNull Set<String> pRemoved)
+  {
+    if (pAfter && !pBefore)
+      pAdded.put(pID, pElement);
+    else if (pBefore && !pAfter)
+      pRemoved.add(pID);
+  }
+
+  /**
+   * Element of a full configuration, that has to be added or updated, once the configuration was read completely
+   */
+  private static class _Pending<T>
+  {
+    private final T element;
+    private final long fingerprint;
+
+    public _Pending(@NotNull T pElement, long pFingerprint)
+    {
+      element = pElement;
+      fingerprint = pFingerprint;
+    }
+  }
+
+  /**
+   * Indexed element of the configuration
+   */
+  private static class _Entry<T>
+  {
+    private T element;
+    private long fingerprint; // 0 = unknown
+    private long generation; // last full configuration, that contained this element
+  }
+
+  /**
+   * All elements of a single kind, mapped by their id and by their fingerprint
+   */
+  private class _Elements<T>
+  {
+    private final Map<String, _Entry<T>> byID = new HashMap<>();
+    private final Map<Long, _Entry<T>> byFingerprint = new HashMap<>();
+    private final ObjectReader reader;
+    private final Function<T, String> idFn;
+
+    public _Elements(@NotNull ObjectReader pReader, @NotNull Function<T, String> pIDFn)
+    {
+      reader = pReader;
+      idFn = pIDFn;
+    }
+
+    @Nullable
+    String id(@NotNull T pElement)
+    {
+      return idFn.apply(pElement);
+    }
+
+    @Nullable
+    T get(@Nullable String pID)
+    {
+      _Entry<T> entry = pID == null ? null : byID.get(pID);
+      return entry == null ? null : entry.element;
+    }
+
+    @NotNull
+    Collection<T> values()
+    {
+      List<T> result = new ArrayList<>(byID.size());
+      for (_Entry<T> entry : byID.values())
+        result.add(entry.element);
+      return result;
+    }
+
+    /**
+     * Streams the array at the current token of the parser. Known elements are marked as seen,
+     * all others get deserialized and staged.
+     */
+    void stream(@NotNull JsonParser pParser, @NotNull byte[] pData, long pGeneration, @NotNull List<_Pending<T>> pPending) throws IOException
+    {
+      if (pParser.currentToken() != JsonToken.START_ARRAY)
+      {
+        pParser.skipChildren();
+        return;
+      }
+
+      while (pParser.nextToken() != JsonToken.END_ARRAY)
+      {
+        if (pParser.currentToken() != JsonToken.START_OBJECT)
+        {
+          pParser.skipChildren();
+          continue;
+        }
+
+        int start = (int) pParser.getTokenLocation().getByteOffset();
+        pParser.skipChildren();
+        int end = (int) pParser.getCurrentLocation().getByteOffset();
+        long fingerprint = _HASH.hashBytes(pData, start, end - start).asLong() | 1; // never 0
+
+        _Entry<T> known = byFingerprint.get(fingerprint);
+        if (known != null)
+          known.generation = pGeneration;
+        else
+        {
+          T element = reader.readValue(pData, start, end - start);
+          if (element != null && idFn.apply(element) != null)
+            pPending.add(new _Pending<>(element, fingerprint));
+        }
+      }
+    }
+
+    /**
+     * Stages the given elements of a full configuration, without any fingerprint
+     */
+    @NotNull
+    List<_Pending<T>> stage(@Nullable Collection<T> pElements, long pGeneration)
+    {
+      if (pElements == null)
+        return List.of();
+
+      List<_Pending<T>> pending = new ArrayList<>(pElements.size());
+      for (T element : pElements)
+        if (element != null && idFn.apply(element) != null)
+          pending.add(new _Pending<>(element, 0));
+      return pending;
+    }
+
+    /**
+     * Adds or updates the given element
+     *
+     * @return the element, that is indexed afterwards - the given one, or the current one if both are equal
+     */
+    @NotNull
+    T upsert(@NotNull T pElement, long pFingerprint, long pGeneration)
+    {
+      String id = idFn.apply(pElement);
+      _Entry<T> entry = byID.get(id);
+      T element = pElement;
+      if (entry == null)
+      {
+        entry = new _Entry<>();
+        byID.put(id, entry);
+        modCount++;
+      }
+      else if (!Objects.equals(entry.element, pElement))
+        modCount++;
+      else
+        element = entry.element; // unchanged, only the fingerprint may differ
+
+      if (entry.fingerprint != 0 && entry.fingerprint != pFingerprint)
+        byFingerprint.remove(entry.fingerprint, entry);
+      if (pFingerprint != 0)
+        byFingerprint.put(pFingerprint, entry);
+      entry.element = element;
+      entry.fingerprint = pFingerprint;
+      entry.generation = pGeneration;
+      return element;
+    }
+
+    /**
+     * Removes the element with the given id
+     *
+     * @return the removed element, or null if there was none
+     */
+    @Nullable
+    T remove(@Nullable String pID)
+    {
+      _Entry<T> entry = pID == null ? null : byID.remove(pID);
+      if (entry == null)
+        return null;
+
+      if (entry.fingerprint != 0)
+        byFingerprint.remove(entry.fingerprint, entry);
+      modCount++;
+      return entry.element;
+    }
+
+    /**
+     * Removes all elements, that were not part of the full configuration with the given generation
+     */
+    void removeStale(long pGeneration, @NotNull Consumer<T> pRemoved)
+    {
+      Iterator<_Entry<T>> iterator = byID.values().iterator();
+      while (iterator.hasNext())
+      {
+        _Entry<T> entry = iterator.next();
+        if (entry.generation == pGeneration)
+          continue;
+
+        iterator.remove();
+        if (entry.fingerprint != 0)
+          byFingerprint.remove(entry.fingerprint, entry);
+        modCount++;
+        pRemoved.accept(entry.element);
+      }
+    }
+  }
+
+  /**
+   * Collects the changes of single elements into a {@link ConfigDiff} of a single shard.
+   * Metrics belong to the shard, if their device does (or if they have no device).
+   */
+  private static class _DiffBuilder
+  {
+    private final Predicate<String> owns;
+    private final Map<String, DeviceDataModel> addedDevices = new HashMap<>();
+    private final Map<String, DeviceDataModel> changedDevices = new HashMap<>();
+    private final Set<String> removedDevices = new HashSet<>();
+    private final Map<String, MetricDataModel> addedMetrics = new HashMap<>();
+    private final Map<String, MetricDataModel> changedMetrics = new HashMap<>();
+    private final Set<String> removedMetrics = new HashSet<>();
+
+    public _DiffBuilder(@NotNull Predicate<String> pOwns)
+    {
+      owns = pOwns;
+    }
+
+    boolean inShard(@Nullable DeviceDataModel pDevice)
+    {
+      return pDevice != null && owns.test(pDevice.id);
+    }
+
+    boolean inShard(@Nullable MetricDataModel pMetric)
+    {
+      return pMetric != null && (pMetric.deviceID == null || owns.test(pMetric.deviceID));
+    }
+
+    void device(@Nullable DeviceDataModel pOld, @Nullable DeviceDataModel pNew)
+    {
+      if (pOld != pNew)
+        _record(pOld == null ? pNew.id : pOld.id, pOld, pNew, inShard(pOld), inShard(pNew), addedDevices, changedDevices, removedDevices);
+    }
+
+    void metric(@Nullable MetricDataModel pOld, @Nullable MetricDataModel pNew)
+    {
+      if (pOld != pNew)
+        _record(pOld == null ? pNew.id : pOld.id, pOld, pNew, inShard(pOld), inShard(pNew), addedMetrics, changedMetrics, removedMetrics);
+    }
+
+    @NotNull
+    ConfigDiff build()
+    {
+      return new ConfigDiff(addedDevices, changedDevices, removedDevices, addedMetrics, changedMetrics, removedMetrics);
+    }
+
+    private static <T> void _record(@NotNull String pID, @Nullable T pOld, @Nullable T pNew, boolean pBefore, boolean pAfter,
+                                    @NotNull Map<String, T> pAdded, @NotNull Map<String, T> pChanged, @NotNull Set<String> pRemoved)
+    {
+      if (pBefore && pAfter)
+        pChanged.put(pID, pNew);
+      else if (pAfter)
+        pAdded.put(pID, pNew);
+      else if (pBefore)
+        pRemoved.add(pID);
+    }
+  }
+
+}
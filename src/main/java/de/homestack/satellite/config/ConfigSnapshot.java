@@ -0,0 +1,205 @@
+package de.homestack.satellite.config;
+
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.homestack.satellite.websocket.api.ConfigChangeEventData;
+import de.homestack.satellite.websocket.codec.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
+import org.jetbrains.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Persists the last accepted configuration on the local disk, so that the satellite is able to collect
+ * right after a restart, without waiting for the cloud. The configuration is stored tagged with its codec
+ * (smile+deflate), the same way as the records in the spool.
+ * The file gets replaced atomically, so a crash while writing leaves the previous snapshot intact.
+ * Incremental changes are appended to a journal next to the snapshot instead of rewriting it. Every snapshot starts
+ * a new generation, and the journal belongs to the generation it was started with - a journal, that was left behind by
+ * a crash right after a new snapshot was written, is ignored.
+ * Not thread-safe, calls have to be serialized by the caller.
+ *
+ * @author agent, 18.10.2026
+ */
+class ConfigSnapshot
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+  private static final RecordCodec _CODEC = RecordCodecs.SMILE_DEFLATE;
+  private static final String _GENERATION_KEY = "generation";
+  private static final int _HEADER_SIZE = Long.BYTES; // generation
+
+  private final Path file;
+  private final Path changesFile;
+  private long generation = 0;
+  private boolean written = false; // true, if the snapshot of the current generation exists
+  private int changeCount = 0; // changes in the journal of the current generation
+
+  ConfigSnapshot(@NotNull Path pFile)
+  {
+    file = pFile;
+    changesFile = pFile.resolveSibling(pFile.getFileName() + ".changes");
+  }
+
+  /**
+   * Reads the persisted configuration. The changes, that were journaled since, have to be read with {@link #readChanges()}.
+   *
+   * @return the configuration, or null if there is none
+   * @throws IOException if the snapshot exists, but could not be read
+   */
+  @Nullable
+  SatelliteConfigurationDataModel read() throws IOException
+  {
+    if (!Files.isRegularFile(file))
+      return null;
+
+    byte[] data = Files.readAllBytes(file);
+    JsonNode tree = RecordCodecs.of(data).decodeTree(data);
+    JsonNode generationNode = tree instanceof ObjectNode ? ((ObjectNode) tree).remove(_GENERATION_KEY) : null;
+    if (generationNode == null)
+      throw new IOException("Snapshot '" + file + "' contains no generation");
+    generation = generationNode.asLong();
+    SatelliteConfigurationDataModel config = _MAPPER.treeToValue(tree, SatelliteConfigurationDataModel.class);
+    written = true;
+    return config;
+  }
+
+  /**
+   * Reads the changes, that were journaled since the snapshot returned by {@link #read()} was written.
+   * An incomplete change at the end of the journal, left behind by a crash while appending, is cut off.
+   *
+   * @return the changes in the order they were accepted
+   * @throws IOException if the journal exists, but could not be read
+   */
+  @NotNull
+  List<ConfigChangeEventData> readChanges() throws IOException
+  {
+    changeCount = 0;
+    if (!written || !Files.isRegularFile(changesFile))
+      return List.of();
+
+    ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(changesFile));
+    if (journal.remaining() < _HEADER_SIZE || journal.getLong() != generation)
+    {
+      Files.delete(changesFile);
+      return List.of();
+    }
+
+    List<ConfigChangeEventData> changes = new ArrayList<>();
+    while (journal.remaining() >= Integer.BYTES)
+    {
+      int size = journal.getInt(journal.position());
+      if (size <= 0 || size > journal.remaining() - Integer.BYTES)
+        break;
+      byte[] data = new byte[size];
+      journal.position(journal.position() + Integer.BYTES).get(data);
+      changes.add(_MAPPER.treeToValue(RecordCodecs.of(data).decodeTree(data), ConfigChangeEventData.class));
+    }
+
+    if (journal.hasRemaining())
+      try (FileChannel channel = FileChannel.open(changesFile, StandardOpenOption.WRITE))
+      {
+        channel.truncate(journal.position());
+      }
+    changeCount = changes.size();
+    return changes;
+  }
+
+  /**
+   * Persists the given configuration, replacing the current snapshot and starting a new generation with an empty journal
+   *
+   * @param pDevices All devices of the configuration
+   * @param pMetrics All metrics of the configuration
+   * @throws IOException if it could not be written
+   */
+  void write(@NotNull Collection<DeviceDataModel> pDevices, @NotNull Collection<MetricDataModel> pMetrics) throws IOException
+  {
+    // same structure as the configuration model, without the need to construct one
+    Map<String, Object> config = new HashMap<>();
+    config.put(_GENERATION_KEY, generation + 1);
+    config.put("devices", pDevices);
+    config.put("metrics", pMetrics);
+    byte[] data = _CODEC.encode(config);
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null)
+      Files.createDirectories(parent);
+
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+    {
+      _writeFully(channel, ByteBuffer.wrap(data));
+      channel.force(true);
+    }
+
+    try
+    {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (AtomicMoveNotSupportedException e)
+    {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // the journal of the previous generation is obsolete now, even if deleting it fails
+    generation++;
+    written = true;
+    changeCount = 0;
+    Files.deleteIfExists(changesFile);
+  }
+
+  /**
+   * Appends the given change to the journal of the current snapshot
+   *
+   * @param pChange Change, that was accepted after the snapshot was written
+   * @return false, if there is no snapshot to append to - the whole configuration has to be written instead
+   * @throws IOException if it could not be appended
+   */
+  boolean append(@NotNull ConfigChangeEventData pChange) throws IOException
+  {
+    if (!written)
+      return false;
+
+    // a journal without changes of this generation has to be left over from a previous one
+    if (changeCount == 0)
+      Files.deleteIfExists(changesFile);
+
+    byte[] data = _CODEC.encode(pChange);
+    try (FileChannel channel = FileChannel.open(changesFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+    {
+      ByteBuffer buffer = ByteBuffer.allocate((channel.size() == 0 ? _HEADER_SIZE : 0) + Integer.BYTES + data.length);
+      if (channel.size() == 0)
+        buffer.putLong(generation);
+      buffer.putInt(data.length).put(data).flip();
+      _writeFully(channel, buffer);
+      channel.force(true);
+    }
+    changeCount++;
+    return true;
+  }
+
+  /**
+   * @return the number of changes in the journal of the current snapshot
+   */
+  int getChangeCount()
+  {
+    return changeCount;
+  }
+
+  @Override
+  public String toString()
+  {
+    return file.toString();
+  }
+
+  private static void _writeFully(@NotNull FileChannel pChannel, @NotNull ByteBuffer pBuffer) throws IOException
+  {
+    while (pBuffer.hasRemaining())
+      pChannel.write(pBuffer);
+  }
+
+}
@@ -1,43 +1,248 @@
 package de.homestack.satellite.config;
 
-import de.homestack.satellite.websocket.api.IConfigConsumer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.shard.*;
+import de.homestack.satellite.websocket.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
 import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
 import io.reactivex.Observable;
-import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.PublishSubject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.*;
 
+import javax.annotation.*;
 import javax.enterprise.context.ApplicationScoped;
-import java.util.Objects;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * This configuration provider is able to retrieve its config from the backend
+ * This configuration provider is able to retrieve its config from the backend.
+ * Every accepted config is persisted as snapshot, and the snapshot is restored at startup,
+ * so that the satellite collects with its last known config until the backend sent a fresh one.
+ * Incremental changes are only appended to the journal of the snapshot, which gets compacted into a new snapshot
+ * after a configurable number of changes.
+ * If the satellite is part of a shard group, the diffs only contain the devices of its own shard (and their metrics).
+ * The configuration is kept as {@link ConfigIndex}, so that an update costs about as much as it changes -
+ * a full configuration is streamed, and single devices and metrics may be changed incrementally.
  *
  * @author w.glanzer, 10.11.2020
  */
 @ApplicationScoped
 class DynamicConfigProvider implements IConfigProvider, IConfigConsumer
 {
+  private static final Logger _LOGGER = Logger.getLogger(DynamicConfigProvider.class);
 
-  private final BehaviorSubject<SatelliteConfigurationDataModel> currentlyUsedConfigurationSubject = BehaviorSubject.create();
+  @ConfigProperty(name = "homestack.satellite.config.snapshot", defaultValue = "config.snapshot")
+  protected String snapshotFile;
+
+  @ConfigProperty(name = "homestack.satellite.config.snapshot.compact-after", defaultValue = "1000")
+  protected int compactAfter;
+
+  @Inject
+  protected ShardMembership shardMembership;
+
+  private final ConfigIndex index = new ConfigIndex(); // guarded by this
+  private final PublishSubject<ConfigDiff> diffSubject = PublishSubject.create(); // emits only while holding this
+  private final AtomicBoolean snapshotScheduled = new AtomicBoolean(false);
+  private boolean available = false; // guarded by this, true if any config was accepted
+  private ShardAssignment assignment; // guarded by this
+  private ConfigSnapshot snapshot;
+  private ExecutorService snapshotExecutor;
+  private Disposable assignmentDisposable;
+
+  @PostConstruct
+  void init()
+  {
+    snapshot = new ConfigSnapshot(Paths.get(snapshotFile));
+    snapshotExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                                             .setNameFormat("tConfigSnapshot-%d")
+                                                             .setDaemon(true)
+                                                             .build());
+    assignment = shardMembership.getAssignment();
+
+    // warm start: collect with the last known config until the cloud answers
+    try
+    {
+      long start = System.nanoTime();
+      SatelliteConfigurationDataModel config = snapshot.read();
+      if (config != null)
+      {
+        List<ConfigChangeEventData> changes = snapshot.readChanges();
+        synchronized (this)
+        {
+          index.replace(config, assignment::owns);
+          for (ConfigChangeEventData change : changes)
+            index.apply(change, assignment::owns);
+          available = true;
+          _LOGGER.info("Configuration restored from snapshot '" + snapshot + "' in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms " +
+                           "(devices: " + index.getDeviceCount() + ", " +
+                           "metrics: " + index.getMetricCount() + ", " +
+                           "journaled changes: " + changes.size() + ")");
+        }
+      }
+    }
+    catch (Exception e)
+    {
+      _LOGGER.warn("Failed to restore configuration from snapshot '" + snapshot + "', waiting for the cloud", e);
+    }
+
+    assignmentDisposable = shardMembership.observe().subscribe(this::_onAssignmentChanged);
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    if (assignmentDisposable != null)
+      assignmentDisposable.dispose();
+
+    // let the last snapshot finish, it is replaced atomically anyway
+    snapshotExecutor.shutdown();
+  }
 
   @NotNull
   @Override
-  public Observable<SatelliteConfigurationDataModel> observe()
+  public Observable<ConfigDiff> observeDiffs()
   {
-    return currentlyUsedConfigurationSubject;
+    // the first diff a subscriber receives has to contain everything. Subscribing while holding the lock
+    // guarantees, that no diff gets lost or delivered twice between the first one and the subsequent ones
+    return Observable.create(pEmitter -> {
+      synchronized (this)
+      {
+        if (available)
+          pEmitter.onNext(index.toDiff(assignment::owns));
+        pEmitter.setDisposable(diffSubject.subscribe(pEmitter::onNext, pEmitter::onError, pEmitter::onComplete));
+      }
+    });
   }
 
   @Override
-  public void onSatelliteConfigReceived(@NotNull SatelliteConfigurationDataModel pConfig)
+  public synchronized void onSatelliteConfigReceived(@NotNull byte[] pEventData) throws IOException
   {
-    if (!Objects.equals(currentlyUsedConfigurationSubject.getValue(), pConfig))
+    long start = System.nanoTime();
+    long modCount = index.getModCount();
+    ConfigDiff diff = index.replace(pEventData, assignment::owns);
+
+    // changes of other shards do not show up in the diff, but have to be persisted anyway
+    if (!available || index.getModCount() != modCount)
     {
-      Logger.getLogger(DynamicConfigProvider.class).info("New configuration received from homestack cloud " +
-                                                             "(devices: " + (pConfig.devices != null ? pConfig.devices.size() : 0) + ", " +
-                                                             "metrics: " + (pConfig.metrics != null ? pConfig.metrics.size() : 0) + ")");
-      currentlyUsedConfigurationSubject.onNext(pConfig);
+      _LOGGER.info("New configuration received from homestack cloud in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms " +
+                       "(devices: " + index.getDeviceCount() + ", " +
+                       "metrics: " + index.getMetricCount() + ", " +
+                       "changes: " + diff + ")");
+      _accept(diff, null);
     }
   }
 
+  @Override
+  public synchronized void onSatelliteConfigChanged(@NotNull ConfigChangeEventData pChange)
+  {
+    long modCount = index.getModCount();
+    ConfigDiff diff = index.apply(pChange, assignment::owns);
+    if (index.getModCount() != modCount)
+    {
+      _LOGGER.debug("Configuration change received from homestack cloud (changes: " + diff + ")");
+      _accept(diff, pChange);
+    }
+  }
+
+  /**
+   * Publishes the given diff of the index and persists the index or the change afterwards
+   *
+   * @param pDiff   Diff within the shard of this satellite
+   * @param pChange Incremental change, that caused the diff, or null if the whole configuration was replaced
+   */
+  private void _accept(@NotNull ConfigDiff pDiff, @Nullable ConfigChangeEventData pChange)
+  {
+    boolean first = !available;
+    available = true;
+
+    // a subscriber, that got nothing yet, receives everything with the first diff anyway
+    if (!pDiff.isEmpty() || first)
+      diffSubject.onNext(pDiff);
+    if (pChange == null)
+      _schedulePersist();
+    else
+      _scheduleAppend(pChange);
+  }
+
+  /**
+   * Moves the devices between the shards, if the members of the shard group changed
+   *
+   * @param pAssignment New assignment of the devices
+   */
+  private synchronized void _onAssignmentChanged(@NotNull ShardAssignment pAssignment)
+  {
+    if (pAssignment.equals(assignment))
+      return;
+
+    ShardAssignment previous = assignment;
+    assignment = pAssignment;
+    if (!available)
+      return;
+
+    ConfigDiff diff = index.rebalance(previous::owns, pAssignment::owns);
+    _LOGGER.info("Shard of this satellite rebalanced (members: " + pAssignment.getMembers().size() + ", changes: " + diff + ")");
+    diffSubject.onNext(diff);
+  }
+
+  /**
+   * Appends the given change to the journal of the snapshot in background. The whole index is persisted instead,
+   * if there is no snapshot yet, the journal could not be written or it got too long.
+   *
+   * @param pChange Change to append
+   */
+  private void _scheduleAppend(@NotNull ConfigChangeEventData pChange)
+  {
+    snapshotExecutor.execute(() -> {
+      try
+      {
+        if (snapshot.append(pChange) && snapshot.getChangeCount() < compactAfter)
+          return;
+      }
+      catch (Exception e)
+      {
+        _LOGGER.warn("Failed to journal configuration change in '" + snapshot + "', persisting the whole configuration instead", e);
+      }
+      _schedulePersist();
+    });
+  }
+
+  /**
+   * Persists the index as snapshot in background. Changes, that are accepted while a snapshot is pending,
+   * are written together with it, so a burst of full configurations results in a single snapshot.
+   * Journaled changes, that are already contained in the snapshot, are harmless - they are replayed in order
+   * and the last change of an element wins anyway.
+   */
+  private void _schedulePersist()
+  {
+    if (!snapshotScheduled.compareAndSet(false, true))
+      return;
+
+    snapshotExecutor.execute(() -> {
+      snapshotScheduled.set(false);
+      try
+      {
+        Collection<DeviceDataModel> devices;
+        Collection<MetricDataModel> metrics;
+        synchronized (this)
+        {
+          devices = index.getDevices();
+          metrics = index.getMetrics();
+        }
+        snapshot.write(devices, metrics);
+      }
+      catch (Exception e)
+      {
+        _LOGGER.warn("Failed to persist configuration snapshot '" + snapshot + "'", e);
+      }
+    });
+  }
+
 }
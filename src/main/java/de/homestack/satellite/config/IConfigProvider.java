@@ -1,6 +1,5 @@
 package de.homestack.satellite.config;
 
-import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
 import io.reactivex.Observable;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,11 +10,12 @@ public interface IConfigProvider
 {
 
   /**
-   * Returns an observable that will contain the currently active satellite config
+   * Returns an observable that will contain the changes of the satellite config.
+   * The first diff of each subscription contains the whole currently active config.
    *
-   * @return the observable with the currently active config
+   * @return the observable with the config changes
    */
   @NotNull
-  Observable<SatelliteConfigurationDataModel> observe();
+  Observable<ConfigDiff> observeDiffs();
 
 }
@@ -0,0 +1,62 @@
+package de.homestack.satellite.discovery;
+
+import org.jetbrains.annotations.*;
+
+import java.util.*;
+
+/**
+ * A single live host, found by a discovery sweep
+ *
+ * @author agent, 18.10.2026
+ */
+public class DiscoveredHost
+{
+
+  /**
+   * IP address of the host
+   */
+  public String address;
+
+  /**
+   * Host name from the reverse DNS, null if there is none
+   */
+  @Nullable
+  public String hostName;
+
+  /**
+   * ICMP response time in milliseconds, -1 if the host did not answer ICMP
+   */
+  public float responseTime = -1;
+
+  /**
+   * TCP ports that accepted a connection
+   */
+  public List<Integer> openPorts = new ArrayList<>();
+
+  /**
+   * Time of the discovery, in milliseconds since epoch
+   */
+  public long discoveredAt;
+
+  public DiscoveredHost()
+  {
+  }
+
+  public DiscoveredHost(@NotNull String pAddress, long pDiscoveredAt)
+  {
+    address = pAddress;
+    discoveredAt = pDiscoveredAt;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "DiscoveredHost{" +
+        "address=" + address +
+        ", hostName=" + hostName +
+        ", responseTime=" + responseTime +
+        ", openPorts=" + openPorts +
+        '}';
+  }
+
+}
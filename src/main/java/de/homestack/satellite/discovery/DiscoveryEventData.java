@@ -0,0 +1,55 @@
+package de.homestack.satellite.discovery;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Data of a discovery event. A sweep is reported as a stream of events with the same sweep id,
+ * each containing the hosts that were found since the previous event. The last event of a sweep is marked as completed.
+ *
+ * @author agent, 18.10.2026
+ */
+public class DiscoveryEventData
+{
+  public static final String TYPE = "de.homestack.satellite.discovery";
+
+  /**
+   * ID of the sweep, that found the hosts
+   */
+  public String sweepID;
+
+  /**
+   * Sequence number of this event within the sweep, starting at 0
+   */
+  public int sequence;
+
+  /**
+   * Hosts found since the previous event of the sweep
+   */
+  public List<DiscoveredHost> hosts = new ArrayList<>();
+
+  /**
+   * true, if this is the last event of the sweep
+   */
+  public boolean completed;
+
+  /**
+   * Number of addresses that were swept so far
+   */
+  public long scanned;
+
+  public DiscoveryEventData()
+  {
+  }
+
+  public DiscoveryEventData(@NotNull String pSweepID, int pSequence, @NotNull List<DiscoveredHost> pHosts, boolean pCompleted, long pScanned)
+  {
+    sweepID = pSweepID;
+    sequence = pSequence;
+    hosts = pHosts;
+    completed = pCompleted;
+    scanned = pScanned;
+  }
+
+}
@@ -0,0 +1,352 @@
+package de.homestack.satellite.discovery;
+
+import com.google.common.util.concurrent.*;
+import de.homestack.satellite.metrics.impl.dns.ReverseDNSResolver;
+import de.homestack.satellite.metrics.impl.ping.IcmpPingEngine;
+import de.homestack.satellite.metrics.impl.tcp.TcpConnectEngine;
+import de.homestack.satellite.shard.*;
+import de.homestack.satellite.websocket.api.IDiscoveryPublisher;
+import io.quarkus.runtime.*;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Periodically sweeps the configured IPv4 ranges for live hosts and reports them to the cloud.
+ * A host is live, if it answers ICMP or if any of the configured TCP ports accepts or actively refuses a connection,
+ * so that hosts blocking ICMP are found, too. All probes go through the multiplexed ICMP and TCP engines,
+ * bounded by a rate limit and a maximum number of hosts in flight. Live hosts are streamed to the cloud in batches
+ * while the sweep is running, so the memory of a sweep does not depend on the size of the ranges.
+ * The batches are sent fire-and-forget and bypass the record spool: a batch is lost, if the connection is not available,
+ * which shows as a gap in the sequence numbers of the sweep. The next sweep reports all live hosts again anyway.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class SubnetDiscoveryService
+{
+  private static final Logger _LOGGER = Logger.getLogger(SubnetDiscoveryService.class);
+  private static final long _INITIAL_DELAY_SECONDS = 30; // give the connection to the cloud some time
+  private static final long _FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int _PORT_SILENT = 0;
+  private static final int _PORT_REFUSED = 1;
+  private static final int _PORT_OPEN = 2;
+
+  @ConfigProperty(name = "homestack.satellite.discovery.ranges")
+  protected Optional<String> ranges; // comma separated, discovery is disabled if empty
+
+  @ConfigProperty(name = "homestack.satellite.discovery.interval", defaultValue = "3600")
+  protected long intervalSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.discovery.ports", defaultValue = "22,80,443")
+  protected String ports;
+
+  @ConfigProperty(name = "homestack.satellite.discovery.timeout", defaultValue = "500")
+  protected int timeoutMillis;
+
+  @ConfigProperty(name = "homestack.satellite.discovery.rate", defaultValue = "10000")
+  protected double probesPerSecond;
+
+  @ConfigProperty(name = "homestack.satellite.discovery.max-inflight", defaultValue = "1024")
+  protected int maxInFlight;
+
+  @ConfigProperty(name = "homestack.satellite.discovery.batch-size", defaultValue = "256")
+  protected int batchSize;
+
+  @Inject
+  protected IcmpPingEngine pingEngine;
+
+  @Inject
+  protected TcpConnectEngine connectEngine;
+
+  @Inject
+  protected ReverseDNSResolver dnsResolver;
+
+  @Inject
+  protected IDiscoveryPublisher publisher;
+
+  @Inject
+  protected ShardMembership shardMembership;
+
+  private ScheduledExecutorService sweeper;
+  private volatile boolean stopped = false;
+
+  @SuppressWarnings("unused")
+  void onStart(@Observes StartupEvent pEvent)
+  {
+    List<SubnetRange> subnets = _parseRanges();
+    if (subnets.isEmpty())
+      return;
+
+    sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                             .setNameFormat("tDiscovery-%d")
+                                                             .setDaemon(true)
+                                                             .build());
+    Runnable sweep = () -> {
+      try
+      {
+        sweep(subnets);
+      }
+      catch (Exception e)
+      {
+        _LOGGER.warn("Discovery sweep failed", e);
+      }
+    };
+    if (intervalSeconds > 0)
+      sweeper.scheduleWithFixedDelay(sweep, _INITIAL_DELAY_SECONDS, intervalSeconds, TimeUnit.SECONDS);
+    else
+      sweeper.schedule(sweep, _INITIAL_DELAY_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @SuppressWarnings("unused")
+  void onShutdown(@Observes ShutdownEvent pEvent)
+  {
+    stopped = true;
+    if (sweeper != null)
+      sweeper.shutdownNow();
+  }
+
+  /**
+   * Sweeps all given ranges once. The batches of live hosts are handed to the publisher on the calling thread,
+   * the publisher sends them fire-and-forget.
+   *
+   * @param pSubnets Ranges to sweep
+   */
+  void sweep(@NotNull List<SubnetRange> pSubnets)
+  {
+    // in a shard group, every range is swept by a single member only
+    ShardAssignment assignment = shardMembership.getAssignment();
+    List<SubnetRange> subnets = new ArrayList<>();
+    for (SubnetRange subnet : pSubnets)
+      if (assignment.owns(subnet.toString()))
+        subnets.add(subnet);
+    if (subnets.isEmpty())
+      return;
+
+    _Sweep sweep = new _Sweep(UUID.randomUUID().toString(), batchSize, publisher);
+    _LOGGER.info("Starting discovery sweep " + sweep.id + " of " + subnets);
+
+    int[] portNumbers = _parsePorts();
+    long start = System.nanoTime();
+    RateLimiter rateLimiter = RateLimiter.create(Math.max(1, probesPerSecond));
+    Semaphore slots = new Semaphore(Math.max(1, maxInFlight));
+    int probesPerHost = 1 + portNumbers.length;
+
+    try
+    {
+      for (SubnetRange subnet : subnets)
+      {
+        for (long i = 0; i < subnet.size() && !stopped; i++)
+        {
+          InetAddress address = subnet.get(i);
+          slots.acquire();
+          rateLimiter.acquire(probesPerHost);
+          _probe(address, portNumbers).whenComplete((pHost, pEx) -> {
+            slots.release();
+            sweep.onProbed(pEx == null ? pHost : null);
+          });
+          sweep.flush(false);
+        }
+      }
+
+      // wait for the outstanding probes, while streaming their results
+      while (!slots.tryAcquire(Math.max(1, maxInFlight), 100, TimeUnit.MILLISECONDS))
+        sweep.flush(false);
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    if (stopped)
+      return;
+    sweep.flush(true);
+    _LOGGER.info("Discovery sweep " + sweep.id + " found " + sweep.getFound() + " of " + sweep.getScanned() + " hosts in " +
+                     TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + "s");
+  }
+
+  /**
+   * Probes a single address with ICMP and all configured TCP ports at the same time
+   *
+   * @param pAddress     Address to probe
+   * @param pPortNumbers TCP ports to connect to
+   * @return future that contains the host, or null if it is not live
+   */
+  @NotNull
+  private CompletableFuture<DiscoveredHost> _probe(@NotNull InetAddress pAddress, @NotNull int[] pPortNumbers)
+  {
+    long now = System.currentTimeMillis();
+    CompletableFuture<Float> ping = pingEngine.ping(pAddress, timeoutMillis).exceptionally(pEx -> -1F);
+    int[] states = new int[pPortNumbers.length];
+    CompletableFuture<?>[] probes = new CompletableFuture<?>[pPortNumbers.length + 1];
+    probes[0] = ping;
+    for (int i = 0; i < pPortNumbers.length; i++)
+    {
+      int index = i;
+      probes[i + 1] = connectEngine.connect(new InetSocketAddress(pAddress, pPortNumbers[i]), timeoutMillis)
+          .handle((pConnectTime, pEx) -> {
+            states[index] = _getPortState(pConnectTime, pEx);
+            return null;
+          });
+    }
+
+    return CompletableFuture.allOf(probes)
+        .thenCompose(pV -> {
+          float responseTime = ping.join();
+          boolean live = responseTime >= 0;
+          List<Integer> openPorts = new ArrayList<>();
+          for (int i = 0; i < states.length; i++)
+          {
+            if (states[i] == _PORT_OPEN)
+              openPorts.add(pPortNumbers[i]);
+            live |= states[i] != _PORT_SILENT;
+          }
+          if (!live)
+            return CompletableFuture.completedFuture(null);
+
+          DiscoveredHost host = new DiscoveredHost(pAddress.getHostAddress(), now);
+          host.responseTime = responseTime;
+          host.openPorts = openPorts;
+          return dnsResolver.resolve(pAddress)
+              .handle((pHostName, pEx) -> {
+                if (pHostName != null)
+                  host.hostName = pHostName.orElse(null);
+                return host;
+              });
+        });
+  }
+
+  /**
+   * A refused connection proves that the host is live, too - only silence does not
+   */
+  private static int _getPortState(@Nullable Float pConnectTime, @Nullable Throwable pEx)
+  {
+    if (pEx == null)
+      return pConnectTime != null && pConnectTime >= 0 ? _PORT_OPEN : _PORT_SILENT;
+    Throwable cause = pEx instanceof CompletionException && pEx.getCause() != null ? pEx.getCause() : pEx;
+    return cause instanceof ConnectException ? _PORT_REFUSED : _PORT_SILENT;
+  }
+
+  @NotNull
+  private List<SubnetRange> _parseRanges()
+  {
+    List<SubnetRange> result = new ArrayList<>();
+    for (String range : ranges.orElse("").split(","))
+    {
+      if (range.isBlank())
+        continue;
+      try
+      {
+        result.add(SubnetRange.parse(range));
+      }
+      catch (IllegalArgumentException e)
+      {
+        _LOGGER.warn("Ignoring invalid discovery range '" + range.trim() + "'", e);
+      }
+    }
+    return result;
+  }
+
+  @NotNull
+  private int[] _parsePorts()
+  {
+    return Arrays.stream(ports.split(","))
+        .map(String::trim)
+        .filter(pPort -> !pPort.isEmpty())
+        .mapToInt(pPort -> {
+          try
+          {
+            return Integer.parseInt(pPort);
+          }
+          catch (NumberFormatException e)
+          {
+            return -1;
+          }
+        })
+        .filter(pPort -> pPort > 0 && pPort <= 0xFFFF)
+        .distinct()
+        .toArray();
+  }
+
+  /**
+   * State of a single running sweep. Probes report their results concurrently,
+   * but the results are only published by the sweeping thread.
+   */
+  private static class _Sweep
+  {
+    private final String id;
+    private final int batchSize;
+    private final IDiscoveryPublisher publisher;
+    private List<DiscoveredHost> batch = new ArrayList<>(); // guarded by this
+    private long batchStart = System.nanoTime(); // guarded by this
+    private long scanned = 0; // guarded by this
+    private long found = 0; // guarded by this
+    private int sequence = 0; // only accessed by the sweeping thread
+
+    public _Sweep(@NotNull String pID, int pBatchSize, @NotNull IDiscoveryPublisher pPublisher)
+    {
+      id = pID;
+      batchSize = Math.max(1, pBatchSize);
+      publisher = pPublisher;
+    }
+
+    public synchronized void onProbed(@Nullable DiscoveredHost pHost)
+    {
+      scanned++;
+      if (pHost != null)
+      {
+        if (batch.isEmpty())
+          batchStart = System.nanoTime();
+        batch.add(pHost);
+        found++;
+      }
+    }
+
+    /**
+     * Publishes the current batch, if it is full or old enough
+     *
+     * @param pCompleted true, if the sweep completed and everything has to be published
+     */
+    public void flush(boolean pCompleted)
+    {
+      List<DiscoveredHost> hosts;
+      long currentScanned;
+      synchronized (this)
+      {
+        if (!pCompleted && (batch.isEmpty() || (batch.size() < batchSize && System.nanoTime() - batchStart < _FLUSH_INTERVAL_NANOS)))
+          return;
+        hosts = batch;
+        batch = new ArrayList<>();
+        currentScanned = scanned;
+      }
+
+      try
+      {
+        publisher.sendDiscovery(new DiscoveryEventData(id, sequence++, hosts, pCompleted, currentScanned));
+      }
+      catch (Exception e)
+      {
+        _LOGGER.warn("Failed to publish " + hosts.size() + " discovered hosts", e);
+      }
+    }
+
+    public synchronized long getScanned()
+    {
+      return scanned;
+    }
+
+    public synchronized long getFound()
+    {
+      return found;
+    }
+  }
+
+}
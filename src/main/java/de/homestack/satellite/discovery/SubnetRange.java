@@ -0,0 +1,93 @@
+package de.homestack.satellite.discovery;
+
+import com.google.common.net.InetAddresses;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.*;
+
+/**
+ * IPv4 range in CIDR notation, e.g. 192.168.0.0/16.
+ * The addresses are computed on demand, so that even large ranges do not occupy any memory.
+ * Network and broadcast address are excluded, if the range contains more than two addresses.
+ *
+ * @author agent, 18.10.2026
+ */
+class SubnetRange
+{
+  private static final int _MIN_PREFIX = 8;
+
+  private final String cidr;
+  private final long first;
+  private final long size;
+
+  private SubnetRange(@NotNull String pCidr, long pFirst, long pSize)
+  {
+    cidr = pCidr;
+    first = pFirst;
+    size = pSize;
+  }
+
+  /**
+   * Parses a range in CIDR notation. A single address is treated as /32.
+   *
+   * @param pCidr Range, e.g. 192.168.0.0/16
+   * @return the range
+   * @throws IllegalArgumentException if the range is invalid, not IPv4 or larger than a /8
+   */
+  @NotNull
+  static SubnetRange parse(@NotNull String pCidr)
+  {
+    String value = pCidr.trim();
+    int separator = value.indexOf('/');
+    String address = separator < 0 ? value : value.substring(0, separator);
+    int prefix;
+    try
+    {
+      prefix = separator < 0 ? 32 : Integer.parseInt(value.substring(separator + 1).trim());
+    }
+    catch (NumberFormatException e)
+    {
+      throw new IllegalArgumentException("Invalid prefix length in range '" + pCidr + "'", e);
+    }
+
+    InetAddress network = InetAddresses.forString(address);
+    if (!(network instanceof Inet4Address))
+      throw new IllegalArgumentException("Only IPv4 ranges can be swept: '" + pCidr + "'");
+    if (prefix < _MIN_PREFIX || prefix > 32)
+      throw new IllegalArgumentException("Prefix length of range '" + pCidr + "' has to be between " + _MIN_PREFIX + " and 32");
+
+    long mask = prefix == 0 ? 0 : (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+    long base = (InetAddresses.coerceToInteger(network) & 0xFFFFFFFFL) & mask;
+    long count = 1L << (32 - prefix);
+    if (count > 2)
+      return new SubnetRange(value, base + 1, count - 2);
+    return new SubnetRange(value, base, count);
+  }
+
+  /**
+   * @return the number of addresses in this range
+   */
+  long size()
+  {
+    return size;
+  }
+
+  /**
+   * @param pIndex Index of the address, between 0 and {@link #size()}
+   * @return the address
+   */
+  @NotNull
+  InetAddress get(long pIndex)
+  {
+    if (pIndex < 0 || pIndex >= size)
+      throw new IndexOutOfBoundsException(pIndex + " is not in " + cidr);
+    return InetAddresses.fromInteger((int) (first + pIndex));
+  }
+
+  @Override
+  public String toString()
+  {
+    return cidr;
+  }
+
+}
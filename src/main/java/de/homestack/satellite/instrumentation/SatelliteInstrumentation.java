@@ -0,0 +1,197 @@
+package de.homestack.satellite.instrumentation;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Instrumentation of the satellite itself. All meters are registered in the micrometer registry of quarkus,
+ * which exposes them in Prometheus format on the local HTTP endpoint (/q/metrics).
+ * Meters are created once and cached, so that recording on a hot path is only a few atomic operations.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class SatelliteInstrumentation
+{
+  private static final String _PREFIX = "satellite.";
+  private static final Duration[] _SLOS = {Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofMillis(500),
+                                            Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30)};
+
+  @Inject
+  protected MeterRegistry registry;
+
+  private final Map<String, Timer> executionTimers = new ConcurrentHashMap<>();
+  private final Map<String, Counter> executionFailures = new ConcurrentHashMap<>();
+  private final Map<String, Counter> executionDeadlines = new ConcurrentHashMap<>();
+  private final Map<String, Counter> executionOverruns = new ConcurrentHashMap<>();
+  private Timer cycleDuration;
+  private Counter cycleSkippedExecutions;
+  private Counter backpressureDroppedExecutions;
+  private Timer scheduleLag;
+  private Timer sendLatency;
+  private Counter sendFailures;
+  private Counter reconnects;
+
+  @PostConstruct
+  void init()
+  {
+    cycleDuration = _timer("cycle.duration", "Duration of a single collection cycle", Tags.empty());
+    cycleSkippedExecutions = _counter("cycle.skipped", "Due executions skipped, because they were still running", Tags.empty());
+    backpressureDroppedExecutions = _counter("cycle.dropped", "Due executions dropped, because they exceeded the capacity of the backpressured record publisher", Tags.empty());
+    scheduleLag = _timer("schedule.lag", "Delay between the deadline of an execution and its actual start", Tags.empty());
+    sendLatency = _timer("websocket.send", "Duration until a record batch was confirmed by the websocket", Tags.empty());
+    sendFailures = _counter("websocket.send.failures", "Record batches that could not be sent", Tags.empty());
+    reconnects = _counter("websocket.reconnects", "Attempts to reconnect to the homestack cloud", Tags.empty());
+  }
+
+  /**
+   * Records a single execution of a metric
+   *
+   * @param pType   Type of the executor
+   * @param pNanos  Duration of the execution
+   * @param pFailed true, if the execution failed
+   */
+  public void recordExecution(@NotNull String pType, long pNanos, boolean pFailed)
+  {
+    executionTimers.computeIfAbsent(pType, pKey -> _timer("execution.duration", "Duration of a single metric execution", Tags.of("type", pKey)))
+        .record(pNanos, TimeUnit.NANOSECONDS);
+    if (pFailed)
+      executionFailures.computeIfAbsent(pType, pKey -> _counter("execution.failures", "Failed metric executions", Tags.of("type", pKey)))
+          .increment();
+  }
+
+  /**
+   * Counts a single execution, that was cancelled because it exceeded its deadline or the deadline of its cycle
+   *
+   * @param pType Type of the executor
+   */
+  public void countDeadlineExceeded(@NotNull String pType)
+  {
+    executionDeadlines.computeIfAbsent(pType, pKey -> _counter("execution.deadline.exceeded", "Metric executions cancelled at their deadline", Tags.of("type", pKey)))
+        .increment();
+  }
+
+  /**
+   * Counts executions, that were due while their previous execution was still running
+   *
+   * @param pPolicy Policy, that handled the overruns
+   * @param pCount  Number of overruns
+   */
+  public void countOverruns(@NotNull String pPolicy, int pCount)
+  {
+    executionOverruns.computeIfAbsent(pPolicy, pKey -> _counter("execution.overruns", "Due executions, whose previous execution was still running", Tags.of("policy", pKey)))
+        .increment(pCount);
+  }
+
+  /**
+   * Records a completed collection cycle
+   *
+   * @param pDuration Duration of the cycle
+   * @param pSkipped  Number of executions that were skipped, because they were still running
+   */
+  public void recordCycle(@NotNull Duration pDuration, int pSkipped)
+  {
+    cycleDuration.record(pDuration);
+    if (pSkipped > 0)
+      cycleSkippedExecutions.increment(pSkipped);
+  }
+
+  /**
+   * Counts executions, that were dropped because of backpressure
+   *
+   * @param pCount Number of dropped executions
+   */
+  public void countDroppedExecutions(int pCount)
+  {
+    backpressureDroppedExecutions.increment(pCount);
+  }
+
+  /**
+   * Records the delay between the deadline of a scheduled execution and its start
+   *
+   * @param pNanos Delay in nanoseconds
+   */
+  public void recordScheduleLag(long pNanos)
+  {
+    scheduleLag.record(pNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records a single send of a record batch
+   *
+   * @param pNanos  Duration until the batch was confirmed
+   * @param pFailed true, if the send failed
+   */
+  public void recordSend(long pNanos, boolean pFailed)
+  {
+    if (pFailed)
+      sendFailures.increment();
+    else
+      sendLatency.record(pNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Counts a single reconnect attempt
+   */
+  public void countReconnect()
+  {
+    reconnects.increment();
+  }
+
+  /**
+   * Registers a gauge, that reads its value from the given object on every scrape
+   *
+   * @param pName        Name of the gauge, without prefix
+   * @param pDescription Description
+   * @param pObject      Object to read from, only weakly referenced
+   * @param pFunction    Function to read the value
+   */
+  public <T> void gauge(@NotNull String pName, @NotNull String pDescription, @NotNull T pObject, @NotNull ToDoubleFunction<T> pFunction)
+  {
+    Gauge.builder(_PREFIX + pName, pObject, pFunction)
+        .description(pDescription)
+        .register(registry);
+  }
+
+  /**
+   * Monitors the threads and the queue of the given executor
+   *
+   * @param pExecutor Executor to monitor
+   * @param pName     Name of the executor, e.g. the name of its threads
+   * @return the monitored executor, which should be used instead of the given one
+   */
+  @NotNull
+  public ExecutorService monitor(@NotNull ExecutorService pExecutor, @NotNull String pName)
+  {
+    return ExecutorServiceMetrics.monitor(registry, pExecutor, pName, _PREFIX.substring(0, _PREFIX.length() - 1), Tags.empty());
+  }
+
+  @NotNull
+  private Timer _timer(@NotNull String pName, @NotNull String pDescription, @NotNull Tags pTags)
+  {
+    return Timer.builder(_PREFIX + pName)
+        .description(pDescription)
+        .tags(pTags)
+        .serviceLevelObjectives(_SLOS) // fixed buckets instead of percentile histograms, to keep the scrape small
+        .register(registry);
+  }
+
+  @NotNull
+  private Counter _counter(@NotNull String pName, @NotNull String pDescription, @NotNull Tags pTags)
+  {
+    return Counter.builder(_PREFIX + pName)
+        .description(pDescription)
+        .tags(pTags)
+        .register(registry);
+  }
+
+}
@@ -0,0 +1,214 @@
+package de.homestack.satellite.metrics;
+
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import de.homestack.satellite.metrics.execution.MetricExecution;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Decides, which records of a metric have to be reported.
+ * In change-only mode a record is only reported, if its state changed, if one of its measurements (numeric results
+ * with a deadband, like the response time) moved further than the deadband away from the last reported value,
+ * if any other result changed at all, or if the last report is older than the keyframe interval.
+ * The deadband also applies to the statistics of a measurement in aggregated records (e.g. responseTime.p90).
+ * Otherwise every record will be reported.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+class MetricChangeFilter
+{
+  private static final Logger _LOGGER = Logger.getLogger(MetricChangeFilter.class);
+  private static final String _DEADBAND_KEY = "deadband";
+  private static final String _DEADBAND_KEYS_KEY = "deadbandKeys";
+
+  @ConfigProperty(name = "homestack.satellite.report.changes-only", defaultValue = "true")
+  protected boolean changesOnly;
+
+  @ConfigProperty(name = "homestack.satellite.report.deadband", defaultValue = "5")
+  protected double defaultDeadband;
+
+  @ConfigProperty(name = "homestack.satellite.report.deadband-keys", defaultValue = "responseTime")
+  protected String defaultDeadbandKeys;
+
+  @ConfigProperty(name = "homestack.satellite.report.keyframe", defaultValue = "300")
+  protected long keyframeSeconds;
+
+  private final Map<String, _LastReport> lastReports = new ConcurrentHashMap<>();
+
+  /**
+   * Determines, if the given record has to be reported, and remembers it as reported if so
+   *
+   * @param pExecution Execution that produced the record
+   * @param pRecord    Record of the execution
+   * @return true, if the record has to be reported
+   */
+  public boolean shouldReport(@NotNull MetricExecution pExecution, @NotNull IMetricRecord pRecord)
+  {
+    if (!changesOnly)
+      return true;
+
+    long now = System.nanoTime();
+    String metricID = pExecution.getMetric().id;
+    _LastReport last = lastReports.get(metricID);
+    if (last != null && now - last.reportedAt < TimeUnit.SECONDS.toNanos(keyframeSeconds) && !last.hasChanged(pRecord))
+      return false;
+
+    // executions of the same metric never overlap, so there is no concurrent update of the same key
+    double deadband = last != null ? last.deadband : _getDeadband(pExecution);
+    Set<String> deadbandKeys = last != null ? last.deadbandKeys : _getDeadbandKeys(pExecution);
+    lastReports.put(metricID, new _LastReport(pRecord, deadband, deadbandKeys, now));
+    return true;
+  }
+
+  /**
+   * Forgets the last report of the given metric, so that its next record will be reported in any case
+   *
+   * @param pMetricID ID of the metric
+   */
+  public void forget(@NotNull String pMetricID)
+  {
+    lastReports.remove(pMetricID);
+  }
+
+  /**
+   * Reads the deadband of the given execution from its preferences
+   */
+  private double _getDeadband(@NotNull MetricExecution pExecution)
+  {
+    String deadband = pExecution.getPreferences().getValue(_DEADBAND_KEY, "");
+    try
+    {
+      if (!deadband.isBlank())
+        return Math.max(0, Double.parseDouble(deadband));
+    }
+    catch (NumberFormatException e)
+    {
+      _LOGGER.warn("Invalid metric deadband '" + deadband + "', falling back to default");
+    }
+    return defaultDeadband;
+  }
+
+  /**
+   * Reads the result keys, that the deadband applies to, from the preferences of the given execution
+   */
+  @NotNull
+  private Set<String> _getDeadbandKeys(@NotNull MetricExecution pExecution)
+  {
+    Set<String> keys = new HashSet<>();
+    for (String key : pExecution.getPreferences().getValue(_DEADBAND_KEYS_KEY, defaultDeadbandKeys).split(","))
+      if (!key.isBlank())
+        keys.add(key.trim());
+    return keys;
+  }
+
+  /**
+   * Compact state of the last reported record of a single metric
+   */
+  private static class _LastReport
+  {
+    private final EMetricRecordState state;
+    private final String[] keys; // sorted
+    private final double[] numbers; // NaN, if the value is not a numeric measurement
+    private final String[] texts; // null, if the value is a numeric measurement
+    private final double deadband;
+    private final Set<String> deadbandKeys;
+    private final long reportedAt;
+
+    public _LastReport(@NotNull IMetricRecord pRecord, double pDeadband, @NotNull Set<String> pDeadbandKeys, long pReportedAt)
+    {
+      Map<String, String> result = pRecord.getResult();
+      state = pRecord.getState();
+      keys = result == null ? new String[0] : result.keySet().toArray(new String[0]);
+      Arrays.sort(keys);
+      numbers = new double[keys.length];
+      texts = new String[keys.length];
+      for (int i = 0; i < keys.length; i++)
+      {
+        String value = result.get(keys[i]);
+        numbers[i] = _isDeadbandKey(pDeadbandKeys, keys[i]) ? _parse(value) : Double.NaN;
+        if (Double.isNaN(numbers[i]))
+          texts[i] = value;
+      }
+      deadband = pDeadband;
+      deadbandKeys = pDeadbandKeys;
+      reportedAt = pReportedAt;
+    }
+
+    /**
+     * @return true, if the given record differs from this report
+     */
+    public boolean hasChanged(@NotNull IMetricRecord pRecord)
+    {
+      if (pRecord.getState() != state)
+        return true;
+
+      Map<String, String> result = pRecord.getResult();
+      int size = result == null ? 0 : result.size();
+      if (size != keys.length)
+        return true;
+
+      for (int i = 0; i < keys.length; i++)
+      {
+        String value = result.get(keys[i]);
+        if (value == null)
+          return true;
+
+        if (texts[i] != null)
+        {
+          if (!texts[i].equals(value))
+            return true;
+        }
+        else
+        {
+          double number = _parse(value);
+          if (Double.isNaN(number) || Math.abs(number - numbers[i]) > deadband)
+            return true;
+        }
+      }
+
+      return false;
+    }
+
+    /**
+     * @return true, if the given result is a measurement or one of its aggregated statistics
+     */
+    private static boolean _isDeadbandKey(@NotNull Set<String> pDeadbandKeys, @NotNull String pKey)
+    {
+      if (pDeadbandKeys.contains(pKey))
+        return true;
+
+      int separator = pKey.lastIndexOf('.');
+      return separator > 0 && pDeadbandKeys.contains(pKey.substring(0, separator));
+    }
+
+    /**
+     * @return the numeric value of the given result, NaN if it is not numeric
+     */
+    private static double _parse(@Nullable String pValue)
+    {
+      if (pValue == null || pValue.isEmpty())
+        return Double.NaN;
+
+      char first = pValue.charAt(0);
+      if (first != '-' && (first < '0' || first > '9'))
+        return Double.NaN;
+
+      try
+      {
+        return Double.parseDouble(pValue);
+      }
+      catch (NumberFormatException e)
+      {
+        return Double.NaN;
+      }
+    }
+  }
+
+}
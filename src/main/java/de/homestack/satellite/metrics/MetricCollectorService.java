@@ -1,15 +1,14 @@
 package de.homestack.satellite.metrics;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import de.homestack.satellite.config.IConfigProvider;
+import de.homestack.satellite.config.*;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import de.homestack.satellite.metrics.aggregation.MetricWindowAggregator;
 import de.homestack.satellite.metrics.api.*;
-import de.homestack.satellite.websocket.api.IMetricRecordPublisher;
-import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import de.homestack.satellite.metrics.execution.*;
+import de.homestack.satellite.store.TimeSeriesStore;
 import io.conceptive.homestack.model.data.metric.*;
-import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
 import io.quarkus.runtime.*;
-import io.reactivex.Observable;
-import io.reactivex.*;
 import io.reactivex.disposables.*;
 import io.reactivex.schedulers.Schedulers;
 import org.jboss.logging.Logger;
@@ -19,8 +18,10 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -37,23 +38,53 @@ public class MetricCollectorService
   protected IConfigProvider configProvider;
 
   @Inject
-  protected IMetricRecordPublisher recordPublisher;
+  protected MetricRecordBatcher recordBatcher;
+
+  @Inject
+  protected MetricChangeFilter changeFilter;
+
+  @Inject
+  protected MetricWindowAggregator aggregator;
 
   @Inject
   protected Instance<IMetricExecutor> metricExecutors;
 
+  @Inject
+  protected MetricExecutionEngine executionEngine;
+
+  @Inject
+  protected MetricScheduler scheduler;
+
+  @Inject
+  protected AdaptiveProbePolicy probePolicy;
+
+  @Inject
+  protected AddressResolver addressResolver;
+
+  @Inject
+  protected TimeSeriesStore store;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final ExecutionPlan plan = new ExecutionPlan();
+  private final ReentrantReadWriteLock planLock = new ReentrantReadWriteLock(); // write: patching and forgetting, read: handling executions
+  private long droppedExecutions = 0; // dropped since the publisher got backpressured, only accessed on the scheduler thread
   private CompositeDisposable disposable;
 
   @SuppressWarnings("unused")
   void onStart(@Observes StartupEvent pEvent)
   {
     disposable = new CompositeDisposable();
+    aggregator.setConsumer(this::_reportSummary);
+    scheduler.start(this::_triggerCollect);
     disposable.add(_initExecutor());
   }
 
   @SuppressWarnings("unused")
   void onShutdown(@Observes ShutdownEvent pEvent)
   {
+    scheduler.stop();
     if (disposable != null)
     {
       disposable.dispose();
@@ -62,107 +93,219 @@ public class MetricCollectorService
   }
 
   /**
-   * Observes the configuration and triggers the executor,
-   * if it should be triggered
+   * Observes the configuration changes and patches the execution plan
+   * and the schedule of the metrics accordingly
    */
   @NotNull
   private Disposable _initExecutor()
   {
-    return Observable.combineLatest(configProvider.observe(), Observable.interval(15, TimeUnit.SECONDS), (pConfig, pInterval) -> pConfig)
-        // Backpressure
-        .toFlowable(BackpressureStrategy.DROP)
+    Map<String, IMetricExecutor> executors = metricExecutors.stream()
+        .collect(Collectors.toMap(pEx -> pEx.getType().toLowerCase(Locale.ROOT), pEx -> pEx));
 
-        // Observe on different thread pool
-        .observeOn(Schedulers.from(Executors.newCachedThreadPool(new ThreadFactoryBuilder()
-                                                                     .setNameFormat("tMetricUpdater-%d")
-                                                                     .build())))
+    return configProvider.observeDiffs()
+        // Observe on different thread
+        .observeOn(Schedulers.from(instrumentation.monitor(Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                                                                                 .setNameFormat("tMetricUpdater-%d")
+                                                                                                 .setDaemon(true)
+                                                                                                 .build()), "tMetricUpdater")))
 
-        // Collect records
-        .subscribe(pConfig -> {
+        // Update plan
+        .subscribe(pDiff -> {
           try
           {
-            _triggerCollect(pConfig);
+            _updatePlan(pDiff, executors);
           }
           catch (Exception e)
           {
-            _LOGGER.warn("Failed to collect records", e);
+            _LOGGER.warn("Failed to update metric execution plan", e);
           }
         });
   }
 
   /**
-   * Triggers a single collect for all currently known metrics
+   * Patches the current execution plan with the given difference.
+   * Only the metrics that were affected by the difference will be rescheduled.
+   * Executions are not handled while the plan gets patched, so that the state of a forgotten metric can not be brought back
+   * by an execution, that was still running.
    *
-   * @param pConfig config to execute
+   * @param pDiff      difference of the configuration
+   * @param pExecutors all available executors, mapped by their type
    */
-  private void _triggerCollect(@NotNull SatelliteConfigurationDataModel pConfig)
+  private void _updatePlan(@NotNull ConfigDiff pDiff, @NotNull Map<String, IMetricExecutor> pExecutors)
   {
-    if (pConfig.metrics == null || pConfig.devices == null)
-      return;
+    ExecutionPlan.Patch patch;
+    planLock.writeLock().lock();
+    try
+    {
+      patch = plan.patch(pDiff, pExecutors, addressResolver);
+
+      patch.getRemoved().forEach(pMetricID -> {
+        scheduler.unschedule(pMetricID);
+        aggregator.forget(pMetricID);
+        changeFilter.forget(pMetricID);
+        probePolicy.forget(pMetricID);
+        store.forget(pMetricID);
+      });
+      patch.getUpserted().forEach((pMetricID, pExecution) -> {
+        scheduler.schedule(pMetricID, pExecution, pExecution.getInterval());
+        aggregator.forget(pMetricID);
+        changeFilter.forget(pMetricID);
+        probePolicy.forget(pMetricID);
+      });
+    }
+    finally
+    {
+      planLock.writeLock().unlock();
+    }
+    _LOGGER.debug("Metric execution plan updated (" + patch + ")");
+  }
 
-    Map<String, DeviceDataModel> devices = pConfig.devices.stream().collect(Collectors.toMap(pDev -> pDev.id, pDev -> pDev));
-    Map<String, IMetricExecutor> executors = metricExecutors.stream().collect(Collectors.toMap(IMetricExecutor::getType, pEx -> pEx));
-    Set<MetricRecordDataModel> result = new HashSet<>();
+  /**
+   * Triggers a single collect for the given, currently due executions
+   *
+   * @param pExecutions executions to execute
+   */
+  private void _triggerCollect(@NotNull List<MetricExecution> pExecutions)
+  {
+    // slow down, if the records can not be published as fast as they are produced
+    List<MetricExecution> executions = _limitToCapacity(pExecutions);
+    if (executions.isEmpty())
+      return;
 
-    // check all metrics
-    for (MetricDataModel metric : pConfig.metrics)
+    // executions, whose network is out of tokens, are deferred until their reserved token is valid
+    long now = System.nanoTime();
+    List<MetricExecution> admitted = new ArrayList<>(executions.size());
+    planLock.readLock().lock();
+    try
     {
-      if (metric.type != null)
+      for (MetricExecution execution : executions)
       {
-        IMetricExecutor executor = executors.get(metric.type.toLowerCase(Locale.ROOT));
-        if (executor != null)
-        {
-          DeviceDataModel device = devices.get(metric.deviceID);
-          if (device != null)
-          {
-            if (executor.canExecute())
-            {
-              // execute
-              IMetricRecord record = executor.execute(device, new _PreferenceImpl(metric));
-
-              // add result
-              result.add(MetricRecordDataModel.builder()
-                             .id(UUID.randomUUID().toString())
-                             .metricID(metric.id)
-                             .recordDate(new Date())
-                             .state(EMetricRecordState.valueOf(record.getState().name()))
-                             .result(record.getResult())
-                             .build());
-            }
-          }
-          else
-            _LOGGER.warn("Device with id " + metric.deviceID + " not found");
-        }
+        if (!plan.contains(execution))
+          continue; // removed or compiled again, since it was due
+
+        long wait = probePolicy.admit(execution, now);
+        if (wait == AdaptiveProbePolicy.ADMIT)
+          admitted.add(execution);
         else
-          _LOGGER.warn("Executor with id " + metric.type + " not found");
+          scheduler.reschedule(execution.getMetric().id, execution, Duration.ofNanos(wait), null);
       }
     }
+    finally
+    {
+      planLock.readLock().unlock();
+    }
 
-    // publish
-    if (!result.isEmpty())
-      recordPublisher.sendMetricRecords(result);
+    // execute in parallel and pass the changed records to the batcher as they complete,
+    // records of metrics that opted in to aggregation are summarized by the aggregator instead - the local store keeps all of them
+    // results of executions, that were removed or compiled again while they were running, are dropped
+    executionEngine.executeCycle(admitted, (pExecution, pRecord) -> {
+          planLock.readLock().lock();
+          try
+          {
+            if (!plan.contains(pExecution))
+              return;
+
+            Duration interval = probePolicy.onResult(pExecution, pRecord);
+            if (interval != null)
+              scheduler.reschedule(pExecution.getMetric().id, pExecution, interval, interval);
+            store.add(pExecution.getMetric().id, pRecord);
+            if (!aggregator.aggregate(pExecution, pRecord))
+              _report(pExecution, pRecord);
+          }
+          finally
+          {
+            planLock.readLock().unlock();
+          }
+        })
+        .thenAccept(pCycle -> _LOGGER.debug("Collection cycle finished (" + pCycle + ")"))
+        .exceptionally(pEx -> {
+          _LOGGER.warn("Failed to collect records", pEx);
+          return null;
+        });
   }
 
   /**
-   * IMetricPreferences-Impl
+   * Limits the due executions to the number of records the publisher is able to take.
+   * Only the executions exceeding that capacity are dropped - chosen at random, so that no metric is starved,
+   * if the publisher stays backpressured for a longer time.
+   *
+   * @param pExecutions Executions that are due
+   * @return the executions to execute
    */
-  private static class _PreferenceImpl implements IMetricPreferences
+  @NotNull
+  private List<MetricExecution> _limitToCapacity(@NotNull List<MetricExecution> pExecutions)
   {
-    private final MetricDataModel metric;
-
-    public _PreferenceImpl(@NotNull MetricDataModel pMetric)
+    int capacity = recordBatcher.getCapacity();
+    if (capacity >= pExecutions.size())
     {
-      metric = pMetric;
+      if (droppedExecutions > 0)
+        _LOGGER.info("Record publisher caught up, " + droppedExecutions + " due executions were dropped while it was backpressured");
+      droppedExecutions = 0;
+      return pExecutions;
     }
 
-    @NotNull
-    @Override
-    public String getValue(@NotNull String pKey, @NotNull String pDefault)
+    int dropped = pExecutions.size() - capacity;
+    if (droppedExecutions == 0)
+      _LOGGER.warn("Record publisher is backpressured, dropping due executions until it caught up");
+    _LOGGER.debug("Record publisher is backpressured, dropping " + dropped + " of " + pExecutions.size() + " due executions");
+    droppedExecutions += dropped;
+    instrumentation.countDroppedExecutions(dropped);
+
+    List<MetricExecution> executions = new ArrayList<>(pExecutions);
+    Collections.shuffle(executions, ThreadLocalRandom.current());
+    return executions.subList(0, capacity);
+  }
+
+  /**
+   * Reports a summary of the aggregator. The last summary of a metric, that gets forgotten, is emitted by the updater
+   * while it patches the plan - before the change filter forgets the metric, too.
+   *
+   * @param pExecution Execution that produced the summarized records
+   * @param pSummary   Summary of the aggregator
+   */
+  private void _reportSummary(@NotNull MetricExecution pExecution, @NotNull IMetricRecord pSummary)
+  {
+    planLock.readLock().lock();
+    try
+    {
+      if (planLock.isWriteLockedByCurrentThread() || plan.contains(pExecution))
+        _report(pExecution, pSummary);
+    }
+    finally
     {
-      if (metric.settings == null)
-        return pDefault;
-      return metric.settings.getOrDefault(pKey, pDefault);
+      planLock.readLock().unlock();
     }
   }
 
+  /**
+   * Passes the given record to the batcher, if the change filter lets it through
+   *
+   * @param pExecution Execution that produced the record
+   * @param pRecord    Record of the execution or summary of the aggregator
+   */
+  private void _report(@NotNull MetricExecution pExecution, @NotNull IMetricRecord pRecord)
+  {
+    if (changeFilter.shouldReport(pExecution, pRecord))
+      recordBatcher.add(_toRecordModel(pExecution, pRecord));
+  }
+
+  /**
+   * Converts the record of an execution to its transferable model
+   *
+   * @param pExecution Execution that produced the record
+   * @param pRecord    Record of the execution
+   * @return the model
+   */
+  @NotNull
+  private static MetricRecordDataModel _toRecordModel(@NotNull MetricExecution pExecution, @NotNull IMetricRecord pRecord)
+  {
+    return MetricRecordDataModel.builder()
+        .id(RecordIDs.next())
+        .metricID(pExecution.getMetric().id)
+        .recordDate(new Date())
+        .state(EMetricRecordState.valueOf(pRecord.getState().name()))
+        .result(pRecord.getResult())
+        .build();
+  }
+
 }
@@ -0,0 +1,166 @@
+package de.homestack.satellite.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.websocket.api.IMetricRecordPublisher;
+import io.conceptive.homestack.model.data.metric.MetricRecordDataModel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces the records of concurrently running executions into batches.
+ * A batch gets published, if it reached its maximum size or if its first record
+ * waited longer than the linger time. Batches are published in order, on a single thread.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+class MetricRecordBatcher
+{
+  private static final Logger _LOGGER = Logger.getLogger(MetricRecordBatcher.class);
+
+  @ConfigProperty(name = "homestack.satellite.publish.batch.size", defaultValue = "500")
+  protected int maxBatchSize;
+
+  @ConfigProperty(name = "homestack.satellite.publish.batch.linger", defaultValue = "1000")
+  protected long lingerMillis;
+
+  @Inject
+  protected IMetricRecordPublisher recordPublisher;
+
+  private Set<MetricRecordDataModel> currentBatch = new HashSet<>(); // guarded by this
+  private long currentGeneration = 0; // guarded by this
+  private ScheduledExecutorService publisher;
+
+  @PostConstruct
+  void init()
+  {
+    publisher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                               .setNameFormat("tRecordBatcher-%d")
+                                                               .setDaemon(true)
+                                                               .build());
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    flush();
+    publisher.shutdown();
+  }
+
+  /**
+   * Adds a single record to the current batch
+   *
+   * @param pRecord Record to add
+   */
+  public void add(@NotNull MetricRecordDataModel pRecord)
+  {
+    Set<MetricRecordDataModel> full = null;
+
+    synchronized (this)
+    {
+      if (currentBatch.isEmpty())
+      {
+        long generation = currentGeneration;
+        publisher.schedule(() -> _flushGeneration(generation), lingerMillis, TimeUnit.MILLISECONDS);
+      }
+
+      currentBatch.add(pRecord);
+      if (currentBatch.size() >= maxBatchSize)
+        full = _swap();
+    }
+
+    if (full != null)
+      _publish(full);
+  }
+
+  /**
+   * Publishes the current batch immediately
+   */
+  public void flush()
+  {
+    Set<MetricRecordDataModel> batch;
+    synchronized (this)
+    {
+      batch = _swap();
+    }
+
+    if (!batch.isEmpty())
+      _publish(batch);
+  }
+
+  /**
+   * @return the number of records, that can be added before the publisher falls behind, {@link Integer#MAX_VALUE} if it is unlimited
+   */
+  public int getCapacity()
+  {
+    int batches = recordPublisher.getCapacity();
+    if (batches == Integer.MAX_VALUE)
+      return Integer.MAX_VALUE;
+
+    int pending;
+    synchronized (this)
+    {
+      pending = currentBatch.size();
+    }
+    return (int) Math.min(Integer.MAX_VALUE - 1, Math.max(0, (long) batches * maxBatchSize - pending));
+  }
+
+  /**
+   * Publishes the current batch, if it still is the batch of the given generation
+   *
+   * @param pGeneration Generation of the batch, whose linger time expired
+   */
+  private void _flushGeneration(long pGeneration)
+  {
+    Set<MetricRecordDataModel> batch = null;
+    synchronized (this)
+    {
+      if (currentGeneration == pGeneration && !currentBatch.isEmpty())
+        batch = _swap();
+    }
+
+    if (batch != null)
+      _publish(batch);
+  }
+
+  /**
+   * Replaces the current batch with an empty one
+   *
+   * @return the previous batch
+   */
+  @NotNull
+  private Set<MetricRecordDataModel> _swap()
+  {
+    Set<MetricRecordDataModel> batch = currentBatch;
+    currentBatch = new HashSet<>();
+    currentGeneration++;
+    return batch;
+  }
+
+  /**
+   * Hands the batch over to the publisher thread
+   *
+   * @param pBatch Batch to publish
+   */
+  private void _publish(@NotNull Set<MetricRecordDataModel> pBatch)
+  {
+    publisher.execute(() -> {
+      try
+      {
+        recordPublisher.sendMetricRecords(pBatch);
+      }
+      catch (Exception e)
+      {
+        _LOGGER.warn("Failed to publish " + pBatch.size() + " records", e);
+      }
+    });
+  }
+
+}
@@ -0,0 +1,203 @@
+package de.homestack.satellite.metrics.aggregation;
+
+import de.homestack.satellite.metrics.api.*;
+import de.homestack.satellite.metrics.execution.MetricExecution;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.*;
+
+import java.util.*;
+
+/**
+ * Rolling window of the records of a single metric.
+ * The memory of a window only depends on the number of aggregated result keys, not on the number of records.
+ * Instances are not thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+class MetricWindow
+{
+  private static final EMetricRecordState[] _STATES = EMetricRecordState.values();
+
+  private final MetricExecution execution;
+  private final String[] keys;
+  private final _Series[] series;
+  private final long[] stateCounts = new long[_STATES.length];
+  private final Map<String, String> lastValues = new HashMap<>(); // results that are not aggregated
+  private EMetricRecordState lastState;
+  private long start;
+  private long count;
+  private long transitions;
+
+  MetricWindow(@NotNull MetricExecution pExecution, @NotNull String[] pKeys, long pStart)
+  {
+    execution = pExecution;
+    keys = pKeys;
+    series = new _Series[pKeys.length];
+    for (int i = 0; i < pKeys.length; i++)
+      series[i] = new _Series();
+    start = pStart;
+  }
+
+  /**
+   * Adds a single record to this window
+   *
+   * @param pRecord Record to add
+   * @return true, if the state of the record differs from the state of the previous record
+   */
+  boolean add(@NotNull IMetricRecord pRecord)
+  {
+    EMetricRecordState state = pRecord.getState();
+    boolean stateChanged = lastState != state;
+    if (stateChanged && lastState != null)
+      transitions++;
+    lastState = state;
+    stateCounts[state.ordinal()]++;
+    count++;
+
+    Map<String, String> result = pRecord.getResult();
+    if (result != null)
+    {
+      for (Map.Entry<String, String> entry : result.entrySet())
+      {
+        int index = _indexOf(entry.getKey());
+        if (index < 0)
+          lastValues.put(entry.getKey(), entry.getValue());
+        else
+          series[index].add(entry.getValue());
+      }
+    }
+
+    return stateChanged;
+  }
+
+  /**
+   * @return the execution of the metric, whose records are aggregated
+   */
+  @NotNull
+  MetricExecution getExecution()
+  {
+    return execution;
+  }
+
+  /**
+   * @return the start of this window, in nanoseconds
+   */
+  long getStart()
+  {
+    return start;
+  }
+
+  /**
+   * @return the number of records in this window
+   */
+  long getCount()
+  {
+    return count;
+  }
+
+  /**
+   * @return the state of the last record, null if no record was added yet
+   */
+  @Nullable
+  EMetricRecordState getLastState()
+  {
+    return lastState;
+  }
+
+  /**
+   * Summarizes this window and resets it, so that it starts again at the given time.
+   * The last state is kept, so that the first record of the next window is only a transition, if its state changed.
+   *
+   * @param pNextStart Start of the next window, in nanoseconds
+   * @return the summarized results
+   */
+  @NotNull
+  Map<String, String> roll(long pNextStart)
+  {
+    Map<String, String> summary = new RecordResult(lastValues.size() + 2 + _STATES.length + keys.length * 6);
+    summary.putAll(lastValues);
+    summary.put("samples", Long.toString(count));
+    summary.put("transitions", Long.toString(transitions));
+    for (int i = 0; i < _STATES.length; i++)
+      if (stateCounts[i] > 0)
+        summary.put("samples." + _STATES[i].name().toLowerCase(Locale.ROOT), Long.toString(stateCounts[i]));
+    for (int i = 0; i < keys.length; i++)
+      series[i].writeTo(keys[i], summary);
+
+    // reset
+    for (_Series s : series)
+      s.clear();
+    Arrays.fill(stateCounts, 0);
+    lastValues.clear();
+    start = pNextStart;
+    count = 0;
+    transitions = 0;
+    return summary;
+  }
+
+  private int _indexOf(@NotNull String pKey)
+  {
+    for (int i = 0; i < keys.length; i++)
+      if (keys[i].equals(pKey))
+        return i;
+    return -1;
+  }
+
+  /**
+   * Aggregate of a single numeric result
+   */
+  private static class _Series
+  {
+    private final QuantileSketch sketch = new QuantileSketch();
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum = 0;
+    private long count = 0;
+
+    public void add(@Nullable String pValue)
+    {
+      double value;
+      try
+      {
+        value = pValue == null ? Double.NaN : Double.parseDouble(pValue);
+      }
+      catch (NumberFormatException e)
+      {
+        return;
+      }
+
+      // negative values mark failed measurements (e.g. a lost ping) and would distort the aggregate
+      if (Double.isNaN(value) || value < 0)
+        return;
+
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+      sum += value;
+      count++;
+      sketch.add(value);
+    }
+
+    public void writeTo(@NotNull String pKey, @NotNull Map<String, String> pSummary)
+    {
+      if (count == 0)
+        return;
+
+      pSummary.put(pKey, RecordResult.format(sum / count));
+      pSummary.put(pKey + ".min", RecordResult.format(min));
+      pSummary.put(pKey + ".max", RecordResult.format(max));
+      pSummary.put(pKey + ".p50", RecordResult.format(sketch.getQuantile(0.5)));
+      pSummary.put(pKey + ".p90", RecordResult.format(sketch.getQuantile(0.9)));
+      pSummary.put(pKey + ".p99", RecordResult.format(sketch.getQuantile(0.99)));
+    }
+
+    public void clear()
+    {
+      sketch.clear();
+      min = Double.POSITIVE_INFINITY;
+      max = Double.NEGATIVE_INFINITY;
+      sum = 0;
+      count = 0;
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+package de.homestack.satellite.metrics.aggregation;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import de.homestack.satellite.metrics.execution.MetricExecution;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Aggregates the records of high-frequency metrics into rolling windows and emits a single summarized record per window.
+ * Aggregation is opt-in: it applies to metrics with an "aggregate" preference (the comma separated numeric results to
+ * summarize) and to metrics of the configured types, as long as their interval is shorter than the window.
+ * Records whose state differs from the previous record are not swallowed, they pass through right away.
+ * Windows that do not receive records anymore are emitted by a periodic sweep.
+ * <p>
+ * A summarized record has the state of the last record in the window and the following results:
+ * <ul>
+ *   <li>samples - number of records in the window, samples.&lt;state&gt; the number of records per state</li>
+ *   <li>transitions - number of state changes within the window</li>
+ *   <li>&lt;key&gt; - mean of an aggregated result, &lt;key&gt;.min, &lt;key&gt;.max, &lt;key&gt;.p50, &lt;key&gt;.p90
+ *   and &lt;key&gt;.p99 its distribution (negative values mark failed measurements and are left out)</li>
+ *   <li>all other results with the value of the last record, that contained them</li>
+ * </ul>
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class MetricWindowAggregator
+{
+  private static final Logger _LOGGER = Logger.getLogger(MetricWindowAggregator.class);
+  private static final String _AGGREGATE_KEY = "aggregate";
+  private static final String _DEFAULT_AGGREGATE = "responseTime";
+
+  @ConfigProperty(name = "homestack.satellite.aggregate.window", defaultValue = "60")
+  protected long windowSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.aggregate.types")
+  protected Optional<String> types;
+
+  private final Map<String, MetricWindow> windows = new ConcurrentHashMap<>();
+  private Set<String> aggregatedTypes;
+  private ScheduledExecutorService sweeper;
+  private volatile BiConsumer<MetricExecution, IMetricRecord> consumer;
+
+  @PostConstruct
+  void init()
+  {
+    aggregatedTypes = new HashSet<>();
+    for (String type : types.orElse("").split(","))
+      if (!type.isBlank())
+        aggregatedTypes.add(type.trim().toLowerCase(Locale.ROOT));
+    sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                             .setNameFormat("tMetricAggregator-%d")
+                                                             .setDaemon(true)
+                                                             .build());
+    if (windowSeconds > 0)
+      sweeper.scheduleWithFixedDelay(this::_sweep, 1, 1, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    sweeper.shutdown();
+  }
+
+  /**
+   * Sets the consumer, that receives the summarized records
+   *
+   * @param pConsumer Consumer, called on the thread that closes the window with the execution of the metric and the summary
+   */
+  public void setConsumer(@NotNull BiConsumer<MetricExecution, IMetricRecord> pConsumer)
+  {
+    consumer = pConsumer;
+  }
+
+  /**
+   * Offers a single record to this aggregator
+   *
+   * @param pExecution Execution that produced the record
+   * @param pRecord    Record of the execution
+   * @return true, if the record was aggregated and must not be reported on its own
+   */
+  public boolean aggregate(@NotNull MetricExecution pExecution, @NotNull IMetricRecord pRecord)
+  {
+    long window = TimeUnit.SECONDS.toNanos(windowSeconds);
+    if (window <= 0 || pExecution.getInterval().toNanos() >= window || !_isAggregated(pExecution))
+      return false;
+
+    long now = System.nanoTime();
+    String metricID = pExecution.getMetric().id;
+    MetricWindow metricWindow = windows.computeIfAbsent(metricID, pID -> new MetricWindow(pExecution, _getKeys(pExecution), now));
+    Map<String, String> summary = null;
+    EMetricRecordState summaryState = null;
+    boolean stateChanged;
+
+    synchronized (metricWindow)
+    {
+      if (now - metricWindow.getStart() >= window && metricWindow.getCount() > 0)
+      {
+        summaryState = metricWindow.getLastState();
+        summary = metricWindow.roll(now);
+      }
+      stateChanged = metricWindow.add(pRecord);
+    }
+
+    if (summary != null)
+      _emit(metricWindow.getExecution(), summaryState, summary);
+    return !stateChanged;
+  }
+
+  /**
+   * Emits the current window of the given metric and forgets it
+   *
+   * @param pMetricID ID of the metric
+   */
+  public void forget(@NotNull String pMetricID)
+  {
+    MetricWindow metricWindow = windows.remove(pMetricID);
+    if (metricWindow != null)
+      _close(metricWindow, System.nanoTime());
+  }
+
+  /**
+   * Emits all windows, that are older than the window size
+   */
+  private void _sweep()
+  {
+    try
+    {
+      long now = System.nanoTime();
+      long window = TimeUnit.SECONDS.toNanos(windowSeconds);
+      windows.forEach((pMetricID, pWindow) -> {
+        if (now - pWindow.getStart() >= window)
+          _close(pWindow, now);
+      });
+    }
+    catch (Exception e)
+    {
+      _LOGGER.warn("Failed to emit aggregated metric windows", e);
+    }
+  }
+
+  /**
+   * Summarizes the given window, if it contains any records
+   */
+  private void _close(@NotNull MetricWindow pWindow, long pNow)
+  {
+    Map<String, String> summary = null;
+    EMetricRecordState state = null;
+    synchronized (pWindow)
+    {
+      if (pWindow.getCount() > 0)
+      {
+        state = pWindow.getLastState();
+        summary = pWindow.roll(pNow);
+      }
+    }
+
+    if (summary != null)
+      _emit(pWindow.getExecution(), state, summary);
+  }
+
+  /**
+   * Passes a summarized record to the consumer
+   */
+  private void _emit(@NotNull MetricExecution pExecution, @NotNull EMetricRecordState pState, @NotNull Map<String, String> pSummary)
+  {
+    BiConsumer<MetricExecution, IMetricRecord> currentConsumer = consumer;
+    if (currentConsumer != null)
+      currentConsumer.accept(pExecution, new _Summary(pState, pSummary));
+  }
+
+  /**
+   * @return true, if the given execution opted in to the aggregation
+   */
+  private boolean _isAggregated(@NotNull MetricExecution pExecution)
+  {
+    String type = pExecution.getMetric().type;
+    return !pExecution.getPreferences().getValue(_AGGREGATE_KEY, "").isBlank() ||
+        (type != null && aggregatedTypes.contains(type.toLowerCase(Locale.ROOT)));
+  }
+
+  /**
+   * Reads the numeric result keys, that should be aggregated, from the preferences of the metric
+   */
+  @NotNull
+  private static String[] _getKeys(@NotNull MetricExecution pExecution)
+  {
+    return Arrays.stream(pExecution.getPreferences().getValue(_AGGREGATE_KEY, _DEFAULT_AGGREGATE).split(","))
+        .map(String::trim)
+        .filter(pKey -> !pKey.isEmpty())
+        .distinct()
+        .toArray(String[]::new);
+  }
+
+  /**
+   * Summarized record of a single window
+   */
+  private static class _Summary implements IMetricRecord
+  {
+    private final EMetricRecordState state;
+    private final Map<String, String> result;
+
+    public _Summary(@NotNull EMetricRecordState pState, @NotNull Map<String, String> pResult)
+    {
+      state = pState;
+      result = pResult;
+    }
+
+    @NotNull
+    @Override
+    public EMetricRecordState getState()
+    {
+      return state;
+    }
+
+    @Nullable
+    @Override
+    public Map<String, String> getResult()
+    {
+      return result;
+    }
+  }
+
+}
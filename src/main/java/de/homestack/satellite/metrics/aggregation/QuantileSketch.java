@@ -0,0 +1,151 @@
+package de.homestack.satellite.metrics.aggregation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative accuracy and fixed memory.
+ * Values are counted in logarithmic buckets, so that every quantile is accurate to the relative error of the sketch.
+ * The buckets are stored in a fixed-size array - if the values span more buckets than that,
+ * the lowest buckets are collapsed, so that only the accuracy of the lowest quantiles suffers.
+ * Values less than or equal to zero are counted separately.
+ * Instances are not thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+public class QuantileSketch
+{
+  private static final double _RELATIVE_ACCURACY = 0.02;
+  private static final double _GAMMA = (1 + _RELATIVE_ACCURACY) / (1 - _RELATIVE_ACCURACY);
+  private static final double _LOG_GAMMA = Math.log(_GAMMA);
+  private static final int _MAX_BUCKETS = 256; // covers values spanning four orders of magnitude
+
+  private final int[] counts = new int[_MAX_BUCKETS];
+  private int offset = Integer.MIN_VALUE; // bucket index of counts[0], MIN_VALUE if no positive value was added yet
+  private long zeroCount = 0;
+  private long count = 0;
+
+  /**
+   * Adds a single value to this sketch
+   *
+   * @param pValue Value to add
+   */
+  public void add(double pValue)
+  {
+    if (Double.isNaN(pValue))
+      return;
+
+    count++;
+    if (pValue <= 0)
+      zeroCount++;
+    else
+      _addToBucket((int) Math.ceil(Math.log(pValue) / _LOG_GAMMA), 1);
+  }
+
+  /**
+   * Adds all values of the given sketch to this sketch
+   *
+   * @param pOther Sketch to merge
+   */
+  public void merge(@NotNull QuantileSketch pOther)
+  {
+    count += pOther.count;
+    zeroCount += pOther.zeroCount;
+    if (pOther.offset == Integer.MIN_VALUE)
+      return;
+
+    for (int i = 0; i < _MAX_BUCKETS; i++)
+      if (pOther.counts[i] > 0)
+        _addToBucket(pOther.offset + i, pOther.counts[i]);
+  }
+
+  /**
+   * @return the number of values in this sketch
+   */
+  public long getCount()
+  {
+    return count;
+  }
+
+  /**
+   * Returns the approximated quantile of all added values
+   *
+   * @param pQuantile Quantile, between 0 and 1
+   * @return the value, NaN if this sketch is empty
+   */
+  public double getQuantile(double pQuantile)
+  {
+    if (count == 0)
+      return Double.NaN;
+
+    long rank = (long) (Math.max(0, Math.min(1, pQuantile)) * (count - 1));
+    if (rank < zeroCount)
+      return 0;
+
+    long seen = zeroCount;
+    for (int i = 0; i < _MAX_BUCKETS; i++)
+    {
+      seen += counts[i];
+      if (seen > rank)
+        return 2 * Math.pow(_GAMMA, offset + i) / (_GAMMA + 1);
+    }
+    return 2 * Math.pow(_GAMMA, offset + _MAX_BUCKETS - 1) / (_GAMMA + 1);
+  }
+
+  /**
+   * Removes all values from this sketch
+   */
+  public void clear()
+  {
+    Arrays.fill(counts, 0);
+    offset = Integer.MIN_VALUE;
+    zeroCount = 0;
+    count = 0;
+  }
+
+  /**
+   * Counts the given number of values into the bucket with the given index
+   */
+  private void _addToBucket(int pIndex, int pCount)
+  {
+    if (offset == Integer.MIN_VALUE)
+      offset = pIndex - _MAX_BUCKETS / 2;
+
+    if (pIndex >= offset + _MAX_BUCKETS)
+    {
+      // shift the window up and collapse the lowest buckets into the new lowest one
+      int shift = pIndex - (offset + _MAX_BUCKETS - 1);
+      int collapsed = 0;
+      for (int i = 0; i < Math.min(shift + 1, _MAX_BUCKETS); i++)
+        collapsed += counts[i];
+      if (shift < _MAX_BUCKETS)
+      {
+        System.arraycopy(counts, shift, counts, 0, _MAX_BUCKETS - shift);
+        Arrays.fill(counts, _MAX_BUCKETS - shift, _MAX_BUCKETS, 0);
+      }
+      else
+        Arrays.fill(counts, 0);
+      counts[0] = collapsed;
+      offset += shift;
+    }
+    else if (pIndex < offset)
+    {
+      // shift the window down, as far as the highest non-empty bucket allows
+      int highest = _MAX_BUCKETS - 1;
+      while (highest > 0 && counts[highest] == 0)
+        highest--;
+      int shift = Math.min(offset - pIndex, _MAX_BUCKETS - 1 - highest);
+      if (shift > 0)
+      {
+        System.arraycopy(counts, 0, counts, shift, _MAX_BUCKETS - shift);
+        Arrays.fill(counts, 0, shift, 0);
+        offset -= shift;
+      }
+    }
+
+    // values that are still below the window are counted in the lowest bucket
+    counts[Math.max(0, pIndex - offset)] += pCount;
+  }
+
+}
@@ -0,0 +1,46 @@
+package de.homestack.satellite.metrics.api;
+
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import org.jetbrains.annotations.*;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Executor that executes its metrics without blocking a thread.
+ * Executors that only implement {@link IMetricExecutor} are bridged to this contract
+ * by running them on a bounded pool of blocking threads.
+ *
+ * @author agent, 18.10.2026
+ */
+public interface IAsyncMetricExecutor extends IMetricExecutor
+{
+
+  /**
+   * Starts the execution of this metric component for a given device.
+   * This method must not block, it gets called on one of the few event loop threads of the satellite.
+   * If the returned future gets cancelled, the executor should release all resources of this execution.
+   *
+   * @param pDevice      Device to check
+   * @param pAddress     Resolved address of the device, null if it could not be resolved
+   * @param pPreferences The Preferences for this metric execution
+   * @return future that completes with the result
+   */
+  @NotNull
+  CompletableFuture<IMetricRecord> executeAsync(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress, @NotNull IMetricPreferences pPreferences);
+
+  @NotNull
+  @Override
+  default IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences)
+  {
+    return execute(pDevice, null, pPreferences);
+  }
+
+  @NotNull
+  @Override
+  default IMetricRecord execute(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress, @NotNull IMetricPreferences pPreferences)
+  {
+    return executeAsync(pDevice, pAddress, pPreferences).join();
+  }
+
+}
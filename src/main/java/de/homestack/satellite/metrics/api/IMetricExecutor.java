@@ -1,7 +1,9 @@
 package de.homestack.satellite.metrics.api;
 
 import io.conceptive.homestack.model.data.device.DeviceDataModel;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.*;
+
+import java.net.InetAddress;
 
 /**
  * Executor to provide metrics analysis
@@ -38,4 +40,20 @@ public interface IMetricExecutor
   @NotNull
   IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences);
 
+  /**
+   * Executes this metric component for a given device, whose address was already resolved.
+   * Executors that work with the address of the device should override this method,
+   * so that they do not have to resolve it on every execution.
+   *
+   * @param pDevice      Device to check
+   * @param pAddress     Resolved address of the device, null if it could not be resolved
+   * @param pPreferences The Preferences for this metric execution
+   * @return the result, not null
+   */
+  @NotNull
+  default IMetricRecord execute(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress, @NotNull IMetricPreferences pPreferences)
+  {
+    return execute(pDevice, pPreferences);
+  }
+
 }
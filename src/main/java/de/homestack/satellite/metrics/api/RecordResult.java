@@ -0,0 +1,191 @@
+package de.homestack.satellite.metrics.api;
+
+import org.jetbrains.annotations.*;
+
+import java.util.*;
+
+/**
+ * Compact result of a single record. Keys and values are stored alternating in one flat array,
+ * so a record with a handful of results needs two allocations instead of a hash table with one node per result.
+ * Lookups scan the array, which is faster than hashing for the few keys a record has.
+ * Keys keep their insertion order. Instances are not thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+public class RecordResult extends AbstractMap<String, String>
+{
+  private String[] entries; // key, value, key, value, ...
+  private int size = 0;
+
+  public RecordResult()
+  {
+    this(4);
+  }
+
+  /**
+   * @param pExpectedSize Number of results, that will be put into this map
+   */
+  public RecordResult(int pExpectedSize)
+  {
+    entries = new String[Math.max(1, pExpectedSize) * 2];
+  }
+
+  /**
+   * Formats the given numeric result with three decimals, like String.format("%.3f") does,
+   * but without parsing a format string or creating intermediate objects
+   *
+   * @param pValue Value to format
+   * @return the formatted value
+   */
+  @NotNull
+  public static String format(double pValue)
+  {
+    long scaled = Math.round(Math.abs(pValue) * 1000);
+    StringBuilder builder = new StringBuilder(24);
+    if (pValue < 0 && scaled != 0)
+      builder.append('-');
+    builder.append(scaled / 1000).append('.');
+    long fraction = scaled % 1000;
+    if (fraction < 100)
+      builder.append('0');
+    if (fraction < 10)
+      builder.append('0');
+    return builder.append(fraction).toString();
+  }
+
+  @Override
+  public int size()
+  {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object pKey)
+  {
+    return _indexOf(pKey) >= 0;
+  }
+
+  @Override
+  public String get(Object pKey)
+  {
+    int index = _indexOf(pKey);
+    return index < 0 ? null : entries[index + 1];
+  }
+
+  @Override
+  public String put(@NotNull String pKey, @NotNull String pValue)
+  {
+    int index = _indexOf(pKey);
+    if (index >= 0)
+    {
+      String previous = entries[index + 1];
+      entries[index + 1] = pValue;
+      return previous;
+    }
+
+    if (size * 2 == entries.length)
+      entries = Arrays.copyOf(entries, entries.length * 2);
+    entries[size * 2] = pKey;
+    entries[size * 2 + 1] = pValue;
+    size++;
+    return null;
+  }
+
+  @Override
+  public String remove(Object pKey)
+  {
+    int index = _indexOf(pKey);
+    if (index < 0)
+      return null;
+
+    String previous = entries[index + 1];
+    _removeAt(index);
+    return previous;
+  }
+
+  @Override
+  public void clear()
+  {
+    Arrays.fill(entries, 0, size * 2, null);
+    size = 0;
+  }
+
+  @NotNull
+  @Override
+  public Set<Entry<String, String>> entrySet()
+  {
+    return new AbstractSet<>()
+    {
+      @Override
+      public int size()
+      {
+        return size;
+      }
+
+      @NotNull
+      @Override
+      public Iterator<Entry<String, String>> iterator()
+      {
+        return new _EntryIterator();
+      }
+    };
+  }
+
+  /**
+   * @return the index of the given key in the entries array, or -1 if it is not contained
+   */
+  private int _indexOf(@Nullable Object pKey)
+  {
+    for (int i = 0; i < size * 2; i += 2)
+      if (entries[i].equals(pKey))
+        return i;
+    return -1;
+  }
+
+  /**
+   * Removes the entry at the given index, keeping the order of all others
+   */
+  private void _removeAt(int pIndex)
+  {
+    System.arraycopy(entries, pIndex + 2, entries, pIndex, size * 2 - pIndex - 2);
+    size--;
+    entries[size * 2] = null;
+    entries[size * 2 + 1] = null;
+  }
+
+  /**
+   * Iterates the entries in insertion order
+   */
+  private class _EntryIterator implements Iterator<Entry<String, String>>
+  {
+    private int next = 0;
+    private int last = -1;
+
+    @Override
+    public boolean hasNext()
+    {
+      return next < size * 2;
+    }
+
+    @Override
+    public Entry<String, String> next()
+    {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      last = next;
+      next += 2;
+      return new SimpleImmutableEntry<>(entries[last], entries[last + 1]);
+    }
+
+    @Override
+    public void remove()
+    {
+      if (last < 0)
+        throw new IllegalStateException();
+      _removeAt(last);
+      next = last;
+      last = -1;
+    }
+  }
+
+}
@@ -3,17 +3,18 @@ package de.homestack.satellite.metrics.api;
 import io.conceptive.homestack.model.data.metric.EMetricRecordState;
 import org.jetbrains.annotations.*;
 
-import java.util.*;
+import java.util.Map;
 
 /**
- * Simple Metric Record implementation
+ * Simple Metric Record implementation.
+ * The results are allocated with the first one, so records without any result stay a single object.
  *
  * @author w.glanzer, 02.11.2020
  */
 public class SimpleMetricRecord implements IMetricRecord
 {
   private final EMetricRecordState state;
-  private final Map<String, String> result = new HashMap<>();
+  private RecordResult result;
 
   public SimpleMetricRecord(@NotNull EMetricRecordState pState)
   {
@@ -31,7 +32,7 @@ public class SimpleMetricRecord implements IMetricRecord
   @Override
   public Map<String, String> getResult()
   {
-    if (!result.isEmpty())
+    if (result != null && !result.isEmpty())
       return result;
     return null;
   }
@@ -42,7 +43,18 @@ public class SimpleMetricRecord implements IMetricRecord
   @NotNull
   public SimpleMetricRecord withResult(@NotNull String pKey, @NotNull String pValue)
   {
+    if (result == null)
+      result = new RecordResult();
     result.put(pKey, pValue);
     return this;
   }
+
+  /**
+   * Adds a new numeric result key to this record, formatted with three decimals
+   */
+  @NotNull
+  public SimpleMetricRecord withResult(@NotNull String pKey, double pValue)
+  {
+    return withResult(pKey, RecordResult.format(pValue));
+  }
 }
@@ -0,0 +1,370 @@
+package de.homestack.satellite.metrics.execution;
+
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.net.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Adapts the probing of each metric to its history.
+ * Metrics that keep failing are backed off exponentially, up to a maximum interval, so that devices that are powered off
+ * do not occupy the execution slots with their timeouts. Metrics that are flapping between states are probed faster,
+ * until they settled again. On top of that, every network (IPv4 /24 by default, IPv6 /64) has its own token bucket,
+ * so that a cycle with many due metrics does not flood a small router - executions without a token are deferred
+ * until the bucket refilled. Buckets are dropped again, as soon as the last metric of their network was forgotten.
+ * The time is always passed in explicitly, so the policy can be driven by a simulated clock.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class AdaptiveProbePolicy
+{
+  /**
+   * Result of {@link #admit(MetricExecution, long)}, if the execution may run now
+   */
+  public static final long ADMIT = 0;
+
+  private static final int _FLAP_WINDOW_MASK = 0xFFFF; // the last 16 results
+  private static final long _MIN_FLAP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int _IPV6_PREFIX = 64;
+
+  @ConfigProperty(name = "homestack.satellite.probe.adaptive", defaultValue = "true")
+  protected boolean adaptive;
+
+  @ConfigProperty(name = "homestack.satellite.probe.backoff.threshold", defaultValue = "3")
+  protected int backoffThreshold;
+
+  @ConfigProperty(name = "homestack.satellite.probe.backoff.max", defaultValue = "900")
+  protected long maxBackoffSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.probe.flap.threshold", defaultValue = "4")
+  protected int flapThreshold;
+
+  @ConfigProperty(name = "homestack.satellite.probe.flap.factor", defaultValue = "4")
+  protected int flapFactor;
+
+  @ConfigProperty(name = "homestack.satellite.probe.network.rate", defaultValue = "50")
+  protected double networkRate; // probes per second, 0 disables the token buckets
+
+  @ConfigProperty(name = "homestack.satellite.probe.network.burst", defaultValue = "25")
+  protected int networkBurst;
+
+  @ConfigProperty(name = "homestack.satellite.probe.network.prefix", defaultValue = "24")
+  protected int networkPrefix;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Map<String, _State> states = new ConcurrentHashMap<>();
+  private final Map<String, _Bucket> buckets = new HashMap<>(); // guarded by itself
+  private final Map<InetAddress, _Address> addresses = new HashMap<>(); // guarded by buckets
+
+  @PostConstruct
+  void init()
+  {
+    instrumentation.gauge("probe.backoff", "Metrics, that are backed off because they keep failing", this, pPolicy -> pPolicy._count(true));
+    instrumentation.gauge("probe.flapping", "Metrics, that are probed faster because they are flapping", this, pPolicy -> pPolicy._count(false));
+    instrumentation.gauge("probe.networks", "Networks, whose probes are limited by a token bucket", this, AdaptiveProbePolicy::_countNetworks);
+  }
+
+  /**
+   * Decides, if a due execution may run now. If its network has no token left, a token is reserved
+   * and the time until the reservation is valid gets returned - the execution has to be deferred by that time
+   * and is admitted unconditionally, the next time it is due.
+   *
+   * @param pExecution Execution that is due
+   * @param pNowNanos  Current time, in nanoseconds
+   * @return {@link #ADMIT}, or the time in nanoseconds, the execution has to be deferred
+   */
+  public long admit(@NotNull MetricExecution pExecution, long pNowNanos)
+  {
+    _State state = states.computeIfAbsent(pExecution.getMetric().id, pID -> new _State());
+    synchronized (state)
+    {
+      if (state.forgotten)
+        return ADMIT; // forgotten concurrently, it must not occupy a bucket anymore
+
+      if (state.reserved)
+      {
+        state.reserved = false;
+        return ADMIT;
+      }
+
+      _Bucket bucket = _getBucket(pExecution.getMetric().id, state, pExecution.getAddress());
+      if (bucket == null)
+        return ADMIT;
+
+      long wait = bucket.reserve(pNowNanos);
+      if (wait <= 0)
+        return ADMIT;
+      state.reserved = true;
+      return wait;
+    }
+  }
+
+  /**
+   * Records the result of an execution and computes its new interval
+   *
+   * @param pExecution Execution that finished
+   * @param pRecord    Record of the execution
+   * @return the new interval of the execution, or null if it did not change
+   */
+  @Nullable
+  public Duration onResult(@NotNull MetricExecution pExecution, @NotNull IMetricRecord pRecord)
+  {
+    if (!adaptive)
+      return null;
+
+    _State state = states.computeIfAbsent(pExecution.getMetric().id, pID -> new _State());
+    synchronized (state)
+    {
+      EMetricRecordState recordState = pRecord.getState();
+      boolean changed = state.lastState != null && state.lastState != recordState;
+      state.transitions = (state.transitions << 1) | (changed ? 1 : 0);
+      state.lastState = recordState;
+      state.consecutiveFailures = recordState == EMetricRecordState.FAILURE ? state.consecutiveFailures + 1 : 0;
+
+      long configured = pExecution.getInterval().toNanos();
+      long interval = _computeInterval(state, configured);
+      if (interval == (state.intervalNanos == 0 ? configured : state.intervalNanos))
+        return null;
+      state.intervalNanos = interval;
+      return Duration.ofNanos(interval);
+    }
+  }
+
+  /**
+   * Forgets the history of the given metric, e.g. because it was reconfigured
+   *
+   * @param pMetricID ID of the metric
+   */
+  public void forget(@NotNull String pMetricID)
+  {
+    _State state = states.remove(pMetricID);
+    if (state != null)
+      synchronized (state)
+      {
+        state.forgotten = true;
+        _detach(pMetricID, state);
+      }
+  }
+
+  /**
+   * Computes the interval of a metric from its history
+   *
+   * @param pState         State of the metric
+   * @param pIntervalNanos Configured interval of the metric
+   * @return the interval in nanoseconds
+   */
+  private long _computeInterval(@NotNull _State pState, long pIntervalNanos)
+  {
+    int threshold = Math.max(1, backoffThreshold);
+    if (pState.consecutiveFailures >= threshold)
+    {
+      // double the interval with every failure after the threshold, but never beyond the maximum
+      long maxNanos = Math.max(pIntervalNanos, TimeUnit.SECONDS.toNanos(maxBackoffSeconds));
+      int exponent = pState.consecutiveFailures - threshold + 1;
+      if (exponent >= Long.numberOfLeadingZeros(pIntervalNanos) - 1)
+        return maxNanos; // shifting would overflow
+      return Math.min(maxNanos, pIntervalNanos << exponent);
+    }
+
+    if (Integer.bitCount(pState.transitions & _FLAP_WINDOW_MASK) >= Math.max(1, flapThreshold))
+      return Math.min(pIntervalNanos, Math.max(_MIN_FLAP_INTERVAL_NANOS, pIntervalNanos / Math.max(1, flapFactor)));
+
+    return pIntervalNanos;
+  }
+
+  /**
+   * Returns the token bucket of the network the given address belongs to.
+   * The bucket is remembered by the state of the metric, so that the shared maps are only touched if its address changed.
+   *
+   * @param pMetricID ID of the metric
+   * @param pState    State of the metric, locked by the caller
+   * @param pAddress  Address of the device
+   * @return the bucket, or null if the probes to this address are not limited
+   */
+  @Nullable
+  private _Bucket _getBucket(@NotNull String pMetricID, @NotNull _State pState, @Nullable InetAddress pAddress)
+  {
+    if (pAddress == null || networkRate <= 0 || pAddress.isLoopbackAddress())
+    {
+      _detach(pMetricID, pState);
+      return null;
+    }
+
+    if (pAddress.equals(pState.address))
+      return pState.bucket;
+
+    _detach(pMetricID, pState);
+    synchronized (buckets)
+    {
+      _Address address = addresses.get(pAddress);
+      if (address == null)
+      {
+        String network = _getNetwork(pAddress);
+        _Bucket bucket = buckets.computeIfAbsent(network, pNetwork -> new _Bucket(pNetwork, networkRate, networkBurst));
+        bucket.addresses++;
+        address = new _Address(bucket);
+        addresses.put(pAddress, address);
+      }
+      address.metricIDs.add(pMetricID);
+      pState.address = pAddress;
+      pState.bucket = address.bucket;
+    }
+    return pState.bucket;
+  }
+
+  /**
+   * Releases the bucket of the given metric, the bucket itself is dropped if no other metric of its network uses it
+   *
+   * @param pMetricID ID of the metric
+   * @param pState    State of the metric, locked by the caller
+   */
+  private void _detach(@NotNull String pMetricID, @NotNull _State pState)
+  {
+    if (pState.address == null)
+      return;
+
+    synchronized (buckets)
+    {
+      _Address address = addresses.get(pState.address);
+      if (address != null && address.metricIDs.remove(pMetricID) && address.metricIDs.isEmpty())
+      {
+        addresses.remove(pState.address);
+        if (--address.bucket.addresses == 0)
+          buckets.remove(address.bucket.network);
+      }
+    }
+    pState.address = null;
+    pState.bucket = null;
+  }
+
+  /**
+   * Determines the network of the given address, e.g. 192.168.1.0/24
+   */
+  @NotNull
+  private String _getNetwork(@NotNull InetAddress pAddress)
+  {
+    byte[] bytes = pAddress.getAddress();
+    int prefix = pAddress instanceof Inet4Address ? Math.max(0, Math.min(32, networkPrefix)) : _IPV6_PREFIX;
+    for (int i = 0; i < bytes.length; i++)
+    {
+      int bits = Math.max(0, Math.min(8, prefix - i * 8));
+      bytes[i] &= (byte) (0xFF00 >> bits);
+    }
+
+    try
+    {
+      return InetAddress.getByAddress(bytes).getHostAddress() + "/" + prefix;
+    }
+    catch (UnknownHostException e)
+    {
+      return pAddress.getHostAddress(); // can not happen, the length of the address is valid
+    }
+  }
+
+  /**
+   * @return the number of networks, that currently have a token bucket
+   */
+  private double _countNetworks()
+  {
+    synchronized (buckets)
+    {
+      return buckets.size();
+    }
+  }
+
+  /**
+   * @param pBackoff true to count the backed off metrics, false to count the flapping ones
+   * @return the number of metrics, that currently run with an adapted interval
+   */
+  private double _count(boolean pBackoff)
+  {
+    int threshold = Math.max(1, backoffThreshold);
+    int count = 0;
+    for (_State state : states.values())
+    {
+      synchronized (state)
+      {
+        boolean backoff = state.consecutiveFailures >= threshold;
+        if (pBackoff ? backoff : !backoff && Integer.bitCount(state.transitions & _FLAP_WINDOW_MASK) >= Math.max(1, flapThreshold))
+          count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * History of a single metric
+   */
+  private static class _State
+  {
+    private EMetricRecordState lastState;
+    private int transitions = 0; // one bit per result, set if the state changed
+    private int consecutiveFailures = 0;
+    private long intervalNanos = 0; // 0 as long as the configured interval is used
+    private boolean reserved = false; // true, if a token was reserved for the next execution
+    private InetAddress address; // address, the bucket was looked up for
+    private _Bucket bucket;
+    private boolean forgotten = false;
+  }
+
+  /**
+   * Metrics probing a single address
+   */
+  private static class _Address
+  {
+    private final _Bucket bucket;
+    private final Set<String> metricIDs = new HashSet<>();
+
+    public _Address(@NotNull _Bucket pBucket)
+    {
+      bucket = pBucket;
+    }
+  }
+
+  /**
+   * Token bucket of a single network, implemented as generic cell rate algorithm:
+   * instead of counting tokens, the bucket remembers the theoretical time, at which the next probe would be allowed
+   */
+  private static class _Bucket
+  {
+    private final String network;
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private long theoreticalArrival = Long.MIN_VALUE; // guarded by this
+    private int addresses = 0; // number of addresses using this bucket, guarded by the buckets of the policy
+
+    public _Bucket(@NotNull String pNetwork, double pRate, int pBurst)
+    {
+      network = pNetwork;
+      emissionNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / pRate));
+      toleranceNanos = emissionNanos * Math.max(0, pBurst - 1);
+    }
+
+    /**
+     * Reserves a single token
+     *
+     * @param pNowNanos Current time, in nanoseconds
+     * @return the time in nanoseconds until the token is valid, 0 if it is valid immediately
+     */
+    public synchronized long reserve(long pNowNanos)
+    {
+      long arrival = theoreticalArrival == Long.MIN_VALUE ? pNowNanos : Math.max(theoreticalArrival, pNowNanos);
+      long wait = Math.max(0, arrival - toleranceNanos - pNowNanos);
+      theoreticalArrival = arrival + emissionNanos;
+      return wait;
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+package de.homestack.satellite.metrics.execution;
+
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import java.net.*;
+import java.util.concurrent.*;
+
+/**
+ * Resolves the host names of devices on a pool of its own, so that neither the thread that patches the execution plan
+ * nor the event loops are ever blocked by the system resolver.
+ * Every device gets a {@link DeviceAddress}, that keeps its resolved address for a limited time and looks it up again
+ * after it expired or after a lookup failed, so that changed DNS entries and transient failures heal by themselves.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class AddressResolver
+{
+  @ConfigProperty(name = "homestack.satellite.resolve.ttl", defaultValue = "300")
+  protected long ttlSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.resolve.negative-ttl", defaultValue = "30")
+  protected long negativeTtlSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.resolve.threads", defaultValue = "4")
+  protected int threads;
+
+  private ExecutorService executor;
+
+  @PostConstruct
+  void init()
+  {
+    executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactoryBuilder()
+        .setNameFormat("tAddressResolver-%d")
+        .setDaemon(true)
+        .build());
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    if (executor != null)
+      executor.shutdownNow();
+  }
+
+  /**
+   * Creates the address of a single device. IP literals are parsed right away,
+   * host names are looked up in the background, so that the address is usually known before it is needed.
+   *
+   * @param pHost Host name or IP literal of the device, null if the device has no address
+   * @return the address
+   */
+  @NotNull
+  public DeviceAddress create(@Nullable String pHost)
+  {
+    if (pHost == null || pHost.isBlank())
+      return new DeviceAddress(this, null, null);
+    if (InetAddresses.isInetAddress(pHost))
+      return new DeviceAddress(this, null, InetAddresses.forString(pHost));
+
+    DeviceAddress address = new DeviceAddress(this, pHost, null);
+    address.get();
+    return address;
+  }
+
+  /**
+   * Resolves the given host once, without caching it
+   *
+   * @param pHost Host name or IP literal
+   * @return future that completes with the address, or exceptionally with an {@link UnknownHostException}
+   */
+  @NotNull
+  public CompletableFuture<InetAddress> resolve(@NotNull String pHost)
+  {
+    if (InetAddresses.isInetAddress(pHost))
+      return CompletableFuture.completedFuture(InetAddresses.forString(pHost));
+
+    try
+    {
+      return CompletableFuture.supplyAsync(() -> {
+        try
+        {
+          return lookup(pHost);
+        }
+        catch (UnknownHostException e)
+        {
+          throw new CompletionException(e);
+        }
+      }, executor);
+    }
+    catch (RejectedExecutionException e)
+    {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Looks up the given host name with the system resolver, blocks the calling thread
+   *
+   * @param pHost Host name
+   * @return the address
+   * @throws UnknownHostException if the host could not be resolved
+   */
+  @NotNull
+  InetAddress lookup(@NotNull String pHost) throws UnknownHostException
+  {
+    return InetAddress.getByName(pHost);
+  }
+
+  /**
+   * @return the current time in nanoseconds, only meaningful in relation to other results of this method
+   */
+  long now()
+  {
+    return System.nanoTime();
+  }
+
+  /**
+   * @return how long a resolved address is valid, in nanoseconds
+   */
+  long getTtl()
+  {
+    return TimeUnit.SECONDS.toNanos(ttlSeconds);
+  }
+
+  /**
+   * @return how long to wait before a failed lookup is retried, in nanoseconds
+   */
+  long getNegativeTtl()
+  {
+    return TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+  }
+
+}
@@ -0,0 +1,109 @@
+package de.homestack.satellite.metrics.execution;
+
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Address of a single device, resolved by the {@link AddressResolver}.
+ * A resolved address is valid for the ttl of the resolver. After that, it is still returned,
+ * but it gets looked up again in the background. If a lookup fails, the previous address is kept
+ * and the lookup is retried after the negative ttl. IP literals never expire.
+ *
+ * @author agent, 18.10.2026
+ */
+public class DeviceAddress
+{
+  private static final Logger _LOGGER = Logger.getLogger(DeviceAddress.class);
+
+  private final AddressResolver resolver;
+  private final String host; // null, if the address never changes
+  private volatile InetAddress address;
+  private volatile long expiresAt;
+  private CompletableFuture<InetAddress> lookup; // guarded by this
+
+  DeviceAddress(@NotNull AddressResolver pResolver, @Nullable String pHost, @Nullable InetAddress pAddress)
+  {
+    resolver = pResolver;
+    host = pHost;
+    address = pAddress;
+    expiresAt = pResolver.now();
+  }
+
+  /**
+   * @return the address as it was resolved last, null if it is not known (yet)
+   */
+  @Nullable
+  public InetAddress getCurrent()
+  {
+    return address;
+  }
+
+  /**
+   * Returns the address without waiting, if it is known - even if it expired, which triggers a lookup in the background.
+   * Otherwise, the returned future completes as soon as the address was looked up.
+   *
+   * @return future that completes with the address, or with null if it could not be resolved
+   */
+  @NotNull
+  public CompletableFuture<InetAddress> get()
+  {
+    InetAddress current = address;
+    if (host == null || resolver.now() - expiresAt < 0)
+      return CompletableFuture.completedFuture(current);
+
+    CompletableFuture<InetAddress> pending = _lookup();
+    return current != null ? CompletableFuture.completedFuture(current) : pending;
+  }
+
+  /**
+   * Starts a lookup, if there is none running yet
+   *
+   * @return future of the running lookup
+   */
+  @NotNull
+  private synchronized CompletableFuture<InetAddress> _lookup()
+  {
+    if (lookup != null)
+      return lookup;
+
+    CompletableFuture<InetAddress> next = new CompletableFuture<>();
+    lookup = next;
+    resolver.resolve(host).whenComplete((pAddress, pEx) -> next.complete(_update(pAddress)));
+    return next;
+  }
+
+  /**
+   * Stores the result of a lookup
+   *
+   * @param pAddress Address that was looked up, null if the lookup failed
+   * @return the address that is valid now
+   */
+  @Nullable
+  private synchronized InetAddress _update(@Nullable InetAddress pAddress)
+  {
+    lookup = null;
+    if (pAddress != null)
+    {
+      address = pAddress;
+      expiresAt = resolver.now() + resolver.getTtl();
+    }
+    else
+    {
+      _LOGGER.debug("Address " + host + " could not be resolved, " + (address == null ? "retrying later" : "keeping " + address));
+      expiresAt = resolver.now() + resolver.getNegativeTtl();
+    }
+    return address;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "DeviceAddress{" +
+        "host=" + host +
+        ", address=" + address +
+        '}';
+  }
+}
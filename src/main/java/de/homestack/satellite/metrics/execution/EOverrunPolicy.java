@@ -0,0 +1,49 @@
+package de.homestack.satellite.metrics.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Determines, what happens if an execution is due again, while its previous execution is still running
+ *
+ * @author agent, 18.10.2026
+ */
+public enum EOverrunPolicy
+{
+  /**
+   * The due execution is skipped, the schedule stays as it is
+   */
+  SKIP,
+
+  /**
+   * The due execution is skipped and the schedule is shifted,
+   * so that the next execution is due one interval after the running one finished
+   */
+  SHIFT,
+
+  /**
+   * The due execution is started right after the running one finished.
+   * Any further execution, that is due in the meantime, is skipped.
+   */
+  CATCH_UP;
+
+  /**
+   * Parses the given policy, e.g. "skip" or "catch-up"
+   *
+   * @param pValue Value to parse
+   * @return the policy
+   * @throws IllegalArgumentException if the value is not a valid policy
+   */
+  @NotNull
+  public static EOverrunPolicy parse(@NotNull String pValue)
+  {
+    return valueOf(pValue.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+
+  @Override
+  public String toString()
+  {
+    return name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+}
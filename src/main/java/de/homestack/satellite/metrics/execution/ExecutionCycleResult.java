@@ -0,0 +1,81 @@
+package de.homestack.satellite.metrics.execution;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Summary of a single collection cycle, executed by the {@link MetricExecutionEngine}
+ *
+ * @author agent, 18.10.2026
+ */
+public class ExecutionCycleResult
+{
+  private final int executionCount;
+  private final int failureCount;
+  private final int skippedCount;
+  private final int timedOutCount;
+  private final Duration duration;
+
+  public ExecutionCycleResult(int pExecutionCount, int pFailureCount, int pSkippedCount, int pTimedOutCount, @NotNull Duration pDuration)
+  {
+    executionCount = pExecutionCount;
+    failureCount = pFailureCount;
+    skippedCount = pSkippedCount;
+    timedOutCount = pTimedOutCount;
+    duration = pDuration;
+  }
+
+  /**
+   * @return number of executions that were part of this cycle
+   */
+  public int getExecutionCount()
+  {
+    return executionCount;
+  }
+
+  /**
+   * @return number of executions that failed with an exception or exceeded their deadline
+   */
+  public int getFailureCount()
+  {
+    return failureCount;
+  }
+
+  /**
+   * @return number of executions that were not started, because they were still running from a previous cycle
+   */
+  public int getSkippedCount()
+  {
+    return skippedCount;
+  }
+
+  /**
+   * @return number of executions that were cancelled, because they exceeded their deadline or the deadline of this cycle
+   */
+  public int getTimedOutCount()
+  {
+    return timedOutCount;
+  }
+
+  /**
+   * @return time between the start of the cycle and the completion of its slowest execution
+   */
+  @NotNull
+  public Duration getDuration()
+  {
+    return duration;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ExecutionCycleResult{" +
+        "executionCount=" + executionCount +
+        ", failureCount=" + failureCount +
+        ", skippedCount=" + skippedCount +
+        ", timedOutCount=" + timedOutCount +
+        ", duration=" + duration.toMillis() + "ms" +
+        '}';
+  }
+}
@@ -0,0 +1,254 @@
+package de.homestack.satellite.metrics.execution;
+
+import de.homestack.satellite.config.ConfigDiff;
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Precompiled plan of all executable metrics.
+ * Executors, preferences and intervals are resolved once, when the plan gets patched,
+ * so that a single execution does not have to look up anything. Device addresses are handed to the
+ * {@link AddressResolver}, which resolves them in the background and keeps them up to date.
+ * A plan is never rebuilt from scratch - it gets patched in place with the differences of the configuration,
+ * and only the metrics affected by those differences are compiled again. Patches are serialized by the lock of the plan,
+ * whether an execution is part of the plan may be checked concurrently.
+ *
+ * @author agent, 18.10.2026
+ */
+public class ExecutionPlan
+{
+  private static final Logger _LOGGER = Logger.getLogger(ExecutionPlan.class);
+  private static final String _INTERVAL_KEY = "interval"; // seconds
+  private static final String _DEADLINE_KEY = "deadline"; // seconds
+  private static final Duration _DEFAULT_INTERVAL = Duration.ofSeconds(15);
+  private static final long _MIN_INTERVAL_MS = 500;
+
+  private final Map<String, DeviceDataModel> devices = new HashMap<>(); // guarded by this
+  private final Map<String, DeviceAddress> addresses = new HashMap<>(); // guarded by this
+  private final Map<String, MetricDataModel> metrics = new HashMap<>(); // guarded by this
+  private final Map<String, Set<String>> metricsByDevice = new HashMap<>(); // guarded by this
+  private final Map<String, MetricExecution> executions = new ConcurrentHashMap<>();
+
+  /**
+   * Determines, if the given execution is still part of this plan. An execution, that got compiled again or removed
+   * by a patch, is not part of the plan anymore - even if its metric still is.
+   *
+   * @param pExecution Execution to check
+   * @return true, if it is the current execution of its metric
+   */
+  public boolean contains(@NotNull MetricExecution pExecution)
+  {
+    return executions.get(pExecution.getMetric().id) == pExecution;
+  }
+
+  /**
+   * Applies the given configuration difference to this plan
+   *
+   * @param pDiff      Difference to apply
+   * @param pExecutors All available executors, mapped by their (lowercased) type
+   * @param pResolver  Resolver for the addresses of added or changed devices
+   * @return the patch, containing the executions that changed
+   */
+  @NotNull
+  public synchronized Patch patch(@NotNull ConfigDiff pDiff, @NotNull Map<String, IMetricExecutor> pExecutors, @NotNull AddressResolver pResolver)
+  {
+    Set<String> affectedMetrics = new HashSet<>();
+
+    // devices
+    for (String deviceID : pDiff.getRemovedDevices())
+    {
+      devices.remove(deviceID);
+      addresses.remove(deviceID);
+      affectedMetrics.addAll(metricsByDevice.getOrDefault(deviceID, Set.of()));
+    }
+    _forEach(pDiff.getAddedDevices(), pDiff.getChangedDevices(), (pDeviceID, pDevice) -> {
+      DeviceDataModel old = devices.put(pDeviceID, pDevice);
+      if (old == null || !Objects.equals(old.address, pDevice.address) || !addresses.containsKey(pDeviceID))
+        addresses.put(pDeviceID, pResolver.create(pDevice.address));
+      affectedMetrics.addAll(metricsByDevice.getOrDefault(pDeviceID, Set.of()));
+    });
+
+    // metrics
+    for (String metricID : pDiff.getRemovedMetrics())
+    {
+      MetricDataModel old = metrics.remove(metricID);
+      if (old != null)
+        _unindex(old.deviceID, metricID);
+      affectedMetrics.add(metricID);
+    }
+    _forEach(pDiff.getAddedMetrics(), pDiff.getChangedMetrics(), (pMetricID, pMetric) -> {
+      MetricDataModel old = metrics.put(pMetricID, pMetric);
+      if (old != null)
+        _unindex(old.deviceID, pMetricID);
+      if (pMetric.deviceID != null)
+        metricsByDevice.computeIfAbsent(pMetric.deviceID, pID -> new HashSet<>()).add(pMetricID);
+      affectedMetrics.add(pMetricID);
+    });
+
+    // compile all affected metrics again
+    Map<String, MetricExecution> upserted = new HashMap<>();
+    Set<String> removed = new HashSet<>();
+    for (String metricID : affectedMetrics)
+    {
+      MetricExecution execution = _compile(metrics.get(metricID), devices, addresses, pExecutors);
+      MetricExecution old = execution == null ? executions.remove(metricID) : executions.put(metricID, execution);
+      if (execution != null)
+        upserted.put(metricID, execution);
+      else if (old != null)
+        removed.add(metricID);
+    }
+
+    return new Patch(executions.size(), upserted, removed);
+  }
+
+  /**
+   * Compiles a single metric to its execution
+   *
+   * @return the execution, or null if the metric can not be executed
+   */
+  @Nullable
+  private static MetricExecution _compile(@Nullable MetricDataModel pMetric, @NotNull Map<String, DeviceDataModel> pDevices,
+                                          @NotNull Map<String, DeviceAddress> pAddresses, @NotNull Map<String, IMetricExecutor> pExecutors)
+  {
+    if (pMetric == null || pMetric.type == null)
+      return null;
+
+    IMetricExecutor executor = pExecutors.get(pMetric.type.toLowerCase(Locale.ROOT));
+    if (executor == null)
+    {
+      _LOGGER.warn("Executor with id " + pMetric.type + " not found");
+      return null;
+    }
+
+    DeviceDataModel device = pMetric.deviceID == null ? null : pDevices.get(pMetric.deviceID);
+    if (device == null)
+    {
+      _LOGGER.warn("Device with id " + pMetric.deviceID + " not found");
+      return null;
+    }
+
+    if (!executor.canExecute())
+      return null;
+
+    IMetricPreferences preferences = new MetricPreferences(pMetric);
+    return new MetricExecution(pMetric, device, pAddresses.get(device.id), executor, preferences, _getInterval(preferences),
+                               _getDeadline(preferences));
+  }
+
+  /**
+   * Reads the execution interval of a single metric from its preferences
+   *
+   * @param pPreferences Preferences of the metric
+   * @return the interval
+   */
+  @NotNull
+  private static Duration _getInterval(@NotNull IMetricPreferences pPreferences)
+  {
+    String interval = pPreferences.getValue(_INTERVAL_KEY, "");
+    try
+    {
+      if (!interval.isBlank())
+        return Duration.ofMillis(Math.max(_MIN_INTERVAL_MS, Math.round(Double.parseDouble(interval) * 1000)));
+    }
+    catch (NumberFormatException e)
+    {
+      _LOGGER.warn("Invalid metric interval '" + interval + "', falling back to default");
+    }
+    return _DEFAULT_INTERVAL;
+  }
+
+  /**
+   * Reads the deadline of a single metric from its preferences
+   *
+   * @param pPreferences Preferences of the metric
+   * @return the deadline, or null if the default deadline applies
+   */
+  @Nullable
+  private static Duration _getDeadline(@NotNull IMetricPreferences pPreferences)
+  {
+    String deadline = pPreferences.getValue(_DEADLINE_KEY, "");
+    try
+    {
+      if (!deadline.isBlank())
+        return Duration.ofMillis(Math.max(1, Math.round(Double.parseDouble(deadline) * 1000)));
+    }
+    catch (NumberFormatException e)
+    {
+      _LOGGER.warn("Invalid metric deadline '" + deadline + "', falling back to default");
+    }
+    return null;
+  }
+
+  /**
+   * Removes the metric from the index of its device
+   */
+  private void _unindex(@Nullable String pDeviceID, @NotNull String pMetricID)
+  {
+    Set<String> metricIDs = pDeviceID == null ? null : metricsByDevice.get(pDeviceID);
+    if (metricIDs != null && metricIDs.remove(pMetricID) && metricIDs.isEmpty())
+      metricsByDevice.remove(pDeviceID);
+  }
+
+  /**
+   * Iterates over the entries of both maps
+   */
+  private static <T> void _forEach(@NotNull Map<String, T> pFirst, @NotNull Map<String, T> pSecond, @NotNull BiConsumer<String, T> pConsumer)
+  {
+    pFirst.forEach(pConsumer);
+    pSecond.forEach(pConsumer);
+  }
+
+  /**
+   * Result of patching a plan
+   */
+  public static class Patch
+  {
+    private final int executions;
+    private final Map<String, MetricExecution> upserted;
+    private final Set<String> removed;
+
+    private Patch(int pExecutions, @NotNull Map<String, MetricExecution> pUpserted, @NotNull Set<String> pRemoved)
+    {
+      executions = pExecutions;
+      upserted = pUpserted;
+      removed = pRemoved;
+    }
+
+    /**
+     * @return executions that were added or compiled again, mapped by the metric id
+     */
+    @NotNull
+    public Map<String, MetricExecution> getUpserted()
+    {
+      return upserted;
+    }
+
+    /**
+     * @return ids of the metrics that are not executable anymore
+     */
+    @NotNull
+    public Set<String> getRemoved()
+    {
+      return removed;
+    }
+
+    @Override
+    public String toString()
+    {
+      return "Patch{" +
+          "executions=" + executions +
+          ", upserted=" + upserted.size() +
+          ", removed=" + removed.size() +
+          '}';
+    }
+  }
+
+}
@@ -0,0 +1,178 @@
+package de.homestack.satellite.metrics.execution;
+
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import org.jetbrains.annotations.*;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * A single, executable unit of work: one metric on one device with its executor
+ *
+ * @author agent, 18.10.2026
+ */
+public class MetricExecution
+{
+  private final MetricDataModel metric;
+  private final DeviceDataModel device;
+  private final DeviceAddress address;
+  private final IMetricExecutor executor;
+  private final IMetricPreferences preferences;
+  private final Duration interval;
+  private final Duration deadline;
+
+  public MetricExecution(@NotNull MetricDataModel pMetric, @NotNull DeviceDataModel pDevice, @NotNull DeviceAddress pAddress,
+                         @NotNull IMetricExecutor pExecutor, @NotNull IMetricPreferences pPreferences, @NotNull Duration pInterval,
+                         @Nullable Duration pDeadline)
+  {
+    metric = pMetric;
+    device = pDevice;
+    address = pAddress;
+    executor = pExecutor;
+    preferences = pPreferences;
+    interval = pInterval;
+    deadline = pDeadline;
+  }
+
+  /**
+   * @return the metric that should be executed
+   */
+  @NotNull
+  public MetricDataModel getMetric()
+  {
+    return metric;
+  }
+
+  /**
+   * @return the device the metric belongs to
+   */
+  @NotNull
+  public DeviceDataModel getDevice()
+  {
+    return device;
+  }
+
+  /**
+   * @return the address of the device, as it was resolved last, null if it is not known (yet)
+   */
+  @Nullable
+  public InetAddress getAddress()
+  {
+    return address.getCurrent();
+  }
+
+  /**
+   * @return the executor to execute the metric with
+   */
+  @NotNull
+  public IMetricExecutor getExecutor()
+  {
+    return executor;
+  }
+
+  /**
+   * @return the preferences of the metric
+   */
+  @NotNull
+  public IMetricPreferences getPreferences()
+  {
+    return preferences;
+  }
+
+  /**
+   * @return the interval between two executions of the metric
+   */
+  @NotNull
+  public Duration getInterval()
+  {
+    return interval;
+  }
+
+  /**
+   * @return the maximum duration of a single execution of the metric, null if the default deadline applies
+   */
+  @Nullable
+  public Duration getDeadline()
+  {
+    return deadline;
+  }
+
+  /**
+   * Starts this unit. If the address of the device is not known yet, the unit waits for its lookup first.
+   * Asynchronous executors are started directly, blocking executors are bridged to the given executor.
+   * Cancelling the returned future stops the execution: asynchronous executors release their resources,
+   * the thread of a blocking executor gets interrupted.
+   *
+   * @param pBlockingExecutor Executor to run blocking executors on
+   * @return future that completes with the record
+   */
+  @NotNull
+  CompletableFuture<IMetricRecord> executeAsync(@NotNull ExecutorService pBlockingExecutor)
+  {
+    CompletableFuture<InetAddress> resolved = address.get();
+    if (resolved.isDone())
+      return _executeAsync(resolved.join(), pBlockingExecutor);
+
+    CompletableFuture<IMetricRecord> result = new CompletableFuture<>();
+    resolved.thenAccept(pAddress -> {
+      if (result.isDone())
+        return;
+      CompletableFuture<IMetricRecord> inner = _executeAsync(pAddress, pBlockingExecutor);
+      inner.whenComplete((pRecord, pEx) -> {
+        if (pEx != null)
+          result.completeExceptionally(pEx);
+        else
+          result.complete(pRecord);
+      });
+      result.whenComplete((pRecord, pEx) -> {
+        if (result.isCancelled())
+          inner.cancel(true);
+      });
+    });
+    return result;
+  }
+
+  /**
+   * Starts the executor with an already resolved address
+   *
+   * @param pAddress          Address of the device, null if it could not be resolved
+   * @param pBlockingExecutor Executor to run blocking executors on
+   * @return future that completes with the record
+   */
+  @NotNull
+  private CompletableFuture<IMetricRecord> _executeAsync(@Nullable InetAddress pAddress, @NotNull ExecutorService pBlockingExecutor)
+  {
+    if (executor instanceof IAsyncMetricExecutor)
+      return ((IAsyncMetricExecutor) executor).executeAsync(device, pAddress, preferences);
+
+    CompletableFuture<IMetricRecord> result = new CompletableFuture<>();
+    Future<?> task = pBlockingExecutor.submit(() -> {
+      try
+      {
+        result.complete(executor.execute(device, pAddress, preferences));
+      }
+      catch (Throwable e)
+      {
+        result.completeExceptionally(e);
+      }
+    });
+    result.whenComplete((pRecord, pEx) -> {
+      if (result.isCancelled())
+        task.cancel(true);
+    });
+    return result;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "MetricExecution{" +
+        "metric=" + metric.id +
+        ", device=" + device.id +
+        ", type=" + executor.getType() +
+        '}';
+  }
+}
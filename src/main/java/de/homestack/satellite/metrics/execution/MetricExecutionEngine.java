@@ -0,0 +1,502 @@
+package de.homestack.satellite.metrics.execution;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Executes metrics in parallel. The number of concurrently running executions
+ * is bounded globally and per executor type, so that a slow type (e.g. ping timeouts)
+ * can not starve all other types.
+ * Asynchronous executors are started and completed on a small, fixed set of event loop threads,
+ * blocking executors are bridged to a bounded pool of blocking threads.
+ * Every execution has a deadline, and so has every cycle. An execution that exceeds a deadline gets cancelled,
+ * which stops its probe and releases its socket, so that a single unresponsive device can not occupy a slot for long.
+ * It is reported as failure with the error "deadline", so that its metric does not just go silent.
+ * Executions that are due while their previous execution is still running are handled by the {@link EOverrunPolicy}.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class MetricExecutionEngine
+{
+  private static final Logger _LOGGER = Logger.getLogger(MetricExecutionEngine.class);
+
+  @ConfigProperty(name = "homestack.satellite.execution.concurrency.global", defaultValue = "1024")
+  protected int maxConcurrency;
+
+  @ConfigProperty(name = "homestack.satellite.execution.concurrency.type", defaultValue = "512")
+  protected int maxConcurrencyPerType;
+
+  @ConfigProperty(name = "homestack.satellite.execution.event-loop-threads", defaultValue = "2")
+  protected int eventLoopThreads;
+
+  @ConfigProperty(name = "homestack.satellite.execution.blocking-threads", defaultValue = "32")
+  protected int blockingThreads;
+
+  @ConfigProperty(name = "homestack.satellite.execution.deadline", defaultValue = "30000")
+  protected long deadlineMillis; // default deadline of a single execution, 0 disables it
+
+  @ConfigProperty(name = "homestack.satellite.execution.cycle-deadline", defaultValue = "60000")
+  protected long cycleDeadlineMillis; // 0 disables it
+
+  @ConfigProperty(name = "homestack.satellite.execution.overrun", defaultValue = "skip")
+  protected String overrun;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  @Inject
+  protected MetricScheduler scheduler;
+
+  private final Map<String, Deque<_Job>> pendingJobs = new LinkedHashMap<>(); // guarded by this
+  private final Map<String, Integer> runningPerType = new HashMap<>(); // guarded by this
+  private final Set<MetricExecution> inFlight = Collections.newSetFromMap(new IdentityHashMap<>()); // guarded by this
+  private final Map<MetricExecution, _Job> catchUpJobs = new IdentityHashMap<>(); // guarded by this
+  private final Set<MetricExecution> shiftedExecutions = Collections.newSetFromMap(new IdentityHashMap<>()); // guarded by this
+  private final Set<CompletableFuture<IMetricRecord>> runningFutures = ConcurrentHashMap.newKeySet();
+  private int running = 0; // guarded by this
+  private EOverrunPolicy overrunPolicy;
+  private ExecutorService eventLoop;
+  private ExecutorService blockingExecutor;
+  private ScheduledThreadPoolExecutor deadlineTimer;
+
+  @PostConstruct
+  void init()
+  {
+    try
+    {
+      overrunPolicy = EOverrunPolicy.parse(overrun);
+    }
+    catch (IllegalArgumentException e)
+    {
+      _LOGGER.warn("Invalid overrun policy '" + overrun + "', falling back to " + EOverrunPolicy.SKIP);
+      overrunPolicy = EOverrunPolicy.SKIP;
+    }
+
+    eventLoop = instrumentation.monitor(Executors.newFixedThreadPool(Math.max(1, eventLoopThreads), new ThreadFactoryBuilder()
+        .setNameFormat("tMetricEventLoop-%d")
+        .setDaemon(true)
+        .build()), "tMetricEventLoop");
+    blockingExecutor = instrumentation.monitor(Executors.newFixedThreadPool(Math.max(1, blockingThreads), new ThreadFactoryBuilder()
+        .setNameFormat("tMetricExecution-%d")
+        .setDaemon(true)
+        .build()), "tMetricExecution");
+    deadlineTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+        .setNameFormat("tMetricDeadline-%d")
+        .setDaemon(true)
+        .build());
+    deadlineTimer.setRemoveOnCancelPolicy(true); // nearly every deadline gets cancelled, because its execution completed in time
+    instrumentation.gauge("execution.running", "Currently running metric executions", this, MetricExecutionEngine::getRunningCount);
+    instrumentation.gauge("execution.pending", "Metric executions waiting for a free slot", this, MetricExecutionEngine::getPendingCount);
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    // cancel everything that is still running, so that asynchronous executors release their resources
+    for (CompletableFuture<IMetricRecord> future : runningFutures)
+      future.cancel(true);
+    if (eventLoop != null)
+      eventLoop.shutdownNow();
+    if (blockingExecutor != null)
+      blockingExecutor.shutdownNow();
+    if (deadlineTimer != null)
+      deadlineTimer.shutdownNow();
+  }
+
+  /**
+   * Executes all given executions as a single cycle.
+   * Every record will be passed to the given consumer as soon as its execution completed.
+   * Executions that are still running from a previous cycle are handled by the overrun policy.
+   *
+   * @param pExecutions     Executions to run
+   * @param pResultConsumer Consumer that gets called for each completed execution, may be called concurrently
+   * @return future that completes, if all executions of this cycle finished
+   */
+  @NotNull
+  public CompletableFuture<ExecutionCycleResult> executeCycle(@NotNull Collection<MetricExecution> pExecutions,
+                                                              @NotNull BiConsumer<MetricExecution, IMetricRecord> pResultConsumer)
+  {
+    List<MetricExecution> accepted = new ArrayList<>(pExecutions.size());
+    List<MetricExecution> deferred = new ArrayList<>();
+    int overruns = 0;
+    _Cycle cycle;
+
+    synchronized (this)
+    {
+      // an execution that is still running from an earlier cycle will not be started twice
+      for (MetricExecution execution : pExecutions)
+      {
+        if (inFlight.add(execution))
+          accepted.add(execution);
+        else
+        {
+          overruns++;
+          if (overrunPolicy == EOverrunPolicy.SHIFT)
+            shiftedExecutions.add(execution);
+          else if (overrunPolicy == EOverrunPolicy.CATCH_UP && !catchUpJobs.containsKey(execution))
+            deferred.add(execution);
+        }
+      }
+
+      cycle = new _Cycle(accepted.size() + deferred.size(), pExecutions.size() - accepted.size() - deferred.size(), pResultConsumer);
+      for (MetricExecution execution : accepted)
+        _enqueue(cycle.add(new _Job(cycle, execution)));
+      for (MetricExecution execution : deferred)
+        catchUpJobs.put(execution, cycle.add(new _Job(cycle, execution)));
+    }
+
+    if (overruns > 0)
+      instrumentation.countOverruns(overrunPolicy.toString(), overruns);
+    cycle.future.thenAccept(pResult -> instrumentation.recordCycle(pResult.getDuration(), pResult.getSkippedCount()));
+    if (cycle.executionCount == 0)
+    {
+      cycle.future.complete(new ExecutionCycleResult(0, 0, cycle.skipped, 0, Duration.ZERO));
+      return cycle.future;
+    }
+
+    if (cycleDeadlineMillis > 0)
+    {
+      ScheduledFuture<?> deadline = deadlineTimer.schedule(() -> _expire(cycle), cycleDeadlineMillis, TimeUnit.MILLISECONDS);
+      cycle.future.whenComplete((pResult, pEx) -> deadline.cancel(false));
+    }
+
+    _dispatch();
+    return cycle.future;
+  }
+
+  /**
+   * @return the policy for executions, that are due while their previous execution is still running
+   */
+  @NotNull
+  public EOverrunPolicy getOverrunPolicy()
+  {
+    return overrunPolicy;
+  }
+
+  /**
+   * @return the number of executions that are currently running
+   */
+  public synchronized int getRunningCount()
+  {
+    return running;
+  }
+
+  /**
+   * @return the number of executions that wait for a free slot
+   */
+  public synchronized int getPendingCount()
+  {
+    int pending = 0;
+    for (Deque<_Job> jobs : pendingJobs.values())
+      pending += jobs.size();
+    return pending;
+  }
+
+  /**
+   * Starts as many pending jobs as the concurrency limits allow.
+   * Types are served round robin, so a saturated type does not block the others.
+   */
+  private void _dispatch()
+  {
+    List<_Job> toStart = new ArrayList<>();
+
+    synchronized (this)
+    {
+      boolean progress = true;
+      while (progress && running < maxConcurrency)
+      {
+        progress = false;
+        Iterator<Map.Entry<String, Deque<_Job>>> iterator = pendingJobs.entrySet().iterator();
+        while (iterator.hasNext() && running < maxConcurrency)
+        {
+          Map.Entry<String, Deque<_Job>> entry = iterator.next();
+          int typeRunning = runningPerType.getOrDefault(entry.getKey(), 0);
+          if (typeRunning < maxConcurrencyPerType)
+          {
+            _Job job = entry.getValue().poll();
+            job.state = _Job.RUNNING;
+            toStart.add(job);
+            if (entry.getValue().isEmpty())
+              iterator.remove();
+            runningPerType.put(entry.getKey(), typeRunning + 1);
+            running++;
+            progress = true;
+          }
+        }
+      }
+    }
+
+    for (_Job job : toStart)
+      eventLoop.execute(() -> _run(job));
+  }
+
+  /**
+   * Appends the given job to the pending jobs of its type
+   *
+   * @param pJob Job to append
+   */
+  private void _enqueue(@NotNull _Job pJob)
+  {
+    pJob.state = _Job.PENDING;
+    pendingJobs.computeIfAbsent(pJob.execution.getExecutor().getType(), pType -> new ArrayDeque<>()).add(pJob);
+  }
+
+  /**
+   * Starts a single job. Its slots get released on the event loop, as soon as its future completed.
+   *
+   * @param pJob Job to run
+   */
+  private void _run(@NotNull _Job pJob)
+  {
+    long start = System.nanoTime();
+    CompletableFuture<IMetricRecord> future;
+    try
+    {
+      future = pJob.execution.executeAsync(blockingExecutor);
+    }
+    catch (Exception e)
+    {
+      future = CompletableFuture.failedFuture(e);
+    }
+
+    CompletableFuture<IMetricRecord> started = future;
+    pJob.future = started;
+    runningFutures.add(started);
+    started.whenCompleteAsync((pRecord, pEx) -> _complete(pJob, started, start, pEx == null ? pRecord : null, pEx), eventLoop);
+
+    // the cycle may have expired, before the future was known
+    if (pJob.timedOut)
+      started.cancel(true);
+    else
+    {
+      long deadline = pJob.execution.getDeadline() != null ? pJob.execution.getDeadline().toMillis() : deadlineMillis;
+      if (deadline > 0 && !started.isDone())
+      {
+        ScheduledFuture<?> timer = deadlineTimer.schedule(() -> _timeout(pJob), deadline, TimeUnit.MILLISECONDS);
+        started.whenComplete((pRecord, pEx) -> timer.cancel(false));
+      }
+    }
+  }
+
+  /**
+   * Cancels a running job, because it exceeded a deadline
+   *
+   * @param pJob Job to cancel
+   */
+  private void _timeout(@NotNull _Job pJob)
+  {
+    pJob.timedOut = true;
+    CompletableFuture<IMetricRecord> future = pJob.future;
+    if (future != null)
+      future.cancel(true);
+  }
+
+  /**
+   * Gets called, if a cycle exceeded its deadline. Its jobs, that are still waiting, are dropped
+   * and its running jobs are cancelled. Dropped jobs are reported as timed out, unless they only waited
+   * for the previous execution of their metric.
+   *
+   * @param pCycle Cycle that expired
+   */
+  private void _expire(@NotNull _Cycle pCycle)
+  {
+    List<_Job> dropped = new ArrayList<>();
+    List<_Job> deferred = new ArrayList<>();
+    List<_Job> cancelled = new ArrayList<>();
+
+    synchronized (this)
+    {
+      for (_Job job : pCycle.jobs)
+      {
+        if (job.state == _Job.PENDING)
+        {
+          Deque<_Job> jobs = pendingJobs.get(job.execution.getExecutor().getType());
+          if (jobs != null && jobs.remove(job) && jobs.isEmpty())
+            pendingJobs.remove(job.execution.getExecutor().getType());
+          _Job catchUp = catchUpJobs.remove(job.execution);
+          if (catchUp != null)
+            _enqueue(catchUp);
+          else
+            inFlight.remove(job.execution);
+          job.state = _Job.DONE;
+          dropped.add(job);
+        }
+        else if (job.state == _Job.DEFERRED)
+        {
+          // the execution is still running from an earlier cycle, stays in flight and reports its own record
+          catchUpJobs.remove(job.execution);
+          job.state = _Job.DONE;
+          deferred.add(job);
+        }
+        else if (job.state == _Job.RUNNING)
+          cancelled.add(job);
+      }
+    }
+
+    _LOGGER.warn("Collection cycle exceeded its deadline of " + cycleDeadlineMillis + "ms, " +
+                     "dropping " + (dropped.size() + deferred.size()) + " waiting and cancelling " + cancelled.size() + " running executions");
+    for (_Job job : dropped)
+    {
+      instrumentation.countDeadlineExceeded(job.execution.getExecutor().getType());
+      job.cycle.complete(job.execution, null, true);
+    }
+    for (_Job job : deferred)
+    {
+      instrumentation.countDeadlineExceeded(job.execution.getExecutor().getType());
+      job.cycle.complete(job.execution, null, false);
+    }
+    for (_Job job : cancelled)
+      _timeout(job);
+    _dispatch();
+  }
+
+  /**
+   * Releases the slots of a finished job and passes its record to the cycle
+   *
+   * @param pJob    Job that finished
+   * @param pFuture Future of the job
+   * @param pStart  Start of the job, in nanoseconds
+   * @param pRecord Record, or null if the execution failed
+   * @param pEx     Failure of the execution, or null
+   */
+  private void _complete(@NotNull _Job pJob, @NotNull CompletableFuture<IMetricRecord> pFuture, long pStart,
+                         @Nullable IMetricRecord pRecord, @Nullable Throwable pEx)
+  {
+    runningFutures.remove(pFuture);
+    if (pJob.timedOut)
+      instrumentation.countDeadlineExceeded(pJob.execution.getExecutor().getType());
+    else if (pEx != null && !(pEx instanceof CancellationException))
+      _LOGGER.warn("Failed to execute " + pJob.execution, pEx instanceof CompletionException && pEx.getCause() != null ? pEx.getCause() : pEx);
+
+    instrumentation.recordExecution(pJob.execution.getExecutor().getType(), System.nanoTime() - pStart, pRecord == null);
+    boolean shift;
+    synchronized (this)
+    {
+      pJob.state = _Job.DONE;
+      runningPerType.computeIfPresent(pJob.execution.getExecutor().getType(), (pType, pCount) -> pCount > 1 ? pCount - 1 : null);
+      running--;
+
+      // an execution, that was due in the meantime, starts right away and keeps the execution in flight
+      _Job catchUp = catchUpJobs.remove(pJob.execution);
+      if (catchUp != null)
+        _enqueue(catchUp);
+      else
+        inFlight.remove(pJob.execution);
+      shift = shiftedExecutions.remove(pJob.execution);
+    }
+    if (shift)
+      scheduler.postpone(pJob.execution.getMetric().id, pJob.execution);
+    _dispatch();
+
+    pJob.cycle.complete(pJob.execution, pRecord, pJob.timedOut);
+  }
+
+  /**
+   * A single execution, bound to its cycle
+   */
+  private static class _Job
+  {
+    private static final int DEFERRED = 0; // waits for the previous execution to finish
+    private static final int PENDING = 1; // waits for a free slot
+    private static final int RUNNING = 2;
+    private static final int DONE = 3;
+
+    private final _Cycle cycle;
+    private final MetricExecution execution;
+    private int state = DEFERRED; // guarded by the engine
+    private volatile CompletableFuture<IMetricRecord> future;
+    private volatile boolean timedOut = false;
+
+    public _Job(@NotNull _Cycle pCycle, @NotNull MetricExecution pExecution)
+    {
+      cycle = pCycle;
+      execution = pExecution;
+    }
+  }
+
+  /**
+   * Tracks the progress of a single collection cycle
+   */
+  private static class _Cycle
+  {
+    private final CompletableFuture<ExecutionCycleResult> future = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+    private final int executionCount;
+    private final int skipped;
+    private final AtomicInteger remaining;
+    private final AtomicInteger failures = new AtomicInteger(0);
+    private final AtomicInteger timeouts = new AtomicInteger(0);
+    private final BiConsumer<MetricExecution, IMetricRecord> resultConsumer;
+    private final List<_Job> jobs = new ArrayList<>(); // guarded by the engine
+
+    public _Cycle(int pExecutionCount, int pSkipped, @NotNull BiConsumer<MetricExecution, IMetricRecord> pResultConsumer)
+    {
+      executionCount = pExecutionCount;
+      skipped = pSkipped;
+      remaining = new AtomicInteger(pExecutionCount);
+      resultConsumer = pResultConsumer;
+    }
+
+    /**
+     * Adds a job to this cycle
+     *
+     * @param pJob Job to add
+     * @return the job
+     */
+    @NotNull
+    public _Job add(@NotNull _Job pJob)
+    {
+      jobs.add(pJob);
+      return pJob;
+    }
+
+    /**
+     * Gets called, if a single execution of this cycle finished.
+     * An execution, that was cancelled because of a deadline, is passed to the consumer with a failure record.
+     *
+     * @param pExecution Execution that finished
+     * @param pRecord    Record, or null if the execution failed
+     * @param pTimedOut  true, if the execution was cancelled because of a deadline
+     */
+    public void complete(@NotNull MetricExecution pExecution, @Nullable IMetricRecord pRecord, boolean pTimedOut)
+    {
+      if (pTimedOut)
+        timeouts.incrementAndGet();
+
+      boolean failed = pRecord == null;
+      IMetricRecord record = pRecord == null && pTimedOut ? new SimpleMetricRecord(EMetricRecordState.FAILURE).withResult("error", "deadline") : pRecord;
+      try
+      {
+        if (record != null)
+          resultConsumer.accept(pExecution, record);
+      }
+      catch (Exception e)
+      {
+        failed = true;
+        _LOGGER.warn("Failed to consume result of " + pExecution, e);
+      }
+
+      if (failed)
+        failures.incrementAndGet();
+
+      if (remaining.decrementAndGet() == 0)
+        future.complete(new ExecutionCycleResult(executionCount, failures.get(), skipped, timeouts.get(), Duration.ofNanos(System.nanoTime() - startNanos)));
+    }
+  }
+
+}
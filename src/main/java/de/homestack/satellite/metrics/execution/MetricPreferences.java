@@ -0,0 +1,29 @@
+package de.homestack.satellite.metrics.execution;
+
+import de.homestack.satellite.metrics.api.IMetricPreferences;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * IMetricPreferences-Impl, that reads the settings of a metric
+ *
+ * @author agent, 18.10.2026
+ */
+class MetricPreferences implements IMetricPreferences
+{
+  private final MetricDataModel metric;
+
+  public MetricPreferences(@NotNull MetricDataModel pMetric)
+  {
+    metric = pMetric;
+  }
+
+  @NotNull
+  @Override
+  public String getValue(@NotNull String pKey, @NotNull String pDefault)
+  {
+    if (metric.settings == null)
+      return pDefault;
+    return metric.settings.getOrDefault(pKey, pDefault);
+  }
+}
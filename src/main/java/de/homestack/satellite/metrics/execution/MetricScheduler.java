@@ -0,0 +1,199 @@
+package de.homestack.satellite.metrics.execution;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Schedules every metric with its own interval on a timing wheel.
+ * The first execution of each metric gets a random offset within its interval,
+ * so that metrics with the same interval do not fire at the same instant.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class MetricScheduler
+{
+  private static final Logger _LOGGER = Logger.getLogger(MetricScheduler.class);
+  private static final int _WHEEL_SIZE = 512;
+
+  @ConfigProperty(name = "homestack.satellite.schedule.tick", defaultValue = "100")
+  protected long tickMillis;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Map<String, TimingWheel.Timeout<MetricExecution>> timeouts = new HashMap<>(); // guarded by this
+  private TimingWheel<MetricExecution> wheel;
+  private ScheduledExecutorService ticker;
+  private Consumer<List<MetricExecution>> dueConsumer;
+  private long startNanos;
+
+  @PostConstruct
+  void init()
+  {
+    wheel = new TimingWheel<>(TimeUnit.MILLISECONDS.toNanos(tickMillis), _WHEEL_SIZE);
+    startNanos = System.nanoTime();
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    stop();
+  }
+
+  /**
+   * Starts this scheduler
+   *
+   * @param pDueConsumer Consumer that receives all executions that are due, called on the scheduler thread
+   */
+  public synchronized void start(@NotNull Consumer<List<MetricExecution>> pDueConsumer)
+  {
+    stop();
+    dueConsumer = pDueConsumer;
+    ticker = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                            .setNameFormat("tMetricScheduler-%d")
+                                                            .setDaemon(true)
+                                                            .build());
+    ticker.scheduleAtFixedRate(this::_tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops this scheduler. All scheduled metrics stay scheduled.
+   */
+  public synchronized void stop()
+  {
+    if (ticker != null)
+    {
+      ticker.shutdownNow();
+      ticker = null;
+    }
+    dueConsumer = null;
+  }
+
+  /**
+   * Schedules the given execution periodically. If an execution with the same key
+   * was already scheduled, it will be replaced.
+   *
+   * @param pKey       Unique key of the execution, normally the metric id
+   * @param pExecution Execution to schedule
+   * @param pInterval  Interval between two executions
+   */
+  public synchronized void schedule(@NotNull String pKey, @NotNull MetricExecution pExecution, @NotNull Duration pInterval)
+  {
+    unschedule(pKey);
+    long intervalNanos = Math.max(1, pInterval.toNanos());
+    timeouts.put(pKey, wheel.schedule(pExecution, ThreadLocalRandom.current().nextLong(intervalNanos), intervalNanos));
+  }
+
+  /**
+   * Moves the next execution of an already scheduled execution.
+   * Nothing happens, if the key is scheduled with a different execution in the meantime.
+   *
+   * @param pKey       Key of the execution
+   * @param pExecution Execution, that is expected to be scheduled with this key
+   * @param pDelay     Delay until the next execution
+   * @param pInterval  New interval between two executions, or null if the interval should be kept
+   * @return true, if the execution was rescheduled
+   */
+  public synchronized boolean reschedule(@NotNull String pKey, @NotNull MetricExecution pExecution, @NotNull Duration pDelay,
+                                         @Nullable Duration pInterval)
+  {
+    TimingWheel.Timeout<MetricExecution> timeout = timeouts.get(pKey);
+    if (timeout == null || timeout.getValue() != pExecution)
+      return false;
+
+    if (pInterval == null)
+      wheel.reschedule(timeout, pDelay.toNanos());
+    else
+    {
+      wheel.cancel(timeout);
+      timeouts.put(pKey, wheel.schedule(pExecution, pDelay.toNanos(), Math.max(1, pInterval.toNanos())));
+    }
+    return true;
+  }
+
+  /**
+   * Moves the next execution of an already scheduled execution to one interval from now.
+   * Nothing happens, if the key is scheduled with a different execution in the meantime.
+   *
+   * @param pKey       Key of the execution
+   * @param pExecution Execution, that is expected to be scheduled with this key
+   * @return true, if the execution was postponed
+   */
+  public synchronized boolean postpone(@NotNull String pKey, @NotNull MetricExecution pExecution)
+  {
+    TimingWheel.Timeout<MetricExecution> timeout = timeouts.get(pKey);
+    if (timeout == null || timeout.getValue() != pExecution)
+      return false;
+
+    wheel.postpone(timeout);
+    return true;
+  }
+
+  /**
+   * Removes the execution with the given key from this scheduler
+   *
+   * @param pKey Key of the execution
+   * @return true, if it was scheduled
+   */
+  public synchronized boolean unschedule(@NotNull String pKey)
+  {
+    TimingWheel.Timeout<MetricExecution> timeout = timeouts.remove(pKey);
+    if (timeout != null)
+      wheel.cancel(timeout);
+    return timeout != null;
+  }
+
+  /**
+   * Returns the lag of the given execution, the last time it was due.
+   * The lag is the time between the planned and the actual start.
+   *
+   * @param pKey Key of the execution
+   * @return the lag, or null if the execution is not scheduled
+   */
+  @Nullable
+  public synchronized Duration getLag(@NotNull String pKey)
+  {
+    TimingWheel.Timeout<MetricExecution> timeout = timeouts.get(pKey);
+    return timeout == null ? null : Duration.ofNanos(timeout.getLastLagNanos());
+  }
+
+  /**
+   * Advances the wheel and passes all due executions to the consumer
+   */
+  private void _tick()
+  {
+    List<MetricExecution> due = new ArrayList<>();
+    Consumer<List<MetricExecution>> consumer;
+    synchronized (this)
+    {
+      wheel.advance(System.nanoTime() - startNanos, pTimeout -> {
+        due.add(pTimeout.getValue());
+        instrumentation.recordScheduleLag(pTimeout.getLastLagNanos());
+      });
+      consumer = dueConsumer;
+    }
+
+    try
+    {
+      if (!due.isEmpty() && consumer != null)
+        consumer.accept(due);
+    }
+    catch (Exception e)
+    {
+      _LOGGER.warn("Failed to trigger " + due.size() + " due metric executions", e);
+    }
+  }
+
+}
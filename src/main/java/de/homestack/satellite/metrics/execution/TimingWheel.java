@@ -0,0 +1,227 @@
+package de.homestack.satellite.metrics.execution;
+
+import org.jetbrains.annotations.*;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for periodic timeouts.
+ * Scheduling and cancelling are O(1), advancing costs O(1) per tick plus the entries of the visited buckets.
+ * This class is not thread safe, callers have to synchronize.
+ *
+ * @author agent, 18.10.2026
+ */
+class TimingWheel<T>
+{
+  private final long tickNanos;
+  private final _Bucket<T>[] buckets;
+  private final int mask;
+  private long currentTick = 0;
+  private int size = 0;
+
+  /**
+   * @param pTickNanos Duration of a single tick in nanoseconds
+   * @param pWheelSize Number of buckets, will be rounded up to the next power of two
+   */
+  @SuppressWarnings("unchecked")
+  TimingWheel(long pTickNanos, int pWheelSize)
+  {
+    int wheelSize = Integer.highestOneBit(Math.max(1, pWheelSize - 1)) << 1;
+    tickNanos = pTickNanos;
+    mask = wheelSize - 1;
+    buckets = new _Bucket[wheelSize];
+    for (int i = 0; i < wheelSize; i++)
+      buckets[i] = new _Bucket<>();
+  }
+
+  /**
+   * Schedules a new (periodic) timeout
+   *
+   * @param pValue       Value of the timeout
+   * @param pDelayNanos  Delay until the first expiration
+   * @param pPeriodNanos Period between two expirations, or 0 if the timeout should expire only once
+   * @return the timeout handle, that can be used to cancel the timeout
+   */
+  @NotNull
+  Timeout<T> schedule(@NotNull T pValue, long pDelayNanos, long pPeriodNanos)
+  {
+    Timeout<T> timeout = new Timeout<>(pValue, pPeriodNanos > 0 ? Math.max(1, Math.round((double) pPeriodNanos / tickNanos)) : 0);
+    _insert(timeout, currentTick + Math.max(1, (pDelayNanos + tickNanos - 1) / tickNanos));
+    return timeout;
+  }
+
+  /**
+   * Moves the next expiration of the given timeout, keeping its period
+   *
+   * @param pTimeout    Timeout to move, must not be cancelled
+   * @param pDelayNanos Delay until the next expiration
+   */
+  void reschedule(@NotNull Timeout<T> pTimeout, long pDelayNanos)
+  {
+    if (pTimeout.bucket != null)
+      _remove(pTimeout);
+    _insert(pTimeout, currentTick + Math.max(1, (pDelayNanos + tickNanos - 1) / tickNanos));
+  }
+
+  /**
+   * Moves the next expiration of the given timeout to one period from now
+   *
+   * @param pTimeout Timeout to move, must not be cancelled
+   */
+  void postpone(@NotNull Timeout<T> pTimeout)
+  {
+    reschedule(pTimeout, Math.max(1, pTimeout.periodTicks) * tickNanos);
+  }
+
+  /**
+   * Cancels the given timeout, if it is still scheduled
+   *
+   * @param pTimeout Timeout to cancel
+   */
+  void cancel(@NotNull Timeout<T> pTimeout)
+  {
+    if (pTimeout.bucket != null)
+      _remove(pTimeout);
+    pTimeout.cancelled = true;
+  }
+
+  /**
+   * Advances this wheel to the given point in time and reports every expired timeout.
+   * Periodic timeouts are rescheduled automatically, keeping their phase.
+   *
+   * @param pElapsedNanos Time since the wheel was started
+   * @param pExpired      Consumer for the expired timeouts
+   */
+  void advance(long pElapsedNanos, @NotNull Consumer<Timeout<T>> pExpired)
+  {
+    long targetTick = pElapsedNanos / tickNanos;
+    while (currentTick < targetTick)
+    {
+      currentTick++;
+      Timeout<T> timeout = buckets[(int) (currentTick & mask)].head;
+      while (timeout != null)
+      {
+        Timeout<T> next = timeout.next;
+        if (timeout.deadlineTick <= currentTick)
+        {
+          _remove(timeout);
+          timeout.lastLagNanos = pElapsedNanos - timeout.deadlineTick * tickNanos;
+          if (timeout.periodTicks > 0)
+          {
+            // keep the phase and skip expirations that were missed completely
+            long nextDeadline = timeout.deadlineTick + timeout.periodTicks;
+            if (nextDeadline <= currentTick)
+              nextDeadline += ((currentTick - nextDeadline) / timeout.periodTicks + 1) * timeout.periodTicks;
+            _insert(timeout, nextDeadline);
+          }
+          pExpired.accept(timeout);
+        }
+        timeout = next;
+      }
+    }
+  }
+
+  /**
+   * @return the number of scheduled timeouts
+   */
+  int size()
+  {
+    return size;
+  }
+
+  /**
+   * Inserts the timeout into the bucket of the given deadline
+   */
+  private void _insert(@NotNull Timeout<T> pTimeout, long pDeadlineTick)
+  {
+    _Bucket<T> bucket = buckets[(int) (pDeadlineTick & mask)];
+    pTimeout.deadlineTick = pDeadlineTick;
+    pTimeout.bucket = bucket;
+    pTimeout.prev = bucket.tail;
+    pTimeout.next = null;
+    if (bucket.tail != null)
+      bucket.tail.next = pTimeout;
+    else
+      bucket.head = pTimeout;
+    bucket.tail = pTimeout;
+    size++;
+  }
+
+  /**
+   * Removes the timeout from its current bucket
+   */
+  private void _remove(@NotNull Timeout<T> pTimeout)
+  {
+    _Bucket<T> bucket = pTimeout.bucket;
+    if (pTimeout.prev != null)
+      pTimeout.prev.next = pTimeout.next;
+    else
+      bucket.head = pTimeout.next;
+    if (pTimeout.next != null)
+      pTimeout.next.prev = pTimeout.prev;
+    else
+      bucket.tail = pTimeout.prev;
+    pTimeout.prev = null;
+    pTimeout.next = null;
+    pTimeout.bucket = null;
+    size--;
+  }
+
+  /**
+   * Handle of a single scheduled timeout
+   */
+  static class Timeout<T>
+  {
+    private final T value;
+    private final long periodTicks;
+    private long deadlineTick;
+    private long lastLagNanos = 0;
+    private boolean cancelled = false;
+    private _Bucket<T> bucket;
+    private Timeout<T> prev;
+    private Timeout<T> next;
+
+    private Timeout(@NotNull T pValue, long pPeriodTicks)
+    {
+      value = pValue;
+      periodTicks = pPeriodTicks;
+    }
+
+    /**
+     * @return the value of this timeout
+     */
+    @NotNull
+    T getValue()
+    {
+      return value;
+    }
+
+    /**
+     * @return the delay between the deadline and the actual expiration, the last time this timeout expired
+     */
+    long getLastLagNanos()
+    {
+      return lastLagNanos;
+    }
+
+    /**
+     * @return true, if this timeout was cancelled
+     */
+    boolean isCancelled()
+    {
+      return cancelled;
+    }
+  }
+
+  /**
+   * Doubly linked list of timeouts
+   */
+  private static class _Bucket<T>
+  {
+    @Nullable
+    private Timeout<T> head;
+    @Nullable
+    private Timeout<T> tail;
+  }
+
+}
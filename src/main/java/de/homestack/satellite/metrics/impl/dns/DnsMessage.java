@@ -0,0 +1,263 @@
+package de.homestack.satellite.metrics.impl.dns;
+
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal DNS wire format (RFC 1035) for reverse lookups: encodes PTR queries and decodes their responses
+ *
+ * @author agent, 18.10.2026
+ */
+final class DnsMessage
+{
+  static final int MAX_UDP_SIZE = 512;
+  static final int RCODE_NOERROR = 0;
+  static final int RCODE_NXDOMAIN = 3;
+  private static final int _TYPE_CNAME = 5;
+  private static final int _TYPE_SOA = 6;
+  private static final int _TYPE_PTR = 12;
+  private static final int _CLASS_IN = 1;
+  private static final int _FLAG_RESPONSE = 0x8000;
+  private static final int _FLAG_RECURSION_DESIRED = 0x0100;
+  private static final int _MAX_POINTERS = 32;
+  private static final char[] _HEX = "0123456789abcdef".toCharArray();
+
+  private DnsMessage()
+  {
+  }
+
+  /**
+   * Builds the name of the PTR record of the given address, e.g. 4.3.2.1.in-addr.arpa
+   *
+   * @param pAddress IPv4 or IPv6 address
+   * @return the name, without trailing dot
+   */
+  @NotNull
+  static String reverseName(@NotNull InetAddress pAddress)
+  {
+    byte[] bytes = pAddress.getAddress();
+    StringBuilder name = new StringBuilder(bytes.length * 4 + 9);
+    if (pAddress instanceof Inet4Address)
+    {
+      for (int i = bytes.length - 1; i >= 0; i--)
+        name.append(bytes[i] & 0xFF).append('.');
+      return name.append("in-addr.arpa").toString();
+    }
+
+    for (int i = bytes.length - 1; i >= 0; i--)
+      name.append(_HEX[bytes[i] & 0x0F]).append('.').append(_HEX[(bytes[i] >> 4) & 0x0F]).append('.');
+    return name.append("ip6.arpa").toString();
+  }
+
+  /**
+   * Encodes a recursive PTR query
+   *
+   * @param pID   ID of the query
+   * @param pName Name to query, see {@link #reverseName(InetAddress)}
+   * @return the encoded query
+   */
+  @NotNull
+  static ByteBuffer encodePtrQuery(int pID, @NotNull String pName)
+  {
+    ByteBuffer buffer = ByteBuffer.allocate(12 + pName.length() + 2 + 4);
+    buffer.putShort((short) pID);
+    buffer.putShort((short) _FLAG_RECURSION_DESIRED);
+    buffer.putShort((short) 1); // questions
+    buffer.putShort((short) 0); // answers
+    buffer.putShort((short) 0); // authorities
+    buffer.putShort((short) 0); // additionals
+    for (String label : pName.split("\\."))
+    {
+      byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+      buffer.put((byte) bytes.length);
+      buffer.put(bytes);
+    }
+    buffer.put((byte) 0);
+    buffer.putShort((short) _TYPE_PTR);
+    buffer.putShort((short) _CLASS_IN);
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Decodes the response to a PTR query
+   *
+   * @param pMessage Received message
+   * @return the response
+   * @throws IOException if the message is malformed
+   */
+  @NotNull
+  static Response decodePtrResponse(@NotNull ByteBuffer pMessage) throws IOException
+  {
+    try
+    {
+      ByteBuffer buffer = pMessage.slice();
+      int id = buffer.getShort() & 0xFFFF;
+      int flags = buffer.getShort() & 0xFFFF;
+      int questions = buffer.getShort() & 0xFFFF;
+      int answers = buffer.getShort() & 0xFFFF;
+      int authorities = buffer.getShort() & 0xFFFF;
+      buffer.getShort(); // additionals are not needed
+      if ((flags & _FLAG_RESPONSE) == 0)
+        throw new IOException("DNS message is not a response");
+
+      String question = null;
+      for (int i = 0; i < questions; i++)
+      {
+        String name = _readName(buffer);
+        buffer.position(buffer.position() + 4); // type + class
+        if (question == null)
+          question = name;
+      }
+
+      String hostName = null;
+      long ttl = -1;
+      for (int i = 0; i < answers; i++)
+      {
+        _readName(buffer);
+        int type = buffer.getShort() & 0xFFFF;
+        buffer.getShort(); // class
+        long recordTTL = buffer.getInt() & 0xFFFFFFFFL;
+        int length = buffer.getShort() & 0xFFFF;
+        int next = buffer.position() + length;
+
+        if (type == _TYPE_PTR && hostName == null)
+        {
+          hostName = _readName(buffer);
+          ttl = recordTTL;
+        }
+        else if (type == _TYPE_CNAME && hostName == null)
+          ttl = ttl < 0 ? recordTTL : Math.min(ttl, recordTTL); // classless delegation (RFC 2317), the PTR follows
+        buffer.position(next);
+      }
+
+      // negative answers are cached for the minimum of the SOA (RFC 2308)
+      long negativeTTL = -1;
+      for (int i = 0; i < authorities && hostName == null; i++)
+      {
+        _readName(buffer);
+        int type = buffer.getShort() & 0xFFFF;
+        buffer.getShort(); // class
+        long recordTTL = buffer.getInt() & 0xFFFFFFFFL;
+        int length = buffer.getShort() & 0xFFFF;
+        int next = buffer.position() + length;
+
+        if (type == _TYPE_SOA)
+        {
+          _readName(buffer); // primary name server
+          _readName(buffer); // mailbox
+          buffer.position(buffer.position() + 16); // serial, refresh, retry, expire
+          negativeTTL = Math.min(recordTTL, buffer.getInt() & 0xFFFFFFFFL);
+        }
+        buffer.position(next);
+      }
+
+      return new Response(id, flags & 0x0F, question, hostName, hostName != null ? ttl : negativeTTL);
+    }
+    catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e)
+    {
+      throw new IOException("DNS message is truncated or malformed", e);
+    }
+  }
+
+  /**
+   * Reads a (possibly compressed) name at the current position and moves the position behind it
+   */
+  @NotNull
+  private static String _readName(@NotNull ByteBuffer pBuffer) throws IOException
+  {
+    StringBuilder name = new StringBuilder();
+    int position = pBuffer.position();
+    int end = -1;
+    int pointers = 0;
+
+    while (true)
+    {
+      int length = pBuffer.get(position) & 0xFF;
+      if ((length & 0xC0) == 0xC0)
+      {
+        if (++pointers > _MAX_POINTERS)
+          throw new IOException("DNS name contains a pointer loop");
+        if (end < 0)
+          end = position + 2;
+        position = ((length & 0x3F) << 8) | (pBuffer.get(position + 1) & 0xFF);
+        continue;
+      }
+
+      position++;
+      if (length == 0)
+        break;
+
+      if (name.length() > 0)
+        name.append('.');
+      for (int i = 0; i < length; i++)
+        name.append((char) (pBuffer.get(position + i) & 0xFF));
+      position += length;
+    }
+
+    pBuffer.position(end >= 0 ? end : position);
+    return name.toString();
+  }
+
+  /**
+   * Decoded response to a PTR query
+   */
+  static class Response
+  {
+    private final int id;
+    private final int rcode;
+    private final String question;
+    private final String hostName;
+    private final long ttl;
+
+    private Response(int pID, int pRCode, @Nullable String pQuestion, @Nullable String pHostName, long pTTL)
+    {
+      id = pID;
+      rcode = pRCode;
+      question = pQuestion;
+      hostName = pHostName;
+      ttl = pTTL;
+    }
+
+    public int getID()
+    {
+      return id;
+    }
+
+    public int getRCode()
+    {
+      return rcode;
+    }
+
+    /**
+     * @return the name that was queried, null if the response does not contain the question
+     */
+    @Nullable
+    public String getQuestion()
+    {
+      return question;
+    }
+
+    /**
+     * @return the resolved host name, null if there is no PTR record
+     */
+    @Nullable
+    public String getHostName()
+    {
+      return hostName;
+    }
+
+    /**
+     * @return the time to live of this answer in seconds, -1 if the server did not provide one
+     */
+    public long getTTL()
+    {
+      return ttl;
+    }
+  }
+
+}
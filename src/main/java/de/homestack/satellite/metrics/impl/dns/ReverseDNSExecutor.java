@@ -1,14 +1,15 @@
 package de.homestack.satellite.metrics.impl.dns;
 
-import com.google.common.base.Strings;
 import de.homestack.satellite.metrics.api.*;
 import io.conceptive.homestack.model.data.device.DeviceDataModel;
 import io.conceptive.homestack.model.data.metric.EMetricRecordState;
 import org.apache.commons.lang3.SystemUtils;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.*;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Executes a reverse DNS query to get the host names for the given device
@@ -16,9 +17,12 @@ import java.net.InetAddress;
  * @author w.glanzer, 02.11.2020
  */
 @ApplicationScoped
-public class ReverseDNSExecutor implements IMetricExecutor
+public class ReverseDNSExecutor implements IAsyncMetricExecutor
 {
 
+  @Inject
+  protected ReverseDNSResolver resolver;
+
   @NotNull
   @Override
   public String getType()
@@ -34,23 +38,22 @@ public class ReverseDNSExecutor implements IMetricExecutor
 
   @NotNull
   @Override
-  public IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences)
+  public CompletableFuture<IMetricRecord> executeAsync(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress,
+                                                       @NotNull IMetricPreferences pPreferences)
   {
-    try
-    {
-      InetAddress address = InetAddress.getByName(pDevice.address);
-      String hostName = address.getHostName();
-      if (!Strings.isNullOrEmpty(hostName))
-        return new SimpleMetricRecord(EMetricRecordState.SUCCESS)
-            .withResult("name", hostName);
-    }
-    catch (Exception e)
-    {
-      // nothing
-    }
-
-    // not resolvable
-    return new SimpleMetricRecord(EMetricRecordState.UNKNOWN);
+    // the address of the device is resolved by the execution, before this executor is called
+    if (pAddress == null)
+      return CompletableFuture.completedFuture(new SimpleMetricRecord(EMetricRecordState.UNKNOWN));
+
+    // cached answers complete immediately, everything else is bounded by the resolver timeout
+    return resolver.resolve(pAddress)
+        .<IMetricRecord>thenApply(pHostName -> {
+          if (pHostName.isPresent() && !pHostName.get().isEmpty())
+            return new SimpleMetricRecord(EMetricRecordState.SUCCESS)
+                .withResult("name", pHostName.get());
+          return new SimpleMetricRecord(EMetricRecordState.UNKNOWN);
+        })
+        .exceptionally(pEx -> new SimpleMetricRecord(EMetricRecordState.UNKNOWN)); // not resolvable
   }
 
 }
@@ -0,0 +1,402 @@
+package de.homestack.satellite.metrics.impl.dns;
+
+import com.google.common.base.Strings;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Non-blocking reverse DNS resolver.
+ * PTR queries are sent over a single UDP channel to the configured server, so that any number of queries can be
+ * in flight at the same time. Their responses are read by a single selector loop and correlated by the query id.
+ * Answers are cached as long as their TTL allows, missing PTR records are cached as well (negative cache).
+ * The cache is bounded and evicts the least recently used entries.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class ReverseDNSResolver
+{
+  private static final Logger _LOGGER = Logger.getLogger(ReverseDNSResolver.class);
+  private static final Path _RESOLV_CONF = Paths.get("/etc/resolv.conf");
+  private static final int _DNS_PORT = 53;
+  private static final Optional<String> _FAILED = Optional.empty();
+
+  @ConfigProperty(name = "homestack.satellite.dns.server")
+  protected Optional<String> server; // host[:port], the first nameserver of the system if empty
+
+  @ConfigProperty(name = "homestack.satellite.dns.timeout", defaultValue = "2000")
+  protected long timeoutMillis;
+
+  @ConfigProperty(name = "homestack.satellite.dns.cache.size", defaultValue = "65536")
+  protected int cacheSize;
+
+  @ConfigProperty(name = "homestack.satellite.dns.cache.negative-ttl", defaultValue = "300")
+  protected long negativeTTLSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.dns.cache.max-ttl", defaultValue = "86400")
+  protected long maxTTLSeconds;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Map<Integer, _Query> pendingQueries = new ConcurrentHashMap<>();
+  private final Map<InetAddress, CompletableFuture<Optional<String>>> pendingAddresses = new ConcurrentHashMap<>();
+  private Map<InetAddress, _CacheEntry> cache; // guarded by itself
+  private DatagramChannel channel;
+  private Selector selector;
+  private Thread selectorThread;
+
+  @PostConstruct
+  void init()
+  {
+    int maxEntries = cacheSize;
+    cache = new LinkedHashMap<>(16, 0.75F, true)
+    {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<InetAddress, _CacheEntry> pEldest)
+      {
+        return size() > maxEntries;
+      }
+    };
+    instrumentation.gauge("dns.pending", "Reverse DNS queries waiting for a response", this, ReverseDNSResolver::getPendingCount);
+    instrumentation.gauge("dns.cached", "Cached reverse DNS answers", this, ReverseDNSResolver::getCacheSize);
+  }
+
+  /**
+   * Resolves the host name of the given address.
+   * Concurrent lookups of the same address share a single query.
+   *
+   * @param pAddress Address to resolve
+   * @return future that contains the host name, or an empty optional if there is none or the lookup failed
+   */
+  @NotNull
+  public CompletableFuture<Optional<String>> resolve(@NotNull InetAddress pAddress)
+  {
+    Optional<String> cached = getCached(pAddress);
+    if (cached != null)
+      return CompletableFuture.completedFuture(cached);
+
+    CompletableFuture<Optional<String>> future = new CompletableFuture<>();
+    CompletableFuture<Optional<String>> existing = pendingAddresses.putIfAbsent(pAddress, future);
+    if (existing != null)
+      return existing;
+
+    future.whenComplete((pResult, pEx) -> pendingAddresses.remove(pAddress, future));
+    _query(pAddress, future);
+    return future;
+  }
+
+  /**
+   * Reads the host name of the given address from the cache
+   *
+   * @param pAddress Address to read
+   * @return the cached host name, an empty optional if the address is cached as not resolvable, or null if it is not cached
+   */
+  @SuppressWarnings("OptionalAssignedToNull")
+  @Nullable
+  public Optional<String> getCached(@NotNull InetAddress pAddress)
+  {
+    synchronized (cache)
+    {
+      _CacheEntry entry = cache.get(pAddress);
+      if (entry == null)
+        return null;
+      if (entry.expiresAt - System.nanoTime() <= 0)
+      {
+        cache.remove(pAddress);
+        return null;
+      }
+      return Optional.ofNullable(entry.hostName);
+    }
+  }
+
+  /**
+   * @return the number of cached answers, including expired ones that were not evicted yet
+   */
+  public int getCacheSize()
+  {
+    synchronized (cache)
+    {
+      return cache.size();
+    }
+  }
+
+  /**
+   * @return the number of queries that are currently waiting for a response
+   */
+  public int getPendingCount()
+  {
+    return pendingQueries.size();
+  }
+
+  @PreDestroy
+  synchronized void destroy()
+  {
+    try
+    {
+      if (selector != null)
+        selector.close();
+      if (channel != null)
+        channel.close();
+    }
+    catch (IOException e)
+    {
+      _LOGGER.warn("Failed to close DNS channel", e);
+    }
+    selector = null;
+    channel = null;
+    selectorThread = null;
+  }
+
+  /**
+   * Sends the PTR query for the given address
+   *
+   * @param pAddress Address to query
+   * @param pFuture  Future to complete with the answer
+   */
+  private void _query(@NotNull InetAddress pAddress, @NotNull CompletableFuture<Optional<String>> pFuture)
+  {
+    String name = DnsMessage.reverseName(pAddress);
+    _Query query = new _Query(pAddress, name, pFuture);
+
+    // random ids, so that responses can not be guessed easily
+    int id;
+    do
+    {
+      id = ThreadLocalRandom.current().nextInt(0x10000);
+    }
+    while (pendingQueries.putIfAbsent(id, query) != null);
+
+    int queryID = id;
+    pFuture
+        .completeOnTimeout(_FAILED, timeoutMillis, TimeUnit.MILLISECONDS)
+        .whenComplete((pResult, pEx) -> pendingQueries.remove(queryID, query));
+
+    try
+    {
+      if (_getChannel().write(DnsMessage.encodePtrQuery(id, name)) == 0)
+        throw new IOException("DNS query could not be sent, socket buffer is full");
+    }
+    catch (Exception e)
+    {
+      _LOGGER.debug("Failed to send DNS query for " + pAddress.getHostAddress(), e);
+      pFuture.complete(_FAILED);
+    }
+  }
+
+  /**
+   * Handles a single received datagram
+   *
+   * @param pMessage Received message
+   */
+  private void _onResponse(@NotNull ByteBuffer pMessage)
+  {
+    DnsMessage.Response response;
+    try
+    {
+      response = DnsMessage.decodePtrResponse(pMessage);
+    }
+    catch (IOException e)
+    {
+      _LOGGER.debug("Received invalid DNS response", e);
+      return;
+    }
+
+    _Query query = pendingQueries.get(response.getID());
+    if (query == null || !query.name.equalsIgnoreCase(Strings.nullToEmpty(response.getQuestion())))
+      return; // late or spoofed
+
+    if (response.getRCode() == DnsMessage.RCODE_NOERROR && response.getHostName() != null)
+    {
+      String hostName = response.getHostName();
+      _putCache(query.address, hostName, response.getTTL() >= 0 ? response.getTTL() : negativeTTLSeconds);
+      query.future.complete(Optional.of(hostName));
+    }
+    else if (response.getRCode() == DnsMessage.RCODE_NOERROR || response.getRCode() == DnsMessage.RCODE_NXDOMAIN)
+    {
+      _putCache(query.address, null, response.getTTL() >= 0 ? Math.min(response.getTTL(), negativeTTLSeconds) : negativeTTLSeconds);
+      query.future.complete(_FAILED);
+    }
+    else
+      query.future.complete(_FAILED); // server failures are not cached
+  }
+
+  /**
+   * Caches the answer for the given address
+   */
+  private void _putCache(@NotNull InetAddress pAddress, @Nullable String pHostName, long pTTLSeconds)
+  {
+    long ttl = Math.min(pTTLSeconds, maxTTLSeconds);
+    if (ttl <= 0)
+      return;
+
+    synchronized (cache)
+    {
+      cache.put(pAddress, new _CacheEntry(pHostName, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl)));
+    }
+  }
+
+  /**
+   * Returns the shared channel and (re)starts its selector loop, if it is not running
+   *
+   * @return the channel, connected to the DNS server
+   */
+  @NotNull
+  private synchronized DatagramChannel _getChannel() throws IOException
+  {
+    if (channel == null || selectorThread == null || !selectorThread.isAlive())
+    {
+      if (channel != null)
+        destroy();
+
+      InetSocketAddress serverAddress = _getServerAddress();
+      DatagramChannel newChannel = DatagramChannel.open();
+      newChannel.configureBlocking(false);
+      newChannel.connect(serverAddress); // only accept datagrams of the server
+      Selector newSelector = Selector.open();
+      newChannel.register(newSelector, SelectionKey.OP_READ);
+
+      Thread thread = new Thread(() -> _runSelector(newChannel, newSelector), "tDnsSelector");
+      thread.setDaemon(true);
+      thread.start();
+
+      _LOGGER.info("Resolving reverse DNS queries with " + serverAddress);
+      channel = newChannel;
+      selector = newSelector;
+      selectorThread = thread;
+    }
+
+    return channel;
+  }
+
+  /**
+   * Reads all responses, until the channel gets closed
+   */
+  private void _runSelector(@NotNull DatagramChannel pChannel, @NotNull Selector pSelector)
+  {
+    ByteBuffer buffer = ByteBuffer.allocate(DnsMessage.MAX_UDP_SIZE);
+    try
+    {
+      while (pSelector.isOpen())
+      {
+        pSelector.select();
+        pSelector.selectedKeys().clear();
+        while (true)
+        {
+          buffer.clear();
+          try
+          {
+            if (pChannel.read(buffer) <= 0)
+              break;
+          }
+          catch (PortUnreachableException e)
+          {
+            _LOGGER.debug("DNS server is unreachable", e);
+            break;
+          }
+          buffer.flip();
+          _onResponse(buffer);
+        }
+      }
+    }
+    catch (ClosedSelectorException | ClosedChannelException e)
+    {
+      // shutdown
+    }
+    catch (Throwable e)
+    {
+      _LOGGER.error("DNS selector loop terminated unexpectedly", e);
+    }
+  }
+
+  /**
+   * Determines the address of the DNS server: either the configured one, or the first nameserver of the system
+   *
+   * @return the address
+   */
+  @NotNull
+  private InetSocketAddress _getServerAddress() throws IOException
+  {
+    String configured = server.map(String::trim).orElse("");
+    if (configured.isEmpty())
+    {
+      try
+      {
+        configured = Files.readAllLines(_RESOLV_CONF).stream()
+            .map(String::trim)
+            .filter(pLine -> pLine.startsWith("nameserver"))
+            .map(pLine -> pLine.substring("nameserver".length()).trim())
+            .findFirst()
+            .orElseThrow(() -> new IOException("No nameserver found in " + _RESOLV_CONF));
+      }
+      catch (NoSuchFileException e)
+      {
+        throw new IOException("No DNS server configured and " + _RESOLV_CONF + " does not exist", e);
+      }
+    }
+
+    // host, host:port, [ipv6] or [ipv6]:port
+    String host = configured;
+    int port = _DNS_PORT;
+    if (configured.startsWith("["))
+    {
+      int end = configured.indexOf(']');
+      host = configured.substring(1, end);
+      if (configured.length() > end + 2)
+        port = Integer.parseInt(configured.substring(end + 2));
+    }
+    else if (configured.indexOf(':') >= 0 && configured.indexOf(':') == configured.lastIndexOf(':'))
+    {
+      host = configured.substring(0, configured.indexOf(':'));
+      port = Integer.parseInt(configured.substring(configured.indexOf(':') + 1));
+    }
+
+    return new InetSocketAddress(InetAddress.getByName(host), port);
+  }
+
+  /**
+   * A single query, waiting for its response
+   */
+  private static class _Query
+  {
+    private final InetAddress address;
+    private final String name;
+    private final CompletableFuture<Optional<String>> future;
+
+    public _Query(@NotNull InetAddress pAddress, @NotNull String pName, @NotNull CompletableFuture<Optional<String>> pFuture)
+    {
+      address = pAddress;
+      name = pName;
+      future = pFuture;
+    }
+  }
+
+  /**
+   * Cached answer, hostName is null if there is no PTR record
+   */
+  private static class _CacheEntry
+  {
+    private final String hostName;
+    private final long expiresAt;
+
+    public _CacheEntry(@Nullable String pHostName, long pExpiresAt)
+    {
+      hostName = pHostName;
+      expiresAt = pExpiresAt;
+    }
+  }
+
+}
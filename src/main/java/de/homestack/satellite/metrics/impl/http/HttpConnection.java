@@ -0,0 +1,408 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import org.jetbrains.annotations.*;
+
+import javax.net.ssl.*;
+import java.io.*;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+
+/**
+ * A single non-blocking HTTP/1.1 connection, plain or TLS.
+ * It executes one exchange at a time and may be reused for further exchanges, as long as the server keeps it alive.
+ * Instances are only accessed by the selector thread of the engine.
+ *
+ * @author agent, 18.10.2026
+ */
+class HttpConnection
+{
+  private static final ByteBuffer _EMPTY = ByteBuffer.allocate(0);
+  private static final int _PLAIN_BUFFER_SIZE = 16 * 1024;
+
+  private final String poolKey;
+  private final SocketChannel channel;
+  private final SelectionKey selectionKey;
+  private final SSLEngine sslEngine; // null for plain connections
+  private final ByteBuffer netIn; // ready to be read into
+  private final ByteBuffer netOut; // ready to be written from
+  private final ByteBuffer appIn; // ready to be unwrapped into, only used for TLS
+  private HttpExchange exchange;
+  private boolean connected = false;
+  private boolean handshaken = false;
+  private boolean inputClosed = false;
+  private boolean reusable = true;
+  private long idleSince;
+
+  private HttpConnection(@NotNull String pPoolKey, @NotNull SocketChannel pChannel, @NotNull SelectionKey pSelectionKey, @Nullable SSLEngine pSslEngine)
+  {
+    poolKey = pPoolKey;
+    channel = pChannel;
+    selectionKey = pSelectionKey;
+    sslEngine = pSslEngine;
+    if (pSslEngine != null)
+    {
+      SSLSession session = pSslEngine.getSession();
+      netIn = ByteBuffer.allocate(session.getPacketBufferSize());
+      netOut = ByteBuffer.allocate(session.getPacketBufferSize());
+      appIn = ByteBuffer.allocate(session.getApplicationBufferSize());
+    }
+    else
+    {
+      netIn = ByteBuffer.allocate(_PLAIN_BUFFER_SIZE);
+      netOut = ByteBuffer.allocate(0);
+      appIn = null;
+    }
+    netOut.flip();
+  }
+
+  /**
+   * Opens a new connection for the given exchange and starts to connect
+   *
+   * @param pExchange  Exchange to execute on the new connection
+   * @param pSslEngine Engine for TLS connections, null for plain connections
+   * @param pSelector  Selector of the engine
+   * @return the connection, bound to the exchange
+   */
+  @NotNull
+  static HttpConnection open(@NotNull HttpExchange pExchange, @Nullable SSLEngine pSslEngine, @NotNull Selector pSelector) throws IOException
+  {
+    SocketChannel channel = SocketChannel.open();
+    try
+    {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      HttpConnection connection = new HttpConnection(pExchange.getPoolKey(), channel, channel.register(pSelector, 0), pSslEngine);
+      connection.selectionKey.attach(connection);
+      connection.bind(pExchange, false);
+      channel.connect(pExchange.getAddress());
+      return connection;
+    }
+    catch (IOException | RuntimeException e)
+    {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Binds the given exchange to this connection
+   *
+   * @param pExchange Exchange to execute next
+   * @param pReused   true, if this connection executed other exchanges before
+   */
+  void bind(@NotNull HttpExchange pExchange, boolean pReused)
+  {
+    exchange = pExchange;
+    pExchange.bind(this, pReused);
+  }
+
+  /**
+   * Unbinds the current exchange and marks this connection as idle
+   */
+  void release()
+  {
+    exchange = null;
+    idleSince = System.nanoTime();
+    _interest(SelectionKey.OP_READ); // a read event while idle means, that the server closed the connection
+  }
+
+  /**
+   * Continues the current exchange as far as possible without blocking
+   *
+   * @return true, if the response was received completely
+   */
+  boolean process() throws IOException
+  {
+    if (!connected)
+    {
+      if (!channel.finishConnect())
+      {
+        _interest(SelectionKey.OP_CONNECT);
+        return false;
+      }
+      connected = true;
+      exchange.onConnected();
+      if (sslEngine != null)
+      {
+        exchange.onHandshakeStarted();
+        sslEngine.beginHandshake();
+      }
+    }
+
+    if (sslEngine != null && !handshaken)
+    {
+      if (!_handshake())
+        return false;
+      handshaken = true;
+      exchange.onHandshakeFinished();
+    }
+
+    if (!_write(exchange.getRequest()))
+    {
+      _interest(SelectionKey.OP_WRITE);
+      return false;
+    }
+
+    if (_read())
+      return true;
+    _interest(SelectionKey.OP_READ);
+    return false;
+  }
+
+  /**
+   * Closes this connection. Its registration in the selector gets cancelled, too.
+   */
+  void close()
+  {
+    selectionKey.cancel();
+    try
+    {
+      channel.close();
+    }
+    catch (IOException e)
+    {
+      // nothing to do
+    }
+  }
+
+  /**
+   * @return the current exchange, null if this connection is idle
+   */
+  @Nullable
+  HttpExchange getExchange()
+  {
+    return exchange;
+  }
+
+  /**
+   * @return true, if this connection may execute another exchange
+   */
+  boolean isReusable()
+  {
+    return reusable && !inputClosed && channel.isOpen();
+  }
+
+  /**
+   * @return the time, since when this connection is idle, in nanoseconds
+   */
+  long getIdleSince()
+  {
+    return idleSince;
+  }
+
+  @NotNull
+  String getPoolKey()
+  {
+    return poolKey;
+  }
+
+  /**
+   * Runs the TLS handshake as far as possible
+   *
+   * @return true, if the handshake finished
+   */
+  private boolean _handshake() throws IOException
+  {
+    while (true)
+    {
+      switch (sslEngine.getHandshakeStatus())
+      {
+        case NEED_TASK:
+          _runDelegatedTasks();
+          break;
+
+        case NEED_WRAP:
+          if (!_flush())
+          {
+            _interest(SelectionKey.OP_WRITE);
+            return false;
+          }
+          netOut.clear();
+          SSLEngineResult wrapResult = sslEngine.wrap(_EMPTY, netOut);
+          netOut.flip();
+          _check(wrapResult);
+          break;
+
+        case NEED_UNWRAP:
+        case NEED_UNWRAP_AGAIN:
+          netIn.flip();
+          SSLEngineResult unwrapResult = sslEngine.unwrap(netIn, appIn);
+          netIn.compact();
+          if (unwrapResult.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW)
+          {
+            if (!_flush())
+            {
+              _interest(SelectionKey.OP_WRITE);
+              return false;
+            }
+            int read = channel.read(netIn);
+            if (read < 0)
+              throw new EOFException("Connection closed during TLS handshake");
+            if (read == 0)
+            {
+              _interest(SelectionKey.OP_READ);
+              return false;
+            }
+          }
+          else
+            _check(unwrapResult);
+          break;
+
+        default:
+          // the last handshake message may still be pending
+          if (_flush())
+            return true;
+          _interest(SelectionKey.OP_WRITE);
+          return false;
+      }
+    }
+  }
+
+  /**
+   * Writes the given application data
+   *
+   * @return true, if everything was written
+   */
+  private boolean _write(@NotNull ByteBuffer pData) throws IOException
+  {
+    if (sslEngine == null)
+    {
+      channel.write(pData);
+      return !pData.hasRemaining();
+    }
+
+    while (true)
+    {
+      if (!_flush())
+        return false;
+      if (!pData.hasRemaining())
+        return true;
+      netOut.clear();
+      SSLEngineResult result = sslEngine.wrap(pData, netOut);
+      netOut.flip();
+      _check(result);
+    }
+  }
+
+  /**
+   * Reads the response as far as possible
+   *
+   * @return true, if the response is complete
+   */
+  private boolean _read() throws IOException
+  {
+    while (true)
+    {
+      int read = channel.read(netIn);
+      if (sslEngine == null ? _feedPlain() : _feedTls())
+        return true;
+      if (read < 0 || inputClosed)
+      {
+        inputClosed = true;
+        if (exchange.eof())
+          return true;
+        throw new EOFException("Connection closed before the response was complete");
+      }
+      if (read == 0)
+        return false;
+    }
+  }
+
+  private boolean _feedPlain() throws IOException
+  {
+    netIn.flip();
+    boolean complete = exchange.feed(netIn);
+    if (complete && netIn.hasRemaining())
+      reusable = false; // unexpected data after the response
+    netIn.clear();
+    return complete;
+  }
+
+  private boolean _feedTls() throws IOException
+  {
+    netIn.flip();
+    try
+    {
+      while (netIn.hasRemaining())
+      {
+        SSLEngineResult result = sslEngine.unwrap(netIn, appIn);
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED)
+        {
+          inputClosed = true;
+          return false;
+        }
+        if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW)
+          return false;
+        _check(result);
+        _handlePostHandshake(result.getHandshakeStatus());
+
+        appIn.flip();
+        boolean complete = exchange.feed(appIn);
+        if (complete && appIn.hasRemaining())
+          reusable = false; // unexpected data after the response
+        appIn.clear();
+        if (complete)
+          return true;
+      }
+      return false;
+    }
+    finally
+    {
+      netIn.compact();
+    }
+  }
+
+  /**
+   * Handles handshake messages after the initial handshake, e.g. TLS 1.3 session tickets
+   */
+  private void _handlePostHandshake(@NotNull SSLEngineResult.HandshakeStatus pStatus) throws IOException
+  {
+    if (pStatus == SSLEngineResult.HandshakeStatus.NEED_TASK)
+      _runDelegatedTasks();
+    else if (pStatus == SSLEngineResult.HandshakeStatus.NEED_WRAP && _flush())
+    {
+      netOut.clear();
+      SSLEngineResult result = sslEngine.wrap(_EMPTY, netOut);
+      netOut.flip();
+      _check(result);
+      _flush();
+    }
+  }
+
+  /**
+   * Writes pending TLS records
+   *
+   * @return true, if nothing is pending anymore
+   */
+  private boolean _flush() throws IOException
+  {
+    while (netOut.hasRemaining())
+      if (channel.write(netOut) == 0)
+        return false;
+    return true;
+  }
+
+  private void _runDelegatedTasks()
+  {
+    // certificate validation, cheap enough to run on the selector thread
+    Runnable task;
+    while ((task = sslEngine.getDelegatedTask()) != null)
+      task.run();
+  }
+
+  private void _interest(int pOps)
+  {
+    if (selectionKey.isValid())
+      selectionKey.interestOps(pOps);
+  }
+
+  private static void _check(@NotNull SSLEngineResult pResult) throws SSLException
+  {
+    if (pResult.getStatus() == SSLEngineResult.Status.CLOSED)
+      throw new SSLException("TLS connection was closed");
+    if (pResult.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW)
+      throw new SSLException("TLS record exceeds the buffer size");
+  }
+
+}
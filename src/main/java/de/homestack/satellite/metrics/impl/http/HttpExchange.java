@@ -0,0 +1,230 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import org.jetbrains.annotations.*;
+
+import java.io.IOException;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A single request and its response, including the timings of all phases.
+ * Everything except the future is only accessed by the selector thread of the engine.
+ *
+ * @author agent, 18.10.2026
+ */
+class HttpExchange
+{
+  private static final long _UNSET = Long.MIN_VALUE;
+
+  private final CompletableFuture<HttpProbeResult> future = new CompletableFuture<>();
+  private final InetSocketAddress address;
+  private final String host;
+  private final boolean tls;
+  private final boolean verifyTls;
+  private final String poolKey;
+  private final byte[] request;
+  private final boolean head;
+  private final int maxBody;
+  private final long startNanos = System.nanoTime();
+  private HttpConnection connection;
+  private HttpResponseParser parser;
+  private ByteBuffer requestBuffer;
+  private boolean reused;
+  private boolean retried;
+  private long connectStart;
+  private long connectEnd;
+  private long tlsStart;
+  private long tlsEnd;
+  private long requestStart;
+  private long firstByte;
+
+  /**
+   * @param pUri       URI to request, http or https
+   * @param pAddress   Resolved address of the host of the URI
+   * @param pMethod    Request method, e.g. GET or HEAD
+   * @param pVerifyTls true, if the certificate of the server has to be valid for its host name
+   * @param pMaxBody   Number of body bytes to keep, 0 to skip the whole body
+   */
+  HttpExchange(@NotNull URI pUri, @NotNull InetAddress pAddress, @NotNull String pMethod, boolean pVerifyTls, int pMaxBody)
+  {
+    String scheme = pUri.getScheme() == null ? "" : pUri.getScheme().toLowerCase(Locale.ROOT);
+    if (!scheme.equals("http") && !scheme.equals("https"))
+      throw new IllegalArgumentException("Unsupported scheme: " + pUri);
+    if (pUri.getHost() == null)
+      throw new IllegalArgumentException("URI without host: " + pUri);
+
+    tls = scheme.equals("https");
+    verifyTls = tls && pVerifyTls;
+    int port = pUri.getPort() > 0 ? pUri.getPort() : (tls ? 443 : 80);
+    String uriHost = pUri.getHost();
+    host = uriHost.startsWith("[") ? uriHost.substring(1, uriHost.length() - 1) : uriHost;
+    address = new InetSocketAddress(pAddress, port);
+    poolKey = scheme + "://" + uriHost + ":" + port + "/" + pAddress.getHostAddress() + (verifyTls ? "/verified" : "");
+    head = pMethod.equals("HEAD");
+    maxBody = pMaxBody;
+
+    String path = pUri.getRawPath() == null || pUri.getRawPath().isEmpty() ? "/" : pUri.getRawPath();
+    if (pUri.getRawQuery() != null)
+      path += "?" + pUri.getRawQuery();
+    request = (pMethod + " " + path + " HTTP/1.1\r\n" +
+        "Host: " + uriHost + (pUri.getPort() > 0 ? ":" + port : "") + "\r\n" +
+        "User-Agent: HomeStack-Satellite\r\n" +
+        "Accept: */*\r\n" +
+        "Connection: keep-alive\r\n" +
+        "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Binds this exchange to the connection, that will execute it. Timings of a previous attempt are reset.
+   *
+   * @param pConnection Connection
+   * @param pReused     true, if the connection is already established
+   */
+  void bind(@NotNull HttpConnection pConnection, boolean pReused)
+  {
+    connection = pConnection;
+    reused = pReused;
+    parser = new HttpResponseParser(head, maxBody);
+    requestBuffer = ByteBuffer.wrap(request);
+    connectStart = connectEnd = tlsStart = tlsEnd = requestStart = firstByte = _UNSET;
+    if (!pReused)
+      connectStart = System.nanoTime();
+  }
+
+  void onConnected()
+  {
+    connectEnd = System.nanoTime();
+  }
+
+  void onHandshakeStarted()
+  {
+    tlsStart = System.nanoTime();
+  }
+
+  void onHandshakeFinished()
+  {
+    tlsEnd = System.nanoTime();
+  }
+
+  /**
+   * @return the request bytes, that were not written yet
+   */
+  @NotNull
+  ByteBuffer getRequest()
+  {
+    if (requestStart == _UNSET)
+      requestStart = System.nanoTime();
+    return requestBuffer;
+  }
+
+  /**
+   * Passes received bytes of the response to the parser
+   *
+   * @return true, if the response is complete
+   */
+  boolean feed(@NotNull ByteBuffer pData) throws IOException
+  {
+    if (firstByte == _UNSET && pData.hasRemaining())
+      firstByte = System.nanoTime();
+    return parser.feed(pData);
+  }
+
+  /**
+   * Gets called, if the server closed the connection
+   *
+   * @return true, if this completed the response
+   */
+  boolean eof()
+  {
+    return parser.eof();
+  }
+
+  /**
+   * @return true, if the connection may be reused after this exchange
+   */
+  boolean isKeepAlive()
+  {
+    return parser.isKeepAlive();
+  }
+
+  /**
+   * Checks, if this exchange failed on a reused connection before any response was received.
+   * In this case, the server most likely closed the idle connection, and the exchange may be retried once.
+   *
+   * @return true, if this exchange should be retried on a new connection
+   */
+  boolean retryOnNewConnection()
+  {
+    if (!reused || retried || firstByte != _UNSET || future.isDone())
+      return false;
+    retried = true;
+    return true;
+  }
+
+  /**
+   * Completes the future with the received response, if it was not completed before (e.g. by a timeout)
+   */
+  void complete()
+  {
+    long end = System.nanoTime();
+    future.complete(new HttpProbeResult(parser.getStatus(), _millis(connectStart, connectEnd), _millis(tlsStart, tlsEnd),
+                                        _millis(requestStart, firstByte), _millis(startNanos, end), reused, parser.getBody()));
+  }
+
+  @NotNull
+  CompletableFuture<HttpProbeResult> getFuture()
+  {
+    return future;
+  }
+
+  @Nullable
+  HttpConnection getConnection()
+  {
+    return connection;
+  }
+
+  @NotNull
+  InetSocketAddress getAddress()
+  {
+    return address;
+  }
+
+  /**
+   * @return the host name of the URI, as used for SNI and certificate validation
+   */
+  @NotNull
+  String getHost()
+  {
+    return host;
+  }
+
+  boolean isTls()
+  {
+    return tls;
+  }
+
+  boolean isVerifyTls()
+  {
+    return verifyTls;
+  }
+
+  /**
+   * @return the key of the connection pool, exchanges with the same key may share connections
+   */
+  @NotNull
+  String getPoolKey()
+  {
+    return poolKey;
+  }
+
+  private static float _millis(long pStart, long pEnd)
+  {
+    if (pStart == _UNSET || pEnd == _UNSET)
+      return -1;
+    return (pEnd - pStart) / 1_000_000F;
+  }
+
+}
@@ -0,0 +1,224 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import com.google.common.net.InetAddresses;
+import de.homestack.satellite.metrics.api.*;
+import de.homestack.satellite.metrics.execution.AddressResolver;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.net.ssl.SSLException;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.regex.*;
+
+/**
+ * Requests an URL of the given device (e.g. its web interface or API) and reports the status code
+ * and the timings of all phases of the request. Optionally checks, if the body matches a pattern.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class HttpExecutor implements IAsyncMetricExecutor
+{
+
+  private static final int _DEFAULT_TIMEOUT_MS = 10_000;
+  private static final int _MAX_BODY = 64 * 1024;
+  private static final int[] _DEFAULT_STATUS = {200, 399};
+
+  @Inject
+  protected HttpProbeEngine probeEngine;
+
+  @Inject
+  protected AddressResolver addressResolver;
+
+  @NotNull
+  @Override
+  public String getType()
+  {
+    return "http";
+  }
+
+  @Override
+  public boolean canExecute()
+  {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public CompletableFuture<IMetricRecord> executeAsync(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress,
+                                                       @NotNull IMetricPreferences pPreferences)
+  {
+    URI uri;
+    Pattern match;
+    try
+    {
+      uri = _getURI(pDevice, pPreferences);
+      String matchValue = pPreferences.getValue("match", "");
+      match = matchValue.isEmpty() ? null : Pattern.compile(matchValue);
+    }
+    catch (URISyntaxException | PatternSyntaxException e)
+    {
+      return CompletableFuture.completedFuture(new SimpleMetricRecord(EMetricRecordState.UNKNOWN)
+                                                   .withResult("error", "invalid configuration"));
+    }
+
+    String method = pPreferences.getValue("method", "GET").trim().toUpperCase(Locale.ROOT);
+    if (!method.equals("GET") && !method.equals("HEAD"))
+      return CompletableFuture.completedFuture(new SimpleMetricRecord(EMetricRecordState.UNKNOWN)
+                                                   .withResult("error", "unsupported method"));
+    boolean verifyTls = Boolean.parseBoolean(pPreferences.getValue("verifyTls", "false").trim());
+    int timeout = _getTimeout(pPreferences);
+    int[] expectedStatus = _getExpectedStatus(pPreferences);
+
+    long start = System.nanoTime();
+    String host = uri.getHost().startsWith("[") ? uri.getHost().substring(1, uri.getHost().length() - 1) : uri.getHost();
+    InetAddress resolved = host.equalsIgnoreCase(pDevice.address) ? pAddress : null;
+    boolean lookup = resolved == null && !InetAddresses.isInetAddress(host);
+
+    CompletableFuture<IMetricRecord> result = new CompletableFuture<>();
+    _resolve(host, resolved)
+        .thenAccept(pTarget -> {
+          float dnsTime = lookup ? (System.nanoTime() - start) / 1_000_000F : -1;
+          CompletableFuture<HttpProbeResult> probe = probeEngine.probe(uri, pTarget, method, verifyTls, match == null ? 0 : _MAX_BODY, timeout);
+          result.whenComplete((pRecord, pEx) -> {
+            if (result.isCancelled())
+              probe.cancel(false);
+          });
+          probe.handle((pProbe, pEx) -> result.complete(pEx != null ? _toFailure(pEx) : _toRecord(pProbe, dnsTime, expectedStatus, match)));
+        })
+        .exceptionally(pEx -> {
+          result.complete(new SimpleMetricRecord(EMetricRecordState.FAILURE)
+                              .withResult("error", "dns"));
+          return null;
+        });
+    return result;
+  }
+
+  /**
+   * Creates the record of a received response
+   */
+  @NotNull
+  private static IMetricRecord _toRecord(@NotNull HttpProbeResult pProbe, float pDnsTime, @NotNull int[] pExpectedStatus, @Nullable Pattern pMatch)
+  {
+    boolean statusExpected = pProbe.getStatus() >= pExpectedStatus[0] && pProbe.getStatus() <= pExpectedStatus[1];
+    Boolean matches = null;
+    if (pMatch != null)
+    {
+      byte[] body = pProbe.getBody();
+      matches = body != null && pMatch.matcher(new String(body, StandardCharsets.UTF_8)).find();
+    }
+
+    SimpleMetricRecord record = new SimpleMetricRecord(statusExpected && !Boolean.FALSE.equals(matches) ? EMetricRecordState.SUCCESS : EMetricRecordState.WARNING)
+        .withResult("status", Integer.toString(pProbe.getStatus()))
+        .withResult("ttfb", pProbe.getFirstByteTime())
+        .withResult("responseTime", pProbe.getTotalTime() + Math.max(0, pDnsTime));
+    if (pDnsTime >= 0)
+      record.withResult("dns", pDnsTime);
+    if (pProbe.getConnectTime() >= 0)
+      record.withResult("connect", pProbe.getConnectTime());
+    if (pProbe.getTlsTime() >= 0)
+      record.withResult("tls", pProbe.getTlsTime());
+    if (matches != null)
+      record.withResult("match", matches.toString());
+    return record;
+  }
+
+  /**
+   * Creates the record of a failed request
+   */
+  @NotNull
+  private static IMetricRecord _toFailure(@NotNull Throwable pEx)
+  {
+    Throwable cause = pEx instanceof CompletionException && pEx.getCause() != null ? pEx.getCause() : pEx;
+    String error;
+    if (cause instanceof TimeoutException)
+      error = "timeout";
+    else if (cause instanceof ConnectException)
+      error = "refused";
+    else if (cause instanceof SocketException)
+      error = "unreachable";
+    else if (cause instanceof SSLException)
+      error = "tls";
+    else
+      error = "protocol";
+
+    return new SimpleMetricRecord(EMetricRecordState.FAILURE)
+        .withResult("error", error)
+        .withResult("responseTime", "-1");
+  }
+
+  /**
+   * Builds the URI to request. The "url" setting may be absolute or a path on the device, it defaults to the root of the device.
+   */
+  @NotNull
+  private static URI _getURI(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences) throws URISyntaxException
+  {
+    String url = pPreferences.getValue("url", "").trim();
+    if (url.isEmpty() || url.startsWith("/"))
+    {
+      String host = InetAddresses.isInetAddress(pDevice.address) && pDevice.address.contains(":") ? "[" + pDevice.address + "]" : pDevice.address;
+      url = "http://" + host + (url.isEmpty() ? "/" : url);
+    }
+
+    URI uri = new URI(url);
+    if (uri.getHost() == null || uri.getScheme() == null || !uri.getScheme().toLowerCase(Locale.ROOT).matches("https?"))
+      throw new URISyntaxException(url, "Only absolute http and https URLs are supported");
+    return uri;
+  }
+
+  /**
+   * Reads the range of expected status codes, e.g. "200-399" or "204"
+   */
+  @NotNull
+  private static int[] _getExpectedStatus(@NotNull IMetricPreferences pPreferences)
+  {
+    String value = pPreferences.getValue("status", "").trim();
+    try
+    {
+      int separator = value.indexOf('-');
+      if (separator > 0)
+        return new int[]{Integer.parseInt(value.substring(0, separator).trim()), Integer.parseInt(value.substring(separator + 1).trim())};
+      if (!value.isEmpty())
+        return new int[]{Integer.parseInt(value), Integer.parseInt(value)};
+    }
+    catch (NumberFormatException e)
+    {
+      // default
+    }
+    return _DEFAULT_STATUS;
+  }
+
+  private static int _getTimeout(@NotNull IMetricPreferences pPreferences)
+  {
+    try
+    {
+      String value = pPreferences.getValue("timeout", "");
+      if (!value.isBlank())
+        return Math.max(1, Integer.parseInt(value.trim()));
+    }
+    catch (NumberFormatException e)
+    {
+      // default
+    }
+    return _DEFAULT_TIMEOUT_MS;
+  }
+
+  /**
+   * Resolves the given host, if it is not the already resolved address of the device.
+   * Host names are looked up by the address resolver, so that the event loop is never blocked by the system resolver.
+   */
+  @NotNull
+  private CompletableFuture<InetAddress> _resolve(@NotNull String pHost, @Nullable InetAddress pAddress)
+  {
+    if (pAddress != null)
+      return CompletableFuture.completedFuture(pAddress);
+    return addressResolver.resolve(pHost);
+  }
+
+}
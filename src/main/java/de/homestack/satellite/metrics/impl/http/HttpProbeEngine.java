@@ -0,0 +1,422 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.net.ssl.*;
+import java.io.IOException;
+import java.net.*;
+import java.nio.channels.*;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking HTTP/1.1 client for probes. All connections of this satellite are driven by a single selector loop,
+ * so requests to any number of hosts run concurrently without blocking a thread.
+ * Connections are kept alive and pooled per host, so that repeated probes do not pay for a new connect and TLS handshake.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class HttpProbeEngine
+{
+  private static final Logger _LOGGER = Logger.getLogger(HttpProbeEngine.class);
+
+  @ConfigProperty(name = "homestack.satellite.http.pool.idle-timeout", defaultValue = "60")
+  protected long idleTimeoutSeconds;
+
+  @ConfigProperty(name = "homestack.satellite.http.pool.max-idle-per-host", defaultValue = "2")
+  protected int maxIdlePerHost;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Queue<Consumer<Selector>> tasks = new ConcurrentLinkedQueue<>();
+  private final Set<HttpExchange> pendingExchanges = ConcurrentHashMap.newKeySet();
+  private final Map<String, Deque<HttpConnection>> idleConnections = new HashMap<>(); // only accessed by the selector thread
+  private volatile int idleCount = 0;
+  private Selector selector;
+  private Thread selectorThread;
+  private SSLContext trustAllContext;
+
+  @PostConstruct
+  void init()
+  {
+    instrumentation.gauge("http.pending", "HTTP probes waiting for a response", this, HttpProbeEngine::getPendingCount);
+    instrumentation.gauge("http.idle", "Idle HTTP connections in the pool", this, HttpProbeEngine::getIdleCount);
+  }
+
+  /**
+   * Sends a single request and receives its response
+   *
+   * @param pUri       URI to request, http or https
+   * @param pAddress   Resolved address of the host of the URI
+   * @param pMethod    Request method, e.g. GET or HEAD
+   * @param pVerifyTls true, if the certificate of the server has to be valid for its host name
+   * @param pMaxBody   Number of body bytes to keep, 0 to skip the whole body
+   * @param pTimeoutMs Timeout of the whole request in milliseconds
+   * @return future that contains the result. It completes exceptionally with a TimeoutException, if the request timed out,
+   * or an IOException, if the request failed.
+   */
+  @NotNull
+  public CompletableFuture<HttpProbeResult> probe(@NotNull URI pUri, @NotNull InetAddress pAddress, @NotNull String pMethod, boolean pVerifyTls,
+                                                  int pMaxBody, int pTimeoutMs)
+  {
+    HttpExchange exchange = new HttpExchange(pUri, pAddress, pMethod, pVerifyTls, pMaxBody);
+    pendingExchanges.add(exchange);
+    exchange.getFuture()
+        .orTimeout(pTimeoutMs, TimeUnit.MILLISECONDS)
+        .whenComplete((pResult, pEx) -> {
+          pendingExchanges.remove(exchange);
+          if (pEx != null)
+            _abort(exchange);
+        });
+
+    try
+    {
+      Selector currentSelector = _getSelector();
+      tasks.add(pSelector -> _start(exchange, pSelector, true));
+      currentSelector.wakeup();
+    }
+    catch (Exception e)
+    {
+      exchange.getFuture().completeExceptionally(e);
+    }
+
+    return exchange.getFuture();
+  }
+
+  /**
+   * @return the number of requests that are currently in flight
+   */
+  public int getPendingCount()
+  {
+    return pendingExchanges.size();
+  }
+
+  /**
+   * @return the number of idle connections in the pool
+   */
+  public int getIdleCount()
+  {
+    return idleCount;
+  }
+
+  @PreDestroy
+  synchronized void destroy()
+  {
+    if (selector != null)
+    {
+      tasks.add(this::_shutdown);
+      selector.wakeup();
+    }
+    selector = null;
+    selectorThread = null;
+
+    for (HttpExchange exchange : pendingExchanges)
+      exchange.getFuture().cancel(false);
+  }
+
+  /**
+   * Starts the given exchange on a pooled or a new connection
+   *
+   * @param pExchange  Exchange to start
+   * @param pSelector  Selector of the loop
+   * @param pAllowPool true, if a pooled connection may be used
+   */
+  private void _start(@NotNull HttpExchange pExchange, @NotNull Selector pSelector, boolean pAllowPool)
+  {
+    if (pExchange.getFuture().isDone())
+      return; // timed out or cancelled, before it was started
+
+    HttpConnection connection = pAllowPool ? _pollIdle(pExchange.getPoolKey()) : null;
+    try
+    {
+      if (connection != null)
+        connection.bind(pExchange, true);
+      else
+        connection = HttpConnection.open(pExchange, pExchange.isTls() ? _createSslEngine(pExchange) : null, pSelector);
+    }
+    catch (Exception e)
+    {
+      if (connection != null)
+        connection.close();
+      pExchange.getFuture().completeExceptionally(e);
+      return;
+    }
+
+    _process(connection, pSelector);
+  }
+
+  /**
+   * Continues the exchange of the given connection and releases the connection, if the exchange completed
+   *
+   * @param pConnection Connection that is ready
+   * @param pSelector   Selector of the loop
+   */
+  private void _process(@NotNull HttpConnection pConnection, @NotNull Selector pSelector)
+  {
+    HttpExchange exchange = pConnection.getExchange();
+    if (exchange == null)
+    {
+      // idle connections only become ready, if the server closed them
+      _removeIdle(pConnection);
+      pConnection.close();
+      return;
+    }
+
+    try
+    {
+      if (!pConnection.process())
+        return;
+
+      // the response was read completely, so the connection can be reused, even if the exchange timed out in the meantime
+      pConnection.release();
+      if (exchange.isKeepAlive() && pConnection.isReusable())
+        _addIdle(pConnection);
+      else
+        pConnection.close();
+      exchange.complete();
+    }
+    catch (Exception e)
+    {
+      pConnection.close();
+      if (exchange.retryOnNewConnection())
+        _start(exchange, pSelector, false);
+      else
+        exchange.getFuture().completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Closes the connection of an exchange, that timed out or was cancelled
+   *
+   * @param pExchange Exchange
+   */
+  private synchronized void _abort(@NotNull HttpExchange pExchange)
+  {
+    if (selector == null)
+      return;
+
+    tasks.add(pSelector -> {
+      HttpConnection connection = pExchange.getConnection();
+      if (connection != null && connection.getExchange() == pExchange)
+        connection.close();
+    });
+    selector.wakeup();
+  }
+
+  @Nullable
+  private HttpConnection _pollIdle(@NotNull String pPoolKey)
+  {
+    Deque<HttpConnection> connections = idleConnections.get(pPoolKey);
+    HttpConnection connection = null;
+    while (connection == null && connections != null && !connections.isEmpty())
+    {
+      connection = connections.pollFirst();
+      if (!connection.isReusable())
+      {
+        connection.close();
+        connection = null;
+      }
+    }
+    if (connections != null && connections.isEmpty())
+      idleConnections.remove(pPoolKey);
+    _updateIdleCount();
+    return connection;
+  }
+
+  private void _addIdle(@NotNull HttpConnection pConnection)
+  {
+    Deque<HttpConnection> connections = idleConnections.computeIfAbsent(pConnection.getPoolKey(), pKey -> new ArrayDeque<>());
+    if (connections.size() >= maxIdlePerHost)
+      pConnection.close();
+    else
+      connections.addFirst(pConnection); // most recently used first, so that surplus connections expire
+    _updateIdleCount();
+  }
+
+  private void _removeIdle(@NotNull HttpConnection pConnection)
+  {
+    Deque<HttpConnection> connections = idleConnections.get(pConnection.getPoolKey());
+    if (connections != null && connections.remove(pConnection) && connections.isEmpty())
+      idleConnections.remove(pConnection.getPoolKey());
+    _updateIdleCount();
+  }
+
+  /**
+   * Closes all connections, that were idle for longer than the idle timeout
+   */
+  private void _evictIdle()
+  {
+    if (idleConnections.isEmpty())
+      return;
+
+    long now = System.nanoTime();
+    long timeout = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+    Iterator<Deque<HttpConnection>> iterator = idleConnections.values().iterator();
+    while (iterator.hasNext())
+    {
+      Deque<HttpConnection> connections = iterator.next();
+      connections.removeIf(pConnection -> {
+        if (now - pConnection.getIdleSince() < timeout)
+          return false;
+        pConnection.close();
+        return true;
+      });
+      if (connections.isEmpty())
+        iterator.remove();
+    }
+    _updateIdleCount();
+  }
+
+  private void _updateIdleCount()
+  {
+    int count = 0;
+    for (Deque<HttpConnection> connections : idleConnections.values())
+      count += connections.size();
+    idleCount = count;
+  }
+
+  /**
+   * Closes all connections and the selector
+   */
+  private void _shutdown(@NotNull Selector pSelector)
+  {
+    for (SelectionKey key : pSelector.keys())
+      if (key.attachment() instanceof HttpConnection)
+        ((HttpConnection) key.attachment()).close();
+    idleConnections.clear();
+    _updateIdleCount();
+
+    try
+    {
+      pSelector.close();
+    }
+    catch (IOException e)
+    {
+      _LOGGER.warn("Failed to close HTTP selector", e);
+    }
+  }
+
+  @NotNull
+  private SSLEngine _createSslEngine(@NotNull HttpExchange pExchange) throws GeneralSecurityException
+  {
+    SSLContext context = pExchange.isVerifyTls() ? SSLContext.getDefault() : _getTrustAllContext();
+    SSLEngine engine = context.createSSLEngine(pExchange.getHost(), pExchange.getAddress().getPort());
+    engine.setUseClientMode(true);
+    if (pExchange.isVerifyTls())
+    {
+      SSLParameters parameters = engine.getSSLParameters();
+      parameters.setEndpointIdentificationAlgorithm("HTTPS");
+      engine.setSSLParameters(parameters);
+    }
+    return engine;
+  }
+
+  /**
+   * Returns the context for unverified connections. Most devices serve their web interface with a self-signed certificate,
+   * so certificates are only verified, if the metric explicitly asks for it.
+   *
+   * @return the context
+   */
+  @NotNull
+  private synchronized SSLContext _getTrustAllContext() throws GeneralSecurityException
+  {
+    if (trustAllContext == null)
+    {
+      SSLContext context = SSLContext.getInstance("TLS");
+      context.init(null, new TrustManager[]{new X509TrustManager()
+      {
+        @Override
+        public void checkClientTrusted(X509Certificate[] pChain, String pAuthType)
+        {
+          // trusted
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] pChain, String pAuthType)
+        {
+          // trusted
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers()
+        {
+          return new X509Certificate[0];
+        }
+      }}, null);
+      trustAllContext = context;
+    }
+    return trustAllContext;
+  }
+
+  /**
+   * Returns the shared selector and (re)starts its loop, if it is not running
+   *
+   * @return the selector
+   */
+  @NotNull
+  private synchronized Selector _getSelector() throws IOException
+  {
+    if (selector == null || selectorThread == null || !selectorThread.isAlive())
+    {
+      if (selector != null)
+        selector.close();
+
+      Selector newSelector = Selector.open();
+      Thread thread = new Thread(() -> _runSelector(newSelector), "tHttpSelector");
+      thread.setDaemon(true);
+      thread.start();
+
+      selector = newSelector;
+      selectorThread = thread;
+    }
+
+    return selector;
+  }
+
+  /**
+   * Runs all submitted tasks and continues all ready connections, until the selector gets closed
+   */
+  private void _runSelector(@NotNull Selector pSelector)
+  {
+    try
+    {
+      while (pSelector.isOpen())
+      {
+        pSelector.select(1000);
+
+        Consumer<Selector> task;
+        while (pSelector.isOpen() && (task = tasks.poll()) != null)
+          task.accept(pSelector);
+        if (!pSelector.isOpen())
+          break;
+
+        for (SelectionKey key : pSelector.selectedKeys())
+          if (key.isValid())
+            _process((HttpConnection) key.attachment(), pSelector);
+        pSelector.selectedKeys().clear();
+
+        _evictIdle();
+      }
+    }
+    catch (ClosedSelectorException e)
+    {
+      // shutdown
+    }
+    catch (Throwable e)
+    {
+      _LOGGER.error("HTTP selector loop terminated unexpectedly", e);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Result of a single HTTP probe. All times are in milliseconds, -1 if the phase did not happen
+ * (e.g. no connect and no TLS handshake, if a pooled connection was reused).
+ *
+ * @author agent, 18.10.2026
+ */
+public class HttpProbeResult
+{
+  private final int status;
+  private final float connectTime;
+  private final float tlsTime;
+  private final float firstByteTime;
+  private final float totalTime;
+  private final boolean reused;
+  private final byte[] body;
+
+  HttpProbeResult(int pStatus, float pConnectTime, float pTlsTime, float pFirstByteTime, float pTotalTime, boolean pReused, @Nullable byte[] pBody)
+  {
+    status = pStatus;
+    connectTime = pConnectTime;
+    tlsTime = pTlsTime;
+    firstByteTime = pFirstByteTime;
+    totalTime = pTotalTime;
+    reused = pReused;
+    body = pBody;
+  }
+
+  /**
+   * @return the status code of the response
+   */
+  public int getStatus()
+  {
+    return status;
+  }
+
+  /**
+   * @return the time to establish the TCP connection
+   */
+  public float getConnectTime()
+  {
+    return connectTime;
+  }
+
+  /**
+   * @return the time of the TLS handshake
+   */
+  public float getTlsTime()
+  {
+    return tlsTime;
+  }
+
+  /**
+   * @return the time between sending the request and receiving the first byte of the response
+   */
+  public float getFirstByteTime()
+  {
+    return firstByteTime;
+  }
+
+  /**
+   * @return the time of the whole probe, from acquiring a connection until the response was received completely
+   */
+  public float getTotalTime()
+  {
+    return totalTime;
+  }
+
+  /**
+   * @return true, if a pooled connection was reused
+   */
+  public boolean isReused()
+  {
+    return reused;
+  }
+
+  /**
+   * @return the first bytes of the body, null if the body was not requested
+   */
+  @Nullable
+  public byte[] getBody()
+  {
+    return body;
+  }
+
+}
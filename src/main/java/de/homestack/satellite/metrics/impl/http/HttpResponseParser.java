@@ -0,0 +1,303 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Incremental parser for a single HTTP/1.x response.
+ * Bodies may be delimited by Content-Length, chunked transfer encoding or the end of the connection.
+ * Only the first bytes of the body are kept, the rest is skipped.
+ * Instances are not thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+class HttpResponseParser
+{
+  private static final int _MAX_LINE = 16 * 1024;
+  private static final int _MAX_HEADERS = 128;
+
+  private static final int _STATUS_LINE = 0;
+  private static final int _HEADERS = 1;
+  private static final int _BODY = 2;
+  private static final int _BODY_UNTIL_EOF = 3;
+  private static final int _CHUNK_SIZE = 4;
+  private static final int _CHUNK_DATA = 5;
+  private static final int _CHUNK_END = 6;
+  private static final int _TRAILERS = 7;
+  private static final int _DONE = 8;
+
+  private final boolean head;
+  private final int maxBody;
+  private final StringBuilder line = new StringBuilder();
+  private final ByteArrayOutputStream body;
+  private int state = _STATUS_LINE;
+  private int status = -1;
+  private boolean keepAlive;
+  private boolean chunked;
+  private long contentLength;
+  private long remaining;
+  private int headerCount;
+
+  /**
+   * @param pHead    true, if the response belongs to a HEAD request and therefore has no body
+   * @param pMaxBody Number of body bytes to keep, 0 to skip the whole body
+   */
+  HttpResponseParser(boolean pHead, int pMaxBody)
+  {
+    head = pHead;
+    maxBody = pMaxBody;
+    body = pMaxBody > 0 ? new ByteArrayOutputStream(Math.min(pMaxBody, 4096)) : null;
+  }
+
+  /**
+   * Consumes the given bytes. If the response completes, the bytes after it are not consumed.
+   *
+   * @param pData Received bytes
+   * @return true, if the response is complete
+   */
+  boolean feed(@NotNull ByteBuffer pData) throws IOException
+  {
+    while (state != _DONE && pData.hasRemaining())
+    {
+      switch (state)
+      {
+        case _BODY:
+        case _CHUNK_DATA:
+          int count = (int) Math.min(remaining, pData.remaining());
+          _consumeBody(pData, count);
+          remaining -= count;
+          if (remaining == 0)
+            state = state == _BODY ? _DONE : _CHUNK_END;
+          break;
+
+        case _BODY_UNTIL_EOF:
+          _consumeBody(pData, pData.remaining());
+          break;
+
+        default:
+          String completeLine = _readLine(pData);
+          if (completeLine != null)
+            _onLine(completeLine);
+          break;
+      }
+    }
+
+    return state == _DONE;
+  }
+
+  /**
+   * Gets called, if the connection was closed by the server
+   *
+   * @return true, if this completed the response
+   */
+  boolean eof()
+  {
+    keepAlive = false;
+    if (state == _BODY_UNTIL_EOF)
+      state = _DONE;
+    return state == _DONE;
+  }
+
+  /**
+   * @return true, if at least the status line was received
+   */
+  boolean hasStatus()
+  {
+    return status >= 0;
+  }
+
+  /**
+   * @return the status code, -1 if it was not received yet
+   */
+  int getStatus()
+  {
+    return status;
+  }
+
+  /**
+   * @return true, if the connection may be reused after this response
+   */
+  boolean isKeepAlive()
+  {
+    return keepAlive;
+  }
+
+  /**
+   * @return the kept bytes of the body, null if the body should not be kept
+   */
+  @Nullable
+  byte[] getBody()
+  {
+    return body == null ? null : body.toByteArray();
+  }
+
+  private void _onLine(@NotNull String pLine) throws IOException
+  {
+    switch (state)
+    {
+      case _STATUS_LINE:
+        if (pLine.isEmpty())
+          return; // tolerate empty lines between responses
+        if (!pLine.startsWith("HTTP/1.") || pLine.length() < 12 || pLine.charAt(8) != ' ')
+          throw new IOException("Invalid status line: " + pLine);
+        status = _parseStatus(pLine.substring(9, 12));
+        keepAlive = pLine.startsWith("HTTP/1.1");
+        chunked = false;
+        contentLength = -1;
+        headerCount = 0;
+        state = _HEADERS;
+        break;
+
+      case _HEADERS:
+        if (pLine.isEmpty())
+          _onHeadersComplete();
+        else
+          _onHeader(pLine);
+        break;
+
+      case _CHUNK_SIZE:
+        int extension = pLine.indexOf(';');
+        try
+        {
+          remaining = Long.parseLong((extension < 0 ? pLine : pLine.substring(0, extension)).trim(), 16);
+        }
+        catch (NumberFormatException e)
+        {
+          throw new IOException("Invalid chunk size: " + pLine, e);
+        }
+        state = remaining == 0 ? _TRAILERS : _CHUNK_DATA;
+        break;
+
+      case _CHUNK_END:
+        if (!pLine.isEmpty())
+          throw new IOException("Missing line break after chunk");
+        state = _CHUNK_SIZE;
+        break;
+
+      case _TRAILERS:
+        if (pLine.isEmpty())
+          state = _DONE;
+        break;
+
+      default:
+        throw new IllegalStateException("Unexpected line in state " + state);
+    }
+  }
+
+  private void _onHeader(@NotNull String pLine) throws IOException
+  {
+    if (++headerCount > _MAX_HEADERS)
+      throw new IOException("Too many response headers");
+
+    int colon = pLine.indexOf(':');
+    if (colon <= 0)
+      return; // obsolete line folding or garbage, nothing we need
+
+    String name = pLine.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+    String value = pLine.substring(colon + 1).trim().toLowerCase(Locale.ROOT);
+    switch (name)
+    {
+      case "content-length":
+        try
+        {
+          contentLength = Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+          throw new IOException("Invalid content length: " + value, e);
+        }
+        break;
+
+      case "transfer-encoding":
+        chunked = value.endsWith("chunked");
+        break;
+
+      case "connection":
+        if (value.contains("close"))
+          keepAlive = false;
+        else if (value.contains("keep-alive"))
+          keepAlive = true;
+        break;
+
+      default:
+        break;
+    }
+  }
+
+  private void _onHeadersComplete()
+  {
+    if (status >= 100 && status < 200 && status != 101)
+    {
+      // interim response, the real one follows
+      status = -1;
+      state = _STATUS_LINE;
+    }
+    else if (head || status == 204 || status == 304 || status == 101)
+      state = _DONE;
+    else if (chunked)
+      state = _CHUNK_SIZE;
+    else if (contentLength >= 0)
+    {
+      remaining = contentLength;
+      state = contentLength == 0 ? _DONE : _BODY;
+    }
+    else
+    {
+      keepAlive = false;
+      state = _BODY_UNTIL_EOF;
+    }
+  }
+
+  private void _consumeBody(@NotNull ByteBuffer pData, int pCount)
+  {
+    int keep = body == null ? 0 : Math.min(pCount, maxBody - body.size());
+    if (keep > 0)
+    {
+      byte[] bytes = new byte[keep];
+      pData.get(bytes);
+      body.write(bytes, 0, keep);
+    }
+    pData.position(pData.position() + pCount - keep);
+  }
+
+  /**
+   * Reads a single line, possibly spread over multiple calls
+   *
+   * @return the line without its line break, or null if the line is not complete yet
+   */
+  @Nullable
+  private String _readLine(@NotNull ByteBuffer pData) throws IOException
+  {
+    while (pData.hasRemaining())
+    {
+      char c = (char) (pData.get() & 0xFF);
+      if (c == '\n')
+      {
+        int length = line.length();
+        String result = line.substring(0, length > 0 && line.charAt(length - 1) == '\r' ? length - 1 : length);
+        line.setLength(0);
+        return result;
+      }
+      if (line.length() >= _MAX_LINE)
+        throw new IOException("Response line exceeds " + _MAX_LINE + " bytes");
+      line.append(c);
+    }
+    return null;
+  }
+
+  private static int _parseStatus(@NotNull String pStatus) throws IOException
+  {
+    try
+    {
+      return Integer.parseInt(pStatus);
+    }
+    catch (NumberFormatException e)
+    {
+      throw new IOException("Invalid status code: " + pStatus, e);
+    }
+  }
+
+}
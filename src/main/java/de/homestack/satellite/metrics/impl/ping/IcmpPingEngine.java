@@ -0,0 +1,147 @@
+package de.homestack.satellite.metrics.impl.ping;
+
+import com.zaxxer.ping.*;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Long-lived ICMP engine that multiplexes all echo requests of this satellite
+ * over a single pinger (one socket, one selector loop).
+ * Replies are correlated to their requests by the pinger itself (id / seq),
+ * this engine only maps them back to the future of the requesting target.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class IcmpPingEngine implements PingResponseHandler
+{
+  private static final Logger _LOGGER = Logger.getLogger(IcmpPingEngine.class);
+  private static final long _SAFETY_GRACE_MS = 1_000;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Map<PingTarget, CompletableFuture<Float>> pendingTargets = Collections.synchronizedMap(new IdentityHashMap<>());
+  private IcmpPinger pinger;
+  private Thread selectorThread;
+
+  @PostConstruct
+  void init()
+  {
+    instrumentation.gauge("ping.pending", "Echo requests waiting for a reply", this, IcmpPingEngine::getPendingCount);
+  }
+
+  /**
+   * Sends a single echo request to the given address
+   *
+   * @param pAddress   Address to ping
+   * @param pTimeoutMs Timeout in milliseconds
+   * @return future that contains the response time in milliseconds, or -1 if the request timed out
+   */
+  @NotNull
+  public CompletableFuture<Float> ping(@NotNull InetAddress pAddress, int pTimeoutMs)
+  {
+    CompletableFuture<Float> future = new CompletableFuture<>();
+    PingTarget target = new PingTarget(pAddress, null, pTimeoutMs);
+    pendingTargets.put(target, future);
+
+    // safety net, if the selector loop never reports anything for this target
+    future
+        .completeOnTimeout(-1F, pTimeoutMs + _SAFETY_GRACE_MS, TimeUnit.MILLISECONDS)
+        .whenComplete((pResult, pEx) -> pendingTargets.remove(target));
+
+    try
+    {
+      send(target);
+    }
+    catch (Exception e)
+    {
+      future.completeExceptionally(e);
+    }
+
+    return future;
+  }
+
+  /**
+   * @return the number of echo requests that are currently waiting for a reply
+   */
+  public int getPendingCount()
+  {
+    return pendingTargets.size();
+  }
+
+  /**
+   * Hands a single echo request to the shared pinger
+   *
+   * @param pTarget Target to send the request to
+   */
+  void send(@NotNull PingTarget pTarget)
+  {
+    _getPinger().ping(pTarget);
+  }
+
+  @Override
+  public void onResponse(@NotNull PingTarget pPingTarget, double pResponseTimeSec, int pByteCount, int pSeq)
+  {
+    CompletableFuture<Float> future = pendingTargets.remove(pPingTarget);
+    if (future != null)
+      future.complete((float) (pResponseTimeSec * 1000));
+  }
+
+  @Override
+  public void onTimeout(@NotNull PingTarget pPingTarget)
+  {
+    CompletableFuture<Float> future = pendingTargets.remove(pPingTarget);
+    if (future != null)
+      future.complete(-1F);
+  }
+
+  @PreDestroy
+  synchronized void destroy()
+  {
+    if (pinger != null)
+      pinger.stopSelector();
+    pinger = null;
+    selectorThread = null;
+  }
+
+  /**
+   * Returns the shared pinger and (re)starts its selector loop, if it is not running
+   *
+   * @return the pinger
+   */
+  @NotNull
+  private synchronized IcmpPinger _getPinger()
+  {
+    if (pinger == null || selectorThread == null || !selectorThread.isAlive())
+    {
+      IcmpPinger newPinger = new IcmpPinger(this);
+      Thread thread = new Thread(() -> {
+        try
+        {
+          newPinger.runSelector();
+        }
+        catch (Throwable e)
+        {
+          _LOGGER.error("ICMP selector loop terminated unexpectedly", e);
+        }
+      }, "tIcmpSelector");
+      thread.setDaemon(true);
+      thread.start();
+
+      pinger = newPinger;
+      selectorThread = thread;
+    }
+
+    return pinger;
+  }
+
+}
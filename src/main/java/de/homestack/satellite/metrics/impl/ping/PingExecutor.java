@@ -1,29 +1,55 @@
 package de.homestack.satellite.metrics.impl.ping;
 
-import com.zaxxer.ping.*;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import de.homestack.satellite.metrics.api.*;
 import io.conceptive.homestack.model.data.device.DeviceDataModel;
 import io.conceptive.homestack.model.data.metric.EMetricRecordState;
-import io.reactivex.*;
-import io.reactivex.disposables.Disposable;
 import org.apache.commons.lang3.SystemUtils;
 import org.jetbrains.annotations.*;
 
+import javax.annotation.*;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.net.*;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
- * Executes a "ping" / ICMP request to the given device
+ * Executes a "ping" / ICMP request to the given device.
+ * A single echo request is sent by default, bursts of multiple requests are enabled with the "count" preference.
  *
  * @author w.glanzer, 18.09.2020
  */
 @ApplicationScoped
-public class PingExecutor implements IMetricExecutor
+public class PingExecutor implements IAsyncMetricExecutor
 {
 
-  private static final int _COUNT = 1;
+  private static final int _DEFAULT_COUNT = 1;
+  private static final int _MAX_COUNT = 100;
+  private static final int _DEFAULT_PROBE_INTERVAL_MS = 100;
+  private static final int _MIN_PROBE_INTERVAL_MS = 10;
+  private static final int _DEFAULT_TIMEOUT_MS = 5_000;
+
+  @Inject
+  protected IcmpPingEngine pingEngine;
+
+  private ScheduledExecutorService prober;
+
+  @PostConstruct
+  void init()
+  {
+    prober = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                            .setNameFormat("tPingProber-%d")
+                                                            .setDaemon(true)
+                                                            .build());
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    prober.shutdownNow();
+  }
 
   @NotNull
   @Override
@@ -40,113 +66,160 @@ public class PingExecutor implements IMetricExecutor
 
   @NotNull
   @Override
-  public IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences)
+  public CompletableFuture<IMetricRecord> executeAsync(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress,
+                                                       @NotNull IMetricPreferences pPreferences)
   {
-    List<_PingResultObject> results = new ArrayList<>();
-    Flowable.create(new _PingFlowable(pDevice), BackpressureStrategy.LATEST)
-        .limit(_COUNT)
-        .blockingForEach(results::add);
-    return new _PingResult(results);
+    int count = _getInt(pPreferences, "count", _DEFAULT_COUNT, 1, _MAX_COUNT);
+    int probeInterval = _getInt(pPreferences, "probeInterval", _DEFAULT_PROBE_INTERVAL_MS, _MIN_PROBE_INTERVAL_MS, Integer.MAX_VALUE);
+    int timeout = _getInt(pPreferences, "timeout", _DEFAULT_TIMEOUT_MS, 1, Integer.MAX_VALUE);
+    if (pAddress == null) // the address of the device is resolved by the execution, before this executor is called
+      return CompletableFuture.failedFuture(new UnknownHostException("Address of device " + pDevice.id + " could not be resolved"));
+
+    CompletableFuture<IMetricRecord> result = new CompletableFuture<>();
+    _burst(pAddress, count, probeInterval, timeout, result);
+    return result;
   }
 
   /**
-   * Executes a continous ping request - dispose to stop
+   * Sends a burst of probes to the given address and completes the given future with their statistics.
+   * All probes are sent without waiting for the previous reply and no thread waits for the replies.
+   * Delayed probes are sent by a single scheduler, shared by all bursts.
+   * If the given future gets cancelled, the outstanding probes are cancelled, too.
+   *
+   * @param pTarget        Address to ping
+   * @param pCount         Number of probes
+   * @param pProbeInterval Delay between two probes, in milliseconds
+   * @param pTimeout       Timeout of a single probe, in milliseconds
+   * @param pResult        Future to complete
    */
-  private static class _PingFlowable implements FlowableOnSubscribe<_PingResultObject>, PingResponseHandler
+  private void _burst(@NotNull InetAddress pTarget, int pCount, int pProbeInterval, int pTimeout, @NotNull CompletableFuture<IMetricRecord> pResult)
   {
-    private final IcmpPinger pinger = new IcmpPinger(this);
-    private final DeviceDataModel device;
-    private final AtomicInteger seqCount = new AtomicInteger(0);
-    private FlowableEmitter<_PingResultObject> emitter;
+    _Burst burst = new _Burst(pTarget, pCount, pProbeInterval, pTimeout, pResult);
+    pResult.whenComplete((pRecord, pEx) -> {
+      if (pResult.isCancelled())
+        burst.cancel();
+    });
+    burst.run();
+  }
 
-    public _PingFlowable(@NotNull DeviceDataModel pDevice)
+  /**
+   * Reads an integer value from the preferences of the metric
+   *
+   * @return the value, limited to the given bounds, or the default value if it is not set or invalid
+   */
+  private static int _getInt(@NotNull IMetricPreferences pPreferences, @NotNull String pKey, int pDefault, int pMin, int pMax)
+  {
+    try
     {
-      device = pDevice;
+      String value = pPreferences.getValue(pKey, "");
+      if (!value.isBlank())
+        return Math.max(pMin, Math.min(pMax, Integer.parseInt(value.trim())));
     }
-
-    @Override
-    public void subscribe(@NotNull FlowableEmitter<_PingResultObject> pEmitter)
+    catch (NumberFormatException e)
     {
-      emitter = pEmitter;
-      emitter.setDisposable(new Disposable()
-      {
-        private boolean disposed = false;
-
-        @Override
-        public void dispose()
-        {
-          if (!disposed)
-            pinger.stopSelector(); // force
-          disposed = true;
-        }
-
-        @Override
-        public boolean isDisposed()
-        {
-          return disposed;
-        }
-      });
-
-      // execute first ping
-      _doPing();
-
-      pinger.runSelector();
+      // default
     }
+    return pDefault;
+  }
 
-    @Override
-    public void onResponse(@NotNull PingTarget pPingTarget, double pResponseTimeSec, int pByteCount, int pSeq)
-    {
-      emitter.onNext(new _PingResultObject(pPingTarget, (float) (pResponseTimeSec * 1000), seqCount.getAndIncrement()));
-      _doPing();
-    }
+  /**
+   * A single burst of probes. The probes are recorded right into the statistics by their sequence number,
+   * the last one completes the result - there is no future per probe besides the one of its echo request.
+   * Sending the next probe reschedules the burst itself, relative to the start of the burst.
+   */
+  private class _Burst implements Runnable
+  {
+    private final InetAddress target;
+    private final int probeInterval;
+    private final int timeout;
+    private final CompletableFuture<IMetricRecord> result;
+    private final PingStatistics statistics;
+    private final AtomicReferenceArray<CompletableFuture<Float>> requests;
+    private final AtomicInteger outstanding;
+    private final long startNanos = System.nanoTime();
+    private int nextSeq = 0; // only accessed by the thread, that sends the next probe
 
-    @Override
-    public void onTimeout(@NotNull PingTarget pPingTarget)
+    private _Burst(@NotNull InetAddress pTarget, int pCount, int pProbeInterval, int pTimeout, @NotNull CompletableFuture<IMetricRecord> pResult)
     {
-      emitter.onNext(new _PingResultObject(pPingTarget, -1, seqCount.getAndIncrement()));
-      _doPing();
+      target = pTarget;
+      probeInterval = pProbeInterval;
+      timeout = pTimeout;
+      result = pResult;
+      statistics = new PingStatistics(pCount);
+      requests = new AtomicReferenceArray<>(pCount);
+      outstanding = new AtomicInteger(pCount);
     }
 
     /**
-     * Executes a single ping request
+     * Sends the next probe and schedules the one after it
      */
-    private void _doPing()
+    @Override
+    public void run()
     {
+      // no more probes, if the execution was cancelled in the meantime
+      if (result.isDone())
+      {
+        _loseRemaining();
+        return;
+      }
+
+      _send(nextSeq++);
+      if (nextSeq >= statistics.getSent())
+        return;
+
       try
       {
-        pinger.ping(new PingTarget(InetAddress.getByName(device.address), null, 5_000));
+        long delay = startNanos + TimeUnit.MILLISECONDS.toNanos((long) nextSeq * probeInterval) - System.nanoTime();
+        prober.schedule(this, Math.max(0, delay), TimeUnit.NANOSECONDS);
       }
-      catch (UnknownHostException e)
+      catch (RejectedExecutionException e)
       {
-        emitter.onError(e);
+        _loseRemaining();
       }
     }
-  }
 
-  /**
-   * Simple POJO for ping result
-   */
-  private static class _PingResultObject
-  {
-    private final PingTarget target;
-    private final float responseTime; // -1 for timeout
-    private final int seq;
+    /**
+     * Cancels all echo requests, that were not answered yet
+     */
+    void cancel()
+    {
+      for (int i = 0; i < requests.length(); i++)
+      {
+        CompletableFuture<Float> request = requests.get(i);
+        if (request != null)
+          request.cancel(false);
+      }
+    }
 
-    public _PingResultObject(@NotNull PingTarget pTarget, float pResponseTime, int pSeq)
+    /**
+     * Sends a single probe
+     */
+    private void _send(int pSeq)
     {
-      target = pTarget;
-      responseTime = pResponseTime;
-      seq = pSeq;
+      CompletableFuture<Float> request = pingEngine.ping(target, timeout);
+      requests.set(pSeq, request);
+      if (result.isCancelled()) // cancelled while sending, cancel() may have missed this request
+        request.cancel(false);
+      request.whenComplete((pResponseTime, pEx) -> _record(pSeq, pEx != null || pResponseTime == null ? -1 : pResponseTime));
     }
 
-    @Override
-    public String toString()
+    /**
+     * Records all probes, that were not sent yet, as lost
+     */
+    private void _loseRemaining()
+    {
+      while (nextSeq < statistics.getSent())
+        _record(nextSeq++, -1);
+    }
+
+    /**
+     * Records the response time of a single probe and completes the result with the last one
+     */
+    private void _record(int pSeq, float pResponseTime)
     {
-      return "_PingResultObject{" +
-          "target=" + target.getInetAddress() +
-          ", responseTime=" + responseTime +
-          ", seq=" + seq +
-          '}';
+      statistics.record(pSeq, pResponseTime);
+      if (outstanding.decrementAndGet() == 0)
+        result.complete(new _PingResult(statistics));
     }
   }
 
@@ -156,17 +229,12 @@ public class PingExecutor implements IMetricExecutor
   private static class _PingResult implements IMetricRecord
   {
     private final EMetricRecordState state;
-    private final Map<String, String> result;
+    private final Map<String, String> result = new RecordResult(11);
 
-    public _PingResult(@NotNull List<_PingResultObject> pResults)
+    public _PingResult(@NotNull PingStatistics pStatistics)
     {
-      state = _getState(pResults);
-      result = Map.of(
-          "responseTime", String.format(Locale.ENGLISH, "%.3f", pResults.stream()
-              .mapToDouble(pObj -> pObj.responseTime)
-              .average()
-              .orElse(0))
-      );
+      state = _getState(pStatistics);
+      pStatistics.writeTo(result);
     }
 
     @NotNull
@@ -186,17 +254,18 @@ public class PingExecutor implements IMetricExecutor
     /**
      * Returns the appropriate state
      *
-     * @param pResults all ping results
+     * @param pStatistics statistics of all probes
      * @return the state
      */
     @NotNull
-    private static EMetricRecordState _getState(@NotNull List<_PingResultObject> pResults)
+    private static EMetricRecordState _getState(@NotNull PingStatistics pStatistics)
     {
-      if (pResults.isEmpty())
+      int received = pStatistics.getReceived();
+      if (pStatistics.getSent() == 0)
         return EMetricRecordState.UNKNOWN;
-      if (pResults.stream().allMatch(pResult -> pResult.responseTime >= 0))
+      if (received == pStatistics.getSent())
         return EMetricRecordState.SUCCESS;
-      else if (pResults.stream().anyMatch(pResult -> pResult.responseTime >= 0))
+      else if (received > 0)
         return EMetricRecordState.WARNING;
       else
         return EMetricRecordState.FAILURE;
@@ -0,0 +1,132 @@
+package de.homestack.satellite.metrics.impl.ping;
+
+import de.homestack.satellite.metrics.api.RecordResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Fixed-size accumulator of the response times of a single ping burst.
+ * Response times are stored in a primitive array, indexed by the sequence number of their probe,
+ * so that recording a probe does not allocate anything.
+ * Probes with distinct sequence numbers may be recorded concurrently, the statistics must only be read
+ * after all probes were recorded.
+ *
+ * @author agent, 18.10.2026
+ */
+class PingStatistics
+{
+  private static final float _LOST = -1;
+
+  private final float[] responseTimes;
+
+  public PingStatistics(int pCount)
+  {
+    responseTimes = new float[pCount];
+    Arrays.fill(responseTimes, _LOST);
+  }
+
+  /**
+   * Records the response time of a single probe
+   *
+   * @param pSeq          Sequence number of the probe
+   * @param pResponseTime Response time in milliseconds, negative if the probe was lost
+   */
+  public void record(int pSeq, float pResponseTime)
+  {
+    responseTimes[pSeq] = pResponseTime < 0 ? _LOST : pResponseTime;
+  }
+
+  /**
+   * @return the number of probes that were sent
+   */
+  public int getSent()
+  {
+    return responseTimes.length;
+  }
+
+  /**
+   * @return the number of probes that were answered
+   */
+  public int getReceived()
+  {
+    int received = 0;
+    for (float responseTime : responseTimes)
+      if (responseTime >= 0)
+        received++;
+    return received;
+  }
+
+  /**
+   * Calculates all statistics of this burst and writes them into the given map
+   *
+   * @param pResult Map to write the (formatted) statistics to
+   */
+  public void writeTo(@NotNull Map<String, String> pResult)
+  {
+    int sent = responseTimes.length;
+    int received = 0;
+    double min = Double.MAX_VALUE;
+    double max = 0;
+    double sum = 0;
+    double jitterSum = 0;
+    float previous = _LOST;
+
+    // in sequence order, because jitter is the mean difference between consecutive replies (RFC 3550)
+    for (float responseTime : responseTimes)
+    {
+      if (responseTime < 0)
+        continue;
+
+      received++;
+      min = Math.min(min, responseTime);
+      max = Math.max(max, responseTime);
+      sum += responseTime;
+      if (previous >= 0)
+        jitterSum += Math.abs(responseTime - previous);
+      previous = responseTime;
+    }
+
+    pResult.put("sent", Integer.toString(sent));
+    pResult.put("received", Integer.toString(received));
+    pResult.put("packetLoss", RecordResult.format(100d * (sent - received) / sent));
+    if (received == 0)
+    {
+      pResult.put("responseTime", RecordResult.format(_LOST));
+      return;
+    }
+
+    double avg = sum / received;
+    double squaredDeviations = 0;
+    for (float responseTime : responseTimes)
+      if (responseTime >= 0)
+        squaredDeviations += (responseTime - avg) * (responseTime - avg);
+
+    pResult.put("responseTime", RecordResult.format(avg));
+    pResult.put("min", RecordResult.format(min));
+    pResult.put("max", RecordResult.format(max));
+    pResult.put("stddev", RecordResult.format(Math.sqrt(squaredDeviations / received)));
+    pResult.put("jitter", RecordResult.format(received > 1 ? jitterSum / (received - 1) : 0));
+
+    // percentiles (nearest rank) on a sorted copy of the received response times
+    float[] sorted = new float[received];
+    int index = 0;
+    for (float responseTime : responseTimes)
+      if (responseTime >= 0)
+        sorted[index++] = responseTime;
+    Arrays.sort(sorted);
+    pResult.put("p50", RecordResult.format(_percentile(sorted, 50)));
+    pResult.put("p90", RecordResult.format(_percentile(sorted, 90)));
+    pResult.put("p99", RecordResult.format(_percentile(sorted, 99)));
+  }
+
+  /**
+   * Returns the percentile of the given, sorted values (nearest rank)
+   */
+  private static float _percentile(@NotNull float[] pSorted, int pPercentile)
+  {
+    int rank = (int) Math.ceil(pPercentile / 100d * pSorted.length);
+    return pSorted[Math.max(0, Math.min(pSorted.length - 1, rank - 1))];
+  }
+
+}
@@ -0,0 +1,270 @@
+package de.homestack.satellite.metrics.impl.tcp;
+
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Long-lived TCP engine that multiplexes all connection attempts of this satellite
+ * over a single selector loop. Connects are non-blocking, so a single thread can keep
+ * thousands of them in flight, each with its own timeout.
+ * Connections are closed right after they were established, no data is sent.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class TcpConnectEngine
+{
+  private static final Logger _LOGGER = Logger.getLogger(TcpConnectEngine.class);
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Queue<_Connect> registrations = new ConcurrentLinkedQueue<>();
+  private final Set<_Connect> pendingConnects = ConcurrentHashMap.newKeySet();
+  private Selector selector;
+  private Thread selectorThread;
+
+  @PostConstruct
+  void init()
+  {
+    instrumentation.gauge("tcp.pending", "TCP connects waiting to be established", this, TcpConnectEngine::getPendingCount);
+  }
+
+  /**
+   * Opens a connection to the given address and closes it, as soon as it was established
+   *
+   * @param pAddress   Address to connect to
+   * @param pTimeoutMs Timeout in milliseconds
+   * @return future that contains the connect time in milliseconds, or -1 if the connect timed out.
+   * It completes exceptionally, if the connection was refused or the address is not reachable.
+   */
+  @NotNull
+  public CompletableFuture<Float> connect(@NotNull InetSocketAddress pAddress, int pTimeoutMs)
+  {
+    CompletableFuture<Float> future = new CompletableFuture<>();
+    _Connect connect = new _Connect(pAddress, future);
+    pendingConnects.add(connect);
+    future
+        .completeOnTimeout(-1F, pTimeoutMs, TimeUnit.MILLISECONDS)
+        .whenComplete((pResult, pEx) -> {
+          pendingConnects.remove(connect);
+          connect.close();
+        });
+
+    try
+    {
+      Selector currentSelector = _getSelector();
+      registrations.add(connect);
+      currentSelector.wakeup();
+    }
+    catch (Exception e)
+    {
+      future.completeExceptionally(e);
+    }
+
+    return future;
+  }
+
+  /**
+   * @return the number of connects that are currently in flight
+   */
+  public int getPendingCount()
+  {
+    return pendingConnects.size();
+  }
+
+  @PreDestroy
+  synchronized void destroy()
+  {
+    try
+    {
+      if (selector != null)
+        selector.close();
+    }
+    catch (IOException e)
+    {
+      _LOGGER.warn("Failed to close TCP selector", e);
+    }
+    selector = null;
+    selectorThread = null;
+
+    for (_Connect connect : pendingConnects)
+      connect.future.cancel(false);
+  }
+
+  /**
+   * Starts a single connect on the selector thread
+   *
+   * @param pConnect  Connect to start
+   * @param pSelector Selector to register the channel with
+   */
+  private void _start(@NotNull _Connect pConnect, @NotNull Selector pSelector)
+  {
+    if (pConnect.future.isDone())
+      return; // timed out or cancelled, before it was started
+
+    try
+    {
+      SocketChannel channel = SocketChannel.open();
+      if (!pConnect.attach(channel))
+        return;
+
+      channel.configureBlocking(false);
+      pConnect.startNanos = System.nanoTime();
+      if (channel.connect(pConnect.address))
+        pConnect.complete();
+      else
+        channel.register(pSelector, SelectionKey.OP_CONNECT, pConnect);
+    }
+    catch (Exception e)
+    {
+      pConnect.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Finishes a single connect, whose channel became ready
+   *
+   * @param pKey Key of the channel
+   */
+  private void _finish(@NotNull SelectionKey pKey)
+  {
+    _Connect connect = (_Connect) pKey.attachment();
+    try
+    {
+      if (pKey.isValid() && ((SocketChannel) pKey.channel()).finishConnect())
+        connect.complete();
+    }
+    catch (Exception e)
+    {
+      connect.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Returns the shared selector and (re)starts its loop, if it is not running
+   *
+   * @return the selector
+   */
+  @NotNull
+  private synchronized Selector _getSelector() throws IOException
+  {
+    if (selector == null || selectorThread == null || !selectorThread.isAlive())
+    {
+      if (selector != null)
+        selector.close();
+
+      Selector newSelector = Selector.open();
+      Thread thread = new Thread(() -> _runSelector(newSelector), "tTcpSelector");
+      thread.setDaemon(true);
+      thread.start();
+
+      selector = newSelector;
+      selectorThread = thread;
+    }
+
+    return selector;
+  }
+
+  /**
+   * Starts new connects and finishes established ones, until the selector gets closed
+   */
+  private void _runSelector(@NotNull Selector pSelector)
+  {
+    try
+    {
+      while (pSelector.isOpen())
+      {
+        pSelector.select();
+
+        _Connect connect;
+        while ((connect = registrations.poll()) != null)
+          _start(connect, pSelector);
+
+        for (SelectionKey key : pSelector.selectedKeys())
+          _finish(key);
+        pSelector.selectedKeys().clear();
+      }
+    }
+    catch (ClosedSelectorException e)
+    {
+      // shutdown
+    }
+    catch (Throwable e)
+    {
+      _LOGGER.error("TCP selector loop terminated unexpectedly", e);
+    }
+  }
+
+  /**
+   * A single connect, from its request until its channel is closed
+   */
+  private static class _Connect
+  {
+    private final InetSocketAddress address;
+    private final CompletableFuture<Float> future;
+    private SocketChannel channel; // guarded by this
+    private boolean closed = false; // guarded by this
+    private long startNanos;
+
+    public _Connect(@NotNull InetSocketAddress pAddress, @NotNull CompletableFuture<Float> pFuture)
+    {
+      address = pAddress;
+      future = pFuture;
+    }
+
+    /**
+     * Binds the given channel to this connect
+     *
+     * @return false, if this connect was already closed and the channel got closed, too
+     */
+    public synchronized boolean attach(@NotNull SocketChannel pChannel) throws IOException
+    {
+      if (closed)
+      {
+        pChannel.close();
+        return false;
+      }
+      channel = pChannel;
+      return true;
+    }
+
+    /**
+     * Completes this connect with the time since its start
+     */
+    public void complete()
+    {
+      future.complete((System.nanoTime() - startNanos) / 1_000_000F);
+    }
+
+    /**
+     * Closes the channel of this connect, which also cancels its registration in the selector
+     */
+    public synchronized void close()
+    {
+      closed = true;
+      if (channel == null)
+        return;
+
+      try
+      {
+        channel.close();
+      }
+      catch (IOException e)
+      {
+        _LOGGER.debug("Failed to close TCP channel to " + address, e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+package de.homestack.satellite.metrics.impl.tcp;
+
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.net.*;
+import java.util.concurrent.*;
+
+/**
+ * Checks, if a TCP port of the given device accepts connections and measures the connect time.
+ * Useful for devices that do not answer ICMP requests.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class TcpExecutor implements IAsyncMetricExecutor
+{
+
+  private static final int _DEFAULT_TIMEOUT_MS = 5_000;
+
+  @Inject
+  protected TcpConnectEngine connectEngine;
+
+  @NotNull
+  @Override
+  public String getType()
+  {
+    return "tcp";
+  }
+
+  @Override
+  public boolean canExecute()
+  {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public CompletableFuture<IMetricRecord> executeAsync(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress,
+                                                       @NotNull IMetricPreferences pPreferences)
+  {
+    int port = _getInt(pPreferences, "port", -1);
+    int timeout = _getInt(pPreferences, "timeout", _DEFAULT_TIMEOUT_MS);
+    if (port < 1 || port > 0xFFFF)
+      return CompletableFuture.completedFuture(new SimpleMetricRecord(EMetricRecordState.UNKNOWN)
+                                                   .withResult("error", "invalid port"));
+    if (timeout < 1)
+      timeout = _DEFAULT_TIMEOUT_MS;
+
+    if (pAddress == null) // the address of the device is resolved by the execution, before this executor is called
+      return CompletableFuture.failedFuture(new UnknownHostException("Address of device " + pDevice.id + " could not be resolved"));
+
+    CompletableFuture<IMetricRecord> result = new CompletableFuture<>();
+    CompletableFuture<Float> connect = connectEngine.connect(new InetSocketAddress(pAddress, port), timeout);
+    result.whenComplete((pRecord, pEx) -> {
+      if (result.isCancelled())
+        connect.cancel(false);
+    });
+    connect.handle((pConnectTime, pEx) -> result.complete(_toRecord(port, pConnectTime, pEx)));
+    return result;
+  }
+
+  /**
+   * Creates the record of a single connect
+   *
+   * @param pPort        Port that was checked
+   * @param pConnectTime Connect time in milliseconds, -1 if it timed out
+   * @param pEx          Failure of the connect, or null
+   * @return the record
+   */
+  @NotNull
+  private static IMetricRecord _toRecord(int pPort, @Nullable Float pConnectTime, @Nullable Throwable pEx)
+  {
+    SimpleMetricRecord record;
+    if (pEx != null)
+      record = new SimpleMetricRecord(EMetricRecordState.FAILURE)
+          .withResult("error", pEx instanceof ConnectException ? "refused" : "unreachable")
+          .withResult("responseTime", "-1");
+    else if (pConnectTime == null || pConnectTime < 0)
+      record = new SimpleMetricRecord(EMetricRecordState.FAILURE)
+          .withResult("error", "timeout")
+          .withResult("responseTime", "-1");
+    else
+      record = new SimpleMetricRecord(EMetricRecordState.SUCCESS)
+          .withResult("responseTime", pConnectTime);
+    return record.withResult("port", Integer.toString(pPort));
+  }
+
+  /**
+   * Reads an integer value from the preferences of the metric
+   *
+   * @return the value, or the default value if it is not set or invalid
+   */
+  private static int _getInt(@NotNull IMetricPreferences pPreferences, @NotNull String pKey, int pDefault)
+  {
+    try
+    {
+      String value = pPreferences.getValue(pKey, "");
+      if (!value.isBlank())
+        return Integer.parseInt(value.trim());
+    }
+    catch (NumberFormatException e)
+    {
+      // default
+    }
+    return pDefault;
+  }
+
+}
@@ -0,0 +1,141 @@
+package de.homestack.satellite.shard;
+
+import com.google.common.hash.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Assignment of the devices to the members of a shard group, by rendezvous hashing:
+ * every device belongs to the member with the highest hash of member and device.
+ * If a member joins or leaves, only the devices of that member move - everything else stays where it is.
+ * Instances are immutable and thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+public class ShardAssignment
+{
+  private static final HashFunction _HASH = Hashing.murmur3_128();
+
+  private final String self;
+  private final List<String> members;
+  private final long[] memberSeeds;
+
+  public ShardAssignment(@NotNull String pSelf, @NotNull Collection<String> pMembers)
+  {
+    TreeSet<String> sorted = new TreeSet<>(pMembers);
+    sorted.add(pSelf);
+    self = pSelf;
+    members = List.copyOf(sorted);
+    memberSeeds = new long[members.size()];
+    for (int i = 0; i < memberSeeds.length; i++)
+      memberSeeds[i] = _HASH.hashString(members.get(i), StandardCharsets.UTF_8).asLong();
+  }
+
+  /**
+   * Creates the assignment of a satellite, that is not part of any group and owns everything
+   *
+   * @param pSelf ID of the satellite
+   * @return the assignment
+   */
+  @NotNull
+  public static ShardAssignment solo(@NotNull String pSelf)
+  {
+    return new ShardAssignment(pSelf, Set.of());
+  }
+
+  /**
+   * @return the id of this satellite
+   */
+  @NotNull
+  public String getSelf()
+  {
+    return self;
+  }
+
+  /**
+   * @return the ids of all members of the group, including this satellite, sorted
+   */
+  @NotNull
+  public List<String> getMembers()
+  {
+    return members;
+  }
+
+  /**
+   * Determines, if the given device belongs to the shard of this satellite
+   *
+   * @param pDeviceID ID of the device
+   * @return true, if this satellite has to probe the device
+   */
+  public boolean owns(@NotNull String pDeviceID)
+  {
+    return members.size() == 1 || self.equals(getOwner(pDeviceID));
+  }
+
+  /**
+   * Determines the member, that owns the given device
+   *
+   * @param pDeviceID ID of the device
+   * @return the id of the member
+   */
+  @NotNull
+  public String getOwner(@NotNull String pDeviceID)
+  {
+    long deviceHash = _HASH.hashString(pDeviceID, StandardCharsets.UTF_8).asLong();
+    int owner = 0;
+    long best = Long.MIN_VALUE;
+    for (int i = 0; i < memberSeeds.length; i++)
+    {
+      long weight = _mix(memberSeeds[i] ^ deviceHash);
+      if (weight > best)
+      {
+        best = weight;
+        owner = i;
+      }
+    }
+    return members.get(owner);
+  }
+
+  /**
+   * Finalizer of MurmurHash3, spreads the combined hashes of member and device
+   */
+  private static long _mix(long pValue)
+  {
+    long value = pValue;
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object pOther)
+  {
+    if (this == pOther)
+      return true;
+    if (pOther == null || getClass() != pOther.getClass())
+      return false;
+    ShardAssignment other = (ShardAssignment) pOther;
+    return self.equals(other.self) && members.equals(other.members);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(self, members);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ShardAssignment{" +
+        "self=" + self +
+        ", members=" + members +
+        '}';
+  }
+
+}
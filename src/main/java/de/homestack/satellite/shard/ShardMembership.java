@@ -0,0 +1,252 @@
+package de.homestack.satellite.shard;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import io.reactivex.Observable;
+import io.reactivex.subjects.BehaviorSubject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.*;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Membership of this satellite in a shard group.
+ * All satellites of a group announce themselves with UDP multicast heartbeats and split the devices among the members,
+ * that were heard of recently (see {@link ShardAssignment}). A member that did not send a heartbeat within the timeout,
+ * or that announced its shutdown, is removed and the assignment gets rebalanced.
+ * Multicast is looped back, so several satellites on a single host form a group, too.
+ * If no group is configured, this satellite owns everything.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class ShardMembership
+{
+  private static final Logger _LOGGER = Logger.getLogger(ShardMembership.class);
+  private static final String _MAGIC = "homestack-shard";
+  private static final String _ALIVE = "alive";
+  private static final String _LEAVING = "leaving";
+  private static final int _MAX_DATAGRAM = 512;
+
+  @ConfigProperty(name = "homestack.satellite.shard.group")
+  protected Optional<String> group; // sharding is disabled if empty
+
+  @ConfigProperty(name = "homestack.satellite.shard.member")
+  protected Optional<String> member; // unique id of this satellite within the group, random if empty
+
+  @ConfigProperty(name = "homestack.satellite.shard.address", defaultValue = "239.255.42.99")
+  protected String multicastAddress;
+
+  @ConfigProperty(name = "homestack.satellite.shard.port", defaultValue = "42499")
+  protected int multicastPort;
+
+  @ConfigProperty(name = "homestack.satellite.shard.heartbeat", defaultValue = "1000")
+  protected long heartbeatMillis;
+
+  @ConfigProperty(name = "homestack.satellite.shard.timeout", defaultValue = "5000")
+  protected long timeoutMillis;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Map<String, Long> lastHeartbeats = new HashMap<>(); // guarded by this, nanos
+  private BehaviorSubject<ShardAssignment> assignmentSubject;
+  private String self;
+  private InetSocketAddress groupAddress;
+  private MulticastSocket socket;
+  private ScheduledExecutorService heartbeatExecutor;
+  private Thread receiver;
+  private volatile boolean stopped = false;
+
+  @PostConstruct
+  void init()
+  {
+    self = member.filter(pMember -> !pMember.isBlank()).map(String::trim).orElseGet(() -> UUID.randomUUID().toString());
+    assignmentSubject = BehaviorSubject.createDefault(ShardAssignment.solo(self));
+    instrumentation.gauge("shard.members", "Members of the shard group, including this satellite", this, pMembership -> pMembership.getAssignment().getMembers().size());
+    if (!isEnabled())
+      return;
+
+    try
+    {
+      groupAddress = new InetSocketAddress(InetAddress.getByName(multicastAddress), multicastPort);
+      socket = new MulticastSocket(multicastPort);
+      socket.setLoopbackMode(false); // false enables the loopback
+      socket.joinGroup(groupAddress.getAddress());
+    }
+    catch (IOException e)
+    {
+      _LOGGER.error("Failed to join shard group '" + group.orElse("") + "' on " + multicastAddress + ":" + multicastPort + ", probing everything", e);
+      _close();
+      return;
+    }
+
+    receiver = new ThreadFactoryBuilder()
+        .setNameFormat("tShardReceiver-%d")
+        .setDaemon(true)
+        .build()
+        .newThread(this::_receive);
+    receiver.start();
+    heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                                                                       .setNameFormat("tShardHeartbeat-%d")
+                                                                       .setDaemon(true)
+                                                                       .build());
+    heartbeatExecutor.scheduleWithFixedDelay(this::_heartbeat, 0, Math.max(1, heartbeatMillis), TimeUnit.MILLISECONDS);
+    _LOGGER.info("Joined shard group '" + group.orElse("") + "' as " + self);
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    stopped = true;
+    if (heartbeatExecutor != null)
+      heartbeatExecutor.shutdownNow();
+
+    // let the others take over immediately, instead of waiting for the timeout
+    if (socket != null)
+      _send(_LEAVING);
+    _close();
+  }
+
+  /**
+   * @return true, if this satellite is part of a shard group
+   */
+  public boolean isEnabled()
+  {
+    return group.filter(pGroup -> !pGroup.isBlank()).isPresent();
+  }
+
+  /**
+   * @return the current assignment of the devices
+   */
+  @NotNull
+  public ShardAssignment getAssignment()
+  {
+    return assignmentSubject.getValue();
+  }
+
+  /**
+   * Returns an observable that contains the current assignment and all of its changes
+   *
+   * @return the observable
+   */
+  @NotNull
+  public Observable<ShardAssignment> observe()
+  {
+    return assignmentSubject.distinctUntilChanged();
+  }
+
+  /**
+   * Announces this satellite and removes all members, that timed out
+   */
+  private void _heartbeat()
+  {
+    try
+    {
+      _send(_ALIVE);
+      _update(null, false);
+    }
+    catch (Exception e)
+    {
+      _LOGGER.warn("Failed to send shard heartbeat", e);
+    }
+  }
+
+  /**
+   * Receives the heartbeats of the other members, until this membership gets destroyed
+   */
+  private void _receive()
+  {
+    byte[] buffer = new byte[_MAX_DATAGRAM];
+    while (!stopped)
+    {
+      try
+      {
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        socket.receive(packet);
+        String[] parts = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8).split("\t");
+        if (parts.length != 4 || !_MAGIC.equals(parts[0]) || !group.orElse("").equals(parts[1]) || self.equals(parts[2]))
+          continue;
+        _update(parts[2], _LEAVING.equals(parts[3]));
+      }
+      catch (Exception e)
+      {
+        if (!stopped)
+          _LOGGER.warn("Failed to receive shard heartbeat", e);
+      }
+    }
+  }
+
+  /**
+   * Updates the members of the group and publishes the assignment, if it changed
+   *
+   * @param pMember  Member that sent a heartbeat, or null if only the timeouts should be checked
+   * @param pLeaving true, if the member announced its shutdown
+   */
+  private synchronized void _update(@Nullable String pMember, boolean pLeaving)
+  {
+    long now = System.nanoTime();
+    if (pMember != null)
+    {
+      if (pLeaving)
+        lastHeartbeats.remove(pMember);
+      else
+        lastHeartbeats.put(pMember, now);
+    }
+    lastHeartbeats.values().removeIf(pLast -> now - pLast > TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+
+    ShardAssignment assignment = new ShardAssignment(self, lastHeartbeats.keySet());
+    if (!assignment.equals(assignmentSubject.getValue()))
+    {
+      _LOGGER.info("Shard group '" + group.orElse("") + "' changed, " + assignment.getMembers().size() + " members: " + assignment.getMembers());
+      assignmentSubject.onNext(assignment);
+    }
+  }
+
+  /**
+   * Sends a single heartbeat to the group
+   *
+   * @param pState State of this satellite
+   */
+  private void _send(@NotNull String pState)
+  {
+    byte[] data = String.join("\t", _MAGIC, group.orElse(""), self, pState).getBytes(StandardCharsets.UTF_8);
+    try
+    {
+      socket.send(new DatagramPacket(data, data.length, groupAddress));
+    }
+    catch (IOException e)
+    {
+      _LOGGER.debug("Failed to send shard heartbeat", e);
+    }
+  }
+
+  /**
+   * Leaves the group and closes the socket
+   */
+  private void _close()
+  {
+    if (socket == null)
+      return;
+
+    try
+    {
+      if (groupAddress != null)
+        socket.leaveGroup(groupAddress.getAddress());
+    }
+    catch (IOException e)
+    {
+      // nothing to do, the socket gets closed anyway
+    }
+    socket.close();
+  }
+
+}
@@ -0,0 +1,107 @@
+package de.homestack.satellite.store;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Determines, how the values of all points within one bucket of a downsampled time series are combined
+ *
+ * @author agent, 18.10.2026
+ */
+public enum EAggregation
+{
+  /**
+   * Arithmetic mean of the values
+   */
+  AVG
+      {
+        @Override
+        double combine(double pAggregate, double pValue)
+        {
+          return pAggregate + pValue;
+        }
+
+        @Override
+        double complete(double pAggregate, int pCount)
+        {
+          return pAggregate / pCount;
+        }
+      },
+
+  /**
+   * Smallest value
+   */
+  MIN
+      {
+        @Override
+        double combine(double pAggregate, double pValue)
+        {
+          return Math.min(pAggregate, pValue);
+        }
+      },
+
+  /**
+   * Largest value
+   */
+  MAX
+      {
+        @Override
+        double combine(double pAggregate, double pValue)
+        {
+          return Math.max(pAggregate, pValue);
+        }
+      },
+
+  /**
+   * Value of the latest point
+   */
+  LAST
+      {
+        @Override
+        double combine(double pAggregate, double pValue)
+        {
+          return pValue;
+        }
+      };
+
+  /**
+   * Parses the given aggregation, e.g. "avg" or "max"
+   *
+   * @param pValue Value to parse
+   * @return the aggregation
+   * @throws IllegalArgumentException if the value is not a valid aggregation
+   */
+  @NotNull
+  public static EAggregation parse(@NotNull String pValue)
+  {
+    return valueOf(pValue.trim().toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Combines the aggregate of the previous values of a bucket with the next value
+   *
+   * @param pAggregate Aggregate of the previous values
+   * @param pValue     Next value
+   * @return the new aggregate
+   */
+  abstract double combine(double pAggregate, double pValue);
+
+  /**
+   * Completes the aggregate, after all values of a bucket were combined
+   *
+   * @param pAggregate Aggregate of all values
+   * @param pCount     Number of values, at least one
+   * @return the value of the bucket
+   */
+  double complete(double pAggregate, int pCount)
+  {
+    return pAggregate;
+  }
+
+  @Override
+  public String toString()
+  {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
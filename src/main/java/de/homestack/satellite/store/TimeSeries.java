@@ -0,0 +1,347 @@
+package de.homestack.satellite.store;
+
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.*;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+/**
+ * Bounded ring of the records of a single metric, stored in columns of primitive arrays:
+ * one column of timestamps, one of states and one per numeric result (e.g. "responseTime").
+ * A result column is created with the first record, that contains a numeric value for it.
+ * Once the ring is full, the oldest points are overwritten. Instances are not thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+class TimeSeries
+{
+  /**
+   * Bytes per point for the timestamp and the state
+   */
+  static final int POINT_SIZE = Long.BYTES + Byte.BYTES;
+
+  /**
+   * Bytes per point for each result column
+   */
+  static final int COLUMN_SIZE = Float.BYTES;
+
+  private static final EMetricRecordState[] _STATES = EMetricRecordState.values();
+
+  private final long[] timestamps;
+  private final byte[] states;
+  private String[] columnNames = new String[0];
+  private float[][] columns = new float[0][];
+  private int head = 0; // index of the next point to write
+  private int size = 0;
+  private boolean closed = false;
+
+  /**
+   * @param pCapacity Number of points this series holds, before the oldest ones get overwritten
+   */
+  TimeSeries(int pCapacity)
+  {
+    timestamps = new long[pCapacity];
+    states = new byte[pCapacity];
+  }
+
+  /**
+   * @return the number of points in this series
+   */
+  int getSize()
+  {
+    return size;
+  }
+
+  /**
+   * @return true, if this series was removed from its store and must not grow anymore
+   */
+  boolean isClosed()
+  {
+    return closed;
+  }
+
+  /**
+   * Marks this series as removed from its store
+   */
+  void close()
+  {
+    closed = true;
+  }
+
+  /**
+   * @return the bytes allocated by the columns of this series
+   */
+  long getAllocatedSize()
+  {
+    return (long) timestamps.length * (POINT_SIZE + (long) COLUMN_SIZE * columns.length);
+  }
+
+  /**
+   * Appends a single point, overwriting the oldest one if the series is full.
+   * Timestamps older than the latest point are moved up to it, so the points stay sorted.
+   * Results that are not numeric are not stored.
+   *
+   * @param pTimestamp  Timestamp of the point, in milliseconds since epoch
+   * @param pState      State of the record
+   * @param pResult     Results of the record
+   * @param pMaxColumns Maximum number of result columns of this series
+   * @param pReserve    Reserves the given number of bytes for a new column, returns false if the memory budget is exhausted
+   */
+  void add(long pTimestamp, @NotNull EMetricRecordState pState, @Nullable Map<String, String> pResult, int pMaxColumns,
+           @NotNull LongPredicate pReserve)
+  {
+    timestamps[head] = size > 0 ? Math.max(pTimestamp, timestamps[_physical(size - 1)]) : pTimestamp;
+    states[head] = (byte) pState.ordinal();
+    for (float[] column : columns)
+      column[head] = Float.NaN;
+
+    if (pResult != null)
+    {
+      for (Map.Entry<String, String> entry : pResult.entrySet())
+      {
+        float value = _parse(entry.getValue());
+        if (Float.isNaN(value))
+          continue;
+
+        int column = _indexOf(entry.getKey());
+        if (column < 0 && columns.length < pMaxColumns && pReserve.test((long) COLUMN_SIZE * timestamps.length))
+          column = _addColumn(entry.getKey());
+        if (column >= 0)
+          columns[column][head] = value;
+      }
+    }
+
+    head = (head + 1) % timestamps.length;
+    size = Math.min(size + 1, timestamps.length);
+  }
+
+  /**
+   * Reads all points within the given range. If a step is given, the points are downsampled into buckets of that size,
+   * aligned to the start of the range. A bucket has the state of its latest point and the aggregated values of its points.
+   *
+   * @param pFrom        Start of the range, inclusive, in milliseconds since epoch
+   * @param pTo          End of the range, exclusive, in milliseconds since epoch
+   * @param pStep        Size of the buckets in milliseconds, zero or less to read the points as they are
+   * @param pAggregation Aggregation of the values within a bucket
+   * @param pColumns     Names of the result columns to read, null to read all
+   * @return the points, or null if there are no points within the range
+   */
+  @Nullable
+  Slice read(long pFrom, long pTo, long pStep, @NotNull EAggregation pAggregation, @Nullable Collection<String> pColumns)
+  {
+    int first = _lowerBound(pFrom);
+    int end = _lowerBound(pTo);
+    if (first >= end)
+      return null;
+
+    int[] selected = _select(pColumns);
+    String[] names = new String[selected.length];
+    for (int i = 0; i < selected.length; i++)
+      names[i] = columnNames[selected[i]];
+
+    int points = end - first;
+    Slice slice = new Slice(pStep > 0 ? (int) Math.min(points, (pTo - pFrom - 1) / pStep + 1) : points, names);
+    double[] aggregates = new double[selected.length];
+    int[] counts = new int[selected.length];
+    int bucketCount = 0;
+    long bucketEnd = Long.MIN_VALUE;
+    for (int i = first, index = _physical(first); i < end; i++, index = index + 1 == timestamps.length ? 0 : index + 1)
+    {
+      long timestamp = timestamps[index];
+      if (pStep <= 0 || timestamp >= bucketEnd)
+      {
+        if (bucketCount > 0)
+          slice._complete(bucketCount - 1, aggregates, counts, pAggregation);
+        long bucket = pStep > 0 ? pFrom + (timestamp - pFrom) / pStep * pStep : timestamp; // divide once per bucket, not per point
+        bucketEnd = bucket + pStep;
+        slice.timestamps[bucketCount++] = bucket;
+        Arrays.fill(counts, 0);
+      }
+
+      slice.states[bucketCount - 1] = states[index];
+      for (int c = 0; c < selected.length; c++)
+      {
+        float value = columns[selected[c]][index];
+        if (!Float.isNaN(value))
+        {
+          aggregates[c] = counts[c] == 0 ? value : pAggregation.combine(aggregates[c], value);
+          counts[c]++;
+        }
+      }
+    }
+    slice._complete(bucketCount - 1, aggregates, counts, pAggregation);
+    slice.size = bucketCount;
+    return slice;
+  }
+
+  /**
+   * @return the logical index of the first point, whose timestamp is not before the given one
+   */
+  private int _lowerBound(long pTimestamp)
+  {
+    int low = 0;
+    int high = size;
+    while (low < high)
+    {
+      int mid = (low + high) >>> 1;
+      if (timestamps[_physical(mid)] < pTimestamp)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  /**
+   * @return the index in the arrays of the point with the given logical index, 0 being the oldest point
+   */
+  private int _physical(int pLogical)
+  {
+    int index = head - size + pLogical;
+    return index < 0 ? index + timestamps.length : index;
+  }
+
+  /**
+   * @return the indices of the given columns that exist in this series, or of all columns
+   */
+  @NotNull
+  private int[] _select(@Nullable Collection<String> pColumns)
+  {
+    if (pColumns == null)
+    {
+      int[] all = new int[columns.length];
+      for (int i = 0; i < all.length; i++)
+        all[i] = i;
+      return all;
+    }
+
+    int[] selected = new int[pColumns.size()];
+    int count = 0;
+    for (String column : pColumns)
+    {
+      int index = _indexOf(column);
+      if (index >= 0)
+        selected[count++] = index;
+    }
+    return count == selected.length ? selected : Arrays.copyOf(selected, count);
+  }
+
+  private int _indexOf(@NotNull String pColumnName)
+  {
+    for (int i = 0; i < columnNames.length; i++)
+      if (columnNames[i].equals(pColumnName))
+        return i;
+    return -1;
+  }
+
+  /**
+   * Adds a new column, that has no value for all existing points
+   *
+   * @return the index of the column
+   */
+  private int _addColumn(@NotNull String pColumnName)
+  {
+    float[] column = new float[timestamps.length];
+    Arrays.fill(column, Float.NaN);
+    columnNames = Arrays.copyOf(columnNames, columnNames.length + 1);
+    columnNames[columnNames.length - 1] = pColumnName;
+    columns = Arrays.copyOf(columns, columns.length + 1);
+    columns[columns.length - 1] = column;
+    return columns.length - 1;
+  }
+
+  /**
+   * @return the given result as number, or NaN if it is not numeric
+   */
+  private static float _parse(@Nullable String pValue)
+  {
+    // most non-numeric results (host names, states, ...) are rejected without the cost of an exception
+    if (pValue == null || pValue.isEmpty())
+      return Float.NaN;
+    char first = pValue.charAt(0);
+    if (first != '-' && first != '.' && (first < '0' || first > '9'))
+      return Float.NaN;
+
+    try
+    {
+      return Float.parseFloat(pValue);
+    }
+    catch (NumberFormatException e)
+    {
+      return Float.NaN;
+    }
+  }
+
+  /**
+   * Points read from a series, in the same columnar layout
+   */
+  static class Slice
+  {
+    private final long[] timestamps;
+    private final byte[] states;
+    private final String[] columnNames;
+    private final float[][] values;
+    private int size;
+
+    private Slice(int pCapacity, @NotNull String[] pColumnNames)
+    {
+      timestamps = new long[pCapacity];
+      states = new byte[pCapacity];
+      columnNames = pColumnNames;
+      values = new float[pColumnNames.length][pCapacity];
+    }
+
+    /**
+     * @return the number of points
+     */
+    int getSize()
+    {
+      return size;
+    }
+
+    /**
+     * @return the timestamp of the given point, in milliseconds since epoch
+     */
+    long getTimestamp(int pIndex)
+    {
+      return timestamps[pIndex];
+    }
+
+    /**
+     * @return the state of the given point
+     */
+    @NotNull
+    EMetricRecordState getState(int pIndex)
+    {
+      return _STATES[states[pIndex]];
+    }
+
+    /**
+     * @return the names of the result columns
+     */
+    @NotNull
+    String[] getColumnNames()
+    {
+      return columnNames;
+    }
+
+    /**
+     * @return the value of the given column at the given point, NaN if the point has no value
+     */
+    float getValue(int pColumn, int pIndex)
+    {
+      return values[pColumn][pIndex];
+    }
+
+    /**
+     * Writes the aggregated values of a bucket
+     */
+    private void _complete(int pIndex, @NotNull double[] pAggregates, @NotNull int[] pCounts, @NotNull EAggregation pAggregation)
+    {
+      for (int c = 0; c < values.length; c++)
+        values[c][pIndex] = pCounts[c] == 0 ? Float.NaN : (float) pAggregation.complete(pAggregates[c], pCounts[c]);
+    }
+  }
+
+}
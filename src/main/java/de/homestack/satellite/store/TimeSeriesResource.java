@@ -0,0 +1,172 @@
+package de.homestack.satellite.store;
+
+import com.fasterxml.jackson.core.*;
+import de.homestack.satellite.metrics.execution.MetricScheduler;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jetbrains.annotations.*;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the local time series store on the network of the satellite, e.g. for local dashboards or troubleshooting:
+ * <pre>
+ *   GET /api/series?metric=&lt;id&gt;&amp;result=responseTime&amp;from=&lt;ms&gt;&amp;to=&lt;ms&gt;&amp;step=60000&amp;aggregation=max
+ * </pre>
+ * All parameters are optional: metric and result may be repeated and default to all metrics and results,
+ * the range defaults to the last hour and the points are returned as they are without step.
+ * The response is written in columns, the same way the points are stored, and streamed metric by metric,
+ * so that it never has to be held in memory as a whole. Every series contains the lag of the last scheduled execution
+ * of its metric in milliseconds, which tells if the satellite keeps up with its schedule.
+ * The resource is disabled by default, because it is served without authentication. A single query is limited in the number
+ * of metrics and points - if the limit of points is hit, the response contains the series up to it and is marked as truncated.
+ *
+ * @author agent, 18.10.2026
+ */
+@Path("/api/series")
+public class TimeSeriesResource
+{
+  private static final JsonFactory _FACTORY = new JsonFactory();
+  private static final long _DEFAULT_RANGE = TimeUnit.HOURS.toMillis(1);
+
+  @ConfigProperty(name = "homestack.satellite.store.http.enabled", defaultValue = "false")
+  protected boolean enabled;
+
+  @ConfigProperty(name = "homestack.satellite.store.http.max-metrics", defaultValue = "100")
+  protected int maxMetrics;
+
+  @ConfigProperty(name = "homestack.satellite.store.http.max-points", defaultValue = "100000")
+  protected int maxPoints;
+
+  @Inject
+  protected TimeSeriesStore store;
+
+  @Inject
+  protected MetricScheduler scheduler;
+
+  /**
+   * Queries the series of the given metrics
+   *
+   * @param pMetricIDs   IDs of the metrics to read, all if empty
+   * @param pResults     Names of the results to read, all if empty
+   * @param pFrom        Start of the range, inclusive, in milliseconds since epoch
+   * @param pTo          End of the range, exclusive, in milliseconds since epoch
+   * @param pStep        Size of the buckets to downsample to in milliseconds, zero to return the points as they are
+   * @param pAggregation Aggregation of the values within a bucket (avg, min, max or last)
+   * @return the response, written as soon as the client reads it
+   */
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public StreamingOutput query(@QueryParam("metric") List<String> pMetricIDs, @QueryParam("result") List<String> pResults,
+                               @QueryParam("from") Long pFrom, @QueryParam("to") Long pTo,
+                               @QueryParam("step") @DefaultValue("0") long pStep,
+                               @QueryParam("aggregation") @DefaultValue("avg") String pAggregation)
+  {
+    if (!enabled)
+      throw new NotFoundException();
+
+    long to = pTo == null ? System.currentTimeMillis() : pTo;
+    long from = pFrom == null ? to - _DEFAULT_RANGE : pFrom;
+    if (from >= to)
+      throw new BadRequestException("Range is empty: from " + from + " to " + to);
+    if (pStep < 0)
+      throw new BadRequestException("Step must not be negative: " + pStep);
+
+    EAggregation aggregation;
+    try
+    {
+      aggregation = EAggregation.parse(pAggregation);
+    }
+    catch (IllegalArgumentException e)
+    {
+      throw new BadRequestException("Unknown aggregation: " + pAggregation, e);
+    }
+
+    if (pMetricIDs != null && pMetricIDs.size() > maxMetrics)
+      throw new BadRequestException("Too many metrics: " + pMetricIDs.size() + ", at most " + maxMetrics + " are allowed");
+    Collection<String> metricIDs = pMetricIDs == null || pMetricIDs.isEmpty() ? store.getMetricIDs() : pMetricIDs;
+    Collection<String> results = pResults == null || pResults.isEmpty() ? null : pResults;
+    return pOutput -> {
+      try (JsonGenerator generator = _FACTORY.createGenerator(pOutput))
+      {
+        generator.writeStartObject();
+        generator.writeNumberField("from", from);
+        generator.writeNumberField("to", to);
+        generator.writeNumberField("step", pStep);
+        generator.writeStringField("aggregation", aggregation.toString());
+        generator.writeArrayFieldStart("series");
+        int metrics = 0;
+        int points = 0;
+        boolean truncated = false;
+        for (String metricID : metricIDs)
+        {
+          TimeSeries.Slice slice = store.read(metricID, from, to, pStep, aggregation, results);
+          if (slice == null)
+            continue;
+
+          if (metrics >= maxMetrics || points + slice.getSize() > maxPoints)
+          {
+            truncated = true;
+            break;
+          }
+          _write(generator, metricID, slice, scheduler.getLag(metricID));
+          metrics++;
+          points += slice.getSize();
+        }
+        generator.writeEndArray();
+        generator.writeBooleanField("truncated", truncated);
+        generator.writeEndObject();
+      }
+    };
+  }
+
+  /**
+   * Writes the points of a single metric, values that are missing are written as null.
+   * The lag is written as null, if the metric is not scheduled anymore.
+   */
+  private static void _write(@NotNull JsonGenerator pGenerator, @NotNull String pMetricID, @NotNull TimeSeries.Slice pSlice,
+                             @Nullable Duration pLag) throws IOException
+  {
+    pGenerator.writeStartObject();
+    pGenerator.writeStringField("metricID", pMetricID);
+    if (pLag == null)
+      pGenerator.writeNullField("scheduleLag");
+    else
+      pGenerator.writeNumberField("scheduleLag", pLag.toMillis());
+
+    pGenerator.writeArrayFieldStart("timestamps");
+    for (int i = 0; i < pSlice.getSize(); i++)
+      pGenerator.writeNumber(pSlice.getTimestamp(i));
+    pGenerator.writeEndArray();
+
+    pGenerator.writeArrayFieldStart("states");
+    for (int i = 0; i < pSlice.getSize(); i++)
+      pGenerator.writeString(pSlice.getState(i).name());
+    pGenerator.writeEndArray();
+
+    pGenerator.writeObjectFieldStart("results");
+    String[] columnNames = pSlice.getColumnNames();
+    for (int c = 0; c < columnNames.length; c++)
+    {
+      pGenerator.writeArrayFieldStart(columnNames[c]);
+      for (int i = 0; i < pSlice.getSize(); i++)
+      {
+        float value = pSlice.getValue(c, i);
+        if (Float.isNaN(value))
+          pGenerator.writeNull();
+        else
+          pGenerator.writeNumber(value);
+      }
+      pGenerator.writeEndArray();
+    }
+    pGenerator.writeEndObject();
+
+    pGenerator.writeEndObject();
+  }
+
+}
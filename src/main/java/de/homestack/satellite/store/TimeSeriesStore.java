@@ -0,0 +1,155 @@
+package de.homestack.satellite.store;
+
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jetbrains.annotations.*;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * Keeps the latest records of every metric in memory, so that they can be queried locally without going through the cloud.
+ * Every metric gets a {@link TimeSeries} of a fixed number of points. All series together never allocate more than
+ * the configured memory budget - if it is exhausted, new metrics and new result columns are not stored anymore,
+ * until metrics get removed.
+ *
+ * @author agent, 18.10.2026
+ */
+@ApplicationScoped
+public class TimeSeriesStore
+{
+  @ConfigProperty(name = "homestack.satellite.store.capacity", defaultValue = "360")
+  protected int capacity;
+
+  @ConfigProperty(name = "homestack.satellite.store.max-size", defaultValue = "134217728")
+  protected long maxSize;
+
+  @ConfigProperty(name = "homestack.satellite.store.max-columns", defaultValue = "16")
+  protected int maxColumns;
+
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final Map<String, TimeSeries> series = new ConcurrentHashMap<>();
+  private final AtomicLong allocated = new AtomicLong();
+  private final LongPredicate reserve = this::_reserve;
+
+  @PostConstruct
+  void init()
+  {
+    instrumentation.gauge("store.series", "Metrics with a time series in the local store", this, pStore -> pStore.series.size());
+    instrumentation.gauge("store.size", "Bytes allocated by the time series in the local store", this, pStore -> pStore.allocated.get());
+  }
+
+  /**
+   * Appends a single record of the given metric to its series
+   *
+   * @param pMetricID ID of the metric
+   * @param pRecord   Record to append
+   */
+  public void add(@NotNull String pMetricID, @NotNull IMetricRecord pRecord)
+  {
+    add(pMetricID, System.currentTimeMillis(), pRecord);
+  }
+
+  /**
+   * Appends a single record of the given metric to its series
+   *
+   * @param pMetricID  ID of the metric
+   * @param pTimestamp Timestamp of the record, in milliseconds since epoch
+   * @param pRecord    Record to append
+   */
+  void add(@NotNull String pMetricID, long pTimestamp, @NotNull IMetricRecord pRecord)
+  {
+    if (capacity <= 0 || maxSize <= 0)
+      return;
+
+    TimeSeries timeSeries = series.computeIfAbsent(pMetricID, pID -> _reserve((long) capacity * TimeSeries.POINT_SIZE) ? new TimeSeries(capacity) : null);
+    if (timeSeries == null)
+      return; // memory budget exhausted
+
+    synchronized (timeSeries)
+    {
+      if (!timeSeries.isClosed())
+        timeSeries.add(pTimestamp, pRecord.getState(), pRecord.getResult(), maxColumns, reserve);
+    }
+  }
+
+  /**
+   * Removes the series of the given metric and releases its memory
+   *
+   * @param pMetricID ID of the metric
+   */
+  public void forget(@NotNull String pMetricID)
+  {
+    TimeSeries timeSeries = series.remove(pMetricID);
+    if (timeSeries != null)
+    {
+      synchronized (timeSeries)
+      {
+        timeSeries.close();
+        allocated.addAndGet(-timeSeries.getAllocatedSize());
+      }
+    }
+  }
+
+  /**
+   * @return the IDs of all metrics, that have a series
+   */
+  @NotNull
+  Set<String> getMetricIDs()
+  {
+    return Collections.unmodifiableSet(series.keySet());
+  }
+
+  /**
+   * Reads the series of a single metric
+   *
+   * @param pMetricID    ID of the metric
+   * @param pFrom        Start of the range, inclusive, in milliseconds since epoch
+   * @param pTo          End of the range, exclusive, in milliseconds since epoch
+   * @param pStep        Size of the buckets to downsample to in milliseconds, zero or less to read the points as they are
+   * @param pAggregation Aggregation of the values within a bucket
+   * @param pColumns     Names of the results to read, null to read all
+   * @return the points, or null if the metric has no points within the range
+   * @see TimeSeries#read(long, long, long, EAggregation, Collection)
+   */
+  @Nullable
+  TimeSeries.Slice read(@NotNull String pMetricID, long pFrom, long pTo, long pStep, @NotNull EAggregation pAggregation,
+                        @Nullable Collection<String> pColumns)
+  {
+    TimeSeries timeSeries = series.get(pMetricID);
+    if (timeSeries == null)
+      return null;
+
+    synchronized (timeSeries)
+    {
+      return timeSeries.read(pFrom, pTo, pStep, pAggregation, pColumns);
+    }
+  }
+
+  /**
+   * Reserves the given number of bytes from the memory budget
+   *
+   * @return true, if the bytes were reserved, false if the budget is exhausted
+   */
+  private boolean _reserve(long pBytes)
+  {
+    long current;
+    do
+    {
+      current = allocated.get();
+      if (current + pBytes > maxSize)
+        return false;
+    }
+    while (!allocated.compareAndSet(current, current + pBytes));
+    return true;
+  }
+
+}
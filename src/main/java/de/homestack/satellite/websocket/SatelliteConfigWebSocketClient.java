@@ -1,7 +1,12 @@
 package de.homestack.satellite.websocket;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.*;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.homestack.satellite.discovery.DiscoveryEventData;
+import de.homestack.satellite.instrumentation.SatelliteInstrumentation;
 import de.homestack.satellite.websocket.api.*;
+import de.homestack.satellite.websocket.codec.*;
+import de.homestack.satellite.websocket.journal.RecordJournal;
 import io.cloudevents.CloudEvent;
 import io.cloudevents.core.CloudEventUtils;
 import io.cloudevents.core.builder.CloudEventBuilder;
@@ -16,13 +21,18 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import org.jetbrains.annotations.*;
 
+import javax.annotation.*;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.websocket.*;
+import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Client to communicate with the backend
@@ -31,10 +41,22 @@ import java.util.*;
  */
 @Startup
 @ApplicationScoped
-@ClientEndpoint(decoders = CloudEventCoder.class, encoders = CloudEventCoder.class)
-class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
+@ClientEndpoint(decoders = CloudEventDecoder.class, encoders = CloudEventCoder.class)
+class SatelliteConfigWebSocketClient implements IMetricRecordPublisher, IDiscoveryPublisher
 {
   private static final Logger _LOGGER = Logger.getLogger(SatelliteConfigWebSocketClient.class);
+  private static final long _SEND_TIMEOUT_SECONDS = 30;
+  private static final String _EXTENSION_ENCODINGS = "encodings"; // codecs supported by this satellite, sent on authentication
+  private static final String _EXTENSION_ENCODING = "encoding"; // codec chosen by the cloud
+  private static final String _EXTENSION_ACKS = "acks"; // acknowledgement mode supported by this satellite, sent on authentication
+  private static final String _EXTENSION_ACK = "ack"; // sequence number of the last batch persisted by the cloud, cumulative
+  private static final String _EXTENSION_SEQUENCE = "sequence"; // sequence number of a spooled record batch
+  private static final String _EXTENSION_STREAM = "stream"; // id of the spool, the sequence numbers belong to
+  private static final String _ACKS_CUMULATIVE = "cumulative";
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+  private static final ObjectWriter _AUTH_WRITER = _MAPPER.writerFor(AuthenticateEventData.class);
+  private static final ObjectWriter _DISCOVERY_WRITER = _MAPPER.writerFor(DiscoveryEventData.class);
+  private static final PojoCloudEventDataMapper<ConfigChangeEventData> _CONFIG_CHANGE_MAPPER = PojoCloudEventDataMapper.from(_MAPPER, ConfigChangeEventData.class);
 
   @ConfigProperty(name = "homestack.satellite.lease.id")
   protected String leaseID;
@@ -45,11 +67,75 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
   @ConfigProperty(name = "homestack.cloud.websocket.url")
   protected String backendBaseURL;
 
+  @ConfigProperty(name = "homestack.satellite.spool.directory", defaultValue = "spool")
+  protected String spoolDirectory;
+
+  @ConfigProperty(name = "homestack.satellite.spool.segment-size", defaultValue = "8388608")
+  protected int spoolSegmentSize;
+
+  @ConfigProperty(name = "homestack.satellite.spool.max-size", defaultValue = "268435456")
+  protected long spoolMaxSize;
+
+  @ConfigProperty(name = "homestack.satellite.spool.force-size", defaultValue = "1048576")
+  protected int spoolForceSize;
+
+  @ConfigProperty(name = "homestack.satellite.publish.encodings", defaultValue = "smile+deflate,json+deflate,cbor+deflate,smile,json")
+  protected String encodings;
+
+  @ConfigProperty(name = "homestack.satellite.publish.window", defaultValue = "8")
+  protected int sendWindow;
+
+  @ConfigProperty(name = "homestack.satellite.publish.backpressure", defaultValue = "64")
+  protected int backpressureThreshold;
+
+  @ConfigProperty(name = "homestack.satellite.publish.ack-timeout", defaultValue = "30000")
+  protected long ackTimeoutMillis;
+
   @Inject
   protected Instance<IConfigConsumer> consumers;
 
-  private Boolean connected = false; // true = connected, false = not connected, null = pending
-  private Session session;
+  @Inject
+  protected SatelliteInstrumentation instrumentation;
+
+  private final AtomicBoolean spoolDrainScheduled = new AtomicBoolean(false);
+  private final Object ackLock = new Object(); // notified on every acknowledgement and on connection loss
+  private volatile Boolean connected = false; // true = connected, false = not connected, null = pending
+  private volatile boolean acknowledging = false; // true, if the cloud acknowledges the batches of the current session
+  private volatile Session session;
+  private volatile Session authenticated; // session, whose authentication the cloud answered
+  private volatile RecordCodec codec = RecordCodecs.JSON;
+  private ExecutorService spoolExecutor;
+  private RecordJournal journal;
+
+  @PostConstruct
+  void init()
+  {
+    spoolExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                                          .setNameFormat("tRecordSpool-%d")
+                                                          .setDaemon(true)
+                                                          .build());
+
+    try
+    {
+      journal = new RecordJournal(Paths.get(spoolDirectory), spoolSegmentSize, spoolMaxSize, spoolForceSize);
+    }
+    catch (Exception e)
+    {
+      _LOGGER.error("Failed to open record spool in '" + spoolDirectory + "', records will be lost while the connection is not available", e);
+    }
+
+    instrumentation.gauge("websocket.connected", "1, if the connection to the homestack cloud is established", this, pClient -> pClient.connected == Boolean.TRUE ? 1 : 0);
+    instrumentation.gauge("spool.pending", "Record batches in the spool, that were not uploaded yet", this, pClient -> pClient.journal == null ? 0 : pClient.journal.getPendingCount());
+    instrumentation.gauge("spool.size", "Size of the spool files in bytes", this, pClient -> pClient.journal == null ? 0 : pClient.journal.getSize());
+  }
+
+  @PreDestroy
+  void destroy()
+  {
+    spoolExecutor.shutdownNow();
+    if (journal != null)
+      journal.close();
+  }
 
   @OnOpen
   void onOpen(@NotNull Session pSession, @Nullable EndpointConfig pConfig)
@@ -57,29 +143,80 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
     _LOGGER.info("Connection to homestack cloud established, authenticating...");
     session = pSession;
     connected = null;
+    codec = RecordCodecs.JSON; // until the cloud chose another one
+    acknowledging = false; // until the cloud acknowledged something
 
-    // initialize flow with authentication / authorization
+    // initialize flow with authentication / authorization,
+    // the spool gets replayed after the cloud answered with the last batch it persisted
     sendAuthenticationEvent();
   }
 
   @OnMessage
   void onMessage(@NotNull CloudEvent pMessage)
   {
-    if (connected != Boolean.TRUE)
+    // the cloud acknowledges persisted batches with any message, the first one tells where to resume.
+    // It has to be handled before the session counts as authenticated, so that no drain starts without knowing about it
+    Object ack = pMessage.getExtension(_EXTENSION_ACK);
+    if (ack != null)
+      _acknowledge(ack.toString());
+
+    // the cloud may choose a codec for our records with any message, the spool has to be replayed with it already
+    Object encoding = pMessage.getExtension(_EXTENSION_ENCODING);
+    if (encoding != null && !Objects.equals(encoding.toString(), codec.getName()))
+    {
+      RecordCodec negotiated = RecordCodecs.forName(encoding.toString());
+      if (negotiated != null)
+      {
+        _LOGGER.info("Records will be encoded with '" + negotiated + "'");
+        codec = negotiated;
+      }
+      else
+        _LOGGER.warn("Unknown record encoding '" + encoding + "' requested by homestack cloud, keeping '" + codec + "'");
+    }
+
+    boolean established = connected != Boolean.TRUE;
+    if (established)
     {
       _LOGGER.info("Connection to homestack cloud established and authenticated successfully");
+      authenticated = session;
       connected = true;
     }
 
-    // new config received from server
+    // replay everything that was spooled while the connection was not available
+    if (established)
+      _scheduleSpoolDrain();
+
+    // new config received from server, the decoder copied its raw json - the consumers stream it themselves
     if (Objects.equals(pMessage.getType(), RenewConfigurationEventData.TYPE))
     {
-      PojoCloudEventData<RenewConfigurationEventData> data = CloudEventUtils.mapData(pMessage, PojoCloudEventDataMapper.from(new ObjectMapper(), RenewConfigurationEventData.class));
-      if (data != null)
-        consumers.forEach(pConsumer -> pConsumer.onSatelliteConfigReceived(data.getValue().config));
+      if (pMessage.getData() != null)
+      {
+        byte[] data = pMessage.getData().toBytes();
+        for (IConfigConsumer consumer : consumers)
+        {
+          try
+          {
+            consumer.onSatelliteConfigReceived(data);
+          }
+          catch (IOException e)
+          {
+            _LOGGER.warn("Invalid configuration event from cloud received", e);
+          }
+        }
+      }
       else
         _LOGGER.warn("Invalid configuration event from cloud received");
     }
+
+    // single devices or metrics changed
+    else if (Objects.equals(pMessage.getType(), ConfigChangeEventData.TYPE))
+    {
+      PojoCloudEventData<ConfigChangeEventData> data = CloudEventUtils.mapData(pMessage, _CONFIG_CHANGE_MAPPER);
+      if (data != null)
+        consumers.forEach(pConsumer -> pConsumer.onSatelliteConfigChanged(data.getValue()));
+      else
+        _LOGGER.warn("Invalid configuration change event from cloud received");
+    }
   }
 
   @OnClose
@@ -87,6 +224,7 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
   {
     _LOGGER.warn("Connection to homestack cloud closed unexpectedly (" + pReason + ")");
     connected = false;
+    _wakeAckWaiters();
   }
 
   @OnError
@@ -94,6 +232,7 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
   {
     _LOGGER.error("Unexpected error in homestack cloud communication appeared", pThrowable);
     connected = false;
+    _wakeAckWaiters();
   }
 
   /**
@@ -108,7 +247,12 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
     try
     {
       if (connected == Boolean.FALSE)
+      {
+        instrumentation.countReconnect();
         ContainerProvider.getWebSocketContainer().connectToServer(this, new URI(url));
+      }
+      else
+        _scheduleSpoolDrain();
     }
     catch (Exception e)
     {
@@ -119,22 +263,268 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
   @Override
   public void sendMetricRecords(@NotNull Set<MetricRecordDataModel> pRecords)
   {
-    if (session != null)
+    byte[] data;
+    try
     {
-      session.getAsyncRemote().sendObject(CloudEventBuilder.v1()
-                                              .withId(UUID.randomUUID().toString())
-                                              .withType(MetricRecordsEventData.TYPE)
-                                              .withSource(URI.create("/satellite/records"))
-                                              .withData(PojoCloudEventData.wrap(MetricRecordsEventData.builder()
-                                                                                    .records(pRecords)
-                                                                                    .build(),
-                                                                                pData -> new ObjectMapper().writeValueAsBytes(pData)))
-                                              .build());
+      data = codec.encode(MetricRecordsEventData.builder()
+                              .records(pRecords)
+                              .build());
+    }
+    catch (IOException e)
+    {
+      _LOGGER.error("Failed to serialize " + pRecords.size() + " records", e);
+      return;
+    }
+
+    // every batch goes through the spool, so that nothing gets lost if the upload fails
+    if (journal != null)
+    {
+      try
+      {
+        journal.append(data);
+        _scheduleSpoolDrain();
+        return;
+      }
+      catch (Exception e)
+      {
+        _LOGGER.error("Failed to spool " + pRecords.size() + " records, trying to upload them directly", e);
+      }
+    }
+
+    Session currentSession = session;
+    if (currentSession != null)
+    {
+      try
+      {
+        _sendRecords(currentSession, data, null);
+      }
+      catch (IOException e)
+      {
+        _LOGGER.error("Failed to encode " + pRecords.size() + " records", e);
+      }
     }
     else
       _LOGGER.warn("Tried to upload records, but connection was not esablished");
   }
 
+  @Override
+  public void sendDiscovery(@NotNull DiscoveryEventData pData)
+  {
+    Session currentSession = session;
+    if (currentSession == null || connected != Boolean.TRUE)
+    {
+      _LOGGER.warn("Tried to upload " + pData.hosts.size() + " discovered hosts, but connection was not esablished");
+      return;
+    }
+
+    currentSession.getAsyncRemote().sendObject(CloudEventBuilder.v1()
+                                                   .withId(UUID.randomUUID().toString())
+                                                   .withType(DiscoveryEventData.TYPE)
+                                                   .withSource(URI.create("/satellite/discovery"))
+                                                   .withData(PojoCloudEventData.wrap(pData, _DISCOVERY_WRITER::writeValueAsBytes))
+                                                   .build());
+  }
+
+  /**
+   * Sends a single record batch, encoded with the currently negotiated codec
+   *
+   * @param pSession    Session to send the batch with
+   * @param pTaggedData MetricRecordsEventData, encoded and tagged by any codec
+   * @param pPosition   Position after the batch in the spool, to send its sequence number with it, or null if it was not spooled
+   * @return the future of the asynchronous send operation
+   */
+  @NotNull
+  private Future<Void> _sendRecords(@NotNull Session pSession, @NotNull byte[] pTaggedData, @Nullable RecordJournal.Position pPosition) throws IOException
+  {
+    RecordCodec currentCodec = codec;
+    byte[] payload = RecordCodec.payload(currentCodec.transcode(pTaggedData));
+    CloudEventBuilder builder = CloudEventBuilder.v1()
+        .withId(UUID.randomUUID().toString())
+        .withType(MetricRecordsEventData.TYPE)
+        .withSource(URI.create("/satellite/records"));
+
+    // a resent batch keeps its sequence number, so the cloud is able to drop duplicates
+    if (pPosition != null)
+      builder.withExtension(_EXTENSION_STREAM, Long.toHexString(journal.getId()))
+          .withExtension(_EXTENSION_SEQUENCE, pPosition.getSequence());
+    if (currentCodec.getContentType() != null)
+      builder.withData(currentCodec.getContentType(), payload);
+    else
+      builder.withData(payload);
+    return pSession.getAsyncRemote().sendObject(builder.build());
+  }
+
+  /**
+   * Schedules the upload of all spooled record batches, if not already scheduled.
+   * Nothing gets uploaded, until the cloud answered the authentication.
+   */
+  private void _scheduleSpoolDrain()
+  {
+    if (journal != null && connected == Boolean.TRUE && spoolDrainScheduled.compareAndSet(false, true))
+      spoolExecutor.execute(() -> {
+        spoolDrainScheduled.set(false);
+        _drainSpool();
+      });
+  }
+
+  @Override
+  public int getCapacity()
+  {
+    // while the connection is not available, the spool takes everything
+    Session currentSession = session;
+    if (journal == null || currentSession == null || !currentSession.isOpen())
+      return Integer.MAX_VALUE;
+    return (int) Math.max(0, backpressureThreshold - journal.getPendingCount());
+  }
+
+  /**
+   * Uploads all spooled record batches in order, with a sliding window of batches in flight.
+   * If the cloud acknowledges batches, a batch stays in the spool until it got acknowledged (cumulatively, together
+   * with all batches before it) and the window is limited by the unacknowledged batches. Otherwise a batch will be
+   * removed from the spool, if it and all batches before it were sent successfully.
+   * The upload stops at the first failure or missing acknowledgement and will be continued from the last acknowledged
+   * batch after the connection is available again.
+   * A drain only uploads with an authenticated session and whether the cloud acknowledges is fixed for it - a drain, that
+   * was scheduled for the previous session, must not take the batches it sent for delivered.
+   */
+  private void _drainSpool()
+  {
+    Session currentSession = session;
+    if (currentSession != authenticated)
+      return; // the next drain gets scheduled, as soon as the cloud answered the authentication
+    boolean acknowledged = acknowledging;
+    Deque<_PendingSend> window = new ArrayDeque<>();
+    RecordJournal.Position position = null;
+
+    try
+    {
+      while (currentSession != null && currentSession.isOpen())
+      {
+        // fill the window
+        RecordJournal.Entry entry = window.size() < sendWindow ? journal.read(position) : null;
+        if (entry != null)
+        {
+          window.add(new _PendingSend(_sendSpooled(currentSession, entry), entry.getNext(), System.nanoTime()));
+          position = entry.getNext();
+          continue;
+        }
+
+        if (window.isEmpty())
+          return;
+
+        // wait for the oldest batch, before the next one may be started
+        _PendingSend oldest = window.poll();
+        try
+        {
+          if (oldest.future != null)
+            oldest.future.get(_SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+          // dropped batches can not be acknowledged, they are committed as soon as everything before them was
+          if (oldest.future != null && acknowledged)
+            _awaitAck(currentSession, oldest.next);
+          else
+            journal.commit(oldest.next);
+        }
+        catch (ExecutionException | TimeoutException e)
+        {
+          instrumentation.recordSend(System.nanoTime() - oldest.startNanos, true);
+          throw e;
+        }
+        instrumentation.recordSend(System.nanoTime() - oldest.startNanos, false);
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException | TimeoutException | IOException e)
+    {
+      _LOGGER.warn("Failed to upload spooled records, will retry after the connection is available again", e);
+    }
+  }
+
+  /**
+   * Waits, until the cloud acknowledged the batch before the given position
+   *
+   * @param pSession  Session the batch was sent with
+   * @param pPosition Position after the batch in the spool
+   * @throws TimeoutException if the acknowledgement did not arrive in time or the session was closed
+   */
+  private void _awaitAck(@NotNull Session pSession, @NotNull RecordJournal.Position pPosition) throws TimeoutException, InterruptedException
+  {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMillis);
+    synchronized (ackLock)
+    {
+      while (!journal.isCommitted(pPosition))
+      {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || session != pSession || !pSession.isOpen())
+          throw new TimeoutException("Record batch " + pPosition.getSequence() + " was not acknowledged by homestack cloud");
+        TimeUnit.NANOSECONDS.timedWait(ackLock, remaining);
+      }
+    }
+  }
+
+  /**
+   * Handles a cumulative acknowledgement of the cloud: All batches up to the given sequence number were persisted
+   * and get removed from the spool.
+   *
+   * @param pSequence Sequence number of the last persisted batch
+   */
+  private void _acknowledge(@NotNull String pSequence)
+  {
+    long sequence;
+    try
+    {
+      sequence = Long.parseLong(pSequence);
+    }
+    catch (NumberFormatException e)
+    {
+      _LOGGER.warn("Invalid record acknowledgement '" + pSequence + "' from homestack cloud received");
+      return;
+    }
+
+    acknowledging = true;
+    if (journal == null || sequence < 0)
+      return;
+
+    // acknowledgements of unknown or already committed batches are ignored, so the spool can not skip anything
+    RecordJournal.Position position = journal.positionOf(sequence);
+    if (position != null)
+    {
+      try
+      {
+        journal.commit(position);
+      }
+      catch (IOException e)
+      {
+        _LOGGER.warn("Failed to commit acknowledged records up to " + sequence, e);
+      }
+    }
+    _wakeAckWaiters();
+  }
+
+  /**
+   * Wakes the spool drain, if it waits for an acknowledgement
+   */
+  private void _wakeAckWaiters()
+  {
+    synchronized (ackLock)
+    {
+      ackLock.notifyAll();
+    }
+  }
+
+  /**
+   * Forces the spooled records to disk, so that a crash loses at most the records of the last interval
+   */
+  @Scheduled(every = "{homestack.satellite.spool.force-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+  void forceSpool()
+  {
+    if (journal != null)
+      journal.force();
+  }
+
   /**
    * Sends the authentication event, to renew the login lease
    */
@@ -146,18 +536,36 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
                                               .withId(UUID.randomUUID().toString())
                                               .withType(AuthenticateEventData.TYPE)
                                               .withSource(URI.create("/satellite/auth"))
+                                              .withExtension(_EXTENSION_ENCODINGS, _getSupportedEncodings())
+                                              .withExtension(_EXTENSION_ACKS, _ACKS_CUMULATIVE)
                                               .withData(PojoCloudEventData.wrap(AuthenticateEventData.builder()
                                                                                     .leaseID(leaseID)
                                                                                     .leaseToken(leaseToken)
                                                                                     .version("0.0.0")
                                                                                     .commVersion(1)
                                                                                     .build(),
-                                                                                pData -> new ObjectMapper().writeValueAsBytes(pData)))
+                                                                                _AUTH_WRITER::writeValueAsBytes))
                                               .build());
     else
       _LOGGER.warn("Tried to authenticate, but connection was not esablished");
   }
 
+  /**
+   * @return the names of all codecs, that this satellite offers for its records, in order of preference
+   */
+  @NotNull
+  private String _getSupportedEncodings()
+  {
+    StringJoiner joiner = new StringJoiner(",");
+    for (String name : encodings.split(","))
+    {
+      RecordCodec supported = RecordCodecs.forName(name);
+      if (supported != null)
+        joiner.add(supported.getName());
+    }
+    return joiner.toString();
+  }
+
   /**
    * Sends the keepalive ping message
    */
@@ -175,4 +583,43 @@ class SatelliteConfigWebSocketClient implements IMetricRecordPublisher
     }
   }
 
+  /**
+   * Sends a single spooled batch. Batches that can not be encoded are dropped.
+   *
+   * @param pSession Session to send the batch with
+   * @param pEntry   Spooled batch
+   * @return the future of the asynchronous send operation, or null if the batch was dropped
+   */
+  @Nullable
+  private Future<Void> _sendSpooled(@NotNull Session pSession, @NotNull RecordJournal.Entry pEntry)
+  {
+    try
+    {
+      return _sendRecords(pSession, pEntry.getData(), pEntry.getNext());
+    }
+    catch (IOException e)
+    {
+      _LOGGER.error("Dropping spooled record batch, because it could not be encoded", e);
+      return null;
+    }
+  }
+
+  /**
+   * Send operation of a spooled batch, that was not confirmed yet
+   */
+  private static class _PendingSend
+  {
+    @Nullable
+    private final Future<Void> future; // null, if the batch was dropped
+    private final RecordJournal.Position next;
+    private final long startNanos;
+
+    public _PendingSend(@Nullable Future<Void> pFuture, @NotNull RecordJournal.Position pNext, long pStartNanos)
+    {
+      future = pFuture;
+      next = pNext;
+      startNanos = pStartNanos;
+    }
+  }
+
 }
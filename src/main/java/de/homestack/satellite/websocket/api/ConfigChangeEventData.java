@@ -0,0 +1,39 @@
+package de.homestack.satellite.websocket.api;
+
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+
+import java.util.*;
+
+/**
+ * Data of an incremental configuration change. Instead of sending the whole configuration again,
+ * the cloud may send only the devices and metrics that were added, updated or removed.
+ * Upserted elements replace the elements with the same id completely.
+ *
+ * @author agent, 18.10.2026
+ */
+public class ConfigChangeEventData
+{
+  public static final String TYPE = "de.homestack.satellite.config.change";
+
+  /**
+   * Devices that were added or updated
+   */
+  public List<DeviceDataModel> upsertedDevices = new ArrayList<>();
+
+  /**
+   * IDs of the devices that were removed
+   */
+  public Set<String> removedDevices = new HashSet<>();
+
+  /**
+   * Metrics that were added or updated
+   */
+  public List<MetricDataModel> upsertedMetrics = new ArrayList<>();
+
+  /**
+   * IDs of the metrics that were removed
+   */
+  public Set<String> removedMetrics = new HashSet<>();
+
+}
@@ -1,8 +1,9 @@
 package de.homestack.satellite.websocket.api;
 
-import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+
 /**
  * Consumer that receives the (new) configuration
  * model that was received by homestack cloud
@@ -13,10 +14,19 @@ public interface IConfigConsumer
 {
 
   /**
-   * Gets called, if a new config was received
+   * Gets called, if a new config was received.
+   * The data is passed as received, so that the consumer is able to stream it instead of mapping it as a whole.
+   *
+   * @param pEventData JSON of the RenewConfigurationEventData
+   * @throws IOException if the data could not be read
+   */
+  void onSatelliteConfigReceived(@NotNull byte[] pEventData) throws IOException;
+
+  /**
+   * Gets called, if single devices or metrics of the config changed
    *
-   * @param pModel Model of config
+   * @param pChange Change of the config
    */
-  void onSatelliteConfigReceived(@NotNull SatelliteConfigurationDataModel pModel);
+  void onSatelliteConfigChanged(@NotNull ConfigChangeEventData pChange);
 
 }
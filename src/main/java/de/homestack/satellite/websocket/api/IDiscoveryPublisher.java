@@ -0,0 +1,23 @@
+package de.homestack.satellite.websocket.api;
+
+import de.homestack.satellite.discovery.DiscoveryEventData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Publishes the results of discovery sweeps to the cloud
+ *
+ * @author agent, 18.10.2026
+ */
+public interface IDiscoveryPublisher
+{
+
+  /**
+   * Gets called, if a part of a discovery sweep should be published to cloud.
+   * The data is sent fire-and-forget: it is neither spooled nor acknowledged, and it is dropped if the connection
+   * is not available - the next sweep reports all live hosts again anyway.
+   *
+   * @param pData Data to publish
+   */
+  void sendDiscovery(@NotNull DiscoveryEventData pData);
+
+}
@@ -18,4 +18,12 @@ public interface IMetricRecordPublisher
    */
   void sendMetricRecords(@NotNull Set<MetricRecordDataModel> pRecords);
 
+  /**
+   * Determines, how many record batches the publisher accepts, before it can not keep up with the published records anymore.
+   * Producers should not produce more than that, to avoid falling behind.
+   *
+   * @return the number of batches, 0 if the publisher is backpressured, {@link Integer#MAX_VALUE} if it is unlimited
+   */
+  int getCapacity();
+
 }
@@ -0,0 +1,160 @@
+package de.homestack.satellite.websocket.codec;
+
+import com.fasterxml.jackson.core.*;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.jetbrains.annotations.*;
+
+import javax.websocket.*;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.Base64;
+
+/**
+ * Decodes the cloud events of the homestack cloud in their json format, straight from the websocket frame.
+ * The data is copied token by token into its raw json bytes, without building a tree of it and writing that tree
+ * again - a configuration with thousands of devices is held once, as the bytes the consumers stream.
+ * The factory and its buffers are shared by all frames, parsers are cheap to create on top of them.
+ *
+ * @author agent, 18.10.2026
+ */
+public class CloudEventDecoder implements Decoder.TextStream<CloudEvent>
+{
+  private static final JsonFactory _FACTORY = new JsonFactory();
+
+  @Override
+  public CloudEvent decode(Reader pReader) throws DecodeException, IOException
+  {
+    try (JsonParser parser = _FACTORY.createParser(pReader))
+    {
+      return decode(parser);
+    }
+    catch (JsonProcessingException | IllegalArgumentException | IllegalStateException | DateTimeException e)
+    {
+      throw new DecodeException("", "Invalid cloud event received: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Decodes a single cloud event
+   *
+   * @param pParser Parser, positioned before the event
+   * @return the event
+   */
+  @NotNull
+  static CloudEvent decode(@NotNull JsonParser pParser) throws IOException
+  {
+    if (pParser.nextToken() != JsonToken.START_OBJECT)
+      throw new JsonParseException(pParser, "Cloud event has to be an object");
+
+    CloudEventBuilder builder = CloudEventBuilder.v1();
+    String specVersion = null;
+    String contentType = null;
+    byte[] data = null;
+    while (pParser.nextToken() == JsonToken.FIELD_NAME)
+    {
+      String name = pParser.getCurrentName();
+      JsonToken token = pParser.nextToken();
+      switch (name)
+      {
+        case "specversion":
+          specVersion = pParser.getValueAsString();
+          break;
+        case "id":
+          builder.withId(_getString(pParser, name));
+          break;
+        case "source":
+          builder.withSource(URI.create(_getString(pParser, name)));
+          break;
+        case "type":
+          builder.withType(_getString(pParser, name));
+          break;
+        case "subject":
+          builder.withSubject(_getString(pParser, name));
+          break;
+        case "dataschema":
+          builder.withDataSchema(URI.create(_getString(pParser, name)));
+          break;
+        case "time":
+          builder.withTime(OffsetDateTime.parse(_getString(pParser, name)));
+          break;
+        case "datacontenttype":
+          contentType = _getString(pParser, name);
+          break;
+        case "data":
+          data = _copy(pParser);
+          break;
+        case "data_base64":
+          data = Base64.getDecoder().decode(_getString(pParser, name));
+          break;
+        default:
+          _extension(pParser, builder, name, token);
+      }
+    }
+
+    if (!"1.0".equals(specVersion))
+      throw new JsonParseException(pParser, "Unsupported cloud event version '" + specVersion + "'");
+    if (data != null)
+      builder.withData(contentType, data);
+    else if (contentType != null)
+      builder.withDataContentType(contentType);
+    return builder.build();
+  }
+
+  @Override
+  public void init(EndpointConfig pConfig)
+  {
+  }
+
+  @Override
+  public void destroy()
+  {
+  }
+
+  /**
+   * Copies the current value as it is, strings are taken as their content - like the json format of cloud events does
+   */
+  @Nullable
+  private static byte[] _copy(@NotNull JsonParser pParser) throws IOException
+  {
+    JsonToken token = pParser.currentToken();
+    if (token == JsonToken.VALUE_NULL)
+      return null;
+    if (token == JsonToken.VALUE_STRING)
+      return pParser.getText().getBytes(StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+    try (JsonGenerator generator = _FACTORY.createGenerator(out))
+    {
+      generator.copyCurrentStructure(pParser);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Reads an extension attribute, which has to be a string, a number or a boolean
+   */
+  private static void _extension(@NotNull JsonParser pParser, @NotNull CloudEventBuilder pBuilder, @NotNull String pName, @Nullable JsonToken pToken)
+    throws IOException
+  {
+    if (pToken == JsonToken.VALUE_STRING)
+      pBuilder.withExtension(pName, pParser.getText());
+    else if (pToken == JsonToken.VALUE_NUMBER_INT || pToken == JsonToken.VALUE_NUMBER_FLOAT)
+      pBuilder.withExtension(pName, pParser.getNumberValue());
+    else if (pToken == JsonToken.VALUE_TRUE || pToken == JsonToken.VALUE_FALSE)
+      pBuilder.withExtension(pName, pParser.getBooleanValue());
+    else if (pToken != JsonToken.VALUE_NULL)
+      throw new JsonParseException(pParser, "Extension '" + pName + "' has to be a string, a number or a boolean");
+  }
+
+  @NotNull
+  private static String _getString(@NotNull JsonParser pParser, @NotNull String pName) throws IOException
+  {
+    if (pParser.currentToken() != JsonToken.VALUE_STRING)
+      throw new JsonParseException(pParser, "Attribute '" + pName + "' has to be a string");
+    return pParser.getText();
+  }
+
+}
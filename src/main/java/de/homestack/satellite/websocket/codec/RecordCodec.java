@@ -0,0 +1,176 @@
+package de.homestack.satellite.websocket.codec;
+
+import com.fasterxml.jackson.databind.*;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.*;
+
+/**
+ * Encoding of the data of a record event.
+ * A codec holds its pre-built writer and reader, so that encoding does not have to build anything.
+ * Encoded data is tagged with the id of its codec in the first byte, so that it can be stored
+ * (e.g. in the spool) and transcoded later, if the negotiated codec changed in between.
+ * Instances are immutable and thread safe.
+ *
+ * @author agent, 18.10.2026
+ */
+public class RecordCodec
+{
+  private static final ThreadLocal<Deflater> _DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+  private static final ThreadLocal<Inflater> _INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+  private static final int _CHUNK_SIZE = 8192;
+
+  private final byte id;
+  private final String name;
+  private final String contentType;
+  private final boolean compressed;
+  private final ObjectWriter writer;
+  private final ObjectReader treeReader;
+
+  RecordCodec(byte pID, @NotNull String pName, @Nullable String pContentType, boolean pCompressed, @NotNull ObjectMapper pMapper)
+  {
+    id = pID;
+    name = pName;
+    contentType = pContentType;
+    compressed = pCompressed;
+    writer = pMapper.writer();
+    treeReader = pMapper.readerFor(JsonNode.class);
+  }
+
+  /**
+   * @return unique id of this codec, used to tag encoded data
+   */
+  public byte getID()
+  {
+    return id;
+  }
+
+  /**
+   * @return the name of this codec, used in the encoding negotiation
+   */
+  @NotNull
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * @return the content type of the encoded data, null if the data is plain json and can be embedded into the event
+   */
+  @Nullable
+  public String getContentType()
+  {
+    return contentType;
+  }
+
+  /**
+   * Encodes the given data object
+   *
+   * @param pData Data to encode
+   * @return the encoded and tagged bytes
+   */
+  @NotNull
+  public byte[] encode(@NotNull Object pData) throws IOException
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    out.write(id);
+
+    if (compressed)
+    {
+      Deflater deflater = _DEFLATER.get();
+      try
+      {
+        writer.writeValue(new DeflaterOutputStream(out, deflater, _CHUNK_SIZE), pData);
+      }
+      finally
+      {
+        deflater.reset();
+      }
+    }
+    else
+      writer.writeValue(out, pData);
+
+    return out.toByteArray();
+  }
+
+  /**
+   * Converts tagged data that may have been encoded by another codec to the encoding of this codec
+   *
+   * @param pTaggedData Encoded and tagged data
+   * @return the data in the encoding of this codec, tagged
+   */
+  @NotNull
+  public byte[] transcode(@NotNull byte[] pTaggedData) throws IOException
+  {
+    RecordCodec source = RecordCodecs.of(pTaggedData);
+    if (source == this)
+      return pTaggedData;
+    return encode(source.decodeTree(pTaggedData));
+  }
+
+  /**
+   * Decodes the given tagged bytes to a generic tree
+   *
+   * @param pTaggedData Encoded and tagged data of this codec
+   * @return the tree
+   */
+  @NotNull
+  public JsonNode decodeTree(@NotNull byte[] pTaggedData) throws IOException
+  {
+    if (compressed)
+      return treeReader.readValue(_inflate(pTaggedData, 1, pTaggedData.length - 1));
+    return treeReader.readValue(pTaggedData, 1, pTaggedData.length - 1);
+  }
+
+  /**
+   * Strips the tag from the given data
+   *
+   * @param pTaggedData Encoded and tagged data
+   * @return the encoded data, as it should be transmitted
+   */
+  @NotNull
+  public static byte[] payload(@NotNull byte[] pTaggedData)
+  {
+    return Arrays.copyOfRange(pTaggedData, 1, pTaggedData.length);
+  }
+
+  @Override
+  public String toString()
+  {
+    return name;
+  }
+
+  /**
+   * Decompresses the given raw deflate stream
+   */
+  @NotNull
+  private static byte[] _inflate(@NotNull byte[] pData, int pOffset, int pLength) throws IOException
+  {
+    Inflater inflater = _INFLATER.get();
+    byte[] chunk = new byte[_CHUNK_SIZE];
+    ByteArrayOutputStream out = new ByteArrayOutputStream(pLength * 4);
+    try
+    {
+      inflater.setInput(pData, pOffset, pLength);
+      while (!inflater.finished())
+      {
+        int count = inflater.inflate(chunk);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          throw new EOFException("Compressed record data is truncated");
+        out.write(chunk, 0, count);
+      }
+      return out.toByteArray();
+    }
+    catch (DataFormatException e)
+    {
+      throw new IOException("Compressed record data is invalid", e);
+    }
+    finally
+    {
+      inflater.reset();
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+package de.homestack.satellite.websocket.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.jetbrains.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Registry of all available record codecs.
+ * JSON is always available and used as fallback, if nothing else was negotiated.
+ *
+ * @author agent, 18.10.2026
+ */
+public final class RecordCodecs
+{
+  public static final RecordCodec JSON = new RecordCodec((byte) 0, "json", null, false, new ObjectMapper());
+  public static final RecordCodec JSON_DEFLATE = new RecordCodec((byte) 1, "json+deflate", "application/x-json-deflate", true, new ObjectMapper());
+  public static final RecordCodec SMILE = new RecordCodec((byte) 2, "smile", "application/x-jackson-smile", false, new ObjectMapper(new SmileFactory()));
+  public static final RecordCodec SMILE_DEFLATE = new RecordCodec((byte) 3, "smile+deflate", "application/x-jackson-smile-deflate", true, new ObjectMapper(new SmileFactory()));
+  public static final RecordCodec CBOR = new RecordCodec((byte) 4, "cbor", "application/cbor", false, new ObjectMapper(new CBORFactory()));
+  public static final RecordCodec CBOR_DEFLATE = new RecordCodec((byte) 5, "cbor+deflate", "application/x-cbor-deflate", true, new ObjectMapper(new CBORFactory()));
+
+  private static final List<RecordCodec> _ALL = List.of(JSON, JSON_DEFLATE, SMILE, SMILE_DEFLATE, CBOR, CBOR_DEFLATE);
+
+  private RecordCodecs()
+  {
+  }
+
+  /**
+   * @return all available codecs
+   */
+  @NotNull
+  public static List<RecordCodec> getAll()
+  {
+    return _ALL;
+  }
+
+  /**
+   * Searches the codec with the given name
+   *
+   * @param pName Name of the codec, see {@link RecordCodec#getName()}
+   * @return the codec, or null if it is unknown
+   */
+  @Nullable
+  public static RecordCodec forName(@Nullable String pName)
+  {
+    if (pName == null)
+      return null;
+
+    String name = pName.trim().toLowerCase(Locale.ROOT);
+    for (RecordCodec codec : _ALL)
+      if (codec.getName().equals(name))
+        return codec;
+    return null;
+  }
+
+  /**
+   * Searches the codec with the given id
+   *
+   * @param pID ID of the codec, see {@link RecordCodec#getID()}
+   * @return the codec, or null if it is unknown
+   */
+  @Nullable
+  public static RecordCodec forID(byte pID)
+  {
+    for (RecordCodec codec : _ALL)
+      if (codec.getID() == pID)
+        return codec;
+    return null;
+  }
+
+  /**
+   * Determines the codec of the given tagged data
+   *
+   * @param pTaggedData Encoded and tagged data, see {@link RecordCodec#encode(Object)}
+   * @return the codec
+   * @throws IOException if the tag is unknown
+   */
+  @NotNull
+  public static RecordCodec of(@NotNull byte[] pTaggedData) throws IOException
+  {
+    RecordCodec codec = pTaggedData.length > 0 ? forID(pTaggedData[0]) : null;
+    if (codec == null)
+      throw new IOException("Encoded record data has no valid codec tag");
+    return codec;
+  }
+
+}
@@ -0,0 +1,546 @@
+package de.homestack.satellite.websocket.journal;
+
+import org.jboss.logging.Logger;
+import org.jetbrains.annotations.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal on local disk, consisting of memory-mapped segment files.
+ * Entries are read in the order they were appended and stay in the journal until they get committed,
+ * so they survive connection losses and restarts of the satellite.
+ * If the journal exceeds its maximum size, the oldest segments are dropped.
+ * Appended entries are forced to disk as soon as the unforced bytes exceed a limit, and whenever {@link #force()} gets called,
+ * so that only a bounded amount of records is lost if the system crashes.
+ *
+ * Each entry consists of its length, its CRC32 and the payload. The length is written last,
+ * so that a partially written entry is never visible to a reader.
+ *
+ * @author agent, 18.10.2026
+ */
+public class RecordJournal implements Closeable
+{
+  private static final Logger _LOGGER = Logger.getLogger(RecordJournal.class);
+  private static final String _SEGMENT_SUFFIX = ".seg";
+  private static final String _CURSOR_FILE = "cursor";
+  private static final int _HEADER_SIZE = 8; // length + crc
+  private static final Method _INVOKE_CLEANER;
+  private static final Object _UNSAFE;
+
+  static
+  {
+    // mapped buffers are only unmapped by the garbage collector, so deleted segments would keep their disk space until then
+    Method invokeCleaner = null;
+    Object unsafe = null;
+    try
+    {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+    }
+    catch (Exception e)
+    {
+      _LOGGER.debug("Mapped segments can not be unmapped explicitly, they are released by the garbage collector", e);
+    }
+    _INVOKE_CLEANER = invokeCleaner;
+    _UNSAFE = unsafe;
+  }
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxSize;
+  private final int forceSize;
+  private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+  private final MappedByteBuffer cursorBuffer;
+  private long writeSegment;
+  private int writeOffset;
+  private long readSegment;
+  private int readOffset;
+  private final long id;
+  private long totalSize = 0;
+  private long pendingCount = 0;
+  private int unforcedSize = 0;
+  private boolean cursorDirty = false;
+  private boolean closed = false;
+
+  /**
+   * Opens (or creates) the journal in the given directory
+   *
+   * @param pDirectory   Directory of the journal
+   * @param pSegmentSize Size of a single segment file in bytes
+   * @param pMaxSize     Maximum size of all segment files in bytes
+   * @param pForceSize   Number of appended bytes, after which they are forced to disk
+   */
+  public RecordJournal(@NotNull Path pDirectory, int pSegmentSize, long pMaxSize, int pForceSize) throws IOException
+  {
+    directory = pDirectory;
+    segmentSize = pSegmentSize;
+    maxSize = pMaxSize;
+    forceSize = Math.max(1, pForceSize);
+    Files.createDirectories(directory);
+
+    // map existing segments
+    try (Stream<Path> files = Files.list(directory))
+    {
+      for (Path file : (Iterable<Path>) files::iterator)
+      {
+        String name = file.getFileName().toString();
+        if (name.endsWith(_SEGMENT_SUFFIX))
+          segments.put(Long.parseLong(name.substring(0, name.length() - _SEGMENT_SUFFIX.length())), _map(file, 0));
+      }
+    }
+
+    if (segments.isEmpty())
+      segments.put(1L, _map(_getSegmentPath(1), segmentSize));
+    writeSegment = segments.lastKey();
+    writeOffset = _findEnd(segments.lastKey(), segments.lastEntry().getValue());
+
+    // restore the read cursor, a new journal gets its id together with the cursor
+    boolean created;
+    try (FileChannel channel = FileChannel.open(directory.resolve(_CURSOR_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+    {
+      created = channel.size() == 0;
+      cursorBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 20);
+    }
+    if (created)
+      cursorBuffer.putLong(12, new Random().nextLong() | 1);
+    readSegment = cursorBuffer.getLong(0);
+    readOffset = cursorBuffer.getInt(8);
+    id = cursorBuffer.getLong(12);
+    if (!segments.containsKey(readSegment))
+    {
+      readSegment = segments.firstKey();
+      readOffset = 0;
+    }
+    _storeCursor();
+
+    // count the entries that were not committed yet
+    for (Map.Entry<Long, MappedByteBuffer> segment : segments.tailMap(readSegment, true).entrySet())
+      pendingCount += _countEntries(segment.getValue(), segment.getKey() == readSegment ? readOffset : 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Appends a single entry to this journal
+   *
+   * @param pData Payload of the entry, must not be empty
+   */
+  public synchronized void append(@NotNull byte[] pData) throws IOException
+  {
+    if (pData.length == 0)
+      throw new IllegalArgumentException("Empty entries are not supported");
+    if (closed)
+      throw new IOException("Record journal is closed");
+
+    int required = _HEADER_SIZE + pData.length;
+    MappedByteBuffer buffer = segments.get(writeSegment);
+    if (writeOffset + required > buffer.capacity())
+    {
+      // rotate
+      buffer.force();
+      unforcedSize = 0;
+      writeSegment++;
+      buffer = _map(_getSegmentPath(writeSegment), Math.max(segmentSize, required));
+      segments.put(writeSegment, buffer);
+      writeOffset = 0;
+      _enforceMaxSize();
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(pData);
+    ByteBuffer target = buffer.duplicate();
+    target.position(writeOffset + _HEADER_SIZE);
+    target.put(pData);
+    buffer.putInt(writeOffset + 4, (int) crc.getValue());
+    buffer.putInt(writeOffset, pData.length);
+    writeOffset += required;
+    pendingCount++;
+
+    unforcedSize += required;
+    if (unforcedSize >= forceSize)
+    {
+      buffer.force();
+      unforcedSize = 0;
+    }
+  }
+
+  /**
+   * Reads the entry at the given position, without committing it.
+   * If the position is at the end of a segment, the first entry of the next segment will be returned.
+   *
+   * @param pFrom Position to read from, or null to read the oldest uncommitted entry
+   * @return the entry, or null if there is no entry at this position
+   */
+  @Nullable
+  public synchronized Entry read(@Nullable Position pFrom)
+  {
+    if (closed)
+      return null;
+
+    long segment = readSegment;
+    int offset = readOffset;
+    if (pFrom != null && (pFrom.segment > readSegment || (pFrom.segment == readSegment && pFrom.offset > readOffset)))
+    {
+      segment = pFrom.segment;
+      offset = pFrom.offset;
+    }
+
+    while (true)
+    {
+      MappedByteBuffer buffer = segments.get(segment);
+      Entry entry = buffer == null ? null : _readAt(buffer, segment, offset);
+      if (entry != null)
+        return entry;
+
+      // continue with the next segment
+      Long next = segments.higherKey(segment);
+      if (next == null)
+        return null;
+      segment = next;
+      offset = 0;
+    }
+  }
+
+  /**
+   * Commits all entries up to the given position. Those will never be read again.
+   *
+   * @param pUpTo Position after the last entry to commit, see {@link Entry#getNext()}
+   */
+  public synchronized void commit(@NotNull Position pUpTo) throws IOException
+  {
+    if (closed)
+      throw new IOException("Record journal is closed");
+    if (pUpTo.segment < readSegment || (pUpTo.segment == readSegment && pUpTo.offset <= readOffset))
+      return;
+
+    for (Map.Entry<Long, MappedByteBuffer> segment : segments.subMap(readSegment, true, pUpTo.segment, true).entrySet())
+      pendingCount -= _countEntries(segment.getValue(), segment.getKey() == readSegment ? readOffset : 0,
+                                    segment.getKey() == pUpTo.segment ? pUpTo.offset : Integer.MAX_VALUE);
+    readSegment = pUpTo.segment;
+    readOffset = pUpTo.offset;
+    _storeCursor();
+
+    // segments before the cursor are not needed anymore
+    while (segments.firstKey() < readSegment)
+      _deleteSegment(segments.firstKey());
+  }
+
+  /**
+   * Resolves the sequence number of an entry (see {@link Position#getSequence()}) to its position.
+   * Only positions directly after an uncommitted entry are valid, everything else gets rejected.
+   *
+   * @param pSequence Sequence number of the entry
+   * @return the position after the entry, or null if there is no such uncommitted entry
+   */
+  @Nullable
+  public synchronized Position positionOf(long pSequence)
+  {
+    long segment = pSequence >>> 32;
+    int offset = (int) pSequence;
+    MappedByteBuffer buffer = closed ? null : segments.get(segment);
+    if (buffer == null || offset <= 0 || segment < readSegment || (segment == readSegment && offset <= readOffset))
+      return null;
+
+    // walk the headers, until the offset was reached
+    int current = segment == readSegment ? readOffset : 0;
+    while (current < offset && current + _HEADER_SIZE <= buffer.capacity())
+    {
+      int length = buffer.getInt(current);
+      if (length <= 0)
+        break;
+      current += _HEADER_SIZE + length;
+    }
+    return current == offset ? new Position(segment, offset) : null;
+  }
+
+  /**
+   * Determines, if all entries before the given position were committed
+   *
+   * @param pPosition Position to check
+   * @return true, if it is not after the read cursor
+   */
+  public synchronized boolean isCommitted(@NotNull Position pPosition)
+  {
+    return pPosition.segment < readSegment || (pPosition.segment == readSegment && pPosition.offset <= readOffset);
+  }
+
+  /**
+   * Returns the random id of this journal. It is created together with the journal and does not change
+   * until its files get deleted, so that sequence numbers of different journals can be told apart.
+   *
+   * @return the id
+   */
+  public long getId()
+  {
+    return id;
+  }
+
+  /**
+   * @return the number of entries that were not committed yet
+   */
+  public synchronized long getPendingCount()
+  {
+    return Math.max(0, pendingCount);
+  }
+
+  /**
+   * @return the size of all segment files in bytes
+   */
+  public synchronized long getSize()
+  {
+    return totalSize;
+  }
+
+  /**
+   * Forces all appended entries and the read cursor to disk, if they changed since they were forced the last time
+   */
+  public synchronized void force()
+  {
+    if (closed)
+      return;
+
+    if (unforcedSize > 0)
+    {
+      segments.get(writeSegment).force();
+      unforcedSize = 0;
+    }
+    if (cursorDirty)
+    {
+      cursorBuffer.force();
+      cursorDirty = false;
+    }
+  }
+
+  @Override
+  public synchronized void close()
+  {
+    if (closed)
+      return;
+
+    segments.values().forEach(MappedByteBuffer::force);
+    cursorBuffer.force();
+    closed = true;
+    segments.values().forEach(RecordJournal::_unmap);
+    segments.clear();
+    _unmap(cursorBuffer);
+  }
+
+  /**
+   * Drops the oldest segments, until the journal fits in its maximum size again
+   */
+  private void _enforceMaxSize() throws IOException
+  {
+    while (totalSize > maxSize && segments.firstKey() != writeSegment)
+    {
+      long oldest = segments.firstKey();
+      _LOGGER.warn("Record journal exceeded its maximum size of " + maxSize + " bytes, dropping oldest segment " + oldest);
+      if (readSegment <= oldest)
+        pendingCount -= _countEntries(segments.get(oldest), readSegment == oldest ? readOffset : 0, Integer.MAX_VALUE);
+      _deleteSegment(oldest);
+
+      if (readSegment <= oldest)
+      {
+        readSegment = segments.firstKey();
+        readOffset = 0;
+        _storeCursor();
+      }
+    }
+  }
+
+  /**
+   * Reads a single entry
+   *
+   * @return the entry, or null if there is no (valid) entry at this offset
+   */
+  @Nullable
+  private static Entry _readAt(@NotNull MappedByteBuffer pBuffer, long pSegment, int pOffset)
+  {
+    if (pOffset + _HEADER_SIZE > pBuffer.capacity())
+      return null;
+
+    int length = pBuffer.getInt(pOffset);
+    if (length <= 0 || pOffset + _HEADER_SIZE + length > pBuffer.capacity())
+      return null;
+
+    byte[] data = new byte[length];
+    ByteBuffer source = pBuffer.duplicate();
+    source.position(pOffset + _HEADER_SIZE);
+    source.get(data);
+
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    if ((int) crc.getValue() != pBuffer.getInt(pOffset + 4))
+    {
+      _LOGGER.warn("Record journal contains a corrupt entry in segment " + pSegment + " at offset " + pOffset + ", skipping the rest of this segment");
+      return null;
+    }
+
+    return new Entry(data, new Position(pSegment, pOffset + _HEADER_SIZE + length));
+  }
+
+  /**
+   * Counts the entries between the given offsets by walking their headers
+   */
+  private static int _countEntries(@NotNull MappedByteBuffer pBuffer, int pFromOffset, int pToOffset)
+  {
+    int count = 0;
+    int offset = pFromOffset;
+    while (offset < pToOffset && offset + _HEADER_SIZE <= pBuffer.capacity())
+    {
+      int length = pBuffer.getInt(offset);
+      if (length <= 0 || offset + _HEADER_SIZE + length > pBuffer.capacity())
+        break;
+      offset += _HEADER_SIZE + length;
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Searches the offset after the last valid entry of the given segment
+   */
+  private static int _findEnd(long pSegment, @NotNull MappedByteBuffer pBuffer)
+  {
+    int offset = 0;
+    Entry entry;
+    while ((entry = _readAt(pBuffer, pSegment, offset)) != null)
+      offset = entry.getNext().offset;
+    return offset;
+  }
+
+  /**
+   * Maps the given segment file. If the size is greater than zero, the file will be created with this size.
+   */
+  @NotNull
+  private MappedByteBuffer _map(@NotNull Path pFile, int pSize) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE))
+    {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, pSize > 0 ? pSize : channel.size());
+      totalSize += buffer.capacity();
+      return buffer;
+    }
+  }
+
+  /**
+   * Removes the segment from this journal and deletes its file
+   */
+  private void _deleteSegment(long pSegment) throws IOException
+  {
+    MappedByteBuffer buffer = segments.remove(pSegment);
+    if (buffer != null)
+    {
+      totalSize -= buffer.capacity();
+      _unmap(buffer);
+    }
+    Files.deleteIfExists(_getSegmentPath(pSegment));
+  }
+
+  /**
+   * Releases the mapping of the given buffer immediately. The buffer must not be accessed anymore afterwards.
+   */
+  private static void _unmap(@NotNull MappedByteBuffer pBuffer)
+  {
+    if (_INVOKE_CLEANER == null)
+      return;
+
+    try
+    {
+      _INVOKE_CLEANER.invoke(_UNSAFE, pBuffer);
+    }
+    catch (Exception e)
+    {
+      _LOGGER.debug("Failed to unmap segment, it is released by the garbage collector", e);
+    }
+  }
+
+  /**
+   * Writes the read cursor to disk
+   */
+  private void _storeCursor()
+  {
+    cursorBuffer.putLong(0, readSegment);
+    cursorBuffer.putInt(8, readOffset);
+    cursorDirty = true;
+  }
+
+  @NotNull
+  private Path _getSegmentPath(long pSegment)
+  {
+    return directory.resolve(String.format("%020d%s", pSegment, _SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Position inside the journal
+   */
+  public static class Position
+  {
+    private final long segment;
+    private final int offset;
+
+    private Position(long pSegment, int pOffset)
+    {
+      segment = pSegment;
+      offset = pOffset;
+    }
+
+    /**
+     * Returns the sequence number of the entry, that ends at this position.
+     * Sequence numbers increase strictly with every appended entry and stay the same across restarts.
+     *
+     * @return the sequence number
+     */
+    public long getSequence()
+    {
+      return (segment << 32) | offset;
+    }
+
+    @Override
+    public String toString()
+    {
+      return segment + ":" + offset;
+    }
+  }
+
+  /**
+   * A single entry of the journal
+   */
+  public static class Entry
+  {
+    private final byte[] data;
+    private final Position next;
+
+    private Entry(@NotNull byte[] pData, @NotNull Position pNext)
+    {
+      data = pData;
+      next = pNext;
+    }
+
+    /**
+     * @return the payload of this entry
+     */
+    @NotNull
+    public byte[] getData()
+    {
+      return data;
+    }
+
+    /**
+     * @return the position directly after this entry
+     */
+    @NotNull
+    public Position getNext()
+    {
+      return next;
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+package de.homestack.satellite.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.websocket.api.ConfigChangeEventData;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.MetricDataModel;
+import io.conceptive.homestack.model.satellite.SatelliteConfigurationDataModel;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Snapshot and change journal of the configuration, with real files in a temporary directory
+ *
+ * @author agent, 18.10.2026
+ */
+class ConfigSnapshotTest
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void restoresSnapshotAndJournaledChanges() throws IOException
+  {
+    ConfigSnapshot snapshot = _snapshot();
+    snapshot.write(List.of(_device("device-1")), List.of(_metric("metric-1", "device-1"), _metric("metric-2", "device-1")));
+    assertTrue(snapshot.append(_change(List.of(_metric("metric-3", "device-1")), Set.of())));
+    assertTrue(snapshot.append(_change(List.of(), Set.of("metric-1"))));
+    assertEquals(2, snapshot.getChangeCount());
+
+    ConfigSnapshot restored = _snapshot();
+    SatelliteConfigurationDataModel config = restored.read();
+    assertNotNull(config);
+    assertEquals(Set.of("metric-1", "metric-2"), config.metrics.stream().map(pMetric -> pMetric.id).collect(Collectors.toSet()));
+    List<ConfigChangeEventData> changes = restored.readChanges();
+    assertEquals(2, changes.size());
+    assertEquals("metric-3", changes.get(0).upsertedMetrics.get(0).id);
+    assertEquals(Set.of("metric-1"), changes.get(1).removedMetrics);
+    assertEquals(2, restored.getChangeCount());
+  }
+
+  @Test
+  void startsAnEmptyJournalWithEverySnapshot() throws IOException
+  {
+    ConfigSnapshot snapshot = _snapshot();
+    snapshot.write(List.of(_device("device-1")), List.of());
+    snapshot.append(_change(List.of(_metric("metric-1", "device-1")), Set.of()));
+    snapshot.write(List.of(_device("device-1")), List.of(_metric("metric-1", "device-1")));
+    assertEquals(0, snapshot.getChangeCount());
+    snapshot.append(_change(List.of(), Set.of("metric-1")));
+
+    ConfigSnapshot restored = _snapshot();
+    restored.read();
+    List<ConfigChangeEventData> changes = restored.readChanges();
+    assertEquals(1, changes.size());
+    assertEquals(Set.of("metric-1"), changes.get(0).removedMetrics);
+  }
+
+  @Test
+  void ignoresJournalOfPreviousSnapshot() throws IOException
+  {
+    ConfigSnapshot snapshot = _snapshot();
+    snapshot.write(List.of(_device("device-1")), List.of());
+    snapshot.append(_change(List.of(_metric("metric-1", "device-1")), Set.of()));
+    byte[] journal = Files.readAllBytes(_changesFile());
+
+    // crashed right after the next snapshot was written, before its journal was reset
+    snapshot.write(List.of(_device("device-2")), List.of());
+    Files.write(_changesFile(), journal);
+
+    ConfigSnapshot restored = _snapshot();
+    restored.read();
+    assertEquals(List.of(), restored.readChanges());
+    assertFalse(Files.exists(_changesFile()));
+  }
+
+  @Test
+  void cutsOffIncompleteChange() throws IOException
+  {
+    ConfigSnapshot snapshot = _snapshot();
+    snapshot.write(List.of(_device("device-1")), List.of());
+    snapshot.append(_change(List.of(_metric("metric-1", "device-1")), Set.of()));
+    long size = Files.size(_changesFile());
+    Files.write(_changesFile(), new byte[]{0, 0, 1, 0, 42, 42}, StandardOpenOption.APPEND);
+
+    ConfigSnapshot restored = _snapshot();
+    restored.read();
+    assertEquals(1, restored.readChanges().size());
+    assertEquals(size, Files.size(_changesFile()));
+
+    // appending continues right behind the last complete change
+    restored.append(_change(List.of(), Set.of("metric-1")));
+    ConfigSnapshot again = _snapshot();
+    again.read();
+    assertEquals(2, again.readChanges().size());
+  }
+
+  @Test
+  void appendsOnlyToAnExistingSnapshot() throws IOException
+  {
+    ConfigSnapshot snapshot = _snapshot();
+    assertNull(snapshot.read());
+    assertFalse(snapshot.append(_change(List.of(_metric("metric-1", "device-1")), Set.of())));
+    assertFalse(Files.exists(_changesFile()));
+  }
+
+  @NotNull
+  private ConfigSnapshot _snapshot()
+  {
+    return new ConfigSnapshot(directory.resolve("config.snapshot"));
+  }
+
+  @NotNull
+  private Path _changesFile()
+  {
+    return directory.resolve("config.snapshot.changes");
+  }
+
+  @NotNull
+  private static ConfigChangeEventData _change(@NotNull List<MetricDataModel> pUpserted, @NotNull Set<String> pRemoved)
+  {
+    ConfigChangeEventData change = new ConfigChangeEventData();
+    change.upsertedMetrics.addAll(pUpserted);
+    change.removedMetrics.addAll(pRemoved);
+    return change;
+  }
+
+  @NotNull
+  private static DeviceDataModel _device(@NotNull String pID)
+  {
+    return _MAPPER.convertValue(Map.of("id", pID, "address", "10.0.0.1"), DeviceDataModel.class);
+  }
+
+  @NotNull
+  private static MetricDataModel _metric(@NotNull String pID, @NotNull String pDeviceID)
+  {
+    return _MAPPER.convertValue(Map.of("id", pID, "deviceID", pDeviceID, "type", "ping"), MetricDataModel.class);
+  }
+
+}
@@ -0,0 +1,48 @@
+package de.homestack.satellite.config;
+
+import de.homestack.satellite.shard.ShardMembership;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * Creates configuration providers for tests, that receive their configuration like the satellite does
+ *
+ * @author agent, 18.10.2026
+ */
+public class TestConfigProviders
+{
+
+  private TestConfigProviders()
+  {
+  }
+
+  /**
+   * Creates a provider, that receives its configuration from the cloud. It is a consumer of the configuration events, too.
+   *
+   * @param pMembership Membership in the shard group of the satellite
+   * @param pSnapshot   File of the snapshot, it is restored if it exists
+   * @return the provider, it has to be released with {@link #destroy(IConfigProvider)}
+   */
+  @NotNull
+  public static IConfigProvider create(@NotNull ShardMembership pMembership, @NotNull Path pSnapshot)
+  {
+    DynamicConfigProvider provider = new DynamicConfigProvider();
+    provider.shardMembership = pMembership;
+    provider.snapshotFile = pSnapshot.toString();
+    provider.compactAfter = 1000;
+    provider.init();
+    return provider;
+  }
+
+  /**
+   * Releases a provider, that was created by {@link #create(ShardMembership, Path)}
+   *
+   * @param pProvider Provider to release
+   */
+  public static void destroy(@NotNull IConfigProvider pProvider)
+  {
+    ((DynamicConfigProvider) pProvider).destroy();
+  }
+
+}
@@ -0,0 +1,191 @@
+package de.homestack.satellite.discovery;
+
+import de.homestack.satellite.metrics.impl.dns.ReverseDNSResolver;
+import de.homestack.satellite.metrics.impl.ping.IcmpPingEngine;
+import de.homestack.satellite.metrics.impl.tcp.TcpConnectEngine;
+import de.homestack.satellite.shard.*;
+import de.homestack.satellite.websocket.api.IDiscoveryPublisher;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sweeps with engines, that answer from a table instead of the network, and a publisher that collects the batches
+ *
+ * @author agent, 18.10.2026
+ */
+class SubnetDiscoveryServiceTest
+{
+  private final List<DiscoveryEventData> published = new CopyOnWriteArrayList<>();
+  private final Map<String, Float> pings = new ConcurrentHashMap<>();
+  private final Map<InetSocketAddress, Function<InetSocketAddress, CompletableFuture<Float>>> connects = new ConcurrentHashMap<>();
+  private ShardMembership membership;
+  private SubnetDiscoveryService service;
+
+  @BeforeEach
+  void setUp()
+  {
+    membership = TestShardMemberships.create(null, "satellite-1", 0);
+
+    service = new SubnetDiscoveryService();
+    service.ports = "22,80";
+    service.timeoutMillis = 100;
+    service.probesPerSecond = 100_000;
+    service.maxInFlight = 16;
+    service.batchSize = 10;
+    service.pingEngine = new IcmpPingEngine()
+    {
+      @NotNull
+      @Override
+      public CompletableFuture<Float> ping(@NotNull InetAddress pAddress, int pTimeoutMs)
+      {
+        return CompletableFuture.completedFuture(pings.getOrDefault(pAddress.getHostAddress(), -1F));
+      }
+    };
+    service.connectEngine = new TcpConnectEngine()
+    {
+      @NotNull
+      @Override
+      public CompletableFuture<Float> connect(@NotNull InetSocketAddress pAddress, int pTimeoutMs)
+      {
+        return connects.getOrDefault(pAddress, pTarget -> CompletableFuture.completedFuture(-1F)).apply(pAddress);
+      }
+    };
+    service.dnsResolver = new ReverseDNSResolver()
+    {
+      @NotNull
+      @Override
+      public CompletableFuture<Optional<String>> resolve(@NotNull InetAddress pAddress)
+      {
+        return CompletableFuture.completedFuture(Optional.of("host-" + pAddress.getAddress()[3]));
+      }
+    };
+    service.publisher = new IDiscoveryPublisher()
+    {
+      @Override
+      public void sendDiscovery(@NotNull DiscoveryEventData pData)
+      {
+        published.add(pData);
+      }
+    };
+    service.shardMembership = membership;
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    TestShardMemberships.destroy(membership);
+  }
+
+  @Test
+  void findsHostsByIcmpOrAnyAnsweringPort()
+  {
+    pings.put("10.0.0.1", 1.5F);
+    _connect("10.0.0.2", 22, CompletableFuture.failedFuture(new ConnectException("refused")));
+    _connect("10.0.0.3", 80, CompletableFuture.completedFuture(3F));
+    _connect("10.0.0.4", 22, CompletableFuture.failedFuture(new SocketTimeoutException("no route")));
+    _connect("10.0.0.5", 80, CompletableFuture.completedFuture(-1F));
+
+    service.sweep(List.of(SubnetRange.parse("10.0.0.0/29")));
+
+    Map<String, DiscoveredHost> hosts = _hosts();
+    assertEquals(Set.of("10.0.0.1", "10.0.0.2", "10.0.0.3"), hosts.keySet(), "timed out and unreachable ports do not count");
+    assertEquals(1.5F, hosts.get("10.0.0.1").responseTime);
+    assertEquals(List.of(), hosts.get("10.0.0.2").openPorts, "a refused port proves a live host, but it is not open");
+    assertEquals(-1F, hosts.get("10.0.0.2").responseTime);
+    assertEquals(List.of(80), hosts.get("10.0.0.3").openPorts);
+    assertEquals("host-3", hosts.get("10.0.0.3").hostName);
+
+    DiscoveryEventData last = published.get(published.size() - 1);
+    assertTrue(last.completed);
+    assertEquals(6, last.scanned);
+  }
+
+  @Test
+  void streamsBatchesWhileSweeping()
+  {
+    for (int i = 1; i < 255; i++)
+      pings.put("10.0.1." + i, 1F);
+
+    service.sweep(List.of(SubnetRange.parse("10.0.1.0/24")));
+
+    assertEquals(254, _hosts().size());
+    assertTrue(published.size() >= 254 / 10, "hosts have to be published in batches: " + published.size());
+    for (int i = 0; i < published.size(); i++)
+    {
+      DiscoveryEventData data = published.get(i);
+      assertEquals(i, data.sequence);
+      assertEquals(published.get(0).sweepID, data.sweepID);
+      assertEquals(i == published.size() - 1, data.completed, "only the last batch completes the sweep");
+      assertTrue(data.hosts.size() <= 10 || data.completed, "batch " + i + " exceeds the batch size: " + data.hosts.size());
+    }
+    assertEquals(254, published.get(published.size() - 1).scanned);
+  }
+
+  @Test
+  void flushesTheRemainingHostsWithTheCompletedBatch()
+  {
+    service.batchSize = 1000;
+    pings.put("10.0.2.7", 1F);
+    pings.put("10.0.2.9", 1F);
+
+    service.sweep(List.of(SubnetRange.parse("10.0.2.0/28")));
+
+    assertEquals(1, published.size());
+    assertTrue(published.get(0).completed);
+    assertEquals(Set.of("10.0.2.7", "10.0.2.9"), _hosts().keySet());
+  }
+
+  @Test
+  void sweepsOnlyTheRangesOfItsShard()
+  {
+    ShardAssignment assignment = new ShardAssignment("satellite-1", List.of("satellite-2"));
+    TestShardMemberships.destroy(membership);
+    membership = new ShardMembership()
+    {
+      @NotNull
+      @Override
+      public ShardAssignment getAssignment()
+      {
+        return assignment;
+      }
+    };
+    service.shardMembership = membership;
+
+    List<SubnetRange> ranges = new ArrayList<>();
+    for (int i = 0; i < 20; i++)
+    {
+      ranges.add(SubnetRange.parse("10.0." + (100 + i) + ".0/30"));
+      pings.put("10.0." + (100 + i) + ".1", 1F);
+    }
+    service.sweep(ranges);
+
+    Set<String> expected = ranges.stream()
+        .filter(pRange -> assignment.owns(pRange.toString()))
+        .map(pRange -> pRange.get(0).getHostAddress())
+        .collect(Collectors.toSet());
+    assertTrue(expected.size() > 0 && expected.size() < ranges.size(), "both members have to own some of the ranges: " + expected);
+    assertEquals(expected, _hosts().keySet());
+  }
+
+  private void _connect(@NotNull String pAddress, int pPort, @NotNull CompletableFuture<Float> pResult)
+  {
+    connects.put(new InetSocketAddress(pAddress, pPort), pTarget -> pResult);
+  }
+
+  @NotNull
+  private Map<String, DiscoveredHost> _hosts()
+  {
+    return published.stream()
+        .flatMap(pData -> pData.hosts.stream())
+        .collect(Collectors.toMap(pHost -> pHost.address, pHost -> pHost));
+  }
+
+}
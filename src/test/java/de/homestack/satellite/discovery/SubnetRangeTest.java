@@ -0,0 +1,69 @@
+package de.homestack.satellite.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parsing of the swept ranges and the addresses they contain
+ *
+ * @author agent, 18.10.2026
+ */
+class SubnetRangeTest
+{
+
+  @Test
+  void excludesNetworkAndBroadcastAddress()
+  {
+    SubnetRange range = SubnetRange.parse("192.168.1.0/24");
+
+    assertEquals(254, range.size());
+    assertEquals("192.168.1.1", range.get(0).getHostAddress());
+    assertEquals("192.168.1.254", range.get(253).getHostAddress());
+    assertThrows(IndexOutOfBoundsException.class, () -> range.get(254));
+    assertThrows(IndexOutOfBoundsException.class, () -> range.get(-1));
+  }
+
+  @Test
+  void masksTheHostPartOfTheAddress()
+  {
+    SubnetRange range = SubnetRange.parse(" 10.1.2.77/30 ");
+
+    assertEquals(2, range.size());
+    assertEquals("10.1.2.77", range.get(0).getHostAddress());
+    assertEquals("10.1.2.78", range.get(1).getHostAddress());
+  }
+
+  @Test
+  void keepsAllAddressesOfTinyRanges()
+  {
+    SubnetRange pair = SubnetRange.parse("10.0.0.4/31");
+    assertEquals(2, pair.size());
+    assertEquals("10.0.0.4", pair.get(0).getHostAddress());
+    assertEquals("10.0.0.5", pair.get(1).getHostAddress());
+
+    SubnetRange single = SubnetRange.parse("10.0.0.9");
+    assertEquals(1, single.size());
+    assertEquals("10.0.0.9", single.get(0).getHostAddress());
+  }
+
+  @Test
+  void acceptsRangesUpToASlash8()
+  {
+    SubnetRange range = SubnetRange.parse("10.0.0.0/8");
+
+    assertEquals((1L << 24) - 2, range.size());
+    assertEquals("10.255.255.254", range.get(range.size() - 1).getHostAddress());
+    assertThrows(IllegalArgumentException.class, () -> SubnetRange.parse("10.0.0.0/7"));
+  }
+
+  @Test
+  void rejectsInvalidRanges()
+  {
+    assertThrows(IllegalArgumentException.class, () -> SubnetRange.parse("10.0.0.0/33"));
+    assertThrows(IllegalArgumentException.class, () -> SubnetRange.parse("10.0.0.0/abc"));
+    assertThrows(IllegalArgumentException.class, () -> SubnetRange.parse("10.0.0/24"));
+    assertThrows(IllegalArgumentException.class, () -> SubnetRange.parse("fe80::/64"));
+  }
+
+}
@@ -0,0 +1,57 @@
+package de.homestack.satellite.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Instrumentation for tests, that records into an in-memory registry instead of the one of quarkus
+ *
+ * @author agent, 18.10.2026
+ */
+public class TestInstrumentation
+{
+
+  private TestInstrumentation()
+  {
+  }
+
+  /**
+   * @return a new, initialized instrumentation
+   */
+  @NotNull
+  public static SatelliteInstrumentation create()
+  {
+    SatelliteInstrumentation instrumentation = new SatelliteInstrumentation();
+    instrumentation.registry = new SimpleMeterRegistry();
+    instrumentation.init();
+    return instrumentation;
+  }
+
+  /**
+   * Reads the current value of a gauge
+   *
+   * @param pInstrumentation Instrumentation, the gauge was registered with
+   * @param pName            Name of the gauge, without the prefix of the satellite
+   * @return the value
+   */
+  public static double gauge(@NotNull SatelliteInstrumentation pInstrumentation, @NotNull String pName)
+  {
+    return pInstrumentation.registry.get("satellite." + pName).gauge().value();
+  }
+
+  /**
+   * Reads the current value of a counter
+   *
+   * @param pInstrumentation Instrumentation, the counter was registered with
+   * @param pName            Name of the counter, without the prefix of the satellite
+   * @param pTags            Tags of the counter, as key value pairs
+   * @return the value, 0 if the counter was not registered yet
+   */
+  public static double count(@NotNull SatelliteInstrumentation pInstrumentation, @NotNull String pName, @NotNull String... pTags)
+  {
+    Counter counter = pInstrumentation.registry.find("satellite." + pName).tags(pTags).counter();
+    return counter == null ? 0 : counter.count();
+  }
+
+}
@@ -0,0 +1,103 @@
+package de.homestack.satellite.metrics;
+
+import de.homestack.satellite.metrics.api.SimpleMetricRecord;
+import de.homestack.satellite.metrics.execution.*;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Change-only reporting: the deadband applies to the configured measurements only
+ *
+ * @author agent, 18.10.2026
+ */
+class MetricChangeFilterTest
+{
+  private MetricChangeFilter filter;
+
+  @BeforeEach
+  void setUp()
+  {
+    filter = new MetricChangeFilter();
+    filter.changesOnly = true;
+    filter.defaultDeadband = 5;
+    filter.defaultDeadbandKeys = "responseTime";
+    filter.keyframeSeconds = 300;
+  }
+
+  @Test
+  void suppressesMeasurementsWithinDeadband()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of());
+
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    assertFalse(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 14)));
+    assertFalse(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 6)));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 16)));
+  }
+
+  @Test
+  void reportsAnyChangeOfOtherNumericResults()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of());
+
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 10).withResult("status", "200")));
+    assertFalse(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 12).withResult("status", "200")));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 12).withResult("status", "201")));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 12).withResult("status", "202")));
+  }
+
+  @Test
+  void readsDeadbandKeysFromPreferences()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of("deadband", "1", "deadbandKeys", "connect, ttfb"));
+
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("connect", 3).withResult("ttfb", 4).withResult("responseTime", 10)));
+    assertFalse(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("connect", 3.5).withResult("ttfb", 4.5).withResult("responseTime", 10)));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("connect", 3.5).withResult("ttfb", 4.5).withResult("responseTime", 10.5)));
+  }
+
+  @Test
+  void appliesDeadbandToAggregatedStatistics()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of());
+
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("samples", "4").withResult("responseTime.p90", 10)));
+    assertFalse(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("samples", "4").withResult("responseTime.p90", 13)));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("samples", "3").withResult("responseTime.p90", 13)));
+  }
+
+  @Test
+  void reportsStateChangesAndForgottenMetrics()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of());
+
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.FAILURE).withResult("responseTime", 10)));
+    assertFalse(filter.shouldReport(execution, _record(EMetricRecordState.FAILURE).withResult("responseTime", 10)));
+
+    filter.forget("metric-1");
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.FAILURE).withResult("responseTime", 10)));
+  }
+
+  @Test
+  void reportsEverythingWithoutChangesOnly()
+  {
+    filter.changesOnly = false;
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of());
+
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    assertTrue(filter.shouldReport(execution, _record(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+  }
+
+  @NotNull
+  private static SimpleMetricRecord _record(@NotNull EMetricRecordState pState)
+  {
+    return new SimpleMetricRecord(pState);
+  }
+
+}
@@ -0,0 +1,101 @@
+package de.homestack.satellite.metrics.aggregation;
+
+import de.homestack.satellite.metrics.api.*;
+import de.homestack.satellite.metrics.execution.*;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aggregation is opt-in per metric or type and summarizes a window into a single record
+ *
+ * @author agent, 18.10.2026
+ */
+class MetricWindowAggregatorTest
+{
+  private MetricWindowAggregator aggregator;
+  private final List<IMetricRecord> summaries = new ArrayList<>();
+
+  @BeforeEach
+  void setUp()
+  {
+    aggregator = new MetricWindowAggregator();
+    aggregator.windowSeconds = 60;
+    aggregator.types = Optional.empty();
+    aggregator.init();
+    aggregator.setConsumer((pExecution, pRecord) -> summaries.add(pRecord));
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    aggregator.destroy();
+  }
+
+  @Test
+  void passesRecordsOfMetricsWithoutOptIn()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of("interval", "5"));
+
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    aggregator.forget("metric-1");
+    assertTrue(summaries.isEmpty());
+  }
+
+  @Test
+  void aggregatesMetricsOfConfiguredTypes()
+  {
+    aggregator.destroy();
+    aggregator.types = Optional.of("Test, ping");
+    aggregator.init();
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of("interval", "5"));
+
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    assertTrue(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", 20)));
+    aggregator.forget("metric-1");
+
+    assertEquals(1, summaries.size());
+    assertEquals("2", summaries.get(0).getResult().get("samples"));
+    assertEquals(15, Double.parseDouble(summaries.get(0).getResult().get("responseTime")), 0.001);
+  }
+
+  @Test
+  void summarizesWindowOfMetricsWithPreference()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of("interval", "1", "aggregate", "rtt"));
+
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("rtt", 1).withResult("host", "a")));
+    for (int i = 2; i <= 10; i++)
+      assertTrue(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("rtt", i).withResult("host", "b")));
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.FAILURE).withResult("rtt", -1)), "state changes pass through");
+    aggregator.forget("metric-1");
+
+    assertEquals(1, summaries.size());
+    IMetricRecord summary = summaries.get(0);
+    Map<String, String> result = summary.getResult();
+    assertEquals(EMetricRecordState.FAILURE, summary.getState());
+    assertEquals("11", result.get("samples"));
+    assertEquals("10", result.get("samples.success"));
+    assertEquals("1", result.get("samples.failure"));
+    assertEquals("1", result.get("transitions"));
+    assertEquals("b", result.get("host"));
+    assertEquals(5.5, Double.parseDouble(result.get("rtt")), 0.001);
+    assertEquals(1, Double.parseDouble(result.get("rtt.min")), 0.001);
+    assertEquals(10, Double.parseDouble(result.get("rtt.max")), 0.001);
+    assertEquals(5.5, Double.parseDouble(result.get("rtt.p50")), 1);
+  }
+
+  @Test
+  void passesRecordsOfMetricsWithLongIntervals()
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of("interval", "60", "aggregate", "responseTime"));
+
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+    assertFalse(aggregator.aggregate(execution, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", 10)));
+  }
+
+}
@@ -0,0 +1,106 @@
+package de.homestack.satellite.metrics.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Format and ordering of the generated record ids
+ *
+ * @author agent, 18.10.2026
+ */
+class RecordIDsTest
+{
+  private static final long _YEAR_2040 = 2_208_988_800_000L; // beyond 2^41 milliseconds, where the former timestamp overflowed
+  private static final long _YEAR_3000 = 32_503_680_000_000L;
+
+  @Test
+  void formatsVersion7UUIDs()
+  {
+    String id = RecordIDs.next();
+
+    assertEquals(id, UUID.fromString(id).toString());
+    assertEquals(7, UUID.fromString(id).version());
+    assertEquals(2, UUID.fromString(id).variant());
+    assertTrue(Math.abs(_timestamp(id) - System.currentTimeMillis()) < 10_000);
+  }
+
+  @Test
+  void keepsTheTimestampBeyondYear2039()
+  {
+    RecordIDs.Generator generator = new RecordIDs.Generator();
+
+    assertEquals(_YEAR_2040, _timestamp(generator.next(_YEAR_2040)));
+    assertEquals(_YEAR_3000, _timestamp(generator.next(_YEAR_3000)));
+  }
+
+  @Test
+  void increasesWithinTheSameMillisecondAndIfTheClockGoesBack()
+  {
+    RecordIDs.Generator generator = new RecordIDs.Generator();
+    String previous = generator.next(_YEAR_2040 + 1000);
+    for (int i = 0; i < 10_000; i++)
+    {
+      String id = generator.next(i % 2 == 0 ? _YEAR_2040 + 1000 : _YEAR_2040 - 5000);
+      assertTrue(id.compareTo(previous) > 0, id + " is not greater than " + previous);
+      assertEquals(_YEAR_2040 + 1000, _timestamp(id));
+      previous = id;
+    }
+  }
+
+  @Test
+  void runsAheadIfTheCounterOverflows()
+  {
+    RecordIDs.Generator generator = new RecordIDs.Generator();
+    String last = null;
+    for (long i = 0; i <= RecordIDs.Generator.COUNTER_MASK + 1; i++)
+      last = generator.next(_YEAR_2040);
+
+    assertEquals(_YEAR_2040 + 1, _timestamp(last));
+    assertTrue(generator.next(_YEAR_2040 + 1).compareTo(last) > 0);
+  }
+
+  @Test
+  void generatesUniqueIdsConcurrently() throws Exception
+  {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try
+    {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++)
+        futures.add(executor.submit(() -> {
+          List<String> ids = new ArrayList<>();
+          for (int j = 0; j < 10_000; j++)
+            ids.add(RecordIDs.next());
+          return ids;
+        }));
+
+      Set<String> unique = new HashSet<>();
+      for (Future<List<String>> future : futures)
+      {
+        List<String> ids = future.get(30, TimeUnit.SECONDS);
+        for (int i = 1; i < ids.size(); i++)
+          assertTrue(ids.get(i).compareTo(ids.get(i - 1)) > 0);
+        unique.addAll(ids);
+      }
+      assertEquals(80_000, unique.size());
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * @return the unix time in milliseconds, that is stored in the first 48 bits of the given id
+   */
+  private static long _timestamp(@NotNull String pID)
+  {
+    return Long.parseLong(pID.substring(0, 8) + pID.substring(9, 13), 16);
+  }
+
+}
@@ -0,0 +1,161 @@
+package de.homestack.satellite.metrics.execution;
+
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.metrics.api.SimpleMetricRecord;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.*;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Backoff, flapping and token buckets of the probe policy, driven by a simulated clock
+ *
+ * @author agent, 18.10.2026
+ */
+class AdaptiveProbePolicyTest
+{
+  private AdaptiveProbePolicy policy;
+
+  @BeforeEach
+  void setUp()
+  {
+    policy = new AdaptiveProbePolicy();
+    policy.adaptive = true;
+    policy.backoffThreshold = 3;
+    policy.maxBackoffSeconds = 60;
+    policy.flapThreshold = 4;
+    policy.flapFactor = 4;
+    policy.networkRate = 10;
+    policy.networkBurst = 2;
+    policy.networkPrefix = 24;
+    policy.instrumentation = TestInstrumentation.create();
+    policy.init();
+  }
+
+  @Test
+  void backsOffFailingMetricsExponentially()
+  {
+    MetricExecution execution = _create("metric-1", "10.0.0.1", 10);
+
+    assertNull(_onResult(execution, EMetricRecordState.FAILURE));
+    assertNull(_onResult(execution, EMetricRecordState.FAILURE));
+    assertEquals(Duration.ofSeconds(20), _onResult(execution, EMetricRecordState.FAILURE));
+    assertEquals(Duration.ofSeconds(40), _onResult(execution, EMetricRecordState.FAILURE));
+    assertEquals(Duration.ofSeconds(60), _onResult(execution, EMetricRecordState.FAILURE));
+    assertNull(_onResult(execution, EMetricRecordState.FAILURE), "the interval stays at its maximum");
+    assertEquals(1, _gauge("probe.backoff"));
+
+    assertEquals(Duration.ofSeconds(10), _onResult(execution, EMetricRecordState.SUCCESS));
+    assertEquals(0, _gauge("probe.backoff"));
+  }
+
+  @Test
+  void probesFlappingMetricsFaster()
+  {
+    MetricExecution execution = _create("metric-1", "10.0.0.1", 20);
+
+    assertNull(_onResult(execution, EMetricRecordState.SUCCESS));
+    assertNull(_onResult(execution, EMetricRecordState.WARNING));
+    assertNull(_onResult(execution, EMetricRecordState.SUCCESS));
+    assertNull(_onResult(execution, EMetricRecordState.WARNING));
+    assertEquals(Duration.ofSeconds(5), _onResult(execution, EMetricRecordState.SUCCESS));
+    assertEquals(1, _gauge("probe.flapping"));
+
+    // settles, as soon as the transitions dropped out of the window of the last 16 results
+    Duration interval = null;
+    for (int i = 0; i < 16 && interval == null; i++)
+      interval = _onResult(execution, EMetricRecordState.SUCCESS);
+    assertEquals(Duration.ofSeconds(20), interval);
+    assertEquals(0, _gauge("probe.flapping"));
+  }
+
+  @Test
+  void defersProbesBeyondTheBurstOfTheirNetwork()
+  {
+    MetricExecution first = _create("metric-1", "10.0.0.1", 10);
+    MetricExecution second = _create("metric-2", "10.0.0.2", 10);
+    MetricExecution third = _create("metric-3", "10.0.0.3", 10);
+    MetricExecution otherNetwork = _create("metric-4", "10.0.1.1", 10);
+
+    assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(first, 0));
+    assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(second, 0));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.admit(third, 0));
+    assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(otherNetwork, 0));
+
+    // the deferred execution is admitted with its reserved token, while the bucket refills over time
+    assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(third, TimeUnit.MILLISECONDS.toNanos(100)));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.admit(first, TimeUnit.MILLISECONDS.toNanos(100)));
+    assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(second, TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  @Test
+  void doesNotLimitLoopbackOrWithoutRate()
+  {
+    MetricExecution loopback = _create("metric-1", "127.0.0.1", 10);
+    for (int i = 0; i < 10; i++)
+      assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(loopback, 0));
+
+    policy.networkRate = 0;
+    MetricExecution unlimited = _create("metric-2", "10.0.0.1", 10);
+    for (int i = 0; i < 10; i++)
+      assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(unlimited, 0));
+    assertEquals(0, _gauge("probe.networks"));
+  }
+
+  @Test
+  void dropsBucketsWithTheLastMetricOfTheirNetwork()
+  {
+    policy.admit(_create("metric-1", "10.0.0.1", 10), 0);
+    policy.admit(_create("metric-2", "10.0.0.1", 10), 0);
+    policy.admit(_create("metric-3", "10.0.0.2", 10), 0);
+    policy.admit(_create("metric-4", "10.0.1.1", 10), 0);
+    assertEquals(2, _gauge("probe.networks"));
+
+    policy.forget("metric-1");
+    policy.forget("metric-4");
+    assertEquals(1, _gauge("probe.networks"));
+    policy.forget("metric-2");
+    assertEquals(1, _gauge("probe.networks"));
+    policy.forget("metric-3");
+    assertEquals(0, _gauge("probe.networks"));
+
+    // the bucket starts fresh, once the network gets probed again
+    MetricExecution execution = _create("metric-5", "10.0.0.1", 10);
+    assertEquals(AdaptiveProbePolicy.ADMIT, policy.admit(execution, 0));
+    assertEquals(1, _gauge("probe.networks"));
+  }
+
+  @Test
+  void movesMetricsToTheBucketOfTheirNewAddress()
+  {
+    policy.admit(_create("metric-1", "10.0.0.1", 10), 0);
+    policy.admit(_create("metric-1", "10.0.2.1", 10), 0);
+    assertEquals(1, _gauge("probe.networks"));
+
+    policy.admit(_create("metric-1", "127.0.0.1", 10), 0);
+    assertEquals(0, _gauge("probe.networks"));
+  }
+
+  @NotNull
+  private static MetricExecution _create(@NotNull String pMetricID, @NotNull String pAddress, int pIntervalSeconds)
+  {
+    return TestExecutions.create(pMetricID, pAddress, Map.of("interval", Integer.toString(pIntervalSeconds)));
+  }
+
+  @Nullable
+  private Duration _onResult(@NotNull MetricExecution pExecution, @NotNull EMetricRecordState pState)
+  {
+    return policy.onResult(pExecution, new SimpleMetricRecord(pState));
+  }
+
+  private double _gauge(@NotNull String pName)
+  {
+    return TestInstrumentation.gauge(policy.instrumentation, pName);
+  }
+
+}
@@ -0,0 +1,188 @@
+package de.homestack.satellite.metrics.execution;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Expiry and retries of resolved device addresses, with a simulated clock and a simulated system resolver
+ *
+ * @author agent, 18.10.2026
+ */
+class AddressResolverTest
+{
+  private _SimulatedResolver resolver;
+
+  @BeforeEach
+  void setUp()
+  {
+    resolver = new _SimulatedResolver();
+    resolver.ttlSeconds = 300;
+    resolver.negativeTtlSeconds = 30;
+    resolver.threads = 1;
+    resolver.init();
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    resolver.destroy();
+  }
+
+  @Test
+  void parsesLiteralsWithoutLookup() throws Exception
+  {
+    DeviceAddress address = resolver.create("192.168.1.10");
+
+    assertEquals(InetAddress.getByName("192.168.1.10"), address.getCurrent());
+    resolver.time += TimeUnit.DAYS.toNanos(1);
+    assertEquals(InetAddress.getByName("192.168.1.10"), address.get().get(1, TimeUnit.SECONDS));
+    assertTrue(resolver.lookups.isEmpty());
+    assertNull(resolver.create(null).get().get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void looksUpHostNamesInBackground() throws Exception
+  {
+    resolver.answers.put("nas.local", InetAddress.getByName("10.0.0.1"));
+    DeviceAddress address = resolver.create("nas.local");
+
+    assertEquals(InetAddress.getByName("10.0.0.1"), address.get().get(1, TimeUnit.SECONDS));
+    assertEquals(1, resolver.lookups.size());
+    assertNotEquals(Thread.currentThread().getName(), resolver.lookupThreads.get(0));
+  }
+
+  @Test
+  void looksUpAgainAfterTtl() throws Exception
+  {
+    resolver.answers.put("nas.local", InetAddress.getByName("10.0.0.1"));
+    DeviceAddress address = resolver.create("nas.local");
+    address.get().get(1, TimeUnit.SECONDS);
+
+    // within the ttl, nothing is looked up
+    resolver.time += TimeUnit.SECONDS.toNanos(299);
+    address.get().get(1, TimeUnit.SECONDS);
+    assertEquals(1, resolver.lookups.size());
+
+    // after the ttl, the old address is returned while the new one gets looked up
+    resolver.answers.put("nas.local", InetAddress.getByName("10.0.0.2"));
+    resolver.time += TimeUnit.SECONDS.toNanos(2);
+    assertEquals(InetAddress.getByName("10.0.0.1"), address.get().get(1, TimeUnit.SECONDS));
+    _awaitLookups(2);
+    _awaitAddress(address, InetAddress.getByName("10.0.0.2"));
+  }
+
+  @Test
+  void retriesFailedLookups() throws Exception
+  {
+    DeviceAddress address = resolver.create("printer.local");
+    assertNull(address.get().get(1, TimeUnit.SECONDS));
+
+    // failures are not retried before the negative ttl
+    resolver.answers.put("printer.local", InetAddress.getByName("10.0.0.3"));
+    assertNull(address.get().get(1, TimeUnit.SECONDS));
+    assertEquals(1, resolver.lookups.size());
+
+    resolver.time += TimeUnit.SECONDS.toNanos(31);
+    assertEquals(InetAddress.getByName("10.0.0.3"), address.get().get(1, TimeUnit.SECONDS));
+    assertEquals(2, resolver.lookups.size());
+  }
+
+  @Test
+  void keepsAddressIfLookupFails() throws Exception
+  {
+    resolver.answers.put("nas.local", InetAddress.getByName("10.0.0.1"));
+    DeviceAddress address = resolver.create("nas.local");
+    address.get().get(1, TimeUnit.SECONDS);
+
+    resolver.answers.clear();
+    resolver.time += TimeUnit.SECONDS.toNanos(301);
+    assertEquals(InetAddress.getByName("10.0.0.1"), address.get().get(1, TimeUnit.SECONDS));
+    _awaitLookups(2);
+    assertEquals(InetAddress.getByName("10.0.0.1"), address.getCurrent());
+
+    // the next lookup is due after the negative ttl, not after the full ttl
+    resolver.answers.put("nas.local", InetAddress.getByName("10.0.0.2"));
+    resolver.time += TimeUnit.SECONDS.toNanos(31);
+    address.get();
+    _awaitAddress(address, InetAddress.getByName("10.0.0.2"));
+  }
+
+  @Test
+  void sharesRunningLookup() throws Exception
+  {
+    CountDownLatch release = new CountDownLatch(1);
+    resolver.latch = release;
+    resolver.answers.put("nas.local", InetAddress.getByName("10.0.0.1"));
+    DeviceAddress address = resolver.create("nas.local");
+
+    List<CompletableFuture<InetAddress>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++)
+      futures.add(address.get());
+    release.countDown();
+
+    for (CompletableFuture<InetAddress> future : futures)
+      assertEquals(InetAddress.getByName("10.0.0.1"), future.get(1, TimeUnit.SECONDS));
+    assertEquals(1, resolver.lookups.size());
+  }
+
+  private void _awaitLookups(int pCount) throws InterruptedException
+  {
+    for (int i = 0; i < 100 && resolver.lookups.size() < pCount; i++)
+      Thread.sleep(10);
+    assertEquals(pCount, resolver.lookups.size());
+  }
+
+  private static void _awaitAddress(@NotNull DeviceAddress pAddress, @NotNull InetAddress pExpected) throws InterruptedException
+  {
+    for (int i = 0; i < 100 && !pExpected.equals(pAddress.getCurrent()); i++)
+      Thread.sleep(10);
+    assertEquals(pExpected, pAddress.getCurrent());
+  }
+
+  /**
+   * Resolver with a clock that only moves if the test moves it, that answers lookups from a map
+   */
+  private static class _SimulatedResolver extends AddressResolver
+  {
+    private final Map<String, InetAddress> answers = new ConcurrentHashMap<>();
+    private final List<String> lookups = new CopyOnWriteArrayList<>();
+    private final List<String> lookupThreads = new CopyOnWriteArrayList<>();
+    private volatile long time = 0;
+    private volatile CountDownLatch latch;
+
+    @NotNull
+    @Override
+    InetAddress lookup(@NotNull String pHost) throws UnknownHostException
+    {
+      lookups.add(pHost);
+      lookupThreads.add(Thread.currentThread().getName());
+      try
+      {
+        if (latch != null)
+          latch.await();
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+
+      InetAddress address = answers.get(pHost);
+      if (address == null)
+        throw new UnknownHostException(pHost);
+      return address;
+    }
+
+    @Override
+    long now()
+    {
+      return time;
+    }
+  }
+
+}
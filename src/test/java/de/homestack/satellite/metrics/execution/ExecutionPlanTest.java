@@ -0,0 +1,163 @@
+package de.homestack.satellite.metrics.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.config.ConfigDiff;
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.*;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Incremental patches of the execution plan, that only compile the affected metrics again
+ *
+ * @author agent, 18.10.2026
+ */
+class ExecutionPlanTest
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+  private static final Map<String, IMetricExecutor> _EXECUTORS = Map.of("test", new _TestExecutor());
+
+  private final AddressResolver resolver = new AddressResolver();
+  private ExecutionPlan plan;
+
+  @BeforeEach
+  void setUp()
+  {
+    plan = new ExecutionPlan();
+    ExecutionPlan.Patch patch = _patch(Map.of("device-1", _device("device-1", "10.0.0.1"), "device-2", _device("device-2", "10.0.0.2")), Map.of(), Set.of(),
+                                       Map.of("metric-1", _metric("metric-1", "device-1", "test", "10"),
+                                              "metric-2", _metric("metric-2", "device-1", "test", "20"),
+                                              "metric-3", _metric("metric-3", "device-2", "test", "30")), Map.of(), Set.of());
+    assertEquals(Set.of("metric-1", "metric-2", "metric-3"), patch.getUpserted().keySet());
+    assertEquals(Set.of(), patch.getRemoved());
+  }
+
+  @Test
+  void compilesMetricsWithTheirDevice()
+  {
+    MetricExecution execution = _upsert(_metric("metric-4", "device-2", "test", "5")).getUpserted().get("metric-4");
+
+    assertEquals("device-2", execution.getDevice().id);
+    assertEquals("10.0.0.2", execution.getAddress().getHostAddress());
+    assertEquals(Duration.ofSeconds(5), execution.getInterval());
+  }
+
+  @Test
+  void compilesOnlyTheMetricsOfChangedDevices()
+  {
+    ExecutionPlan.Patch patch = _patch(Map.of(), Map.of("device-1", _device("device-1", "10.0.0.11")), Set.of(), Map.of(), Map.of(), Set.of());
+
+    assertEquals(Set.of("metric-1", "metric-2"), patch.getUpserted().keySet());
+    assertEquals("10.0.0.11", patch.getUpserted().get("metric-1").getAddress().getHostAddress());
+  }
+
+  @Test
+  void removesMetricsOfRemovedDevices()
+  {
+    ExecutionPlan.Patch patch = _patch(Map.of(), Map.of(), Set.of("device-1"), Map.of(), Map.of(), Set.of());
+
+    assertEquals(Set.of("metric-1", "metric-2"), patch.getRemoved());
+    assertEquals(Map.of(), patch.getUpserted());
+
+    // the metrics come back with their device
+    patch = _patch(Map.of("device-1", _device("device-1", "10.0.0.1")), Map.of(), Set.of(), Map.of(), Map.of(), Set.of());
+    assertEquals(Set.of("metric-1", "metric-2"), patch.getUpserted().keySet());
+  }
+
+  @Test
+  void movesMetricsBetweenDevices()
+  {
+    _upsert(_metric("metric-1", "device-2", "test", "10"));
+
+    ExecutionPlan.Patch patch = _patch(Map.of(), Map.of(), Set.of("device-1"), Map.of(), Map.of(), Set.of());
+    assertEquals(Set.of("metric-2"), patch.getRemoved());
+
+    patch = _patch(Map.of(), Map.of("device-2", _device("device-2", "10.0.0.12")), Set.of(), Map.of(), Map.of(), Set.of());
+    assertEquals(Set.of("metric-1", "metric-3"), patch.getUpserted().keySet());
+  }
+
+  @Test
+  void removesMetricsThatCanNotBeExecutedAnymore()
+  {
+    ExecutionPlan.Patch patch = _upsert(_metric("metric-1", "device-1", "unknown", "10"));
+    assertEquals(Set.of("metric-1"), patch.getRemoved());
+
+    patch = _patch(Map.of(), Map.of(), Set.of(), Map.of(), Map.of(), Set.of("metric-1", "metric-2"));
+    assertEquals(Set.of("metric-2"), patch.getRemoved(), "metric-1 was not executable anymore");
+  }
+
+  @Test
+  void containsOnlyTheCurrentExecutionOfAMetric()
+  {
+    MetricExecution first = _upsert(_metric("metric-4", "device-2", "test", "5")).getUpserted().get("metric-4");
+    assertTrue(plan.contains(first));
+
+    MetricExecution second = _upsert(_metric("metric-4", "device-2", "test", "6")).getUpserted().get("metric-4");
+    assertFalse(plan.contains(first), "results of the previous execution must not be handled anymore");
+    assertTrue(plan.contains(second));
+
+    _patch(Map.of(), Map.of(), Set.of(), Map.of(), Map.of(), Set.of("metric-4"));
+    assertFalse(plan.contains(second));
+  }
+
+  @NotNull
+  private ExecutionPlan.Patch _upsert(@NotNull MetricDataModel pMetric)
+  {
+    return _patch(Map.of(), Map.of(), Set.of(), Map.of(), Map.of(pMetric.id, pMetric), Set.of());
+  }
+
+  @NotNull
+  private ExecutionPlan.Patch _patch(@NotNull Map<String, DeviceDataModel> pAddedDevices, @NotNull Map<String, DeviceDataModel> pChangedDevices,
+                                     @NotNull Set<String> pRemovedDevices, @NotNull Map<String, MetricDataModel> pAddedMetrics,
+                                     @NotNull Map<String, MetricDataModel> pChangedMetrics, @NotNull Set<String> pRemovedMetrics)
+  {
+    return plan.patch(new ConfigDiff(pAddedDevices, pChangedDevices, pRemovedDevices, pAddedMetrics, pChangedMetrics, pRemovedMetrics),
+                      _EXECUTORS, resolver);
+  }
+
+  @NotNull
+  private static DeviceDataModel _device(@NotNull String pID, @NotNull String pAddress)
+  {
+    return _MAPPER.convertValue(Map.of("id", pID, "address", pAddress), DeviceDataModel.class);
+  }
+
+  @NotNull
+  private static MetricDataModel _metric(@NotNull String pID, @NotNull String pDeviceID, @NotNull String pType, @NotNull String pInterval)
+  {
+    return _MAPPER.convertValue(Map.of("id", pID, "deviceID", pDeviceID, "type", pType,
+                                       "settings", Map.of("interval", pInterval)), MetricDataModel.class);
+  }
+
+  /**
+   * Executor of the metric type "test", that is never executed by these tests
+   */
+  private static class _TestExecutor implements IMetricExecutor
+  {
+    @NotNull
+    @Override
+    public String getType()
+    {
+      return "test";
+    }
+
+    @Override
+    public boolean canExecute()
+    {
+      return true;
+    }
+
+    @NotNull
+    @Override
+    public IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences)
+    {
+      return new SimpleMetricRecord(EMetricRecordState.UNKNOWN);
+    }
+  }
+
+}
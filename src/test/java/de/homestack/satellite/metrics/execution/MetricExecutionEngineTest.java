@@ -0,0 +1,354 @@
+package de.homestack.satellite.metrics.execution;
+
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.*;
+import org.junit.jupiter.api.*;
+
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency limits, deadlines and overrun policies of the execution engine, driven by executors whose probes complete on demand
+ *
+ * @author agent, 18.10.2026
+ */
+class MetricExecutionEngineTest
+{
+  private final List<String> postponed = new CopyOnWriteArrayList<>();
+  private final Map<String, IMetricRecord> records = new ConcurrentHashMap<>();
+  private MetricExecutionEngine engine;
+
+  @BeforeEach
+  void setUp()
+  {
+    engine = new MetricExecutionEngine();
+    engine.maxConcurrency = 1024;
+    engine.maxConcurrencyPerType = 512;
+    engine.eventLoopThreads = 2;
+    engine.blockingThreads = 2;
+    engine.deadlineMillis = 0;
+    engine.cycleDeadlineMillis = 0;
+    engine.overrun = "skip";
+    engine.instrumentation = TestInstrumentation.create();
+    engine.scheduler = new MetricScheduler()
+    {
+      @Override
+      public synchronized boolean postpone(@NotNull String pKey, @NotNull MetricExecution pExecution)
+      {
+        postponed.add(pKey);
+        return true;
+      }
+    };
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    engine.destroy();
+  }
+
+  @Test
+  void limitsConcurrentExecutionsGlobally() throws Exception
+  {
+    engine.maxConcurrency = 4;
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+
+    CompletableFuture<ExecutionCycleResult> cycle = _execute(_create("ping", 12, executor));
+    _await(() -> executor.getStartedCount() == 4);
+    Thread.sleep(100);
+    assertEquals(4, executor.getStartedCount(), "no further execution may start, until a slot is free");
+    assertEquals(4, engine.getRunningCount());
+    assertEquals(8, engine.getPendingCount());
+
+    _await(() -> executor.completeStarted() && cycle.isDone());
+    assertEquals(12, cycle.get().getExecutionCount());
+    assertEquals(0, cycle.get().getFailureCount());
+    assertEquals(12, executor.getStartedCount());
+    assertEquals(4, executor.getMaxRunningCount());
+    assertEquals(12, records.size());
+  }
+
+  @Test
+  void limitsConcurrentExecutionsPerType() throws Exception
+  {
+    engine.maxConcurrency = 100;
+    engine.maxConcurrencyPerType = 3;
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+
+    CompletableFuture<ExecutionCycleResult> cycle = _execute(_create("ping", 10, executor));
+    _await(() -> executor.getStartedCount() == 3);
+    Thread.sleep(100);
+    assertEquals(3, executor.getStartedCount(), "the type already uses all of its slots");
+    assertEquals(7, engine.getPendingCount());
+
+    _await(() -> executor.completeStarted() && cycle.isDone());
+    assertEquals(10, executor.getStartedCount());
+    assertEquals(3, executor.getMaxRunningCount());
+    assertEquals(10, records.size());
+  }
+
+  @Test
+  void doesNotStarveOtherTypes() throws Exception
+  {
+    engine.maxConcurrency = 4;
+    engine.maxConcurrencyPerType = 3;
+    engine.init();
+    _PendingExecutor slow = new _PendingExecutor("ping");
+    _PendingExecutor fast = new _PendingExecutor("tcp");
+
+    // the saturated type is queued first, so it would take all slots without the limit per type
+    List<MetricExecution> executions = new ArrayList<>(_create("ping", 10, slow));
+    executions.addAll(_create("tcp", 5, fast));
+    CompletableFuture<ExecutionCycleResult> cycle = _execute(executions);
+
+    _await(() -> fast.completeStarted() && records.size() == 5);
+    assertEquals(3, slow.getStartedCount(), "the saturated type keeps its slots, while the other type completes");
+    assertFalse(cycle.isDone());
+
+    _await(() -> slow.completeStarted() && cycle.isDone());
+    assertEquals(15, cycle.get().getExecutionCount());
+    assertEquals(3, slow.getMaxRunningCount());
+    assertEquals(15, records.size());
+  }
+
+  @Test
+  void cancelsExecutionsAtTheirDeadline() throws Exception
+  {
+    engine.deadlineMillis = 100;
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+
+    ExecutionCycleResult result = _execute(List.of(TestExecutions.create("metric-1", "10.0.0.1", Map.of(), executor))).get(10, TimeUnit.SECONDS);
+
+    assertEquals(1, result.getTimedOutCount());
+    assertEquals(1, result.getFailureCount());
+    assertTrue(executor.getProbe(0).isCancelled(), "the probe of the executor has to be stopped");
+    assertEquals(EMetricRecordState.FAILURE, records.get("metric-1").getState());
+    assertEquals("deadline", records.get("metric-1").getResult().get("error"));
+    assertEquals(1, TestInstrumentation.count(engine.instrumentation, "execution.deadline.exceeded", "type", "ping"));
+    assertEquals(0, engine.getRunningCount());
+  }
+
+  @Test
+  void dropsWaitingExecutionsAtTheCycleDeadline() throws Exception
+  {
+    engine.maxConcurrency = 1;
+    engine.cycleDeadlineMillis = 200;
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+
+    ExecutionCycleResult result = _execute(List.of(TestExecutions.create("metric-1", "10.0.0.1", Map.of(), executor),
+                                                   TestExecutions.create("metric-2", "10.0.0.2", Map.of(), executor),
+                                                   TestExecutions.create("metric-3", "10.0.0.3", Map.of(), executor)))
+        .get(10, TimeUnit.SECONDS);
+
+    assertEquals(1, executor.getStartedCount(), "only a single execution fits into the concurrency limit");
+    assertTrue(executor.getProbe(0).isCancelled());
+    assertEquals(3, result.getTimedOutCount());
+    assertEquals(3, result.getFailureCount());
+    assertEquals(Set.of("metric-1", "metric-2", "metric-3"), records.keySet());
+    records.values().forEach(pRecord -> assertEquals("deadline", pRecord.getResult().get("error")));
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  @Test
+  void skipsExecutionsThatAreStillRunning() throws Exception
+  {
+    engine.overrun = "skip";
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of(), executor);
+
+    CompletableFuture<ExecutionCycleResult> first = _execute(List.of(execution));
+    ExecutionCycleResult second = _execute(List.of(execution)).get(10, TimeUnit.SECONDS);
+    assertEquals(0, second.getExecutionCount());
+    assertEquals(1, second.getSkippedCount());
+
+    executor.complete(0);
+    assertEquals(1, first.get(10, TimeUnit.SECONDS).getExecutionCount());
+    assertEquals(1, executor.getStartedCount());
+    assertEquals(List.of(), postponed);
+    assertEquals(1, TestInstrumentation.count(engine.instrumentation, "execution.overruns", "policy", "skip"));
+  }
+
+  @Test
+  void shiftsTheScheduleOfExecutionsThatAreStillRunning() throws Exception
+  {
+    engine.overrun = "shift";
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of(), executor);
+
+    CompletableFuture<ExecutionCycleResult> first = _execute(List.of(execution));
+    ExecutionCycleResult second = _execute(List.of(execution)).get(10, TimeUnit.SECONDS);
+    assertEquals(0, second.getExecutionCount());
+    assertEquals(1, second.getSkippedCount());
+    assertEquals(List.of(), postponed, "the schedule is shifted, when the running execution finished");
+
+    executor.complete(0);
+    first.get(10, TimeUnit.SECONDS);
+    _await(() -> postponed.size() == 1);
+    assertEquals(List.of("metric-1"), postponed);
+    assertEquals(1, executor.getStartedCount());
+    assertEquals(1, TestInstrumentation.count(engine.instrumentation, "execution.overruns", "policy", "shift"));
+  }
+
+  @Test
+  void catchesUpExecutionsThatAreStillRunning() throws Exception
+  {
+    engine.overrun = "catch-up";
+    engine.init();
+    _PendingExecutor executor = new _PendingExecutor("ping");
+    MetricExecution execution = TestExecutions.create("metric-1", "10.0.0.1", Map.of(), executor);
+
+    CompletableFuture<ExecutionCycleResult> first = _execute(List.of(execution));
+    CompletableFuture<ExecutionCycleResult> second = _execute(List.of(execution));
+    ExecutionCycleResult third = _execute(List.of(execution)).get(10, TimeUnit.SECONDS);
+    assertEquals(0, third.getExecutionCount());
+    assertEquals(1, third.getSkippedCount(), "only a single execution catches up");
+
+    executor.complete(0);
+    assertEquals(1, first.get(10, TimeUnit.SECONDS).getExecutionCount());
+    _await(() -> executor.getStartedCount() == 2);
+    assertFalse(second.isDone(), "the deferred execution is still running");
+
+    executor.complete(1);
+    ExecutionCycleResult result = second.get(10, TimeUnit.SECONDS);
+    assertEquals(1, result.getExecutionCount());
+    assertEquals(0, result.getSkippedCount());
+    assertEquals(2, TestInstrumentation.count(engine.instrumentation, "execution.overruns", "policy", "catch-up"));
+  }
+
+  @NotNull
+  private CompletableFuture<ExecutionCycleResult> _execute(@NotNull List<MetricExecution> pExecutions)
+  {
+    return engine.executeCycle(pExecutions, (pExecution, pRecord) -> records.put(pExecution.getMetric().id, pRecord));
+  }
+
+  @NotNull
+  private static List<MetricExecution> _create(@NotNull String pPrefix, int pCount, @NotNull IMetricExecutor pExecutor)
+  {
+    List<MetricExecution> executions = new ArrayList<>();
+    for (int i = 0; i < pCount; i++)
+      executions.add(TestExecutions.create(pPrefix + "-" + i, "10.0.0." + (i + 1), Map.of(), pExecutor));
+    return executions;
+  }
+
+  private static void _await(@NotNull BooleanSupplier pCondition) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!pCondition.getAsBoolean() && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertTrue(pCondition.getAsBoolean());
+  }
+
+  /**
+   * Asynchronous executor, whose probes only complete if the test completes them
+   */
+  private static class _PendingExecutor implements IAsyncMetricExecutor
+  {
+    private final String type;
+    private final List<CompletableFuture<IMetricRecord>> probes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    public _PendingExecutor(@NotNull String pType)
+    {
+      type = pType;
+    }
+
+    @NotNull
+    @Override
+    public String getType()
+    {
+      return type;
+    }
+
+    @Override
+    public boolean canExecute()
+    {
+      return true;
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<IMetricRecord> executeAsync(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress,
+                                                         @NotNull IMetricPreferences pPreferences)
+    {
+      CompletableFuture<IMetricRecord> probe = new CompletableFuture<>();
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      probes.add(probe);
+      return probe;
+    }
+
+    /**
+     * @return the number of probes, that were started
+     */
+    public int getStartedCount()
+    {
+      return probes.size();
+    }
+
+    /**
+     * @return the maximum number of probes, that were running at the same time
+     */
+    public int getMaxRunningCount()
+    {
+      return maxRunning.get();
+    }
+
+    /**
+     * Waits for a probe to be started
+     *
+     * @param pIndex Index of the probe, in the order they were started
+     * @return the probe
+     */
+    @NotNull
+    public CompletableFuture<IMetricRecord> getProbe(int pIndex) throws InterruptedException
+    {
+      _await(() -> probes.size() > pIndex);
+      return probes.get(pIndex);
+    }
+
+    /**
+     * Completes a probe successfully, as soon as it was started
+     *
+     * @param pIndex Index of the probe, in the order they were started
+     */
+    public void complete(int pIndex) throws InterruptedException
+    {
+      _complete(getProbe(pIndex));
+    }
+
+    /**
+     * Completes all probes successfully, that were started until now
+     *
+     * @return true, to be usable within a condition
+     */
+    public boolean completeStarted()
+    {
+      probes.forEach(this::_complete);
+      return true;
+    }
+
+    private void _complete(@NotNull CompletableFuture<IMetricRecord> pProbe)
+    {
+      // the engine may start the next probe right away, so the probe does not count as running anymore before it completes
+      if (pProbe.isDone())
+        return;
+      running.decrementAndGet();
+      pProbe.complete(new SimpleMetricRecord(EMetricRecordState.SUCCESS));
+    }
+  }
+
+}
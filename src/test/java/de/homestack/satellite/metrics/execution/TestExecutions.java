@@ -0,0 +1,150 @@
+package de.homestack.satellite.metrics.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.metrics.api.*;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.*;
+import org.jetbrains.annotations.*;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Creates executions for tests, without compiling a whole execution plan
+ *
+ * @author agent, 18.10.2026
+ */
+public class TestExecutions
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+
+  private TestExecutions()
+  {
+  }
+
+  /**
+   * Creates the execution of a single metric, whose executor always reports an unknown state
+   *
+   * @param pMetricID ID of the metric
+   * @param pAddress  IP literal of the device
+   * @param pSettings Preferences of the metric, "interval" is read in seconds
+   * @return the execution
+   */
+  @NotNull
+  public static MetricExecution create(@NotNull String pMetricID, @NotNull String pAddress, @NotNull Map<String, String> pSettings)
+  {
+    return create(pMetricID, pAddress, pSettings, new _UnknownExecutor());
+  }
+
+  /**
+   * Creates the execution of a single metric, that is executed by the given executor
+   *
+   * @param pMetricID ID of the metric
+   * @param pAddress  IP literal of the device
+   * @param pSettings Preferences of the metric, "interval" is read in seconds
+   * @param pExecutor Executor of the metric, its type is the type of the metric
+   * @return the execution
+   */
+  @NotNull
+  public static MetricExecution create(@NotNull String pMetricID, @NotNull String pAddress, @NotNull Map<String, String> pSettings,
+                                       @NotNull IMetricExecutor pExecutor)
+  {
+    MetricDataModel metric = _MAPPER.convertValue(Map.of("id", pMetricID,
+                                                         "deviceID", "device-" + pAddress,
+                                                         "type", pExecutor.getType(),
+                                                         "settings", pSettings), MetricDataModel.class);
+    DeviceDataModel device = _MAPPER.convertValue(Map.of("id", "device-" + pAddress,
+                                                         "address", pAddress), DeviceDataModel.class);
+    IMetricPreferences preferences = new MetricPreferences(metric);
+    String interval = preferences.getValue("interval", "15");
+    return new MetricExecution(metric, device, new AddressResolver().create(pAddress), pExecutor, preferences,
+                               Duration.ofMillis(Math.round(Double.parseDouble(interval) * 1000)), null);
+  }
+
+  /**
+   * Creates an initialized resolver, that looks up host names with the system resolver
+   *
+   * @return the resolver, it has to be released with {@link #destroy(AddressResolver)}
+   */
+  @NotNull
+  public static AddressResolver createResolver()
+  {
+    AddressResolver resolver = new AddressResolver();
+    resolver.ttlSeconds = 300;
+    resolver.negativeTtlSeconds = 30;
+    resolver.threads = 1;
+    resolver.init();
+    return resolver;
+  }
+
+  /**
+   * Releases a resolver, that was created by {@link #createResolver()}
+   *
+   * @param pResolver Resolver to release
+   */
+  public static void destroy(@NotNull AddressResolver pResolver)
+  {
+    pResolver.destroy();
+  }
+
+  /**
+   * Creates an initialized scheduler with a short tick, that is not started yet
+   *
+   * @return the scheduler, it has to be released with {@link #destroy(MetricScheduler)}
+   */
+  @NotNull
+  public static MetricScheduler createScheduler()
+  {
+    MetricScheduler scheduler = new MetricScheduler();
+    scheduler.tickMillis = 10;
+    scheduler.instrumentation = TestInstrumentation.create();
+    scheduler.init();
+    return scheduler;
+  }
+
+  /**
+   * Releases a scheduler, that was created by {@link #createScheduler()}
+   *
+   * @param pScheduler Scheduler to release
+   */
+  public static void destroy(@NotNull MetricScheduler pScheduler)
+  {
+    pScheduler.destroy();
+  }
+
+  /**
+   * Executor, that always reports an unknown state
+   */
+  private static class _UnknownExecutor implements IMetricExecutor
+  {
+    @NotNull
+    @Override
+    public String getType()
+    {
+      return "test";
+    }
+
+    @Override
+    public boolean canExecute()
+    {
+      return true;
+    }
+
+    @NotNull
+    @Override
+    public IMetricRecord execute(@NotNull DeviceDataModel pDevice, @NotNull IMetricPreferences pPreferences)
+    {
+      return new SimpleMetricRecord(EMetricRecordState.UNKNOWN);
+    }
+
+    @NotNull
+    @Override
+    public IMetricRecord execute(@NotNull DeviceDataModel pDevice, @Nullable InetAddress pAddress, @NotNull IMetricPreferences pPreferences)
+    {
+      return execute(pDevice, pPreferences);
+    }
+  }
+
+}
@@ -0,0 +1,141 @@
+package de.homestack.satellite.metrics.execution;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Periodic timeouts on the timing wheel, advanced tick by tick without any clock
+ *
+ * @author agent, 18.10.2026
+ */
+class TimingWheelTest
+{
+  private static final long _TICK = 10;
+
+  private final TimingWheel<String> wheel = new TimingWheel<>(_TICK, 8);
+
+  @Test
+  void expiresOnceWithoutPeriod()
+  {
+    TimingWheel.Timeout<String> timeout = wheel.schedule("once", 3 * _TICK, 0);
+
+    assertEquals(List.of(), _advanceTo(2));
+    assertEquals(List.of("once"), _advanceTo(3));
+    assertEquals(List.of(), _advanceTo(50));
+    assertEquals(0, wheel.size());
+    assertFalse(timeout.isCancelled());
+  }
+
+  @Test
+  void rearmsPeriodicTimeouts()
+  {
+    wheel.schedule("periodic", 2 * _TICK, 5 * _TICK);
+
+    List<Long> expirations = new ArrayList<>();
+    for (long tick = 1; tick <= 30; tick++)
+      if (!_advanceTo(tick).isEmpty())
+        expirations.add(tick);
+
+    // the period is longer than the wheel is wide, so the timeout has to survive several rounds as well
+    assertEquals(List.of(2L, 7L, 12L, 17L, 22L, 27L), expirations);
+    assertEquals(1, wheel.size());
+  }
+
+  @Test
+  void keepsThePhaseIfAdvancedLate()
+  {
+    TimingWheel.Timeout<String> timeout = wheel.schedule("periodic", 2 * _TICK, 5 * _TICK);
+
+    // expires two and a half ticks late, but the next deadline stays on its grid
+    assertEquals(List.of("periodic"), _advance(4 * _TICK + _TICK / 2));
+    assertEquals(2 * _TICK + _TICK / 2, timeout.getLastLagNanos());
+    assertEquals(List.of(), _advanceTo(6));
+    assertEquals(List.of("periodic"), _advanceTo(7));
+    assertEquals(0, timeout.getLastLagNanos());
+  }
+
+  @Test
+  void movesTheNextExpirationOnly()
+  {
+    TimingWheel.Timeout<String> rescheduled = wheel.schedule("rescheduled", 2 * _TICK, 5 * _TICK);
+    TimingWheel.Timeout<String> postponed = wheel.schedule("postponed", 2 * _TICK, 4 * _TICK);
+    wheel.reschedule(rescheduled, 3 * _TICK);
+    wheel.postpone(postponed);
+
+    Map<String, List<Long>> expirations = new TreeMap<>();
+    for (long tick = 1; tick <= 12; tick++)
+      for (String value : _advanceTo(tick))
+        expirations.computeIfAbsent(value, pValue -> new ArrayList<>()).add(tick);
+
+    assertEquals(Map.of("rescheduled", List.of(3L, 8L), "postponed", List.of(4L, 8L, 12L)), expirations);
+  }
+
+  @Test
+  void cancelsAnywhereWithinABucket()
+  {
+    List<TimingWheel.Timeout<String>> timeouts = new ArrayList<>();
+    for (int i = 0; i < 5; i++)
+      timeouts.add(wheel.schedule("timeout-" + i, 3 * _TICK, 0));
+
+    // head, middle and tail of the same bucket
+    wheel.cancel(timeouts.get(0));
+    wheel.cancel(timeouts.get(2));
+    wheel.cancel(timeouts.get(4));
+    wheel.cancel(timeouts.get(4));
+
+    assertEquals(2, wheel.size());
+    assertTrue(timeouts.get(2).isCancelled());
+    assertEquals(List.of("timeout-1", "timeout-3"), _advanceTo(3));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void schedulesAndCancelsIndependentOfItsSize()
+  {
+    long small = _measureScheduleAndCancel(1_000);
+    long large = _measureScheduleAndCancel(1_000_000);
+
+    // a list or a heap would be hundreds of times slower with a thousand times more timeouts
+    assertTrue(large < small * 20, "schedule and cancel got slower with more timeouts: " + small + "ns vs. " + large + "ns");
+  }
+
+  /**
+   * @return the fastest of several runs, that schedule and cancel timeouts, while the given number of timeouts is scheduled
+   */
+  private static long _measureScheduleAndCancel(int pScheduled)
+  {
+    TimingWheel<String> wheel = new TimingWheel<>(_TICK, 512);
+    for (int i = 0; i < pScheduled; i++)
+      wheel.schedule("scheduled", (i % 10_000 + 1) * _TICK, 0);
+
+    long best = Long.MAX_VALUE;
+    for (int run = 0; run < 10; run++)
+    {
+      long start = System.nanoTime();
+      for (int i = 0; i < 100_000; i++)
+        wheel.cancel(wheel.schedule("measured", (i % 10_000 + 1) * _TICK, _TICK));
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    assertEquals(pScheduled, wheel.size());
+    return best;
+  }
+
+  @NotNull
+  private List<String> _advanceTo(long pTick)
+  {
+    return _advance(pTick * _TICK);
+  }
+
+  @NotNull
+  private List<String> _advance(long pElapsedNanos)
+  {
+    List<String> expired = new ArrayList<>();
+    wheel.advance(pElapsedNanos, pTimeout -> expired.add(pTimeout.getValue()));
+    return expired;
+  }
+
+}
@@ -0,0 +1,311 @@
+package de.homestack.satellite.metrics.impl.dns;
+
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reverse lookups against an in-process DNS server on the loopback interface, that answers from a fixed zone
+ * and can be told to stay silent, to fail or to answer with a wrong question
+ *
+ * @author agent, 18.10.2026
+ */
+class ReverseDNSResolverTest
+{
+  private _DnsStandIn dns;
+  private ReverseDNSResolver resolver;
+
+  @BeforeEach
+  void setUp() throws IOException
+  {
+    dns = new _DnsStandIn();
+    resolver = new ReverseDNSResolver();
+    resolver.server = Optional.of("127.0.0.1:" + dns.getPort());
+    resolver.timeoutMillis = 500;
+    resolver.cacheSize = 1024;
+    resolver.negativeTTLSeconds = 300;
+    resolver.maxTTLSeconds = 86400;
+    resolver.instrumentation = TestInstrumentation.create();
+    resolver.init();
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    resolver.destroy();
+    dns.close();
+  }
+
+  @Test
+  void resolvesPtrRecords() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+    dns.zone.put("1.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.0.8.b.d.0.1.0.0.2.ip6.arpa", "printer.local");
+
+    assertEquals(Optional.of("nas.local"), _resolve("10.0.0.1"));
+    assertEquals(Optional.of("printer.local"), _resolve("2001:db8::1"));
+    assertEquals(0, resolver.getPendingCount());
+  }
+
+  @Test
+  void cachesAnswersAndMissingRecords() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+
+    assertEquals(Optional.of("nas.local"), _resolve("10.0.0.1"));
+    assertEquals(Optional.empty(), _resolve("10.0.0.2"));
+    assertEquals(Optional.of("nas.local"), _resolve("10.0.0.1"));
+    assertEquals(Optional.empty(), _resolve("10.0.0.2"));
+
+    assertEquals(2, dns.queries.get());
+    assertEquals(2, resolver.getCacheSize());
+  }
+
+  @Test
+  void doesNotCacheAnswersWithoutTtl() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+    dns.ttl = 0;
+
+    assertEquals(Optional.of("nas.local"), _resolve("10.0.0.1"));
+    assertEquals(Optional.of("nas.local"), _resolve("10.0.0.1"));
+    assertEquals(2, dns.queries.get());
+  }
+
+  @Test
+  void doesNotCacheServerFailures() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+    dns.failing = true;
+    assertEquals(Optional.empty(), _resolve("10.0.0.1"));
+
+    dns.failing = false;
+    assertEquals(Optional.of("nas.local"), _resolve("10.0.0.1"));
+    assertEquals(2, dns.queries.get());
+  }
+
+  @Test
+  void sharesConcurrentLookupsOfTheSameAddress() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+    dns.delayMillis = 100;
+
+    List<CompletableFuture<Optional<String>>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++)
+      futures.add(resolver.resolve(InetAddress.getByName("10.0.0.1")));
+    for (CompletableFuture<Optional<String>> future : futures)
+      assertEquals(Optional.of("nas.local"), future.get(5, TimeUnit.SECONDS));
+    assertEquals(1, dns.queries.get());
+  }
+
+  @Test
+  void correlatesManyConcurrentQueries() throws Exception
+  {
+    resolver.timeoutMillis = 5000;
+    Map<InetAddress, CompletableFuture<Optional<String>>> futures = new HashMap<>();
+    for (int i = 0; i < 256; i++)
+    {
+      InetAddress address = InetAddress.getByName("10.1." + (i >> 8) + "." + (i & 0xFF));
+      dns.zone.put(DnsMessage.reverseName(address), "host-" + i + ".local");
+    }
+    for (int i = 0; i < 256; i++)
+    {
+      InetAddress address = InetAddress.getByName("10.1." + (i >> 8) + "." + (i & 0xFF));
+      futures.put(address, resolver.resolve(address));
+    }
+
+    for (Map.Entry<InetAddress, CompletableFuture<Optional<String>>> entry : futures.entrySet())
+    {
+      byte[] bytes = entry.getKey().getAddress();
+      int index = ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+      assertEquals(Optional.of("host-" + index + ".local"), entry.getValue().get(10, TimeUnit.SECONDS));
+    }
+    assertEquals(0, resolver.getPendingCount());
+  }
+
+  @Test
+  void timesOutWithoutResponse() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+    dns.silent = true;
+
+    long start = System.nanoTime();
+    assertEquals(Optional.empty(), _resolve("10.0.0.1"));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 400);
+    assertEquals(0, resolver.getPendingCount());
+    assertEquals(0, resolver.getCacheSize(), "timeouts must not be cached");
+  }
+
+  @Test
+  void ignoresResponsesToOtherQuestions() throws Exception
+  {
+    dns.zone.put("1.0.0.10.in-addr.arpa", "nas.local");
+    dns.spoofing = true;
+
+    assertEquals(Optional.empty(), _resolve("10.0.0.1"));
+    assertNull(resolver.getCached(InetAddress.getByName("10.0.0.1")));
+  }
+
+  @NotNull
+  private Optional<String> _resolve(@NotNull String pAddress) throws Exception
+  {
+    return resolver.resolve(InetAddress.getByName(pAddress)).get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * DNS server on the loopback interface, that answers PTR queries from its zone
+   */
+  private static class _DnsStandIn implements AutoCloseable
+  {
+    private final Map<String, String> zone = new ConcurrentHashMap<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final DatagramSocket socket;
+    private final ScheduledExecutorService responder = Executors.newSingleThreadScheduledExecutor();
+    private volatile long ttl = 3600;
+    private volatile long delayMillis = 0;
+    private volatile boolean silent = false;
+    private volatile boolean failing = false;
+    private volatile boolean spoofing = false;
+
+    private _DnsStandIn() throws IOException
+    {
+      socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+      socket.setReceiveBufferSize(1 << 20);
+      Thread thread = new Thread(this::_serve, "tDnsStandIn");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    public int getPort()
+    {
+      return socket.getLocalPort();
+    }
+
+    @Override
+    public void close()
+    {
+      socket.close();
+      responder.shutdownNow();
+    }
+
+    private void _serve()
+    {
+      byte[] buffer = new byte[512];
+      while (!socket.isClosed())
+      {
+        try
+        {
+          DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+          socket.receive(packet);
+          queries.incrementAndGet();
+          if (silent)
+            continue;
+
+          byte[] response = _answer(ByteBuffer.wrap(Arrays.copyOf(packet.getData(), packet.getLength())));
+          DatagramPacket reply = new DatagramPacket(response, response.length, packet.getSocketAddress());
+          responder.schedule(() -> {
+            try
+            {
+              socket.send(reply);
+            }
+            catch (IOException e)
+            {
+              // closed
+            }
+          }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (IOException e)
+        {
+          // closed
+        }
+      }
+    }
+
+    /**
+     * Builds the response to the given query
+     */
+    @NotNull
+    private byte[] _answer(@NotNull ByteBuffer pQuery)
+    {
+      int id = pQuery.getShort(0) & 0xFFFF;
+      byte[] question = Arrays.copyOfRange(pQuery.array(), 12, pQuery.limit());
+      String name = _readName(question);
+      if (spoofing)
+      {
+        name = "2.0.0.10.in-addr.arpa";
+        question = _question(name);
+      }
+
+      String hostName = failing ? null : zone.get(name);
+      int rcode = failing ? 2 : hostName == null ? 3 : 0;
+      ByteBuffer response = ByteBuffer.allocate(512);
+      response.putShort((short) id);
+      response.putShort((short) (0x8180 | rcode));
+      response.putShort((short) 1);
+      response.putShort((short) (hostName != null ? 1 : 0));
+      response.putShort((short) (hostName == null && !failing ? 1 : 0));
+      response.putShort((short) 0);
+      response.put(question);
+
+      if (hostName != null)
+      {
+        byte[] data = _encodeName(hostName);
+        response.putShort((short) 0xC00C).putShort((short) 12).putShort((short) 1).putInt((int) ttl);
+        response.putShort((short) data.length).put(data);
+      }
+      else if (!failing)
+      {
+        // SOA of the zone, its minimum is the ttl of the negative answer
+        response.putShort((short) 0xC00C).putShort((short) 6).putShort((short) 1).putInt((int) ttl);
+        response.putShort((short) (2 + 20)).put((byte) 0).put((byte) 0);
+        response.putInt(1).putInt(3600).putInt(600).putInt(86400).putInt((int) ttl);
+      }
+      return Arrays.copyOf(response.array(), response.position());
+    }
+
+    @NotNull
+    private static byte[] _question(@NotNull String pName)
+    {
+      byte[] name = _encodeName(pName);
+      return ByteBuffer.allocate(name.length + 4).put(name).putShort((short) 12).putShort((short) 1).array();
+    }
+
+    @NotNull
+    private static byte[] _encodeName(@NotNull String pName)
+    {
+      ByteBuffer buffer = ByteBuffer.allocate(pName.length() + 2);
+      for (String label : pName.split("\\."))
+      {
+        byte[] bytes = label.getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) bytes.length).put(bytes);
+      }
+      buffer.put((byte) 0);
+      return buffer.array();
+    }
+
+    @NotNull
+    private static String _readName(@NotNull byte[] pQuestion)
+    {
+      StringJoiner name = new StringJoiner(".");
+      int position = 0;
+      while (pQuestion[position] != 0)
+      {
+        int length = pQuestion[position];
+        name.add(new String(pQuestion, position + 1, length, StandardCharsets.US_ASCII));
+        position += length + 1;
+      }
+      return name.toString();
+    }
+  }
+
+}
@@ -0,0 +1,241 @@
+package de.homestack.satellite.metrics.impl.http;
+
+import com.sun.net.httpserver.HttpServer;
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import de.homestack.satellite.metrics.execution.*;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HTTP probes against an embedded HTTP server on the loopback interface
+ *
+ * @author agent, 18.10.2026
+ */
+class HttpExecutorTest
+{
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private HttpServer server;
+  private ExecutorService serverThreads;
+  private HttpProbeEngine engine;
+  private AddressResolver addressResolver;
+  private HttpExecutor executor;
+
+  @BeforeEach
+  void setUp() throws IOException
+  {
+    serverThreads = Executors.newFixedThreadPool(16);
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+    server.setExecutor(serverThreads);
+    server.createContext("/", pExchange -> {
+      clientPorts.add(pExchange.getRemoteAddress().getPort());
+      _respond(pExchange, 200, "<html>homestack ok</html>");
+    });
+    server.createContext("/error", pExchange -> _respond(pExchange, 500, "broken"));
+    server.createContext("/chunked", pExchange -> {
+      pExchange.sendResponseHeaders(200, 0);
+      try (OutputStream body = pExchange.getResponseBody())
+      {
+        for (int i = 0; i < 100; i++)
+          body.write(("chunk " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        body.write("end of stream".getBytes(StandardCharsets.UTF_8));
+      }
+    });
+    server.createContext("/slow", pExchange -> {
+      try
+      {
+        Thread.sleep(2000);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      _respond(pExchange, 200, "late");
+    });
+    server.start();
+
+    engine = new HttpProbeEngine();
+    engine.idleTimeoutSeconds = 60;
+    engine.maxIdlePerHost = 2;
+    engine.instrumentation = TestInstrumentation.create();
+    engine.init();
+    addressResolver = TestExecutions.createResolver();
+    executor = new HttpExecutor();
+    executor.probeEngine = engine;
+    executor.addressResolver = addressResolver;
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    engine.destroy();
+    TestExecutions.destroy(addressResolver);
+    server.stop(0);
+    serverThreads.shutdownNow();
+  }
+
+  @Test
+  void reportsStatusAndTimings() throws Exception
+  {
+    IMetricRecord record = _execute(Map.of("url", "/"));
+
+    assertEquals(EMetricRecordState.SUCCESS, record.getState());
+    Map<String, String> result = record.getResult();
+    assertEquals("200", result.get("status"));
+    assertTrue(Float.parseFloat(result.get("connect")) >= 0);
+    assertTrue(Float.parseFloat(result.get("ttfb")) >= 0);
+    assertTrue(Float.parseFloat(result.get("responseTime")) >= Float.parseFloat(result.get("ttfb")));
+    assertNull(result.get("dns"), "the address of the device is already resolved");
+  }
+
+  @Test
+  void warnsOnUnexpectedStatusOrBody() throws Exception
+  {
+    assertEquals(EMetricRecordState.WARNING, _execute(Map.of("url", "/error")).getState());
+    assertEquals(EMetricRecordState.SUCCESS, _execute(Map.of("url", "/error", "status", "500")).getState());
+
+    IMetricRecord matching = _execute(Map.of("url", "/", "match", "homestack \\w+"));
+    assertEquals(EMetricRecordState.SUCCESS, matching.getState());
+    assertEquals("true", matching.getResult().get("match"));
+
+    IMetricRecord mismatching = _execute(Map.of("url", "/", "match", "offline"));
+    assertEquals(EMetricRecordState.WARNING, mismatching.getState());
+    assertEquals("false", mismatching.getResult().get("match"));
+  }
+
+  @Test
+  void readsChunkedBodies() throws Exception
+  {
+    IMetricRecord record = _execute(Map.of("url", "/chunked", "match", "end of stream"));
+
+    assertEquals(EMetricRecordState.SUCCESS, record.getState());
+    assertEquals("true", record.getResult().get("match"));
+  }
+
+  @Test
+  void reusesPooledConnections() throws Exception
+  {
+    URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    HttpProbeResult first = engine.probe(uri, InetAddress.getLoopbackAddress(), "GET", false, 0, 5000).get(10, TimeUnit.SECONDS);
+    HttpProbeResult second = engine.probe(uri, InetAddress.getLoopbackAddress(), "GET", false, 0, 5000).get(10, TimeUnit.SECONDS);
+
+    // the connection is returned to the pool by the selector thread, right after the response completed
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (engine.getIdleCount() != 1 && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertEquals(1, engine.getIdleCount());
+
+    // the embedded server closes the connection after a HEAD response, so the pool is checked before
+    HttpProbeResult head = engine.probe(uri, InetAddress.getLoopbackAddress(), "HEAD", false, 0, 5000).get(10, TimeUnit.SECONDS);
+
+    assertFalse(first.isReused());
+    assertTrue(second.isReused());
+    assertTrue(head.isReused());
+    assertEquals(200, head.getStatus());
+    assertEquals(1, clientPorts.size());
+  }
+
+  @Test
+  void resolvesHostNamesOfTheUrl() throws Exception
+  {
+    IMetricRecord record = _execute(Map.of("url", "http://localhost:" + server.getAddress().getPort() + "/"));
+
+    Assumptions.assumeFalse("dns".equals(record.getResult().get("error")), "localhost can not be resolved");
+    assertEquals(EMetricRecordState.SUCCESS, record.getState());
+    assertTrue(Float.parseFloat(record.getResult().get("dns")) >= 0);
+  }
+
+  @Test
+  void reportsRefusedAndTimedOutRequests() throws Exception
+  {
+    ServerSocket closed = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    closed.close();
+    IMetricRecord refused = _execute(Map.of("url", "http://127.0.0.1:" + closed.getLocalPort() + "/"));
+    assertEquals(EMetricRecordState.FAILURE, refused.getState());
+    assertEquals("refused", refused.getResult().get("error"));
+
+    IMetricRecord timedOut = _execute(Map.of("url", "/slow", "timeout", "300"));
+    assertEquals(EMetricRecordState.FAILURE, timedOut.getState());
+    assertEquals("timeout", timedOut.getResult().get("error"));
+    _awaitIdle();
+  }
+
+  @Test
+  void probesConcurrently() throws Exception
+  {
+    List<CompletableFuture<IMetricRecord>> futures = new ArrayList<>();
+    for (int i = 0; i < 200; i++)
+      futures.add(_executeAsync(Map.of("url", "/")));
+    for (CompletableFuture<IMetricRecord> future : futures)
+      assertEquals(EMetricRecordState.SUCCESS, future.get(20, TimeUnit.SECONDS).getState());
+
+    _awaitIdle();
+    assertTrue(engine.getIdleCount() <= 2, "the pool keeps at most max-idle-per-host connections");
+  }
+
+  @Test
+  void rejectsInvalidConfiguration() throws Exception
+  {
+    assertEquals(EMetricRecordState.UNKNOWN, _execute(Map.of("url", "ftp://127.0.0.1/")).getState());
+    assertEquals(EMetricRecordState.UNKNOWN, _execute(Map.of("url", "/", "method", "POST")).getState());
+    assertEquals(EMetricRecordState.UNKNOWN, _execute(Map.of("url", "/", "match", "(")).getState());
+  }
+
+  @NotNull
+  private IMetricRecord _execute(@NotNull Map<String, String> pSettings) throws Exception
+  {
+    return _executeAsync(pSettings).get(20, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Probes the embedded server, relative URLs are requested from the device 127.0.0.1:port
+   */
+  @NotNull
+  private CompletableFuture<IMetricRecord> _executeAsync(@NotNull Map<String, String> pSettings)
+  {
+    Map<String, String> settings = new HashMap<>(pSettings);
+    String url = settings.get("url");
+    if (url.startsWith("/"))
+      settings.put("url", "http://127.0.0.1:" + server.getAddress().getPort() + url);
+    MetricExecution execution = TestExecutions.create("metric-1", "127.0.0.1", settings);
+    return executor.executeAsync(execution.getDevice(), execution.getAddress(), execution.getPreferences());
+  }
+
+  /**
+   * Waits, until the engine has no requests in flight anymore
+   */
+  private void _awaitIdle() throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (engine.getPendingCount() > 0 && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  private static void _respond(@NotNull com.sun.net.httpserver.HttpExchange pExchange, int pStatus, @NotNull String pBody) throws IOException
+  {
+    byte[] body = pBody.getBytes(StandardCharsets.UTF_8);
+    if (pExchange.getRequestMethod().equals("HEAD"))
+    {
+      pExchange.sendResponseHeaders(pStatus, -1);
+      pExchange.close();
+      return;
+    }
+
+    pExchange.sendResponseHeaders(pStatus, body.length);
+    try (OutputStream stream = pExchange.getResponseBody())
+    {
+      stream.write(body);
+    }
+  }
+
+}
@@ -0,0 +1,136 @@
+package de.homestack.satellite.metrics.impl.ping;
+
+import com.zaxxer.ping.PingTarget;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Correlation and timeout handling of the shared ICMP engine.
+ * Most tests capture the echo requests instead of sending them and play the selector loop themselves,
+ * only {@link #pingsLoopbackConcurrently()} sends real requests to the loopback interface.
+ *
+ * @author agent, 18.10.2026
+ */
+class IcmpPingEngineTest
+{
+  private static final InetAddress _LOOPBACK = InetAddress.getLoopbackAddress();
+
+  @Test
+  void completesEachTargetWithItsOwnReply() throws Exception
+  {
+    _CapturingEngine engine = new _CapturingEngine();
+    List<CompletableFuture<Float>> futures = new ArrayList<>();
+    for (int i = 0; i < 1000; i++)
+      futures.add(engine.ping(_LOOPBACK, 5000));
+    assertEquals(1000, engine.getPendingCount());
+
+    // replies arrive in reverse order
+    for (int i = engine.sent.size() - 1; i >= 0; i--)
+      engine.onResponse(engine.sent.get(i), i / 1000d, 64, 0);
+
+    for (int i = 0; i < futures.size(); i++)
+      assertEquals(i, futures.get(i).get(1, TimeUnit.SECONDS), 0.001);
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  @Test
+  void completesTimedOutTargetsWithoutResponseTime() throws Exception
+  {
+    _CapturingEngine engine = new _CapturingEngine();
+    CompletableFuture<Float> answered = engine.ping(_LOOPBACK, 5000);
+    CompletableFuture<Float> lost = engine.ping(_LOOPBACK, 5000);
+
+    engine.onTimeout(engine.sent.get(1));
+    engine.onResponse(engine.sent.get(0), 0.002, 64, 0);
+
+    assertEquals(-1F, lost.get(1, TimeUnit.SECONDS));
+    assertEquals(2F, answered.get(1, TimeUnit.SECONDS), 0.001);
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  @Test
+  void ignoresLateAndDuplicateReplies() throws Exception
+  {
+    _CapturingEngine engine = new _CapturingEngine();
+    CompletableFuture<Float> future = engine.ping(_LOOPBACK, 5000);
+    PingTarget target = engine.sent.get(0);
+
+    engine.onTimeout(target);
+    engine.onResponse(target, 0.001, 64, 0);
+    engine.onTimeout(target);
+
+    assertEquals(-1F, future.get(1, TimeUnit.SECONDS));
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  @Test
+  void completesTargetsTheSelectorNeverReports() throws Exception
+  {
+    _CapturingEngine engine = new _CapturingEngine();
+    CompletableFuture<Float> future = engine.ping(_LOOPBACK, 50);
+
+    assertEquals(-1F, future.get(5, TimeUnit.SECONDS));
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  @Test
+  void failsTargetsThatCannotBeSent()
+  {
+    IcmpPingEngine engine = new IcmpPingEngine()
+    {
+      @Override
+      void send(@NotNull PingTarget pTarget)
+      {
+        throw new IllegalStateException("socket closed");
+      }
+    };
+
+    CompletableFuture<Float> future = engine.ping(_LOOPBACK, 5000);
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+    assertTrue(ex.getCause() instanceof IllegalStateException);
+    assertEquals(0, engine.getPendingCount());
+  }
+
+  @Test
+  void pingsLoopbackConcurrently() throws Exception
+  {
+    IcmpPingEngine engine = new IcmpPingEngine();
+    try
+    {
+      Float probe = engine.ping(_LOOPBACK, 1000).handle((pResult, pEx) -> pEx == null ? pResult : -1F).get(5, TimeUnit.SECONDS);
+      Assumptions.assumeTrue(probe >= 0, "ICMP sockets are not available");
+
+      List<CompletableFuture<Float>> futures = new ArrayList<>();
+      for (int i = 0; i < 500; i++)
+        futures.add(engine.ping(_LOOPBACK, 2000));
+      for (CompletableFuture<Float> future : futures)
+        assertTrue(future.get(5, TimeUnit.SECONDS) >= 0, "loopback did not answer");
+      assertEquals(0, engine.getPendingCount());
+    }
+    finally
+    {
+      engine.destroy();
+    }
+  }
+
+  /**
+   * Engine that captures its echo requests, instead of handing them to the pinger
+   */
+  private static class _CapturingEngine extends IcmpPingEngine
+  {
+    private final List<PingTarget> sent = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    void send(@NotNull PingTarget pTarget)
+    {
+      sent.add(pTarget);
+    }
+  }
+
+}
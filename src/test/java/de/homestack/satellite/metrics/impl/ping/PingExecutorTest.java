@@ -0,0 +1,127 @@
+package de.homestack.satellite.metrics.impl.ping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import io.conceptive.homestack.model.data.device.DeviceDataModel;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bursts of probes, whose echo requests are answered by the test instead of the network
+ *
+ * @author agent, 18.10.2026
+ */
+class PingExecutorTest
+{
+  private static final long _TIMEOUT_MS = 10_000;
+  private static final InetAddress _LOOPBACK = InetAddress.getLoopbackAddress();
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+
+  private final _ManualEngine engine = new _ManualEngine();
+  private PingExecutor executor;
+
+  @BeforeEach
+  void setUp()
+  {
+    executor = new PingExecutor();
+    executor.pingEngine = engine;
+    executor.init();
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    executor.destroy();
+  }
+
+  @Test
+  void recordsProbesByTheirSequence() throws Exception
+  {
+    CompletableFuture<IMetricRecord> result = _execute(Map.of("count", "3", "probeInterval", "10"));
+    _awaitRequests(3);
+
+    // answered in reverse order
+    engine.requests.get(2).complete(30F);
+    engine.requests.get(1).complete(20F);
+    assertFalse(result.isDone());
+    engine.requests.get(0).complete(10F);
+
+    IMetricRecord record = result.get(_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertEquals(EMetricRecordState.SUCCESS, record.getState());
+    assertEquals("3", record.getResult().get("received"));
+    assertEquals(10, Double.parseDouble(record.getResult().get("jitter")), 0.001);
+  }
+
+  @Test
+  void reportsLostProbes() throws Exception
+  {
+    CompletableFuture<IMetricRecord> result = _execute(Map.of("count", "3", "probeInterval", "10"));
+    _awaitRequests(3);
+
+    engine.requests.get(0).complete(-1F);
+    engine.requests.get(1).completeExceptionally(new IllegalStateException("socket closed"));
+    engine.requests.get(2).complete(5F);
+
+    IMetricRecord record = result.get(_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertEquals(EMetricRecordState.WARNING, record.getState());
+    assertEquals("1", record.getResult().get("received"));
+    assertEquals(66.667, Double.parseDouble(record.getResult().get("packetLoss")), 0.001);
+  }
+
+  @Test
+  void cancelsOutstandingProbes() throws Exception
+  {
+    CompletableFuture<IMetricRecord> result = _execute(Map.of("count", "10", "probeInterval", "50"));
+    _awaitRequests(2);
+    result.cancel(false);
+
+    // no probe is sent after the cancellation, the ones that were sent are cancelled
+    Thread.sleep(200);
+    int sent = engine.requests.size();
+    assertTrue(sent < 10, "probes were sent after the cancellation");
+    for (CompletableFuture<Float> request : engine.requests)
+      assertTrue(request.isCancelled());
+    Thread.sleep(200);
+    assertEquals(sent, engine.requests.size());
+  }
+
+  @NotNull
+  private CompletableFuture<IMetricRecord> _execute(@NotNull Map<String, String> pPreferences)
+  {
+    DeviceDataModel device = _MAPPER.convertValue(Map.of("id", "device-1", "address", "127.0.0.1"), DeviceDataModel.class);
+    return executor.executeAsync(device, _LOOPBACK, (pKey, pDefault) -> pPreferences.getOrDefault(pKey, pDefault));
+  }
+
+  private void _awaitRequests(int pCount) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + _TIMEOUT_MS;
+    while (engine.requests.size() < pCount && System.currentTimeMillis() < deadline)
+      Thread.sleep(5);
+    assertTrue(engine.requests.size() >= pCount, "only " + engine.requests.size() + " probes were sent");
+  }
+
+  /**
+   * Engine, whose echo requests are completed by the test
+   */
+  private static class _ManualEngine extends IcmpPingEngine
+  {
+    private final List<CompletableFuture<Float>> requests = new CopyOnWriteArrayList<>();
+
+    @NotNull
+    @Override
+    public CompletableFuture<Float> ping(@NotNull InetAddress pAddress, int pTimeoutMs)
+    {
+      CompletableFuture<Float> request = new CompletableFuture<>();
+      requests.add(request);
+      return request;
+    }
+  }
+
+}
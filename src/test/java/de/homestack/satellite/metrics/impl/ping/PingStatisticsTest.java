@@ -0,0 +1,115 @@
+package de.homestack.satellite.metrics.impl.ping;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statistics of a single ping burst, calculated from the recorded response times
+ *
+ * @author agent, 18.10.2026
+ */
+class PingStatisticsTest
+{
+
+  @Test
+  void summarizesAllReceivedProbes()
+  {
+    Map<String, String> result = _result(10, 20, 30, 40);
+
+    assertEquals("4", result.get("sent"));
+    assertEquals("4", result.get("received"));
+    assertEquals(0, _value(result, "packetLoss"), 0.001);
+    assertEquals(25, _value(result, "responseTime"), 0.001);
+    assertEquals(10, _value(result, "min"), 0.001);
+    assertEquals(40, _value(result, "max"), 0.001);
+    assertEquals(Math.sqrt(125), _value(result, "stddev"), 0.001);
+    assertEquals(10, _value(result, "jitter"), 0.001);
+  }
+
+  @Test
+  void leavesLostProbesOutOfTheResponseTimes()
+  {
+    Map<String, String> result = _result(10, -1, 40, -1);
+
+    assertEquals("4", result.get("sent"));
+    assertEquals("2", result.get("received"));
+    assertEquals(50, _value(result, "packetLoss"), 0.001);
+    assertEquals(25, _value(result, "responseTime"), 0.001);
+    assertEquals(10, _value(result, "min"), 0.001);
+
+    // jitter is taken between consecutive replies, the lost probe in between does not count
+    assertEquals(30, _value(result, "jitter"), 0.001);
+  }
+
+  @Test
+  void reportsNoResponseTimeIfEverythingWasLost()
+  {
+    Map<String, String> result = _result(-1, -1, -1);
+
+    assertEquals("0", result.get("received"));
+    assertEquals(100, _value(result, "packetLoss"), 0.001);
+    assertEquals(-1, _value(result, "responseTime"), 0.001);
+    assertFalse(result.containsKey("min"));
+    assertFalse(result.containsKey("jitter"));
+    assertFalse(result.containsKey("p50"));
+  }
+
+  @Test
+  void takesJitterInSequenceOrder()
+  {
+    // replies arrive out of order, but belong to their sequence number
+    PingStatistics statistics = new PingStatistics(3);
+    statistics.record(2, 30);
+    statistics.record(0, 10);
+    statistics.record(1, 50);
+
+    Map<String, String> result = new HashMap<>();
+    statistics.writeTo(result);
+    assertEquals(30, _value(result, "jitter"), 0.001);
+    assertEquals(0, _value(result, "packetLoss"), 0.001);
+  }
+
+  @Test
+  void calculatesPercentilesByNearestRank()
+  {
+    List<Float> responseTimes = new ArrayList<>();
+    for (int i = 1; i <= 100; i++)
+      responseTimes.add((float) i);
+    Collections.shuffle(responseTimes, new Random(42));
+    float[] shuffled = new float[responseTimes.size()];
+    for (int i = 0; i < shuffled.length; i++)
+      shuffled[i] = responseTimes.get(i);
+
+    Map<String, String> result = _result(shuffled);
+    assertEquals(50, _value(result, "p50"), 0.001);
+    assertEquals(90, _value(result, "p90"), 0.001);
+    assertEquals(99, _value(result, "p99"), 0.001);
+
+    // a single reply is every percentile
+    Map<String, String> single = _result(-1, 7, -1);
+    assertEquals(7, _value(single, "p50"), 0.001);
+    assertEquals(7, _value(single, "p99"), 0.001);
+  }
+
+  @NotNull
+  private static Map<String, String> _result(float... pResponseTimes)
+  {
+    PingStatistics statistics = new PingStatistics(pResponseTimes.length);
+    for (int i = 0; i < pResponseTimes.length; i++)
+      statistics.record(i, pResponseTimes[i]);
+    Map<String, String> result = new HashMap<>();
+    statistics.writeTo(result);
+    return result;
+  }
+
+  private static double _value(@NotNull Map<String, String> pResult, @NotNull String pKey)
+  {
+    assertTrue(pResult.containsKey(pKey), pKey + " is missing in " + pResult);
+    return Double.parseDouble(pResult.get(pKey));
+  }
+
+}
@@ -0,0 +1,217 @@
+package de.homestack.satellite.metrics.impl.tcp;
+
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.metrics.api.IMetricRecord;
+import de.homestack.satellite.metrics.execution.*;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Connects of the shared TCP engine against listeners on the loopback interface
+ *
+ * @author agent, 18.10.2026
+ */
+class TcpExecutorTest
+{
+  private final List<ServerSocket> listeners = new ArrayList<>();
+  private final List<Socket> sockets = new ArrayList<>();
+  private TcpConnectEngine engine;
+  private TcpExecutor executor;
+
+  @BeforeEach
+  void setUp()
+  {
+    engine = new TcpConnectEngine();
+    engine.instrumentation = TestInstrumentation.create();
+    engine.init();
+    executor = new TcpExecutor();
+    executor.connectEngine = engine;
+  }
+
+  @AfterEach
+  void tearDown() throws IOException
+  {
+    engine.destroy();
+    for (Socket socket : sockets)
+      socket.close();
+    for (ServerSocket listener : listeners)
+      listener.close();
+  }
+
+  @Test
+  void measuresConnectToOpenPort() throws Exception
+  {
+    ServerSocket listener = _listen(50);
+    AtomicInteger accepted = _accept(listener);
+
+    IMetricRecord record = _execute(listener.getLocalPort(), 1000);
+
+    assertEquals(EMetricRecordState.SUCCESS, record.getState());
+    assertTrue(Float.parseFloat(record.getResult().get("responseTime")) >= 0);
+    assertEquals(Integer.toString(listener.getLocalPort()), record.getResult().get("port"));
+    _await(() -> accepted.get() == 1);
+    _await(() -> engine.getPendingCount() == 0);
+  }
+
+  @Test
+  void reportsRefusedConnects() throws Exception
+  {
+    ServerSocket listener = _listen(50);
+    int port = listener.getLocalPort();
+    listener.close();
+
+    IMetricRecord record = _execute(port, 1000);
+
+    assertEquals(EMetricRecordState.FAILURE, record.getState());
+    assertEquals("refused", record.getResult().get("error"));
+    assertEquals("-1", record.getResult().get("responseTime"));
+  }
+
+  @Test
+  void reportsTimeoutIfListenerDoesNotAccept() throws Exception
+  {
+    // a listener, that never accepts, takes connects until its backlog is full and drops them afterwards
+    ServerSocket listener = _listen(1);
+    boolean backlogFull = false;
+    for (int i = 0; i < 16 && !backlogFull; i++)
+    {
+      Socket socket = new Socket();
+      sockets.add(socket);
+      try
+      {
+        socket.connect(listener.getLocalSocketAddress(), 200);
+      }
+      catch (SocketTimeoutException e)
+      {
+        backlogFull = true;
+      }
+    }
+    Assumptions.assumeTrue(backlogFull, "the backlog of the loopback listener does not drop connects");
+
+    IMetricRecord record = _execute(listener.getLocalPort(), 300);
+
+    assertEquals(EMetricRecordState.FAILURE, record.getState());
+    assertEquals("timeout", record.getResult().get("error"));
+    _await(() -> engine.getPendingCount() == 0);
+  }
+
+  @Test
+  void connectsConcurrently() throws Exception
+  {
+    ServerSocket listener = _listen(4096);
+    AtomicInteger accepted = _accept(listener);
+
+    List<CompletableFuture<IMetricRecord>> futures = new ArrayList<>();
+    for (int i = 0; i < 1000; i++)
+      futures.add(_executeAsync(listener.getLocalPort(), 5000));
+    for (CompletableFuture<IMetricRecord> future : futures)
+      assertEquals(EMetricRecordState.SUCCESS, future.get(10, TimeUnit.SECONDS).getState());
+
+    _await(() -> accepted.get() == 1000);
+    _await(() -> engine.getPendingCount() == 0);
+  }
+
+  @Test
+  void releasesCancelledConnects() throws Exception
+  {
+    ServerSocket listener = _listen(1);
+    for (int i = 0; i < 16; i++)
+    {
+      Socket socket = new Socket();
+      sockets.add(socket);
+      try
+      {
+        socket.connect(listener.getLocalSocketAddress(), 200);
+      }
+      catch (SocketTimeoutException e)
+      {
+        break;
+      }
+    }
+
+    CompletableFuture<IMetricRecord> future = _executeAsync(listener.getLocalPort(), 60_000);
+    future.cancel(false);
+
+    _await(() -> engine.getPendingCount() == 0);
+  }
+
+  @Test
+  void rejectsInvalidPortsAndUnresolvedAddresses() throws Exception
+  {
+    MetricExecution invalid = TestExecutions.create("metric-1", "127.0.0.1", Map.of("port", "70000"));
+    IMetricRecord record = executor.executeAsync(invalid.getDevice(), invalid.getAddress(), invalid.getPreferences()).get(5, TimeUnit.SECONDS);
+    assertEquals(EMetricRecordState.UNKNOWN, record.getState());
+
+    MetricExecution valid = TestExecutions.create("metric-2", "127.0.0.1", Map.of("port", "80"));
+    CompletableFuture<IMetricRecord> unresolved = executor.executeAsync(valid.getDevice(), null, valid.getPreferences());
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> unresolved.get(5, TimeUnit.SECONDS));
+    assertTrue(ex.getCause() instanceof UnknownHostException);
+  }
+
+  @NotNull
+  private IMetricRecord _execute(int pPort, int pTimeoutMs) throws Exception
+  {
+    return _executeAsync(pPort, pTimeoutMs).get(10, TimeUnit.SECONDS);
+  }
+
+  @NotNull
+  private CompletableFuture<IMetricRecord> _executeAsync(int pPort, int pTimeoutMs)
+  {
+    MetricExecution execution = TestExecutions.create("metric-1", "127.0.0.1", Map.of("port", Integer.toString(pPort),
+                                                                                      "timeout", Integer.toString(pTimeoutMs)));
+    return executor.executeAsync(execution.getDevice(), execution.getAddress(), execution.getPreferences());
+  }
+
+  @NotNull
+  private ServerSocket _listen(int pBacklog) throws IOException
+  {
+    ServerSocket listener = new ServerSocket(0, pBacklog, InetAddress.getLoopbackAddress());
+    listeners.add(listener);
+    return listener;
+  }
+
+  /**
+   * Accepts and closes all connections of the given listener on a separate thread
+   *
+   * @return the number of accepted connections
+   */
+  @NotNull
+  private static AtomicInteger _accept(@NotNull ServerSocket pListener)
+  {
+    AtomicInteger accepted = new AtomicInteger();
+    Thread thread = new Thread(() -> {
+      while (!pListener.isClosed())
+      {
+        try (Socket socket = pListener.accept())
+        {
+          accepted.incrementAndGet();
+        }
+        catch (IOException e)
+        {
+          // closed
+        }
+      }
+    }, "tTcpListener");
+    thread.setDaemon(true);
+    thread.start();
+    return accepted;
+  }
+
+  private static void _await(@NotNull Callable<Boolean> pCondition) throws Exception
+  {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!pCondition.call() && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertTrue(pCondition.call());
+  }
+
+}
@@ -0,0 +1,122 @@
+package de.homestack.satellite.shard;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rendezvous hashing of the devices to the members of a group, without any multicast
+ *
+ * @author agent, 18.10.2026
+ */
+class ShardAssignmentTest
+{
+  private static final int _DEVICES = 3000;
+
+  @Test
+  void ownsEverythingAlone()
+  {
+    ShardAssignment assignment = ShardAssignment.solo("satellite-1");
+
+    assertEquals(List.of("satellite-1"), assignment.getMembers());
+    for (int i = 0; i < _DEVICES; i++)
+      assertTrue(assignment.owns("device-" + i));
+  }
+
+  @Test
+  void assignsEveryDeviceToExactlyOneMember()
+  {
+    List<String> members = List.of("satellite-1", "satellite-2", "satellite-3");
+    List<ShardAssignment> assignments = new ArrayList<>();
+    for (String member : members)
+      assignments.add(new ShardAssignment(member, members));
+
+    Map<String, String> owners = _owners(assignments.get(0));
+    for (int i = 0; i < _DEVICES; i++)
+    {
+      String deviceID = "device-" + i;
+      List<String> owning = new ArrayList<>();
+      for (ShardAssignment assignment : assignments)
+      {
+        assertEquals(owners.get(deviceID), assignment.getOwner(deviceID), "every member has to agree on the owner of " + deviceID);
+        if (assignment.owns(deviceID))
+          owning.add(assignment.getSelf());
+      }
+      assertEquals(List.of(owners.get(deviceID)), owning);
+    }
+
+    // every member gets about a third of the devices
+    Map<String, Integer> counts = _count(owners);
+    for (String member : members)
+      assertTrue(counts.getOrDefault(member, 0) > _DEVICES / 4, "unbalanced assignment: " + counts);
+  }
+
+  @Test
+  void doesNotDependOnTheOrderOfTheMembers()
+  {
+    ShardAssignment first = new ShardAssignment("satellite-1", List.of("satellite-3", "satellite-2"));
+    ShardAssignment second = new ShardAssignment("satellite-1", List.of("satellite-2", "satellite-3", "satellite-1"));
+
+    assertEquals(first, second);
+    assertEquals(List.of("satellite-1", "satellite-2", "satellite-3"), first.getMembers());
+    assertEquals(_owners(first), _owners(second));
+  }
+
+  @Test
+  void movesOnlyDevicesToTheJoiningMember()
+  {
+    Map<String, String> before = _owners(new ShardAssignment("satellite-1", List.of("satellite-2", "satellite-3")));
+    Map<String, String> after = _owners(new ShardAssignment("satellite-1", List.of("satellite-2", "satellite-3", "satellite-4")));
+
+    int moved = 0;
+    for (String deviceID : before.keySet())
+      if (!before.get(deviceID).equals(after.get(deviceID)))
+      {
+        assertEquals("satellite-4", after.get(deviceID), deviceID + " moved between members, that stayed in the group");
+        moved++;
+      }
+
+    // the new member takes about a quarter, everything else stays where it is
+    assertTrue(moved > _DEVICES / 6 && moved < _DEVICES / 3, "unexpected number of moved devices: " + moved);
+  }
+
+  @Test
+  void movesOnlyDevicesOfTheLeavingMember()
+  {
+    Map<String, String> before = _owners(new ShardAssignment("satellite-1", List.of("satellite-2", "satellite-3")));
+    Map<String, String> after = _owners(new ShardAssignment("satellite-1", List.of("satellite-2")));
+
+    Set<String> takers = new HashSet<>();
+    for (String deviceID : before.keySet())
+    {
+      if (before.get(deviceID).equals("satellite-3"))
+        takers.add(after.get(deviceID));
+      else
+        assertEquals(before.get(deviceID), after.get(deviceID), deviceID + " moved, although its member stayed in the group");
+    }
+
+    // the devices of the leaving member are spread among all others
+    assertEquals(Set.of("satellite-1", "satellite-2"), takers);
+  }
+
+  @NotNull
+  private static Map<String, String> _owners(@NotNull ShardAssignment pAssignment)
+  {
+    Map<String, String> owners = new HashMap<>();
+    for (int i = 0; i < _DEVICES; i++)
+      owners.put("device-" + i, pAssignment.getOwner("device-" + i));
+    return owners;
+  }
+
+  @NotNull
+  private static Map<String, Integer> _count(@NotNull Map<String, String> pOwners)
+  {
+    Map<String, Integer> counts = new HashMap<>();
+    pOwners.values().forEach(pOwner -> counts.merge(pOwner, 1, Integer::sum));
+    return counts;
+  }
+
+}
@@ -0,0 +1,156 @@
+package de.homestack.satellite.shard;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several satellites in a single process, that form a shard group over the looped back multicast heartbeats
+ *
+ * @author agent, 18.10.2026
+ */
+class ShardMembershipTest
+{
+  private static final long _TIMEOUT_MS = 10_000;
+
+  private final List<ShardMembership> memberships = new ArrayList<>();
+  private String group;
+  private int port;
+
+  @BeforeEach
+  void setUp()
+  {
+    group = "test-" + UUID.randomUUID();
+    port = ThreadLocalRandom.current().nextInt(40_000, 60_000);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    memberships.forEach(TestShardMemberships::destroy);
+  }
+
+  @Test
+  void ownsEverythingWithoutGroup()
+  {
+    ShardMembership membership = _create(null, "satellite-1");
+
+    assertFalse(membership.isEnabled());
+    assertEquals(List.of("satellite-1"), membership.getAssignment().getMembers());
+    assertTrue(membership.getAssignment().owns("device-1"));
+  }
+
+  @Test
+  void splitsDevicesAmongAllMembers() throws Exception
+  {
+    List<ShardMembership> members = List.of(_create(group, "satellite-1"), _create(group, "satellite-2"), _create(group, "satellite-3"));
+    _assumeMulticast(members.get(0));
+    for (ShardMembership membership : members)
+      _await(membership, pAssignment -> pAssignment.getMembers().size() == 3);
+
+    Map<String, Integer> owned = new HashMap<>();
+    for (int i = 0; i < 300; i++)
+    {
+      String deviceID = "device-" + i;
+      int owners = 0;
+      for (ShardMembership membership : members)
+        if (membership.getAssignment().owns(deviceID))
+        {
+          owners++;
+          owned.merge(membership.getAssignment().getSelf(), 1, Integer::sum);
+        }
+      assertEquals(1, owners, deviceID + " has to be owned by exactly one member");
+    }
+    assertEquals(3, owned.size(), "every member owns a share of the devices: " + owned);
+  }
+
+  @Test
+  void rebalancesIfMemberLeaves() throws Exception
+  {
+    ShardMembership first = _create(group, "satellite-1");
+    ShardMembership second = _create(group, "satellite-2");
+    _assumeMulticast(first);
+    _await(second, pAssignment -> pAssignment.getMembers().size() == 2);
+
+    second.destroy();
+    memberships.remove(second);
+
+    // the announced shutdown is taken over right away, long before the timeout
+    long start = System.nanoTime();
+    _await(first, pAssignment -> pAssignment.getMembers().size() == 1);
+    assertTrue(System.nanoTime() - start < 4_000_000_000L);
+    assertTrue(first.getAssignment().owns("device-1"));
+  }
+
+  @Test
+  void removesMembersThatStoppedSendingHeartbeats() throws Exception
+  {
+    ShardMembership membership = _create(group, "satellite-1");
+    _assumeMulticast(membership);
+
+    // a member, that announces itself once and crashes afterwards
+    try (MulticastSocket socket = new MulticastSocket())
+    {
+      byte[] data = String.join("\t", "homestack-shard", group, "crashed", "alive").getBytes(StandardCharsets.UTF_8);
+      socket.send(new DatagramPacket(data, data.length, InetAddress.getByName(membership.multicastAddress), port));
+    }
+
+    _await(membership, pAssignment -> pAssignment.getMembers().contains("crashed"));
+    _await(membership, pAssignment -> !pAssignment.getMembers().contains("crashed"));
+  }
+
+  @Test
+  void ignoresOtherGroups() throws Exception
+  {
+    ShardMembership membership = _create(group, "satellite-1");
+    ShardMembership other = _create(group + "-other", "satellite-2");
+    _assumeMulticast(membership);
+
+    Thread.sleep(500);
+    assertEquals(List.of("satellite-1"), membership.getAssignment().getMembers());
+    assertEquals(List.of("satellite-2"), other.getAssignment().getMembers());
+  }
+
+  @NotNull
+  private ShardMembership _create(String pGroup, @NotNull String pMember)
+  {
+    ShardMembership membership = TestShardMemberships.create(pGroup, pMember, port);
+    memberships.add(membership);
+    return membership;
+  }
+
+  /**
+   * Skips the test, if multicast is not looped back in this environment.
+   * A single member never hears itself, so the given member has to hear a throwaway member of the same group.
+   */
+  private void _assumeMulticast(@NotNull ShardMembership pMembership) throws InterruptedException
+  {
+    ShardMembership probe = _create(group, "probe");
+    boolean looped = _poll(pMembership, pAssignment -> pAssignment.getMembers().contains("probe"));
+    probe.destroy();
+    memberships.remove(probe);
+    Assumptions.assumeTrue(looped, "multicast is not looped back in this environment");
+    _await(pMembership, pAssignment -> !pAssignment.getMembers().contains("probe"));
+  }
+
+  private static void _await(@NotNull ShardMembership pMembership, @NotNull Predicate<ShardAssignment> pCondition) throws InterruptedException
+  {
+    assertTrue(_poll(pMembership, pCondition), "unexpected assignment " + pMembership.getAssignment());
+  }
+
+  private static boolean _poll(@NotNull ShardMembership pMembership, @NotNull Predicate<ShardAssignment> pCondition) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + _TIMEOUT_MS;
+    while (!pCondition.test(pMembership.getAssignment()) && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    return pCondition.test(pMembership.getAssignment());
+  }
+
+}
@@ -0,0 +1,53 @@
+package de.homestack.satellite.shard;
+
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import org.jetbrains.annotations.*;
+
+import java.util.Optional;
+
+/**
+ * Creates shard memberships for tests, that exchange their heartbeats fast over the looped back multicast
+ *
+ * @author agent, 18.10.2026
+ */
+public class TestShardMemberships
+{
+
+  private TestShardMemberships()
+  {
+  }
+
+  /**
+   * Creates a membership, that joins the given group right away
+   *
+   * @param pGroup  Group to join, or null to disable sharding
+   * @param pMember ID of the satellite within the group
+   * @param pPort   Multicast port of the group
+   * @return the membership, it has to be released with {@link #destroy(ShardMembership)}
+   */
+  @NotNull
+  public static ShardMembership create(@Nullable String pGroup, @NotNull String pMember, int pPort)
+  {
+    ShardMembership membership = new ShardMembership();
+    membership.group = Optional.ofNullable(pGroup);
+    membership.member = Optional.of(pMember);
+    membership.multicastAddress = "239.255.42.99";
+    membership.multicastPort = pPort;
+    membership.heartbeatMillis = 50;
+    membership.timeoutMillis = 500;
+    membership.instrumentation = TestInstrumentation.create();
+    membership.init();
+    return membership;
+  }
+
+  /**
+   * Leaves the group, the other members take over right away
+   *
+   * @param pMembership Membership, that was created by {@link #create(String, String, int)}
+   */
+  public static void destroy(@NotNull ShardMembership pMembership)
+  {
+    pMembership.destroy();
+  }
+
+}
@@ -0,0 +1,141 @@
+package de.homestack.satellite.store;
+
+import com.fasterxml.jackson.databind.*;
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.metrics.api.SimpleMetricRecord;
+import de.homestack.satellite.metrics.execution.*;
+import io.conceptive.homestack.model.data.metric.EMetricRecordState;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.*;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Queries of the local time series store over its resource, with the limits of a single query
+ *
+ * @author agent, 18.10.2026
+ */
+class TimeSeriesResourceTest
+{
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+  private static final long _NOW = 1_700_000_000_000L;
+
+  private TimeSeriesStore store;
+  private MetricScheduler scheduler;
+  private TimeSeriesResource resource;
+
+  @BeforeEach
+  void setUp()
+  {
+    store = new TimeSeriesStore();
+    store.capacity = 100;
+    store.maxSize = 1024 * 1024;
+    store.maxColumns = 4;
+    store.instrumentation = TestInstrumentation.create();
+    store.init();
+
+    for (int metric = 0; metric < 5; metric++)
+      for (int point = 0; point < 10; point++)
+        store.add("metric-" + metric, _NOW + point * 1000L, new SimpleMetricRecord(EMetricRecordState.SUCCESS).withResult("responseTime", point));
+
+    scheduler = TestExecutions.createScheduler();
+    scheduler.schedule("metric-1", TestExecutions.create("metric-1", "127.0.0.1", Map.of()), Duration.ofMillis(20));
+
+    resource = new TimeSeriesResource();
+    resource.enabled = true;
+    resource.maxMetrics = 10;
+    resource.maxPoints = 1000;
+    resource.store = store;
+    resource.scheduler = scheduler;
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    TestExecutions.destroy(scheduler);
+  }
+
+  @Test
+  void isNotServedUnlessEnabled()
+  {
+    resource.enabled = false;
+
+    assertThrows(NotFoundException.class, () -> _query(List.of()));
+  }
+
+  @Test
+  void readsTheGivenMetrics() throws IOException
+  {
+    JsonNode response = _query(List.of("metric-1", "metric-3"));
+
+    assertFalse(response.get("truncated").asBoolean());
+    assertEquals(2, response.get("series").size());
+    JsonNode series = response.get("series").get(0);
+    assertEquals("metric-1", series.get("metricID").asText());
+    assertEquals(10, series.get("timestamps").size());
+    assertEquals(9, series.get("results").get("responseTime").get(9).asInt());
+  }
+
+  @Test
+  void containsTheScheduleLagOfScheduledMetrics() throws Exception
+  {
+    // the metric is due several times meanwhile
+    scheduler.start(pDue -> {
+    });
+    Thread.sleep(200);
+
+    JsonNode response = _query(List.of("metric-1", "metric-2"));
+    assertTrue(response.get("series").get(0).get("scheduleLag").isNumber());
+    assertTrue(response.get("series").get(0).get("scheduleLag").asLong() < 1000);
+    assertTrue(response.get("series").get(1).get("scheduleLag").isNull(), "metric-2 is not scheduled");
+  }
+
+  @Test
+  void rejectsTooManyMetrics()
+  {
+    resource.maxMetrics = 2;
+
+    assertThrows(BadRequestException.class, () -> _query(List.of("metric-1", "metric-2", "metric-3")));
+  }
+
+  @Test
+  void truncatesResponsesAtTheLimits() throws IOException
+  {
+    resource.maxPoints = 25;
+    JsonNode response = _query(List.of());
+    assertTrue(response.get("truncated").asBoolean());
+    assertEquals(2, response.get("series").size(), "a series is returned completely or not at all");
+
+    resource.maxPoints = 1000;
+    resource.maxMetrics = 3;
+    response = _query(List.of());
+    assertTrue(response.get("truncated").asBoolean());
+    assertEquals(3, response.get("series").size());
+  }
+
+  @Test
+  void doesNotReturnForgottenMetrics() throws IOException
+  {
+    store.forget("metric-1");
+
+    JsonNode response = _query(List.of("metric-1", "metric-2"));
+    assertEquals(1, response.get("series").size());
+    assertEquals("metric-2", response.get("series").get(0).get("metricID").asText());
+  }
+
+  @NotNull
+  private JsonNode _query(@NotNull List<String> pMetricIDs) throws IOException
+  {
+    StreamingOutput output = resource.query(pMetricIDs, List.of(), _NOW, _NOW + 60_000, 0, "avg");
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    output.write(stream);
+    return _MAPPER.readTree(stream.toByteArray());
+  }
+
+}
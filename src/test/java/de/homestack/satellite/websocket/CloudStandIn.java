@@ -0,0 +1,428 @@
+package de.homestack.satellite.websocket;
+
+import de.homestack.satellite.websocket.codec.*;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.conceptive.homestack.model.satellite.events.RenewConfigurationEventData;
+import org.jetbrains.annotations.*;
+
+import javax.websocket.*;
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the websocket endpoint of the homestack cloud, connected to a single client.
+ * It answers the authentication of the client and persists the record batches it receives, dropping duplicates
+ * by their sequence number, like the cloud does. Configurations are sent to the client on demand. It can be stopped and started again on purpose, which closes
+ * the connection of the client, while everything it persisted survives.
+ * The record encoding is negotiated like the cloud does it: the first encoding offered by the client, that the stand-in accepts,
+ * is requested with the answer to the authentication.
+ * Optionally it acknowledges persisted batches cumulatively, persists and answers with a latency and drops the
+ * connection after a number of batches - batches that were received, but not persisted yet, are lost with it.
+ *
+ * @author agent, 18.10.2026
+ */
+class CloudStandIn implements AutoCloseable
+{
+  private volatile SatelliteConfigWebSocketClient client;
+  private final ScheduledExecutorService replies = Executors.newSingleThreadScheduledExecutor();
+  private final List<Long> persisted = new CopyOnWriteArrayList<>();
+  private final List<Long> received = new CopyOnWriteArrayList<>();
+  private final List<String> receivedEncodings = new CopyOnWriteArrayList<>();
+  private final AtomicInteger dropCountdown = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private volatile _Connection connection;
+  private volatile boolean acknowledging = false;
+  private volatile long latencyMillis = 0;
+  private volatile List<String> acceptedEncodings = List.of("json");
+  private volatile String requestedEncoding = null; // requested regardless of the offer, if set
+
+  CloudStandIn(@NotNull SatelliteConfigWebSocketClient pClient)
+  {
+    client = pClient;
+  }
+
+  /**
+   * Starts the stand-in and connects the client to it
+   */
+  void start()
+  {
+    _Connection next = new _Connection(client);
+    connection = next;
+    next.client.onOpen(next.session, null);
+  }
+
+  /**
+   * Starts the stand-in and connects another client to it, e.g. the restarted satellite
+   *
+   * @param pClient Client to connect
+   */
+  void start(@NotNull SatelliteConfigWebSocketClient pClient)
+  {
+    client = pClient;
+    start();
+  }
+
+  /**
+   * Acknowledges persisted batches cumulatively from now on, starting with the next authentication
+   */
+  void acknowledge()
+  {
+    acknowledging = true;
+  }
+
+  /**
+   * Sets the record encodings, that the stand-in accepts, starting with the next authentication.
+   * Json is accepted by default and never requested, as it is used without negotiation.
+   *
+   * @param pEncodings Names of the encodings
+   */
+  void acceptEncodings(@NotNull String... pEncodings)
+  {
+    acceptedEncodings = List.of(pEncodings);
+  }
+
+  /**
+   * Requests the given record encoding with the answer to the next authentication, whatever the client offered
+   *
+   * @param pEncoding Name of the encoding
+   */
+  void requestEncoding(@NotNull String pEncoding)
+  {
+    requestedEncoding = pEncoding;
+  }
+
+  /**
+   * Delays the persistence of batches and all answers to the client
+   *
+   * @param pLatencyMillis Latency in milliseconds
+   */
+  void setLatency(long pLatencyMillis)
+  {
+    latencyMillis = pLatencyMillis;
+  }
+
+  /**
+   * Drops the connection, as soon as the given number of further batches was received.
+   * The last of those batches and all batches, that were not persisted yet, are lost.
+   *
+   * @param pBatches Number of batches
+   */
+  void dropConnectionAfter(int pBatches)
+  {
+    dropCountdown.set(pBatches);
+  }
+
+  /**
+   * Sends a new configuration to the client, after everything that was answered before
+   *
+   * @param pEventData JSON of the RenewConfigurationEventData
+   */
+  void sendConfiguration(@NotNull byte[] pEventData)
+  {
+    _Connection current = connection;
+    if (current == null)
+      throw new IllegalStateException("stand-in is not started");
+
+    _later(() -> {
+      if (current.open)
+        current.client.onMessage(CloudEventBuilder.v1()
+                                     .withId(UUID.randomUUID().toString())
+                                     .withType(RenewConfigurationEventData.TYPE)
+                                     .withSource(URI.create("/cloud"))
+                                     .withData("application/json", pEventData)
+                                     .build());
+    });
+  }
+
+  /**
+   * @return true, if the client is connected to this stand-in
+   */
+  boolean isConnected()
+  {
+    return connection != null;
+  }
+
+  /**
+   * @return the highest number of batches, that were received but not persisted yet at the same time
+   */
+  int getMaxInFlight()
+  {
+    return maxInFlight.get();
+  }
+
+  /**
+   * Stops the stand-in, which closes the connection of the client
+   */
+  void stop()
+  {
+    _Connection current = connection;
+    if (current == null)
+      return;
+
+    connection = null;
+    current.open = false;
+    current.client.onClose(current.session, new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "stand-in stopped"));
+  }
+
+  /**
+   * @return sequence numbers of all persisted batches, in the order they were persisted
+   */
+  @NotNull
+  List<Long> getPersisted()
+  {
+    return persisted;
+  }
+
+  /**
+   * @return sequence numbers of all received batches, including duplicates
+   */
+  @NotNull
+  List<Long> getReceived()
+  {
+    return received;
+  }
+
+  /**
+   * @return names of the encodings of all received batches, in the order they were received
+   */
+  @NotNull
+  List<String> getReceivedEncodings()
+  {
+    return receivedEncodings;
+  }
+
+  /**
+   * Waits, until the given number of batches was persisted
+   *
+   * @param pCount Number of batches
+   * @return true, if they were persisted in time
+   */
+  boolean awaitPersisted(int pCount, long pTimeoutMillis) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + pTimeoutMillis;
+    while (persisted.size() < pCount && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    return persisted.size() >= pCount;
+  }
+
+  @Override
+  public void close()
+  {
+    stop();
+    replies.shutdownNow();
+  }
+
+  /**
+   * Handles a single event, sent by the client
+   *
+   * @param pConnection Connection, the event was sent with
+   * @param pEvent      Event
+   * @return the future of the send operation
+   */
+  @NotNull
+  private Future<Void> _receive(@NotNull _Connection pConnection, @NotNull CloudEvent pEvent)
+  {
+    if (!pConnection.open)
+      return CompletableFuture.failedFuture(new IOException("connection closed"));
+
+    String source = pEvent.getSource().toString();
+    if (source.equals("/satellite/auth"))
+    {
+      String encoding = _negotiate(pEvent.getExtension("encodings"));
+      _later(() -> _reply(pConnection, "authenticated", encoding));
+    }
+    else if (source.equals("/satellite/records"))
+    {
+      Object sequence = pEvent.getExtension("sequence");
+      long value = sequence == null ? -1 : Long.parseLong(sequence.toString());
+      received.add(value);
+      receivedEncodings.add(_decode(pEvent).getName());
+      if (dropCountdown.get() > 0 && dropCountdown.decrementAndGet() == 0)
+      {
+        stop();
+        return CompletableFuture.failedFuture(new IOException("connection dropped"));
+      }
+
+      maxInFlight.accumulateAndGet(pConnection.inFlight.incrementAndGet(), Math::max);
+      _later(() -> _persist(pConnection, value));
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Persists a record batch, if it was not persisted before, and acknowledges it
+   */
+  private void _persist(@NotNull _Connection pConnection, long pSequence)
+  {
+    pConnection.inFlight.decrementAndGet();
+    if (!pConnection.open)
+      return; // lost with the connection
+
+    synchronized (persisted)
+    {
+      if (pSequence < 0 || persisted.isEmpty() || persisted.get(persisted.size() - 1) < pSequence)
+        persisted.add(pSequence);
+    }
+    if (acknowledging)
+      _reply(pConnection, "acknowledged", null);
+  }
+
+  /**
+   * Chooses the record encoding for the client
+   *
+   * @param pOffered Comma separated encodings, offered by the client in order of preference
+   * @return the encoding to request, or null to keep json
+   */
+  @Nullable
+  private String _negotiate(@Nullable Object pOffered)
+  {
+    if (requestedEncoding != null)
+      return requestedEncoding;
+    if (pOffered == null)
+      return null;
+
+    for (String offered : pOffered.toString().split(","))
+      if (acceptedEncodings.contains(offered) && !offered.equals("json"))
+        return offered;
+    return null;
+  }
+
+  /**
+   * Decodes the data of a record event, as the cloud does it
+   *
+   * @param pEvent Record event
+   * @return the codec, the data was encoded with
+   */
+  @NotNull
+  private static RecordCodec _decode(@NotNull CloudEvent pEvent)
+  {
+    RecordCodec codec = RecordCodecs.getAll().stream()
+        .filter(pCodec -> Objects.equals(pCodec.getContentType(), pEvent.getDataContentType()))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("unknown content type " + pEvent.getDataContentType()));
+    byte[] payload = Objects.requireNonNull(pEvent.getData(), "record event without data").toBytes();
+    byte[] tagged = new byte[payload.length + 1];
+    tagged[0] = codec.getID();
+    System.arraycopy(payload, 0, tagged, 1, payload.length);
+    try
+    {
+      codec.decodeTree(tagged);
+    }
+    catch (IOException e)
+    {
+      throw new IllegalStateException("record event can not be decoded with " + codec, e);
+    }
+    return codec;
+  }
+
+  /**
+   * Answers the client, with the acknowledgement of the last persisted batch if acknowledging
+   *
+   * @param pEncoding Record encoding to request, or null
+   */
+  private void _reply(@NotNull _Connection pConnection, @NotNull String pType, @Nullable String pEncoding)
+  {
+    if (!pConnection.open)
+      return;
+
+    CloudEventBuilder builder = CloudEventBuilder.v1()
+        .withId(UUID.randomUUID().toString())
+        .withType(pType)
+        .withSource(URI.create("/cloud"));
+    if (pEncoding != null)
+      builder.withExtension("encoding", pEncoding);
+    if (acknowledging)
+      synchronized (persisted)
+      {
+        builder.withExtension("ack", Long.toString(persisted.isEmpty() ? -1 : persisted.get(persisted.size() - 1)));
+      }
+    pConnection.client.onMessage(builder.build());
+  }
+
+  /**
+   * Runs the given task asynchronously after the latency, as the cloud does it
+   */
+  private void _later(@NotNull Runnable pTask)
+  {
+    replies.schedule(pTask, latencyMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * A single connection of the client, as seen by the client
+   */
+  private class _Connection
+  {
+    private final SatelliteConfigWebSocketClient client;
+    private final Session session;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean open = true;
+
+    private _Connection(@NotNull SatelliteConfigWebSocketClient pClient)
+    {
+      client = pClient;
+      RemoteEndpoint.Async remote = _proxy(RemoteEndpoint.Async.class, (pMethod, pArgs) -> {
+        switch (pMethod.getName())
+        {
+          case "sendObject":
+            return _receive(this, (CloudEvent) pArgs[0]);
+          case "sendPing":
+            return null;
+          default:
+            throw new UnsupportedOperationException(pMethod.getName());
+        }
+      });
+      session = _proxy(Session.class, (pMethod, pArgs) -> {
+        switch (pMethod.getName())
+        {
+          case "getAsyncRemote":
+            return remote;
+          case "isOpen":
+            return open;
+          default:
+            throw new UnsupportedOperationException(pMethod.getName());
+        }
+      });
+    }
+  }
+
+  /**
+   * Implements the given interface with the given handler, identity is kept for equals and hashCode
+   */
+  @NotNull
+  private static <T> T _proxy(@NotNull Class<T> pInterface, @NotNull _Handler pHandler)
+  {
+    return pInterface.cast(Proxy.newProxyInstance(CloudStandIn.class.getClassLoader(), new Class<?>[]{pInterface}, new InvocationHandler()
+    {
+      @Override
+      public Object invoke(Object pProxy, Method pMethod, Object[] pArgs) throws Throwable
+      {
+        switch (pMethod.getName())
+        {
+          case "equals":
+            return pProxy == pArgs[0];
+          case "hashCode":
+            return System.identityHashCode(pProxy);
+          case "toString":
+            return pInterface.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(pProxy));
+          default:
+            return pHandler.handle(pMethod, pArgs);
+        }
+      }
+    }));
+  }
+
+  /**
+   * Handles the calls of a proxy, except equals, hashCode and toString
+   */
+  private interface _Handler
+  {
+    @Nullable
+    Object handle(@NotNull Method pMethod, @Nullable Object[] pArgs) throws Throwable;
+  }
+
+}
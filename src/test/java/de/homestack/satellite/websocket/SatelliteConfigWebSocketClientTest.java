@@ -0,0 +1,273 @@
+package de.homestack.satellite.websocket;
+
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Store-and-forward of record batches through the spool, against an in-process stand-in of the cloud
+ * that gets stopped and started again on purpose
+ *
+ * @author agent, 18.10.2026
+ */
+class SatelliteConfigWebSocketClientTest
+{
+  private static final long _TIMEOUT_MS = 10_000;
+
+  @TempDir
+  Path spool;
+
+  private final List<SatelliteConfigWebSocketClient> clients = new ArrayList<>();
+  private final List<CloudStandIn> standIns = new ArrayList<>();
+
+  @AfterEach
+  void tearDown()
+  {
+    standIns.forEach(CloudStandIn::close);
+    clients.forEach(SatelliteConfigWebSocketClient::destroy);
+  }
+
+  @Test
+  void replaysSpooledBatchesInOrderAfterConnect() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient();
+    for (int i = 0; i < 50; i++)
+      client.sendMetricRecords(Set.of());
+    assertEquals(Integer.MAX_VALUE, client.getCapacity(), "the spool takes everything while disconnected");
+
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.start();
+
+    assertTrue(cloud.awaitPersisted(50, _TIMEOUT_MS));
+    _assertStrictlyIncreasing(cloud.getPersisted());
+    _awaitDrained(client);
+  }
+
+  @Test
+  void survivesRestartOfTheCloud() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient();
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.start();
+    for (int i = 0; i < 10; i++)
+      client.sendMetricRecords(Set.of());
+    assertTrue(cloud.awaitPersisted(10, _TIMEOUT_MS));
+    _awaitDrained(client);
+
+    cloud.stop();
+    for (int i = 0; i < 20; i++)
+      client.sendMetricRecords(Set.of());
+    assertEquals(20, _getPending(client));
+
+    cloud.start();
+    assertTrue(cloud.awaitPersisted(30, _TIMEOUT_MS));
+    assertEquals(30, cloud.getPersisted().size());
+    _assertStrictlyIncreasing(cloud.getPersisted());
+    _awaitDrained(client);
+  }
+
+  @Test
+  void survivesRestartOfTheSatellite() throws Exception
+  {
+    SatelliteConfigWebSocketClient first = _createClient();
+    for (int i = 0; i < 25; i++)
+      first.sendMetricRecords(Set.of());
+    first.destroy();
+    clients.remove(first);
+
+    SatelliteConfigWebSocketClient second = _createClient();
+    assertEquals(25, _getPending(second));
+    CloudStandIn cloud = _createStandIn(second);
+    cloud.start();
+
+    assertTrue(cloud.awaitPersisted(25, _TIMEOUT_MS));
+    _assertStrictlyIncreasing(cloud.getPersisted());
+    _awaitDrained(second);
+  }
+
+  @Test
+  void limitsUnacknowledgedBatchesToTheWindow() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient();
+    for (int i = 0; i < 100; i++)
+      client.sendMetricRecords(Set.of());
+
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.acknowledge();
+    cloud.setLatency(20);
+    cloud.start();
+
+    assertTrue(cloud.awaitPersisted(100, _TIMEOUT_MS));
+    _assertStrictlyIncreasing(cloud.getPersisted());
+    _awaitDrained(client);
+    assertTrue(cloud.getMaxInFlight() <= 8, "more batches in flight than the window allows: " + cloud.getMaxInFlight());
+    assertTrue(cloud.getMaxInFlight() > 1, "batches have to be pipelined while waiting for acknowledgements");
+    assertEquals(100, cloud.getReceived().size(), "nothing is resent on a healthy connection");
+  }
+
+  @Test
+  void resumesFromTheLastAcknowledgementAfterDroppedConnections() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient();
+    for (int i = 0; i < 100; i++)
+      client.sendMetricRecords(Set.of());
+
+    // every connection gets dropped after 15 batches, losing the ones in flight that were not persisted yet
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.acknowledge();
+    cloud.setLatency(10);
+    for (int i = 0; i < 4; i++)
+    {
+      cloud.dropConnectionAfter(15);
+      cloud.start();
+      _awaitDisconnected(cloud);
+      client.sendMetricRecords(Set.of());
+    }
+    cloud.start();
+
+    assertTrue(cloud.awaitPersisted(104, _TIMEOUT_MS));
+    _awaitDrained(client);
+    assertEquals(104, cloud.getPersisted().size());
+    _assertStrictlyIncreasing(cloud.getPersisted());
+    assertTrue(cloud.getReceived().size() > 104, "the batches lost with the connections have to be resent");
+  }
+
+  @Test
+  void resumesAcrossRestartOfTheSatelliteWithAcknowledgements() throws Exception
+  {
+    SatelliteConfigWebSocketClient first = _createClient();
+    CloudStandIn cloud = _createStandIn(first);
+    cloud.acknowledge();
+    cloud.setLatency(10);
+    for (int i = 0; i < 40; i++)
+      first.sendMetricRecords(Set.of());
+    cloud.dropConnectionAfter(20);
+    cloud.start();
+    _awaitDisconnected(cloud);
+    first.destroy();
+    clients.remove(first);
+
+    SatelliteConfigWebSocketClient second = _createClient();
+    assertTrue(_getPending(second) > 0);
+    cloud.start(second);
+
+    assertTrue(cloud.awaitPersisted(40, _TIMEOUT_MS));
+    _awaitDrained(second);
+    assertEquals(40, cloud.getPersisted().size());
+    _assertStrictlyIncreasing(cloud.getPersisted());
+  }
+
+  @Test
+  void encodesWithTheFirstOfferedEncodingTheCloudAccepts() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient("cbor+deflate,smile,json");
+    for (int i = 0; i < 10; i++)
+      client.sendMetricRecords(Set.of());
+
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.acceptEncodings("json", "smile", "cbor");
+    cloud.start();
+    assertTrue(cloud.awaitPersisted(10, _TIMEOUT_MS));
+    client.sendMetricRecords(Set.of());
+    assertTrue(cloud.awaitPersisted(11, _TIMEOUT_MS));
+
+    // spooled batches are transcoded, before they are replayed
+    assertEquals(Collections.nCopies(11, "smile"), cloud.getReceivedEncodings());
+  }
+
+  @Test
+  void fallsBackToJsonIfTheCloudAcceptsNoneOfTheOfferedEncodings() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient("smile+deflate,cbor");
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.start();
+    for (int i = 0; i < 5; i++)
+      client.sendMetricRecords(Set.of());
+
+    assertTrue(cloud.awaitPersisted(5, _TIMEOUT_MS));
+    assertEquals(Collections.nCopies(5, "json"), cloud.getReceivedEncodings());
+  }
+
+  @Test
+  void keepsJsonIfTheCloudRequestsAnUnknownEncoding() throws Exception
+  {
+    SatelliteConfigWebSocketClient client = _createClient("smile+deflate,json");
+    CloudStandIn cloud = _createStandIn(client);
+    cloud.requestEncoding("brotli");
+    cloud.start();
+    for (int i = 0; i < 5; i++)
+      client.sendMetricRecords(Set.of());
+
+    assertTrue(cloud.awaitPersisted(5, _TIMEOUT_MS));
+    assertEquals(Collections.nCopies(5, "json"), cloud.getReceivedEncodings());
+  }
+
+  @NotNull
+  private SatelliteConfigWebSocketClient _createClient()
+  {
+    return _createClient("json");
+  }
+
+  @NotNull
+  private SatelliteConfigWebSocketClient _createClient(@NotNull String pEncodings)
+  {
+    SatelliteConfigWebSocketClient client = new SatelliteConfigWebSocketClient();
+    client.spoolDirectory = spool.toString();
+    client.spoolSegmentSize = 4096;
+    client.spoolMaxSize = 1 << 20;
+    client.spoolForceSize = 1024;
+    client.encodings = pEncodings;
+    client.sendWindow = 8;
+    client.backpressureThreshold = 64;
+    client.ackTimeoutMillis = 1000;
+    client.instrumentation = TestInstrumentation.create();
+    client.init();
+    clients.add(client);
+    return client;
+  }
+
+  @NotNull
+  private CloudStandIn _createStandIn(@NotNull SatelliteConfigWebSocketClient pClient)
+  {
+    CloudStandIn standIn = new CloudStandIn(pClient);
+    standIns.add(standIn);
+    return standIn;
+  }
+
+  private static void _awaitDrained(@NotNull SatelliteConfigWebSocketClient pClient) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + _TIMEOUT_MS;
+    while (_getPending(pClient) > 0 && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertEquals(0, _getPending(pClient));
+  }
+
+  private static void _awaitDisconnected(@NotNull CloudStandIn pCloud) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + _TIMEOUT_MS;
+    while (pCloud.isConnected() && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertFalse(pCloud.isConnected());
+  }
+
+  /**
+   * @return the number of spooled batches, that were not uploaded yet
+   */
+  private static long _getPending(@NotNull SatelliteConfigWebSocketClient pClient)
+  {
+    return (long) TestInstrumentation.gauge(pClient.instrumentation, "spool.pending");
+  }
+
+  private static void _assertStrictlyIncreasing(@NotNull List<Long> pSequences)
+  {
+    for (int i = 1; i < pSequences.size(); i++)
+      assertTrue(pSequences.get(i - 1) < pSequences.get(i), "batch " + i + " was persisted out of order: " + pSequences);
+  }
+
+}
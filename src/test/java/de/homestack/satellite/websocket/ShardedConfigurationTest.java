@@ -0,0 +1,262 @@
+package de.homestack.satellite.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.homestack.satellite.config.*;
+import de.homestack.satellite.instrumentation.TestInstrumentation;
+import de.homestack.satellite.shard.*;
+import de.homestack.satellite.websocket.api.IConfigConsumer;
+import io.reactivex.disposables.Disposable;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.enterprise.inject.Instance;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several satellites of a shard group in a single process, that receive the same configuration from their stand-ins
+ * of the cloud. Every device has to be probed by exactly one of them - the devices a satellite probes are the ones
+ * in the diffs of its configuration provider, the collector plans exactly those.
+ *
+ * @author agent, 18.10.2026
+ */
+class ShardedConfigurationTest
+{
+  private static final long _TIMEOUT_MS = 10_000;
+  private static final int _DEVICES = 60;
+  private static final ObjectMapper _MAPPER = new ObjectMapper();
+
+  @TempDir
+  Path directory;
+
+  private final List<_Satellite> satellites = new ArrayList<>();
+  private String group;
+  private int port;
+
+  @BeforeEach
+  void setUp()
+  {
+    group = "test-" + UUID.randomUUID();
+    port = ThreadLocalRandom.current().nextInt(40_000, 60_000);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    satellites.forEach(_Satellite::close);
+  }
+
+  @Test
+  void probesEveryDeviceOnceWithinTheGroup() throws Exception
+  {
+    List<_Satellite> members = List.of(_create("satellite-1"), _create("satellite-2"), _create("satellite-3"));
+    _assumeGroup(members);
+
+    byte[] config = _config();
+    for (_Satellite satellite : members)
+      satellite.cloud.sendConfiguration(config);
+
+    _await(() -> members.stream().allMatch(_Satellite::probesItsShard), members);
+    Map<String, Long> probes = members.stream()
+        .flatMap(pSatellite -> pSatellite.devices.stream())
+        .collect(Collectors.groupingBy(pDeviceID -> pDeviceID, Collectors.counting()));
+    assertEquals(_DEVICES, probes.size());
+    assertEquals(Set.of(1L), new HashSet<>(probes.values()), "devices probed more than once: " + probes);
+    for (_Satellite satellite : members)
+      assertFalse(satellite.devices.isEmpty(), satellite + " probes nothing");
+  }
+
+  @Test
+  void movesAllDevicesToTheSurvivor() throws Exception
+  {
+    _Satellite survivor = _create("satellite-1");
+    _Satellite leaving = _create("satellite-2");
+    List<_Satellite> members = List.of(survivor, leaving);
+    _assumeGroup(members);
+
+    byte[] config = _config();
+    for (_Satellite satellite : members)
+      satellite.cloud.sendConfiguration(config);
+    _await(() -> members.stream().allMatch(_Satellite::probesItsShard), members);
+    assertTrue(survivor.devices.size() < _DEVICES, "the devices have to be split before a member leaves");
+
+    leaving.close();
+    satellites.remove(leaving);
+
+    _await(() -> survivor.devices.size() == _DEVICES && survivor.metrics.size() == _DEVICES, List.of(survivor));
+    assertTrue(survivor.probesItsShard());
+  }
+
+  @NotNull
+  private _Satellite _create(@NotNull String pMember)
+  {
+    _Satellite satellite = new _Satellite(pMember);
+    satellites.add(satellite);
+    return satellite;
+  }
+
+  /**
+   * Skips the test, if the members do not hear each other, because multicast is not looped back in this environment
+   */
+  private static void _assumeGroup(@NotNull List<_Satellite> pMembers) throws InterruptedException
+  {
+    boolean formed = _poll(() -> pMembers.stream().allMatch(pSatellite -> pSatellite.membership.getAssignment().getMembers().size() == pMembers.size()));
+    Assumptions.assumeTrue(formed, "multicast is not looped back in this environment");
+  }
+
+  private static void _await(@NotNull BooleanSupplier pCondition, @NotNull List<_Satellite> pSatellites) throws InterruptedException
+  {
+    assertTrue(_poll(pCondition), "unexpected shards " + pSatellites);
+  }
+
+  private static boolean _poll(@NotNull BooleanSupplier pCondition) throws InterruptedException
+  {
+    long deadline = System.currentTimeMillis() + _TIMEOUT_MS;
+    while (!pCondition.getAsBoolean() && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    return pCondition.getAsBoolean();
+  }
+
+  /**
+   * @return JSON of a RenewConfigurationEventData, with a single metric per device
+   */
+  @NotNull
+  private static byte[] _config() throws Exception
+  {
+    List<Map<String, Object>> devices = new ArrayList<>();
+    List<Map<String, Object>> metrics = new ArrayList<>();
+    for (int i = 0; i < _DEVICES; i++)
+    {
+      devices.add(Map.of("id", "device-" + i, "address", "10.0.0." + i));
+      metrics.add(Map.of("id", "metric-" + i, "deviceID", "device-" + i, "type", "ping", "settings", Map.of()));
+    }
+    return _MAPPER.writeValueAsBytes(Map.of("config", Map.of("devices", devices, "metrics", metrics)));
+  }
+
+  /**
+   * A single satellite, connected to its own stand-in of the cloud
+   */
+  private class _Satellite implements AutoCloseable
+  {
+    private final String member;
+    private final ShardMembership membership;
+    private final IConfigProvider provider;
+    private final SatelliteConfigWebSocketClient client;
+    private final CloudStandIn cloud;
+    private final Disposable disposable;
+    private final Set<String> devices = Collections.synchronizedSet(new HashSet<>()); // currently probed
+    private final Set<String> metrics = Collections.synchronizedSet(new HashSet<>()); // currently probed
+    private boolean closed = false;
+
+    private _Satellite(@NotNull String pMember)
+    {
+      member = pMember;
+      membership = TestShardMemberships.create(group, pMember, port);
+      provider = TestConfigProviders.create(membership, directory.resolve(pMember + ".snapshot"));
+      disposable = provider.observeDiffs().subscribe(this::_apply);
+
+      client = new SatelliteConfigWebSocketClient();
+      client.spoolDirectory = directory.resolve(pMember + "-spool").toString();
+      client.spoolSegmentSize = 4096;
+      client.spoolMaxSize = 1 << 20;
+      client.spoolForceSize = 1024;
+      client.encodings = "json";
+      client.sendWindow = 8;
+      client.backpressureThreshold = 64;
+      client.ackTimeoutMillis = 1000;
+      client.instrumentation = TestInstrumentation.create();
+      client.consumers = _consumers((IConfigConsumer) provider);
+      client.init();
+
+      cloud = new CloudStandIn(client);
+      cloud.start();
+    }
+
+    /**
+     * @return true, if this satellite probes exactly the devices of its shard, with all of their metrics
+     */
+    private boolean probesItsShard()
+    {
+      ShardAssignment assignment = membership.getAssignment();
+      Set<String> owned = IntStream.range(0, _DEVICES)
+          .mapToObj(pIndex -> "device-" + pIndex)
+          .filter(assignment::owns)
+          .collect(Collectors.toSet());
+      synchronized (devices)
+      {
+        synchronized (metrics)
+        {
+          return devices.equals(owned) && metrics.equals(owned.stream().map(pDeviceID -> pDeviceID.replace("device-", "metric-")).collect(Collectors.toSet()));
+        }
+      }
+    }
+
+    private void _apply(@NotNull ConfigDiff pDiff)
+    {
+      devices.addAll(pDiff.getAddedDevices().keySet());
+      devices.addAll(pDiff.getChangedDevices().keySet());
+      devices.removeAll(pDiff.getRemovedDevices());
+      metrics.addAll(pDiff.getAddedMetrics().keySet());
+      metrics.addAll(pDiff.getChangedMetrics().keySet());
+      metrics.removeAll(pDiff.getRemovedMetrics());
+    }
+
+    @Override
+    public void close()
+    {
+      if (closed)
+        return;
+
+      closed = true;
+      cloud.close();
+      client.destroy();
+      disposable.dispose();
+      TestConfigProviders.destroy(provider);
+      TestShardMemberships.destroy(membership);
+    }
+
+    @Override
+    public String toString()
+    {
+      return member + "{devices=" + devices.size() + ", metrics=" + metrics.size() + ", assignment=" + membership.getAssignment() + "}";
+    }
+  }
+
+  /**
+   * Injects the given consumers into a client, like CDI does
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  private static Instance<IConfigConsumer> _consumers(@NotNull IConfigConsumer... pConsumers)
+  {
+    List<IConfigConsumer> consumers = List.of(pConsumers);
+    return (Instance<IConfigConsumer>) Proxy.newProxyInstance(ShardedConfigurationTest.class.getClassLoader(), new Class<?>[]{Instance.class}, (pProxy, pMethod, pArgs) -> {
+      switch (pMethod.getName())
+      {
+        case "iterator":
+          return consumers.iterator();
+        case "stream":
+          return consumers.stream();
+        case "forEach":
+          consumers.forEach((Consumer<? super IConfigConsumer>) pArgs[0]);
+          return null;
+        case "equals":
+          return pProxy == pArgs[0];
+        case "hashCode":
+          return System.identityHashCode(pProxy);
+        case "toString":
+          return "Instance" + consumers;
+        default:
+          throw new UnsupportedOperationException(pMethod.getName());
+      }
+    });
+  }
+
+}
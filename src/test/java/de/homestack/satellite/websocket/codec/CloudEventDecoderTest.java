@@ -0,0 +1,105 @@
+package de.homestack.satellite.websocket.codec;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.jackson.JsonFormat;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.DecodeException;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author agent, 18.10.2026
+ */
+class CloudEventDecoderTest
+{
+  private static final String _CONFIG = "{\"devices\":[{\"id\":\"a\",\"port\":80,\"enabled\":true},{\"id\":\"b\",\"tags\":[]}],\"version\":3}";
+
+  private final CloudEventDecoder decoder = new CloudEventDecoder();
+
+  @Test
+  void decodesWhatTheJsonFormatOfCloudEventsWrites() throws Exception
+  {
+    CloudEvent event = CloudEventBuilder.v1()
+        .withId("42")
+        .withSource(URI.create("/cloud"))
+        .withType("renewConfiguration")
+        .withSubject("satellite")
+        .withTime(OffsetDateTime.parse("2026-10-18T10:15:30Z"))
+        .withExtension("ack", 17L)
+        .withExtension("encoding", "smile+deflate")
+        .withData("application/json", _CONFIG.getBytes(StandardCharsets.UTF_8))
+        .build();
+
+    CloudEvent decoded = _decode(new String(new JsonFormat().serialize(event), StandardCharsets.UTF_8));
+
+    assertEquals(event.getId(), decoded.getId());
+    assertEquals(event.getSource(), decoded.getSource());
+    assertEquals(event.getType(), decoded.getType());
+    assertEquals(event.getSubject(), decoded.getSubject());
+    assertEquals(event.getTime(), decoded.getTime());
+    assertEquals(event.getDataContentType(), decoded.getDataContentType());
+    assertEquals("smile+deflate", decoded.getExtension("encoding"));
+    assertEquals(17L, ((Number) decoded.getExtension("ack")).longValue());
+    assertNotNull(decoded.getData());
+    assertEquals(_CONFIG, new String(decoded.getData().toBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void copiesTheDataAsCompactJson() throws Exception
+  {
+    CloudEvent decoded = _decode("{\"specversion\":\"1.0\",\"id\":\"1\",\"source\":\"/cloud\",\"type\":\"t\",\"datacontenttype\":\"application/json\","
+                                     + "\"data\": {\n  \"devices\": [ {\"id\" : \"a\"} ]\n}}");
+
+    assertNotNull(decoded.getData());
+    assertEquals("{\"devices\":[{\"id\":\"a\"}]}", new String(decoded.getData().toBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void decodesBase64Data() throws Exception
+  {
+    CloudEvent event = CloudEventBuilder.v1()
+        .withId("1")
+        .withSource(URI.create("/cloud"))
+        .withType("t")
+        .withData("application/octet-stream", new byte[]{0, 1, 2, (byte) 255})
+        .build();
+
+    CloudEvent decoded = _decode(new String(new JsonFormat().serialize(event), StandardCharsets.UTF_8));
+
+    assertNotNull(decoded.getData());
+    assertArrayEquals(new byte[]{0, 1, 2, (byte) 255}, decoded.getData().toBytes());
+  }
+
+  @Test
+  void decodesEventsWithoutData() throws Exception
+  {
+    CloudEvent decoded = _decode("{\"specversion\":\"1.0\",\"id\":\"1\",\"source\":\"/cloud\",\"type\":\"t\"}");
+
+    assertEquals("t", decoded.getType());
+    assertNull(decoded.getData());
+  }
+
+  @Test
+  void rejectsInvalidEvents()
+  {
+    assertThrows(DecodeException.class, () -> _decode("{\"specversion\":\"1.0\",\"source\":\"/cloud\",\"type\":\"t\"}"));
+    assertThrows(DecodeException.class, () -> _decode("{\"specversion\":\"0.3\",\"id\":\"1\",\"source\":\"/cloud\",\"type\":\"t\"}"));
+    assertThrows(DecodeException.class, () -> _decode("{\"specversion\":\"1.0\",\"id\":\"1\",\"source\":\"/cloud\",\"type\":\"t\",\"ext\":{}}"));
+    assertThrows(DecodeException.class, () -> _decode("[]"));
+    assertThrows(DecodeException.class, () -> _decode("{\"specversion\":\"1.0\",\"id\":"));
+  }
+
+  @NotNull
+  private CloudEvent _decode(@NotNull String pFrame) throws DecodeException, IOException
+  {
+    return decoder.decode(new StringReader(pFrame));
+  }
+
+}
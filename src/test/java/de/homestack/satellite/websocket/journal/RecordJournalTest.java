@@ -0,0 +1,200 @@
+package de.homestack.satellite.websocket.journal;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order, durability and size limits of the record journal, with real segment files in a temporary directory
+ *
+ * @author agent, 18.10.2026
+ */
+class RecordJournalTest
+{
+  private static final int _SEGMENT_SIZE = 256;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void replaysEntriesInOrderAfterReopen() throws IOException
+  {
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      for (int i = 0; i < 100; i++)
+        journal.append(_entry(i));
+    }
+
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      assertEquals(100, journal.getPendingCount());
+      assertEquals(_entries(0, 100), _readAll(journal));
+    }
+  }
+
+  @Test
+  void keepsUncommittedEntriesAcrossRestart() throws IOException
+  {
+    long id;
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      id = journal.getId();
+      for (int i = 0; i < 50; i++)
+        journal.append(_entry(i));
+
+      RecordJournal.Position position = null;
+      for (int i = 0; i < 20; i++)
+        position = journal.read(position).getNext();
+      journal.commit(position);
+      assertEquals(30, journal.getPendingCount());
+    }
+
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      assertEquals(id, journal.getId());
+      assertEquals(30, journal.getPendingCount());
+      assertEquals(_entries(20, 50), _readAll(journal));
+    }
+  }
+
+  @Test
+  void deletesSegmentsAfterTheyWereCommitted() throws IOException
+  {
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      for (int i = 0; i < 100; i++)
+        journal.append(_entry(i));
+      assertTrue(_segmentFiles().size() > 5);
+
+      RecordJournal.Position position = null;
+      for (RecordJournal.Entry entry = journal.read(null); entry != null; entry = journal.read(position))
+        position = entry.getNext();
+      journal.commit(position);
+
+      assertEquals(0, journal.getPendingCount());
+      assertNull(journal.read(null));
+      assertEquals(1, _segmentFiles().size());
+      assertEquals(_SEGMENT_SIZE, journal.getSize());
+
+      // deleted segments were unmapped, so they do not block the directory from being cleaned up
+      journal.append(_entry(100));
+      assertEquals(_entries(100, 101), _readAll(journal));
+    }
+  }
+
+  @Test
+  void dropsOldestSegmentsBeyondMaxSize() throws IOException
+  {
+    try (RecordJournal journal = _open(4 * _SEGMENT_SIZE))
+    {
+      for (int i = 0; i < 100; i++)
+        journal.append(_entry(i));
+
+      assertTrue(journal.getSize() <= 4 * _SEGMENT_SIZE);
+      assertTrue(_segmentFiles().size() <= 4);
+
+      // the newest entries survive, in order and without gaps
+      List<String> entries = _readAll(journal);
+      assertEquals(entries.size(), journal.getPendingCount());
+      int first = Integer.parseInt(entries.get(0).substring("record-".length()));
+      assertEquals(_entries(first, 100), entries);
+    }
+  }
+
+  @Test
+  void ignoresCorruptTail() throws IOException
+  {
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      for (int i = 0; i < 3; i++)
+        journal.append(_entry(i));
+    }
+
+    // damage the payload of the last entry, as a torn write would
+    Path segment = _segmentFiles().get(0);
+    int lastOffset = 2 * (8 + _entry(0).length);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE))
+    {
+      channel.write(ByteBuffer.wrap(new byte[]{'X'}), lastOffset + 8);
+    }
+
+    try (RecordJournal journal = _open(Long.MAX_VALUE))
+    {
+      assertEquals(_entries(0, 2), _readAll(journal));
+
+      // the damaged entry gets overwritten
+      journal.append(_entry(3));
+      assertEquals(List.of("record-0", "record-1", "record-3"), _readAll(journal));
+    }
+  }
+
+  @Test
+  void rejectsAccessAfterClose() throws IOException
+  {
+    RecordJournal journal = _open(Long.MAX_VALUE);
+    journal.append(_entry(0));
+    journal.force();
+    journal.close();
+    journal.close();
+    journal.force();
+
+    assertNull(journal.read(null));
+    assertThrows(IOException.class, () -> journal.append(_entry(1)));
+  }
+
+  @NotNull
+  private RecordJournal _open(long pMaxSize) throws IOException
+  {
+    return new RecordJournal(directory, _SEGMENT_SIZE, pMaxSize, 64);
+  }
+
+  @NotNull
+  private List<Path> _segmentFiles() throws IOException
+  {
+    try (Stream<Path> files = Files.list(directory))
+    {
+      return files
+          .filter(pFile -> pFile.getFileName().toString().endsWith(".seg"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  @NotNull
+  private static List<String> _readAll(@NotNull RecordJournal pJournal)
+  {
+    List<String> entries = new ArrayList<>();
+    RecordJournal.Position position = null;
+    for (RecordJournal.Entry entry = pJournal.read(null); entry != null; entry = pJournal.read(position))
+    {
+      entries.add(new String(entry.getData(), StandardCharsets.UTF_8));
+      position = entry.getNext();
+    }
+    return entries;
+  }
+
+  @NotNull
+  private static List<String> _entries(int pFrom, int pTo)
+  {
+    return IntStream.range(pFrom, pTo)
+        .mapToObj(pIndex -> "record-" + pIndex)
+        .collect(Collectors.toList());
+  }
+
+  @NotNull
+  private static byte[] _entry(int pIndex)
+  {
+    return String.format("record-%d", pIndex).getBytes(StandardCharsets.UTF_8);
+  }
+
+}